@@ -0,0 +1,184 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.dao.MySQLSchema;
+import com.librarymanagementsystem.util.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Embedded H2 database running in MySQL compatibility mode.
+ * Creates the same tables the application uses and seeds them with
+ * synthetic data, so the DAOs can be benchmarked without a live MySQL server.
+ */
+public final class BenchmarkDatabase {
+
+    public static final String USERNAME = "sa";
+    public static final String PASSWORD = "";
+
+    private final String url;
+    private final Connection keepAlive; // Holds the in-memory database open for the lifetime of the benchmark
+
+    private BenchmarkDatabase(String url, Connection keepAlive) {
+        this.url = url;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Creates a fresh in-memory database with the application schema.
+     *
+     * @param name A unique database name, so parallel forks do not share state.
+     * @return The opened database.
+     */
+    public static BenchmarkDatabase create(String name) throws SQLException {
+        String url = "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,VALUE;DB_CLOSE_DELAY=-1";
+        Connection conn = DriverManager.getConnection(url, USERNAME, PASSWORD);
+        MySQLSchema.create(conn); // The same tables the application creates on MySQL
+        return new BenchmarkDatabase(url, conn);
+    }
+
+    /**
+     * @return A ConnectionManager pointed at this database.
+     */
+    public ConnectionManager connectionManager() {
+        return new ConnectionManager(url, USERNAME, PASSWORD);
+    }
+
+    /**
+     * @param poolSize The size of the connection pool, or 0 to open a new connection per call.
+     * @return A ConnectionManager pointed at this database, pooling its connections as the server does.
+     */
+    public ConnectionManager connectionManager(int poolSize) {
+        return new ConnectionManager(url, USERNAME, PASSWORD, poolSize);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Inserts the given number of categories and books.
+     * Book IDs are "B0", "B1", ...; titles and authors cycle so that searches match a realistic fraction of rows.
+     *
+     * @param categories The number of categories to create.
+     * @param books The number of books to create.
+     */
+    public void seed(int categories, int books) throws SQLException {
+        try (PreparedStatement pstmt = keepAlive.prepareStatement("INSERT INTO categories (id, name) VALUES (?, ?)")) {
+            for (int i = 1; i <= categories; i++) {
+                pstmt.setInt(1, i);
+                pstmt.setString(2, "Category " + i);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        try (Statement stmt = keepAlive.createStatement()) {
+            // Top-level categories: each is its own only ancestor
+            stmt.execute("INSERT INTO category_closure (ancestor_id, descendant_id, depth) SELECT id, id, 0 FROM categories");
+        }
+        try (PreparedStatement pstmt = keepAlive.prepareStatement(
+                "INSERT INTO books (id, title, author, category_id, year) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < books; i++) {
+                pstmt.setString(1, bookId(i));
+                pstmt.setString(2, "Title " + (i % 1000) + " Volume " + i);
+                pstmt.setString(3, "Author " + (i % 250));
+                pstmt.setInt(4, 1 + (i % categories));
+                pstmt.setInt(5, 1900 + (i % 120));
+                pstmt.addBatch();
+                if (i % 1000 == 999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts copies of the first seeded books, all on the shelf, with their availability counts.
+     * Barcodes are "C0-0", "C0-1", ... (book index, then copy index).
+     *
+     * @param books The number of books, from the first seeded one, that get copies.
+     * @param copiesPerBook The number of copies of each of them.
+     */
+    public void seedCopies(int books, int copiesPerBook) throws SQLException {
+        try (PreparedStatement copies = keepAlive.prepareStatement("INSERT INTO book_copies (book_id, barcode) VALUES (?, ?)");
+             PreparedStatement counts = keepAlive.prepareStatement(
+                     "INSERT INTO book_availability (book_id, total_copies, available_copies) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < books; i++) {
+                for (int copy = 0; copy < copiesPerBook; copy++) {
+                    copies.setString(1, bookId(i));
+                    copies.setString(2, barcode(i, copy));
+                    copies.addBatch();
+                }
+                counts.setString(1, bookId(i));
+                counts.setInt(2, copiesPerBook);
+                counts.setInt(3, copiesPerBook);
+                counts.addBatch();
+                if (i % 1000 == 999) {
+                    copies.executeBatch();
+                    counts.executeBatch();
+                }
+            }
+            copies.executeBatch();
+            counts.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts waiting holds on a range of seeded books, none of which should have copies, so the holds
+     * stay in the queue. Usernames are "patron0", "patron1", ...
+     *
+     * @param firstBook The index of the first book that gets holds.
+     * @param books The number of books that get holds.
+     * @param holdsPerBook The number of holds on each of them.
+     */
+    public void seedHolds(int firstBook, int books, int holdsPerBook) throws SQLException {
+        try (PreparedStatement pstmt = keepAlive.prepareStatement(
+                "INSERT INTO holds (book_id, username, priority, status, placed_on, expires_on) "
+                        + "VALUES (?, ?, 0, 'WAITING', CURRENT_DATE, DATEADD('DAY', 180, CURRENT_DATE))")) {
+            int patron = 0;
+            for (int i = firstBook; i < firstBook + books; i++) {
+                for (int hold = 0; hold < holdsPerBook; hold++) {
+                    pstmt.setString(1, bookId(i));
+                    pstmt.setString(2, "patron" + patron++);
+                    pstmt.addBatch();
+                }
+                if (i % 1000 == 999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * @param bookIndex The zero-based index of a seeded book.
+     * @param copyIndex The zero-based index of one of its copies.
+     * @return The barcode under which the copy was seeded.
+     */
+    public static String barcode(int bookIndex, int copyIndex) {
+        return "C" + bookIndex + "-" + copyIndex;
+    }
+
+    /**
+     * @param index The zero-based index of a seeded book.
+     * @return The ID under which the book was seeded.
+     */
+    public static String bookId(int index) {
+        return "B" + index;
+    }
+
+    /**
+     * Drops the in-memory database.
+     */
+    public void close() throws SQLException {
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } finally {
+            keepAlive.close();
+        }
+    }
+}
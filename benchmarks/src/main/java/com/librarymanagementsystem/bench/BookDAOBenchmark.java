@@ -0,0 +1,141 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.LogStructuredBookDAO;
+import com.librarymanagementsystem.dao.LogStructuredCategoryDAO;
+import com.librarymanagementsystem.dao.MySQLBookDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.storage.LogStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks BookDAO operations end to end.
+ * The "mysql" backend runs MySQLBookDAO (connection, statement, mapping) against an embedded H2 database
+ * in MySQL mode; the "log" backend runs LogStructuredBookDAO on a LogStore in a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookDAOBenchmark {
+
+    @Param({"1000", "10000"})
+    public int books;
+
+    @Param({"mysql", "log"})
+    public String backend;
+
+    private BenchmarkDatabase database;
+    private LogStore store;
+    private Path storeDirectory;
+    private BookDAO bookDAO;
+    private final AtomicLong insertSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("log".equals(backend)) {
+            storeDirectory = Files.createTempDirectory("book-dao-bench");
+            store = LogStore.open(storeDirectory);
+            LogStructuredBookDAO logBookDAO = new LogStructuredBookDAO(store);
+            LogStructuredCategoryDAO categoryDAO = new LogStructuredCategoryDAO(store, logBookDAO);
+            for (int i = 1; i <= 20; i++) {
+                categoryDAO.addCategory(new Category("Category " + i));
+            }
+            for (int i = 0; i < books; i++) {
+                logBookDAO.addBook(new Book(BenchmarkDatabase.bookId(i), "Title " + (i % 1000) + " Volume " + i,
+                        "Author " + (i % 250), 1 + (i % 20), 1900 + (i % 120)));
+            }
+            bookDAO = logBookDAO;
+        } else {
+            database = BenchmarkDatabase.create("book_dao_" + books);
+            database.seed(20, books);
+            bookDAO = new MySQLBookDAO(database.connectionManager());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (database != null) {
+            database.close();
+        }
+        if (store != null) {
+            store.close();
+            try (Stream<Path> files = Files.walk(storeDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private String randomBookId() {
+        return BenchmarkDatabase.bookId(ThreadLocalRandom.current().nextInt(books));
+    }
+
+    @Benchmark
+    public List<Book> getAllBooks() {
+        return bookDAO.getAllBooks();
+    }
+
+    @Benchmark
+    public Book getBookById() {
+        return bookDAO.getBookById(randomBookId());
+    }
+
+    @Benchmark
+    public List<Book> getBooksByCategory() {
+        return bookDAO.getBooksByCategory(1 + ThreadLocalRandom.current().nextInt(20));
+    }
+
+    @Benchmark
+    public List<Book> searchBooksByTitle() {
+        return bookDAO.searchBooksByTitle("Title " + ThreadLocalRandom.current().nextInt(1000) + " ");
+    }
+
+    @Benchmark
+    public List<Book> advancedSearch() {
+        return bookDAO.advancedSearch("Volume", "Author 1", 0, 1950, 1990);
+    }
+
+    @Benchmark
+    public UpdateResult updateBook() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Read-modify-write, as the editor does: the update only applies to the version that was read
+        Book book = bookDAO.getBookById(randomBookId());
+        book.setTitle("Updated " + book.getId());
+        book.setAuthor("Author " + random.nextInt(250));
+        book.setCategory(1 + random.nextInt(20));
+        book.setYear(1900 + random.nextInt(120));
+        return bookDAO.updateBook(book);
+    }
+
+    @Benchmark
+    public boolean addAndDeleteBook() {
+        String id = "NEW" + insertSequence.incrementAndGet();
+        bookDAO.addBook(new Book(id, "New Title", "New Author", 1, 2000));
+        return bookDAO.deleteBook(id);
+    }
+}
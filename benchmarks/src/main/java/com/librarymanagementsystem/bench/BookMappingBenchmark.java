@@ -0,0 +1,88 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.dao.JdbcExecutor;
+import com.librarymanagementsystem.dao.MySQLBookDAO;
+import com.librarymanagementsystem.model.Book;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks ResultSet to Book mapping in isolation, over an in-memory result set,
+ * so that driver and network costs do not hide the per-row mapping cost: by column name on every
+ * row, as the DAOs used to, against MySQLBookDAO's row mapper, which looks the columns up once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private SimpleResultSet resultSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false); // Allow the same rows to be scanned once per invocation
+        resultSet.addColumn("id", Types.VARCHAR, 50, 0);
+        resultSet.addColumn("title", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("author", Types.VARCHAR, 255, 0);
+        resultSet.addColumn("category_id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("year", Types.INTEGER, 10, 0);
+        resultSet.addColumn("version", Types.INTEGER, 10, 0);
+        for (int i = 0; i < rows; i++) {
+            resultSet.addRow(BenchmarkDatabase.bookId(i), "Title " + i, "Author " + (i % 250), 1 + (i % 20), 1900 + (i % 120), 0);
+        }
+    }
+
+    /**
+     * Maps rows by column name, for every column of every row.
+     */
+    @Benchmark
+    public List<Book> mapByColumnName() throws SQLException {
+        ResultSet rs = resultSet;
+        rs.beforeFirst();
+        List<Book> books = new ArrayList<>();
+        while (rs.next()) {
+            String id = rs.getString("id");
+            String title = rs.getString("title");
+            String author = rs.getString("author");
+            int categoryId = rs.getInt("category_id");
+            int year = rs.getInt("year");
+            int version = rs.getInt("version");
+            books.add(new Book(id, title, author, categoryId, year, version));
+        }
+        return books;
+    }
+
+    /**
+     * Maps rows the way MySQLBookDAO does: columns resolved once per result set, then read by position.
+     */
+    @Benchmark
+    public List<Book> mapByColumnIndex() throws SQLException {
+        resultSet.beforeFirst();
+        return JdbcExecutor.mapAll(resultSet, MySQLBookDAO.BOOK_MAPPER);
+    }
+}
@@ -0,0 +1,54 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.view.BookTableModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks filling the book table (BookManagementView.populateBookTable) on a headless table model.
+ * A JTable is not attached, so only the model work and its change events are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BookTableModelBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private List<Book> books;
+    private BookTableModel tableModel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        books = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            books.add(new Book(BenchmarkDatabase.bookId(i), "Title " + i, "Author " + (i % 250), 1 + (i % 20), 1900 + (i % 120)));
+        }
+        tableModel = new BookTableModel();
+    }
+
+    @Benchmark
+    public BookTableModel populateBookTable() {
+        tableModel.setBooks(books);
+        return tableModel;
+    }
+}
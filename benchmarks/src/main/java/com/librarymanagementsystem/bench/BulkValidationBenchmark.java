@@ -0,0 +1,94 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.util.BulkValidator;
+import com.librarymanagementsystem.util.RecordBatch;
+import com.librarymanagementsystem.util.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks validating a bulk load of 100,000 tab-separated book records: split into Strings and
+ * checked with Validator, record by record, vs. checked in place by BulkValidator, in one thread
+ * and in parallel over batches of 5,000 records. invalidPercent of the records have a year that is
+ * not a number, the case where Validator takes the exception path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkValidationBenchmark {
+
+    private static final int RECORDS = 100_000;
+    private static final int BATCH = 5_000;
+
+    @Param({"0", "10"})
+    public int invalidPercent;
+
+    private String[] lines;
+    private List<RecordBatch> batches;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        lines = new String[RECORDS];
+        batches = new ArrayList<>();
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            String year = random.nextInt(100) < invalidPercent ? "19x7" : String.valueOf(1900 + random.nextInt(120));
+            lines[i] = BenchmarkDatabase.bookId(i) + "\tTitle " + i + "\tAuthor " + random.nextInt(5000) + "\tCategory "
+                    + random.nextInt(20) + "\t" + year;
+            batch.append(lines[i]).append('\n');
+            if ((i + 1) % BATCH == 0) {
+                batches.add(RecordBatch.parseDelimited(batch.toString(), '\t'));
+                batch.setLength(0);
+            }
+        }
+    }
+
+    @Benchmark
+    public int validator() {
+        int invalid = 0;
+        for (String line : lines) {
+            String[] fields = line.split("\t", -1);
+            boolean valid = Validator.isValidBookId(fields[0]) && Validator.isValidTitle(fields[1])
+                    && Validator.isValidAuthor(fields[2]) && Validator.isValidCategoryName(fields[3])
+                    && Validator.isValidYear(fields[4]);
+            if (!valid) {
+                invalid++;
+            }
+        }
+        return invalid;
+    }
+
+    @Benchmark
+    public long bulkValidator() {
+        BulkValidator validator = new BulkValidator();
+        long invalid = 0;
+        for (RecordBatch batch : batches) {
+            invalid += validator.validate(batch);
+        }
+        return invalid;
+    }
+
+    @Benchmark
+    public long bulkValidatorParallel() {
+        return new BulkValidator().validateAll(batches);
+    }
+}
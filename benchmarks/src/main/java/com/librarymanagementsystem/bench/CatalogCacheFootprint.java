@@ -0,0 +1,194 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.cache.OffHeapBookCache;
+import com.librarymanagementsystem.model.Book;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the heap footprint and GC pauses of an on-heap catalog cache ({@code ConcurrentHashMap<String, Book>})
+ * with the off-heap {@link OffHeapBookCache}.
+ * <p>
+ * Each run fills one cache with synthetic books, reports the live heap after a full GC, then serves a
+ * read-mostly workload (90% lookups, 10% updates) from several threads while recording every GC pause.
+ * Run each cache in its own JVM with the same heap settings, for example:
+ * <pre>
+ * java -Xmx4g -cp benchmarks.jar com.librarymanagementsystem.bench.CatalogCacheFootprint --cache heap --books 2000000
+ * java -Xmx4g -cp benchmarks.jar com.librarymanagementsystem.bench.CatalogCacheFootprint --cache offheap --books 2000000
+ * </pre>
+ */
+public final class CatalogCacheFootprint {
+
+    /**
+     * The operations both caches have to support for the comparison.
+     */
+    private interface CatalogCache {
+        void put(Book book);
+
+        Book get(String bookId);
+
+        long offHeapBytes();
+    }
+
+    private final List<Long> pauseMicros = new ArrayList<>();
+
+    private CatalogCacheFootprint() {
+        // Use main()
+    }
+
+    public static void main(String[] args) throws Exception {
+        String kind = "offheap";
+        int books = 1_000_000;
+        int seconds = 30;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cache" -> kind = args[++i];
+                case "--books" -> books = Integer.parseInt(args[++i]);
+                case "--duration" -> seconds = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    System.out.println("Usage: CatalogCacheFootprint [--cache heap|offheap] [--books N] [--duration S] [--threads T]");
+                    return;
+                }
+            }
+        }
+        new CatalogCacheFootprint().run(kind, books, seconds, threads);
+    }
+
+    private void run(String kind, int bookCount, int seconds, int threads) throws InterruptedException {
+        long baseline = liveHeapAfterGc();
+        listenForGcPauses();
+
+        long start = System.nanoTime();
+        CatalogCache cache = create(kind, bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            cache.put(book(i, 0));
+        }
+        long fillMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long heap = liveHeapAfterGc() - baseline;
+        resetPauses();
+
+        // Read-mostly workload: lookups materialize short-lived objects, updates replace cached records
+        LongAdder operations = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                long blackhole = 0;
+                while ((done & 1023) != 0 || System.nanoTime() < end) {
+                    int i = random.nextInt(bookCount);
+                    if (random.nextInt(10) == 0) {
+                        cache.put(book(i, random.nextInt(100)));
+                    } else {
+                        blackhole += cache.get(BenchmarkDatabase.bookId(i)).getTitle().length();
+                    }
+                    done++;
+                }
+                operations.add(done);
+                if (blackhole == 42) {
+                    System.out.print(""); // Keep the reads from being optimized away
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        List<Long> pauses;
+        synchronized (pauseMicros) {
+            pauses = new ArrayList<>(pauseMicros);
+        }
+        pauses.sort(null);
+        long totalPause = pauses.stream().mapToLong(Long::longValue).sum();
+
+        System.out.printf(Locale.ROOT, "Cache:              %s%n", kind);
+        System.out.printf(Locale.ROOT, "Books:              %,d (filled in %,d ms)%n", bookCount, fillMillis);
+        System.out.printf(Locale.ROOT, "Live heap:          %,.1f MiB%n", heap / 1048576.0);
+        System.out.printf(Locale.ROOT, "Off-heap reserved:  %,.1f MiB%n", cache.offHeapBytes() / 1048576.0);
+        System.out.printf(Locale.ROOT, "Throughput:         %,.0f ops/s (%d threads, %d s)%n", operations.sum() / (double) seconds, threads, seconds);
+        System.out.printf(Locale.ROOT, "GC pauses:          %d, total %,.1f ms%n", pauses.size(), totalPause / 1000.0);
+        if (!pauses.isEmpty()) {
+            System.out.printf(Locale.ROOT, "Pause p50/p99/max:  %.2f / %.2f / %.2f ms%n",
+                    percentile(pauses, 50) / 1000.0, percentile(pauses, 99) / 1000.0, pauses.get(pauses.size() - 1) / 1000.0);
+        }
+    }
+
+    private static CatalogCache create(String kind, int bookCount) {
+        if ("heap".equals(kind)) {
+            ConcurrentHashMap<String, Book> map = new ConcurrentHashMap<>(bookCount * 2);
+            return new CatalogCache() {
+                public void put(Book book) { map.put(book.getId(), book); }
+                public Book get(String bookId) { return map.get(bookId); }
+                public long offHeapBytes() { return 0; }
+            };
+        }
+        if ("offheap".equals(kind)) {
+            OffHeapBookCache offHeap = new OffHeapBookCache(bookCount);
+            return new CatalogCache() {
+                public void put(Book book) { offHeap.put(book); }
+                public Book get(String bookId) { return offHeap.get(bookId); }
+                public long offHeapBytes() { return offHeap.getOffHeapBytes(); }
+            };
+        }
+        throw new IllegalArgumentException("Unknown cache: " + kind + " (expected heap or offheap)");
+    }
+
+    private static Book book(int i, int revision) {
+        return new Book(BenchmarkDatabase.bookId(i), "Title " + (i % 1000) + " Volume " + i + " Revision " + revision,
+                "Author " + (i % 250), 1 + i % 20, 1900 + (i % 120));
+    }
+
+    private void listenForGcPauses() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter emitter)) {
+                continue;
+            }
+            emitter.addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // Concurrent cycles (G1 Concurrent GC, ZGC Cycles) run alongside the application; only count pauses
+                if (info.getGcAction().contains("concurrent") || info.getGcName().contains("Cycles")
+                        || info.getGcName().contains("Concurrent")) {
+                    return;
+                }
+                synchronized (pauseMicros) {
+                    pauseMicros.add(TimeUnit.MILLISECONDS.toMicros(info.getGcInfo().getDuration()));
+                }
+            }, null, null);
+        }
+    }
+
+    private void resetPauses() {
+        synchronized (pauseMicros) {
+            pauseMicros.clear();
+        }
+    }
+
+    private static long liveHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
@@ -0,0 +1,85 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.storage.CatalogSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks opening the local catalog snapshot (CatalogSnapshot) that the Swing client starts
+ * from: mapping and checking the file, and additionally decoding every book, as filling the book
+ * table does. The file is in the page cache after the first iteration, so this is a warm start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CatalogSnapshotBenchmark {
+
+    private static final String SOURCE = "benchmark";
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Book> catalog = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            catalog.add(new Book(BenchmarkDatabase.bookId(i), "Title " + i, "Author " + (i % 5000), 1 + i % 20, 1900 + i % 120));
+        }
+        List<Category> categories = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            categories.add(new Category(i, "Category " + i));
+        }
+        directory = Files.createTempDirectory("catalog-snapshot-bench");
+        CatalogSnapshot.write(directory, SOURCE, 1, categories, catalog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public CatalogSnapshot open() throws IOException {
+        return CatalogSnapshot.open(directory, SOURCE);
+    }
+
+    @Benchmark
+    public long openAndDecodeAll() throws IOException {
+        long titleChars = 0;
+        for (Book book : CatalogSnapshot.open(directory, SOURCE).getBooks()) {
+            titleChars += book.getTitle().length();
+        }
+        return titleChars;
+    }
+}
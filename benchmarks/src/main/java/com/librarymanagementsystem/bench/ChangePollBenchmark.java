@@ -0,0 +1,80 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.cache.CatalogChangePoller;
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.MySQLBookDAO;
+import com.librarymanagementsystem.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks what keeping a client's caches coherent costs the database, on 100,000 books and a
+ * change log of 20,000 entries in an embedded H2 database in MySQL mode.
+ * <p>
+ * {@code idlePoll} is the poll a {@link CatalogChangePoller} runs every few seconds while nothing
+ * changes; {@code pollAfterTenChanges} is a poll that finds ten changed books. {@code reloadCatalog}
+ * reads every book, which is what a client without the change log has to do to see other clients'
+ * changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChangePollBenchmark {
+
+    private static final int BOOKS = 100_000;
+    private static final int LOGGED_CHANGES = 20_000;
+
+    private BenchmarkDatabase database;
+    private MySQLBookDAO bookDAO;
+    private long watermark;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create("change_poll");
+        database.seed(20, BOOKS);
+        bookDAO = new MySQLBookDAO(database.connectionManager());
+        // A change log with history in front of the current watermark
+        for (int i = 0; i < LOGGED_CHANGES; i++) {
+            Book book = bookDAO.getBookById(BenchmarkDatabase.bookId(i % BOOKS));
+            book.setYear(2000 + i % 20);
+            bookDAO.updateBook(book);
+        }
+        watermark = bookDAO.getChangeWatermark();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public BookChangeSet idlePoll() {
+        return bookDAO.getChangesSince(watermark, CatalogChangePoller.BATCH_SIZE);
+    }
+
+    @Benchmark
+    public BookChangeSet pollAfterTenChanges() {
+        return bookDAO.getChangesSince(watermark - 10, CatalogChangePoller.BATCH_SIZE);
+    }
+
+    @Benchmark
+    public List<Book> reloadCatalog() {
+        return bookDAO.getAllBooks();
+    }
+}
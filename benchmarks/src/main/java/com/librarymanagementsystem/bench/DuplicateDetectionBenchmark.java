@@ -0,0 +1,110 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.search.DuplicateIndex;
+import com.librarymanagementsystem.search.DuplicatePair;
+import com.librarymanagementsystem.search.FuzzyMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks duplicate detection (DuplicateIndex) on a synthetic catalog of made-up titles of three
+ * words and one author name per 20 books, with one book in 100 entered a second time with a typo in
+ * its title. Measures indexing the catalog, the full duplicates report, and the check made when a
+ * book is added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DuplicateDetectionBenchmark {
+
+    private static final int QUERIES = 256;
+    private static final int LIMIT = 5;
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    private List<Book> catalog;
+    private DuplicateIndex index;
+    private Book[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] authors = new String[Math.max(1, books / 20)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = word(random) + " " + word(random);
+        }
+        catalog = new ArrayList<>(books + books / 100);
+        for (int i = 0; i < books; i++) {
+            String title = word(random) + " " + word(random) + " " + word(random);
+            String author = authors[random.nextInt(authors.length)];
+            catalog.add(new Book(BenchmarkDatabase.bookId(i), title, author, 1 + i % 20, 1900 + i % 120));
+            if (i % 100 == 0) {
+                catalog.add(new Book("DUP-" + i, typo(random, title), author, 1 + i % 20, 1900 + i % 120));
+            }
+        }
+        index = new DuplicateIndex();
+        index.rebuild(catalog);
+
+        queries = new Book[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            Book book = catalog.get(random.nextInt(catalog.size()));
+            queries[q] = new Book("NEW-" + q, typo(random, book.getTitle()), book.getAuthor(), book.getCategory(), book.getYear());
+        }
+    }
+
+    @Benchmark
+    public DuplicateIndex rebuild() {
+        DuplicateIndex fresh = new DuplicateIndex();
+        fresh.rebuild(catalog);
+        return fresh;
+    }
+
+    @Benchmark
+    public List<DuplicatePair> rankDuplicates() {
+        return index.rankDuplicates(DuplicateIndex.MIN_SIMILARITY);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<FuzzyMatch> checkNewBook() {
+        return index.findSimilar(queries[next++ & (QUERIES - 1)], DuplicateIndex.MIN_SIMILARITY, LIMIT);
+    }
+
+    private static String word(Random random) {
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Drops one letter.
+     */
+    private static String typo(Random random, String text) {
+        int at = 1 + random.nextInt(text.length() - 2);
+        return text.substring(0, at) + text.substring(at + 1);
+    }
+}
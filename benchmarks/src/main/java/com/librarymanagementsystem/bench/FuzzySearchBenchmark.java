@@ -0,0 +1,140 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.search.FuzzyBookIndex;
+import com.librarymanagementsystem.search.FuzzyMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks typo-tolerant search (FuzzyBookIndex) on a synthetic catalog: titles of three to five
+ * words and one author name per 20 books. Title words are drawn from a 20,000-word vocabulary, common
+ * English title words first and made-up words after them, with a skew towards the first ones; made-up
+ * words and names follow English letter frequencies, so trigram posting lists have realistic lengths.
+ * Queries are indexed titles and author surnames with two typos each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FuzzySearchBenchmark {
+
+    private static final int QUERIES = 256;
+    private static final int LIMIT = 20;
+
+    private static final String[] COMMON_WORDS = ("the of and a in to my war love night house world life time day man "
+            + "death last old city king girl dark light story history book black white red blue secret lost great "
+            + "little new road home heart water fire shadow river sea sun moon star garden lady boy game queen blood "
+            + "stone winter summer island art science guide introduction principles modern american english journey "
+            + "family mystery return end beginning dream silent wild golden iron glass empire children friends").split(" ");
+    // Letters weighted by their frequency in English text
+    private static final String LETTERS = "eeeeeeeeeeeetttttttttaaaaaaaaooooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddllllcccuuummmwwffggyyppbbvkjxqz";
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    private FuzzyBookIndex index;
+    private String[] titleQueries;
+    private String[] authorQueries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[20000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = i < COMMON_WORDS.length ? COMMON_WORDS[i] : word(random, 4 + random.nextInt(6));
+        }
+        String[] authors = new String[Math.max(1, books / 20)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = capitalize(word(random, 4 + random.nextInt(3))) + " " + capitalize(word(random, 5 + random.nextInt(6)));
+        }
+
+        List<Book> catalog = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            StringBuilder title = new StringBuilder();
+            int words = 3 + random.nextInt(3);
+            for (int w = 0; w < words; w++) {
+                // Skewed towards the first words, as word use in real titles is
+                title.append(w == 0 ? "" : " ").append(vocabulary[(int) (vocabulary.length * Math.pow(random.nextDouble(), 2))]);
+            }
+            catalog.add(new Book(BenchmarkDatabase.bookId(i), capitalize(title.toString()), authors[random.nextInt(authors.length)],
+                    1 + i % 20, 1900 + i % 120));
+        }
+        index = new FuzzyBookIndex();
+        index.rebuild(catalog);
+
+        titleQueries = new String[QUERIES];
+        authorQueries = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            Book book = catalog.get(random.nextInt(books));
+            titleQueries[q] = typos(random, book.getTitle(), 2);
+            authorQueries[q] = typos(random, book.getAuthor().substring(book.getAuthor().indexOf(' ') + 1), 2);
+        }
+    }
+
+    @Benchmark
+    public List<FuzzyMatch> searchTitle() {
+        return index.search(titleQueries[next++ & (QUERIES - 1)], "", LIMIT);
+    }
+
+    @Benchmark
+    public List<FuzzyMatch> searchAuthor() {
+        return index.search("", authorQueries[next++ & (QUERIES - 1)], LIMIT);
+    }
+
+    @Benchmark
+    public List<FuzzyMatch> searchTitleAndAuthor() {
+        int q = next++ & (QUERIES - 1);
+        return index.search(titleQueries[q], authorQueries[q], LIMIT);
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    /**
+     * Replaces, drops or swaps letters at random positions.
+     */
+    private static String typos(Random random, String text, int count) {
+        StringBuilder typed = new StringBuilder(text);
+        for (int i = 0; i < count && typed.length() > 2; i++) {
+            int at = 1 + random.nextInt(typed.length() - 2);
+            switch (random.nextInt(3)) {
+                case 0 -> typed.setCharAt(at, (char) ('a' + random.nextInt(26)));
+                case 1 -> typed.deleteCharAt(at);
+                default -> {
+                    char c = typed.charAt(at);
+                    typed.setCharAt(at, typed.charAt(at + 1));
+                    typed.setCharAt(at + 1, c);
+                }
+            }
+        }
+        return typed.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.cache.AvailabilityCachingLoanDAO;
+import com.librarymanagementsystem.circulation.HoldAllocatingLoanDAO;
+import com.librarymanagementsystem.circulation.HoldAllocator;
+import com.librarymanagementsystem.dao.HoldResult;
+import com.librarymanagementsystem.dao.LoanDAO;
+import com.librarymanagementsystem.dao.LoanResult;
+import com.librarymanagementsystem.dao.MySQLHoldDAO;
+import com.librarymanagementsystem.dao.MySQLLoanDAO;
+import com.librarymanagementsystem.dao.MySQLTransactionRunner;
+import com.librarymanagementsystem.model.Hold;
+import com.librarymanagementsystem.model.Loan;
+import com.librarymanagementsystem.util.ConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks returns through HoldAllocatingLoanDAO and HoldAllocator on MySQL DAOs against an
+ * embedded H2 database in MySQL mode, with a given number of holds waiting for other books.
+ * The cost of a return should not depend on that number: the next hold of the returned book is
+ * found through an index, in the transaction of the return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoldAllocationBenchmark {
+
+    private static final int CIRCULATING_BOOKS = 1000; // One copy each; book 0 is the one users queue for
+    private static final int BOOKS_WITH_HOLDS = 10000; // No copies, so their holds keep waiting
+    private static final int QUEUE_LENGTH = 10;
+
+    @Param({"0", "100000"})
+    public int waitingHolds;
+
+    private BenchmarkDatabase database;
+    private ConnectionManager connectionManager;
+    private HoldAllocator allocator;
+    private LoanDAO loanDAO;
+    private final Deque<String> queue = new ArrayDeque<>(); // The users waiting for book 0, in order
+    private String borrower;                                // The user who has book 0
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create("hold_allocation_" + waitingHolds);
+        database.seed(20, CIRCULATING_BOOKS + BOOKS_WITH_HOLDS);
+        database.seedCopies(CIRCULATING_BOOKS, 1);
+        database.seedHolds(CIRCULATING_BOOKS, BOOKS_WITH_HOLDS, waitingHolds / BOOKS_WITH_HOLDS);
+        connectionManager = database.connectionManager(4);
+
+        AvailabilityCachingLoanDAO cachingLoanDAO = new AvailabilityCachingLoanDAO(new MySQLLoanDAO(connectionManager));
+        allocator = new HoldAllocator(new MySQLHoldDAO(connectionManager), cachingLoanDAO.getCache());
+        allocator.start();
+        loanDAO = new HoldAllocatingLoanDAO(cachingLoanDAO, allocator, new MySQLTransactionRunner(connectionManager));
+
+        String bookId = BenchmarkDatabase.bookId(0);
+        borrower = "reader0";
+        expect(loanDAO.checkout(new Loan(bookId, null, borrower)) == LoanResult.DONE, "first checkout");
+        for (int i = 1; i <= QUEUE_LENGTH; i++) {
+            queue.add("reader" + i);
+            expect(allocator.placeHold(new Hold(bookId, "reader" + i, 0)) == HoldResult.DONE, "hold");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        allocator.close();
+        connectionManager.close();
+        database.close();
+    }
+
+    /**
+     * Checks out and returns a copy of a book nobody waits for.
+     */
+    @Benchmark
+    public LoanResult checkoutAndReturn() {
+        String barcode = BenchmarkDatabase.barcode(1 + ThreadLocalRandom.current().nextInt(CIRCULATING_BOOKS - 1), 0);
+        expect(loanDAO.checkout(new Loan(null, barcode, "walk-in")) == LoanResult.DONE, "checkout");
+        return loanDAO.returnCopy(new Loan(null, barcode, null));
+    }
+
+    /**
+     * Returns the only copy of book 0, which sets it aside for the first user in its queue; that user
+     * collects it, and the user who returned it joins the end of the queue.
+     */
+    @Benchmark
+    public LoanResult returnToNextInLine() {
+        String bookId = BenchmarkDatabase.bookId(0);
+        String barcode = BenchmarkDatabase.barcode(0, 0);
+        expect(loanDAO.returnCopy(new Loan(null, barcode, null)) == LoanResult.DONE, "return");
+        String next = queue.poll();
+        LoanResult result = loanDAO.checkout(new Loan(bookId, null, next));
+        expect(result == LoanResult.DONE, "collect");
+        expect(allocator.placeHold(new Hold(bookId, borrower, 0)) == HoldResult.DONE, "hold");
+        queue.add(borrower);
+        borrower = next;
+        return result;
+    }
+
+    private static void expect(boolean condition, String step) {
+        if (!condition) {
+            throw new IllegalStateException("Unexpected result: " + step);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.logging.Logging;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what logging costs the calling thread, with the log written to a stream that discards
+ * it: {@code disabled} is a debug message at the default level, {@code disabledWithContext} the same
+ * with key-value context, {@code enabled} a warning with context, each with a different argument so
+ * none is rate-limited, and {@code repeatedError} the same error over and over, almost all of which
+ * the rate limit drops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final Logger LOG = Logger.get(LoggingBenchmark.class);
+    private static final String SQL = "UPDATE books SET title = ?, author = ?, category_id = ?, year = ? WHERE id = ?";
+
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        Logging.setLevel(Level.INFO);
+        Logging.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Logging.flush(Duration.ofSeconds(10));
+        Logging.setOutput(System.err);
+        if (Logging.getDroppedCount() > 0) {
+            System.err.println("Log messages dropped: " + Logging.getDroppedCount());
+        }
+    }
+
+    @Benchmark
+    public void disabled() {
+        LOG.debug("Read book {} in {} ms", sequence++, 3);
+    }
+
+    @Benchmark
+    public void disabledWithContext() {
+        LOG.at(Level.DEBUG).with("operation", "Error updating book").with("sql", SQL).with("elapsedMs", sequence++)
+                .log("Retrying read after: {}", "Deadlock found");
+    }
+
+    @Benchmark
+    public void enabled() {
+        LOG.at(Level.WARN).with("operation", "Error updating book").with("sql", SQL).with("elapsedMs", 3)
+                .log("Error updating book {}: {}", sequence++, "Deadlock found");
+    }
+
+    @Benchmark
+    public void repeatedError() {
+        LOG.at(Level.ERROR).with("operation", "Error updating book").with("sql", SQL).with("elapsedMs", 3)
+                .log("{}: {}", "Error updating book", "Communications link failure");
+    }
+}
@@ -0,0 +1,98 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.auth.UserAuthenticator;
+import com.librarymanagementsystem.dao.LogStructuredUserDAO;
+import com.librarymanagementsystem.storage.LogStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures logins per second and session-based permission checks with many threads sharing one
+ * UserAuthenticator, the way a server would use it. Change the thread count with -t.
+ * The "mysql" backend reads users from an embedded H2 database in MySQL mode, "log" from a LogStore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String USERNAME = "librarian";
+    private static final String PASSWORD = "librarianpassword";
+
+    @Param({"mysql", "log"})
+    public String backend;
+
+    private BenchmarkDatabase database;
+    private LogStore store;
+    private Path storeDirectory;
+    private UserAuthenticator authenticator;
+    private String sessionToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("log".equals(backend)) {
+            storeDirectory = Files.createTempDirectory("login-bench");
+            store = LogStore.open(storeDirectory);
+            authenticator = new UserAuthenticator(new LogStructuredUserDAO(store));
+        } else {
+            database = BenchmarkDatabase.create("login_" + ProcessHandle.current().pid());
+            authenticator = new UserAuthenticator(database.connectionManager());
+        }
+        authenticator.createUser(USERNAME, PASSWORD, "ADMIN");
+        sessionToken = authenticator.authenticate(USERNAME, PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        authenticator.getSessionStore().close();
+        if (database != null) {
+            database.close();
+        }
+        if (store != null) {
+            store.close();
+            try (Stream<Path> files = Files.walk(storeDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * A full login: user lookup, password check and session creation, then logout so the store stays small.
+     */
+    @Benchmark
+    public String loginAndLogout() {
+        String token = authenticator.authenticate(USERNAME, PASSWORD);
+        authenticator.logout(token);
+        return token;
+    }
+
+    /**
+     * A permission check on an existing session; no storage access.
+     */
+    @Benchmark
+    public boolean hasRole() {
+        return authenticator.hasRole(sessionToken, "ADMIN");
+    }
+}
@@ -0,0 +1,43 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.auth.UserAuthenticator;
+import com.librarymanagementsystem.util.ConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks UserAuthenticator password hashing, which runs on every login and user creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    public String password = "adminpassword";
+
+    private UserAuthenticator authenticator;
+
+    @Setup
+    public void setUp() {
+        // Hashing never touches the database, so the connection details are never used
+        authenticator = new UserAuthenticator(new ConnectionManager("jdbc:h2:mem:unused", BenchmarkDatabase.USERNAME, BenchmarkDatabase.PASSWORD));
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return authenticator.hashPassword(password);
+    }
+}
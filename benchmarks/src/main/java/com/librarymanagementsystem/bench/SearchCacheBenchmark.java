@@ -0,0 +1,101 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.cache.SearchCachingBookDAO;
+import com.librarymanagementsystem.cache.SearchResultCache;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.MySQLBookDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the search result cache on 100,000 books in an embedded H2 database in MySQL mode,
+ * without ("off") and with ("on") SearchCachingBookDAO in front of MySQLBookDAO.
+ * <p>
+ * {@code repeatedSearch} runs one of 200 staff searches (a category, an author, a category and a
+ * range of years), as the catalog desk does all day. {@code updateThenSearch} changes the year of a
+ * book and then runs a search; the update evicts the few searches that could return the book, and
+ * the search is answered from the cache unless it was one of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchCacheBenchmark {
+
+    private static final int BOOKS = 100_000;
+    private static final int SEARCHES = 200;
+
+    @Param({"off", "on"})
+    public String cache;
+
+    private BenchmarkDatabase database;
+    private BookDAO bookDAO;
+    private SearchResultCache searchCache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create("search_cache_" + cache);
+        database.seed(20, BOOKS);
+        bookDAO = new MySQLBookDAO(database.connectionManager());
+        if ("on".equals(cache)) {
+            searchCache = new SearchResultCache();
+            bookDAO = new SearchCachingBookDAO(bookDAO, searchCache);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (searchCache != null) {
+            System.out.printf("%nSearch cache: %d searches, hit ratio %.3f, %d evicted by writes%n",
+                    searchCache.size(), searchCache.getHitRatio(), searchCache.getEvictionCount());
+        }
+        database.close();
+    }
+
+    @Benchmark
+    public List<Book> repeatedSearch() {
+        return search(ThreadLocalRandom.current().nextInt(SEARCHES));
+    }
+
+    @Benchmark
+    public List<Book> updateThenSearch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Book book = bookDAO.getBookById(BenchmarkDatabase.bookId(random.nextInt(BOOKS)));
+        book.setYear(1900 + random.nextInt(120));
+        if (bookDAO.updateBook(book) != UpdateResult.UPDATED) {
+            throw new IllegalStateException("Update of " + book.getId() + " failed");
+        }
+        return search(random.nextInt(SEARCHES));
+    }
+
+    private List<Book> search(int n) {
+        switch (n % 3) {
+            case 0:
+                return bookDAO.getBooksByCategory(1 + n % 20);
+            case 1:
+                return bookDAO.advancedSearch(null, "Author " + n, 0, 0, 0);
+            default:
+                int from = 1900 + n % 100;
+                return bookDAO.advancedSearch(null, null, 1 + n % 20, from, from + 9);
+        }
+    }
+}
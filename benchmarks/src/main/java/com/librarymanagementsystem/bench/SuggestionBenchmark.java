@@ -0,0 +1,109 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.search.SuggestionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks title and author suggestions (SuggestionIndex) as the search fields ask for them on
+ * each keystroke, on a synthetic catalog with one author per 20 books and a quarter of the titles
+ * starting with "The". Queries are the first one to eight characters of indexed titles and names,
+ * so short, very common prefixes are included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SuggestionBenchmark {
+
+    private static final int QUERIES = 256;
+    private static final int LIMIT = 10;
+    // Letters weighted by their frequency in English text
+    private static final String LETTERS = "eeeeeeeeeeeetttttttttaaaaaaaaooooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddllllcccuuummmwwffggyyppbbvkjxqz";
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    private SuggestionIndex index;
+    private String[] titlePrefixes;
+    private String[] authorPrefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[20000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(random, 3 + random.nextInt(7));
+        }
+        String[] authors = new String[Math.max(1, books / 20)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = capitalize(word(random, 4 + random.nextInt(3))) + " " + capitalize(word(random, 5 + random.nextInt(6)));
+        }
+
+        List<Book> catalog = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            StringBuilder title = new StringBuilder(random.nextInt(4) == 0 ? "The " : "");
+            int words = 2 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                // Skewed towards the first words, as word use in real titles is
+                title.append(w == 0 ? "" : " ").append(capitalize(vocabulary[(int) (vocabulary.length * Math.pow(random.nextDouble(), 2))]));
+            }
+            catalog.add(new Book(BenchmarkDatabase.bookId(i), title.toString(), authors[random.nextInt(authors.length)],
+                    1 + i % 20, 1900 + i % 120));
+        }
+        index = new SuggestionIndex();
+        index.rebuild(catalog);
+
+        titlePrefixes = new String[QUERIES];
+        authorPrefixes = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            titlePrefixes[q] = prefix(random, catalog.get(random.nextInt(books)).getTitle());
+            authorPrefixes[q] = prefix(random, catalog.get(random.nextInt(books)).getAuthor());
+        }
+    }
+
+    @Benchmark
+    public List<String> suggestTitles() {
+        return index.suggestTitles(titlePrefixes[next++ & (QUERIES - 1)], LIMIT);
+    }
+
+    @Benchmark
+    public List<String> suggestAuthors() {
+        return index.suggestAuthors(authorPrefixes[next++ & (QUERIES - 1)], LIMIT);
+    }
+
+    private static String prefix(Random random, String text) {
+        return text.substring(0, 1 + random.nextInt(Math.min(text.length(), 8)));
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.librarymanagementsystem.bench;
+
+import com.librarymanagementsystem.util.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Validator checks used on every book form submission and bulk load.
+ * Invalid inputs are measured separately because they take the exception path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    public String validYear = "1987";
+    public String nonNumericYear = "19x7";
+    public String futureYear = "9999";
+    public String validBookId = "ISBN-978-0-13-468599-1";
+    public String blankBookId = "   ";
+
+    @Benchmark
+    public boolean isValidYear() {
+        return Validator.isValidYear(validYear);
+    }
+
+    @Benchmark
+    public boolean isValidYearNonNumeric() {
+        return Validator.isValidYear(nonNumericYear);
+    }
+
+    @Benchmark
+    public boolean isValidYearOutOfRange() {
+        return Validator.isValidYear(futureYear);
+    }
+
+    @Benchmark
+    public boolean isValidBookId() {
+        return Validator.isValidBookId(validBookId);
+    }
+
+    @Benchmark
+    public boolean isValidBookIdBlank() {
+        return Validator.isValidBookId(blankBookId);
+    }
+}
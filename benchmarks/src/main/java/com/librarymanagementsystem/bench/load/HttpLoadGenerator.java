@@ -0,0 +1,145 @@
+package com.librarymanagementsystem.bench.load;
+
+import com.librarymanagementsystem.auth.UserAuthenticator;
+import com.librarymanagementsystem.bench.BenchmarkDatabase;
+import com.librarymanagementsystem.dao.MySQLBookDAO;
+import com.librarymanagementsystem.dao.MySQLCategoryDAO;
+import com.librarymanagementsystem.server.CatalogHttpServer;
+import com.librarymanagementsystem.util.ConnectionManager;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test of the catalog HTTP API: N clients on virtual threads send requests back to back
+ * over keep-alive connections and the achieved requests per second and latency percentiles are reported.
+ * <p>
+ * By default it starts a CatalogHttpServer in-process on an embedded H2 database with a pooled
+ * ConnectionManager; with --url it targets a running server (started with {@code Main --server}).
+ */
+public final class HttpLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private HttpLoadGenerator() {
+        // Use main()
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = 64;
+        int seconds = 20;
+        int books = 10000;
+        int poolSize = 16;
+        String url = null;
+        String username = "admin";
+        String password = "adminpassword";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--duration" -> seconds = Integer.parseInt(args[++i]);
+                case "--books" -> books = Integer.parseInt(args[++i]);
+                case "--pool-size" -> poolSize = Integer.parseInt(args[++i]);
+                case "--url" -> url = args[++i];
+                case "--login-user" -> username = args[++i];
+                case "--login-password" -> password = args[++i];
+                default -> {
+                    System.out.println("Usage: HttpLoadGenerator [--clients N] [--duration S] [--books N] [--pool-size N]"
+                            + " [--url http://host:port] [--login-user U] [--login-password P]");
+                    return;
+                }
+            }
+        }
+
+        BenchmarkDatabase database = null;
+        ConnectionManager connectionManager = null;
+        CatalogHttpServer server = null;
+        if (url == null) {
+            database = BenchmarkDatabase.create("http_" + ProcessHandle.current().pid());
+            database.seed(20, books);
+            connectionManager = new ConnectionManager(database.getUrl(), BenchmarkDatabase.USERNAME, BenchmarkDatabase.PASSWORD, poolSize);
+            UserAuthenticator authenticator = new UserAuthenticator(connectionManager);
+            authenticator.createUser(username, password, "ADMIN");
+            server = new CatalogHttpServer(new InetSocketAddress("127.0.0.1", 0),
+                    new MySQLBookDAO(connectionManager), new MySQLCategoryDAO(connectionManager), authenticator);
+            server.start();
+            url = "http://127.0.0.1:" + server.getPort();
+        }
+
+        try {
+            run(url, username, password, clients, seconds, books);
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+            if (connectionManager != null) {
+                connectionManager.close();
+            }
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+
+    private static void run(String url, String username, String password, int clients, int seconds, int books) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(url + "/api/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+        }
+        String token = login.body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+
+        ConcurrentHistogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        LongAdder errors = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        System.out.printf(Locale.ROOT, "Running %d clients against %s for %ds (GET /api/books/{id})%n", clients, url, seconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/books/" + BenchmarkDatabase.bookId(random.nextInt(books))))
+                                .header("Authorization", "Bearer " + token)
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_TRACKABLE_MICROS));
+                    }
+                });
+            }
+        }
+
+        Histogram histogram = latencies;
+        System.out.printf(Locale.ROOT, "Requests: %d, errors: %d, %.0f req/s%n",
+                histogram.getTotalCount(), errors.sum(), histogram.getTotalCount() / (double) seconds);
+        System.out.printf(Locale.ROOT, "Latency p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(95) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+}
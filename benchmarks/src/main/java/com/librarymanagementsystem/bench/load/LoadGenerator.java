@@ -0,0 +1,336 @@
+package com.librarymanagementsystem.bench.load;
+
+import com.librarymanagementsystem.auth.UserAuthenticator;
+import com.librarymanagementsystem.bench.BenchmarkDatabase;
+import com.librarymanagementsystem.cache.AvailabilityCachingLoanDAO;
+import com.librarymanagementsystem.dao.JdbcExecutor;
+import com.librarymanagementsystem.dao.LoanDAO;
+import com.librarymanagementsystem.dao.MySQLBookDAO;
+import com.librarymanagementsystem.dao.MySQLCategoryDAO;
+import com.librarymanagementsystem.dao.MySQLLoanDAO;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.util.ConnectionManager;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-client load generator for capacity planning.
+ * <p>
+ * Simulates N librarians or kiosks, each on its own virtual thread, calling BookDAO, CategoryDAO,
+ * LoanDAO and UserAuthenticator at a fixed rate with a configurable operation mix. Latency is measured from the
+ * time each request was <em>scheduled</em> to start, not from when it actually started, so a stalled
+ * database shows up in the percentiles instead of silently lowering the request rate
+ * (coordinated-omission-correct timing).
+ * <p>
+ * After a mix with checkouts and returns, the copies, loans and availability counts are checked
+ * against each other, so a copy lent twice or a count that drifted under the load is reported.
+ * <p>
+ * Runs against an embedded H2 database (default) or a local MySQL server via --jdbc-url.
+ * Run with --help for the options.
+ */
+public final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadTarget target;
+    private final OperationMix mix;
+    private final int clients;
+    private final double ratePerClient;
+    private final Duration warmup;
+    private final Duration duration;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LoadGenerator(LoadTarget target, OperationMix mix, int clients, double ratePerClient, Duration warmup, Duration duration) {
+        this.target = target;
+        this.mix = mix;
+        this.clients = clients;
+        this.ratePerClient = ratePerClient;
+        this.warmup = warmup;
+        this.duration = duration;
+        for (Operation operation : mix.operations()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Runs all clients for the warmup plus measurement period and prints the report.
+     */
+    void run() throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerClient);
+        long runStart = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100); // Give every client time to start
+        long measureStart = runStart + warmup.toNanos();
+        long runEnd = measureStart + duration.toNanos();
+
+        System.out.printf(Locale.ROOT, "Running %d clients at %.2f ticks/s each, mix %s, %d books, %d copies, warmup %ds, measuring %ds%n",
+                clients, ratePerClient, mix, target.bookCount(), target.copyCount(), warmup.toSeconds(), duration.toSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                // Spread the clients' schedules over one interval so they do not fire in lockstep
+                long firstTick = runStart + ThreadLocalRandom.current().nextLong(intervalNanos);
+                executor.submit(() -> runClient(firstTick, intervalNanos, measureStart, runEnd));
+            }
+        } // close() waits for every client to finish
+
+        printReport(duration.toNanos());
+    }
+
+    private void runClient(long firstTick, long intervalNanos, long measureStart, long runEnd) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long tick = 0; ; tick++) {
+            long intended = firstTick + tick * intervalNanos;
+            if (intended >= runEnd) {
+                return;
+            }
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                try {
+                    Thread.sleep(Duration.ofNanos(delay));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            boolean measured = intended >= measureStart;
+            // The first operation of a burst is timed from its scheduled start, so any queueing behind a slow
+            // system is charged to it; the rest are issued by the same user right after the previous one returns.
+            long operationStart = intended;
+            for (int i = 0; i < mix.burstSize(); i++) {
+                Operation operation = mix.next(random);
+                boolean ok;
+                try {
+                    ok = operation.execute(target, random);
+                } catch (RuntimeException e) {
+                    ok = false;
+                }
+                long end = System.nanoTime();
+                if (measured) {
+                    latencies.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(end - operationStart), HIGHEST_TRACKABLE_MICROS));
+                    if (!ok) {
+                        errors.get(operation).increment();
+                    }
+                }
+                operationStart = end;
+            }
+        }
+    }
+
+    private void printReport(long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-22s %10s %8s %10s %10s %10s %10s %10s%n",
+                "Operation", "Count", "Errors", "Ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Operation operation : mix.operations()) {
+            Histogram histogram = latencies.get(operation);
+            long errorCount = errors.get(operation).sum();
+            total.add(histogram);
+            totalErrors += errorCount;
+            printRow(operation.label(), histogram, errorCount, seconds);
+        }
+        printRow("TOTAL", total, totalErrors, seconds);
+        System.out.printf(Locale.ROOT, "%nScheduled rate: %.1f ops/s, achieved: %.1f ops/s%n",
+                clients * ratePerClient * mix.burstSize(), total.getTotalCount() / seconds);
+    }
+
+    private static void printRow(String label, Histogram histogram, long errorCount, double seconds) {
+        System.out.printf(Locale.ROOT, "%-22s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                label, histogram.getTotalCount(), errorCount, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(95) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        int clients = Integer.parseInt(options.getOrDefault("clients", "50"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "2"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        OperationMix mix = OperationMix.parse(options.getOrDefault("mix", "browse"), Integer.parseInt(options.getOrDefault("burst", "0")));
+        int books = Integer.parseInt(options.getOrDefault("books", "10000"));
+        int categories = Integer.parseInt(options.getOrDefault("categories", "20"));
+        int circulatingBooks = Math.min(books, Integer.parseInt(options.getOrDefault("circulating-books", "1000")));
+        int copiesPerBook = Integer.parseInt(options.getOrDefault("copies-per-book", "3"));
+        int poolSize = Integer.parseInt(options.getOrDefault("pool-size", "0"));
+        String loginUser = options.getOrDefault("login-user", "user");
+        String loginPassword = options.getOrDefault("login-password", "userpassword");
+
+        BenchmarkDatabase embedded = null;
+        ConnectionManager connectionManager;
+        boolean seed;
+        if (options.containsKey("jdbc-url")) {
+            connectionManager = new ConnectionManager(options.get("jdbc-url"),
+                    options.getOrDefault("user", "root"), options.getOrDefault("password", ""), poolSize);
+            seed = options.containsKey("seed");
+        } else {
+            embedded = BenchmarkDatabase.create("load_" + ProcessHandle.current().pid());
+            connectionManager = embedded.connectionManager(poolSize);
+            seed = true;
+        }
+
+        MySQLBookDAO bookDAO = new MySQLBookDAO(connectionManager);
+        MySQLCategoryDAO categoryDAO = new MySQLCategoryDAO(connectionManager);
+        UserAuthenticator authenticator = new UserAuthenticator(connectionManager);
+        // As in server mode: availability answered from the striped cache, checkouts decided by the database
+        LoanDAO loanDAO = new AvailabilityCachingLoanDAO(new MySQLLoanDAO(connectionManager));
+        JdbcExecutor jdbc = new JdbcExecutor(connectionManager);
+        if (seed) {
+            seedCatalog(embedded, bookDAO, categoryDAO, categories, books);
+            seedCopies(embedded, loanDAO, jdbc, circulatingBooks, copiesPerBook);
+            if (authenticator.authenticate(loginUser, loginPassword) == null) {
+                authenticator.createUser(loginUser, loginPassword, "USER");
+            }
+        }
+
+        try {
+            List<BookCopy> copies = jdbc.queryList("Error reading copies", "SELECT id, book_id, barcode, on_loan, hold_id FROM book_copies",
+                    MySQLLoanDAO.COPY_MAPPER);
+            boolean circulation = Arrays.stream(mix.operations()).anyMatch(Operation::isCirculation);
+            if (circulation && copies.isEmpty()) {
+                throw new IllegalStateException("The target database has no book copies; seed it first (--seed).");
+            }
+            LoadTarget target = new LoadTarget(bookDAO, categoryDAO, authenticator, loanDAO, copies, loginUser, loginPassword);
+            new LoadGenerator(target, mix, clients, rate, warmup, duration).run();
+            if (circulation) {
+                checkCirculation(jdbc);
+            }
+        } finally {
+            connectionManager.close();
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private static void seedCatalog(BenchmarkDatabase embedded, MySQLBookDAO bookDAO, MySQLCategoryDAO categoryDAO,
+                                    int categories, int books) throws Exception {
+        if (embedded != null) {
+            embedded.seed(categories, books);
+            return;
+        }
+        if (!bookDAO.getAllBooks().isEmpty()) {
+            return; // Never add load-test rows to a catalog that already has data
+        }
+        System.out.println("Seeding " + categories + " categories and " + books + " books...");
+        int[] categoryIds = new int[categories];
+        for (int i = 0; i < categories; i++) {
+            Category category = new Category("Load Test Category " + (i + 1));
+            categoryDAO.addCategory(category);
+            categoryIds[i] = category.getId();
+        }
+        for (int i = 0; i < books; i++) {
+            bookDAO.addBook(new Book(BenchmarkDatabase.bookId(i), "Title " + (i % 1000) + " Volume " + i,
+                    "Author " + (i % 250), categoryIds[i % categories], 1900 + (i % 120)));
+        }
+    }
+
+    private static void seedCopies(BenchmarkDatabase embedded, LoanDAO loanDAO, JdbcExecutor jdbc, int books, int copiesPerBook)
+            throws Exception {
+        if (embedded != null) {
+            embedded.seedCopies(books, copiesPerBook);
+            return;
+        }
+        if (jdbc.queryOne("Error reading copies", "SELECT id FROM book_copies", rs -> row -> row.getInt(1)) != null) {
+            return; // Never add load-test copies to a library that already has some
+        }
+        System.out.println("Seeding " + copiesPerBook + " copies of " + books + " books...");
+        for (int i = 0; i < books; i++) {
+            for (int copy = 0; copy < copiesPerBook; copy++) {
+                loanDAO.addCopy(new BookCopy(BenchmarkDatabase.bookId(i), BenchmarkDatabase.barcode(i, copy)));
+            }
+        }
+    }
+
+    /**
+     * Checks that the load left circulation consistent: no copy with two open loans, every copy's
+     * on-loan flag matching its loans, and every book's counts matching its copies.
+     */
+    private static void checkCirculation(JdbcExecutor jdbc) {
+        int lentTwice = count(jdbc, "SELECT COUNT(*) FROM (SELECT copy_id FROM loans WHERE return_date IS NULL "
+                + "GROUP BY copy_id HAVING COUNT(*) > 1) t");
+        int wrongFlag = count(jdbc, "SELECT COUNT(*) FROM book_copies c WHERE c.on_loan <> CASE WHEN "
+                + "EXISTS (SELECT 1 FROM loans l WHERE l.copy_id = c.id AND l.return_date IS NULL) THEN TRUE ELSE FALSE END");
+        int wrongCounts = count(jdbc, "SELECT COUNT(*) FROM book_availability a "
+                + "WHERE a.total_copies <> (SELECT COUNT(*) FROM book_copies c WHERE c.book_id = a.book_id) "
+                + "OR a.available_copies <> (SELECT COUNT(*) FROM book_copies c WHERE c.book_id = a.book_id AND c.on_loan = FALSE "
+                + "AND c.hold_id IS NULL)");
+        System.out.printf(Locale.ROOT, "%nCirculation check: %d copies lent twice, %d copies out of step with their loans, "
+                + "%d books with wrong availability counts -> %s%n", lentTwice, wrongFlag, wrongCounts,
+                lentTwice + wrongFlag + wrongCounts == 0 ? "OK" : "FAILED");
+    }
+
+    private static int count(JdbcExecutor jdbc, String sql) {
+        return jdbc.queryOne("Error checking circulation", sql, rs -> row -> row.getInt(1));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String key = arg.substring(2);
+            int equals = key.indexOf('=');
+            if (equals >= 0) {
+                options.put(key.substring(0, equals), key.substring(equals + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "true");
+            }
+        }
+        return options;
+    }
+
+    private static void printUsage() {
+        System.out.println("""
+                Usage: java -cp benchmarks.jar com.librarymanagementsystem.bench.load.LoadGenerator [options]
+
+                  --clients N            simulated clients, one virtual thread each (default 50)
+                  --rate R               scheduled ticks per second per client (default 2)
+                  --mix M                browse | search | bulk-edit | mixed | circulation, or a list such as
+                                         getBookById=60,searchBooksByTitle=30,authenticate=10 (default browse)
+                  --burst N              operations per tick, overrides the mix default
+                  --warmup S             seconds to run before measuring (default 5)
+                  --duration S           seconds to measure (default 30)
+                  --jdbc-url URL         run against this database instead of an embedded H2 database
+                  --user U, --password P database credentials for --jdbc-url
+                  --pool-size N          pool N connections, as the server does (default 0: a new connection per call)
+                  --seed                 seed an empty --jdbc-url database and create the login user
+                  --books N              books to seed (default 10000)
+                  --categories N         categories to seed (default 20)
+                  --circulating-books N  books that get copies when seeding (default 1000)
+                  --copies-per-book N    copies of each of them (default 3)
+                  --login-user U         user for authenticate operations (default user)
+                  --login-password P     password for authenticate operations (default userpassword)
+                """);
+    }
+}
@@ -0,0 +1,151 @@
+package com.librarymanagementsystem.bench.load;
+
+import com.librarymanagementsystem.auth.UserAuthenticator;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.LoanDAO;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Category;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The system under load: the DAOs and authenticator shared by all simulated clients,
+ * plus the existing book and category IDs and copy barcodes that operations pick from.
+ */
+final class LoadTarget {
+
+    private final BookDAO bookDAO;
+    private final CategoryDAO categoryDAO;
+    private final UserAuthenticator authenticator;
+    private final LoanDAO loanDAO;
+    private final String loginUsername;
+    private final String loginPassword;
+    private final String[] bookIds;
+    private final String[] titleFragments;
+    private final int[] categoryIds;
+    private final String[] barcodes;
+    private final String[] circulatingBookIds; // Books with at least one copy
+    private final ConcurrentLinkedQueue<String> lentBarcodes = new ConcurrentLinkedQueue<>(); // Checked out by the load, not yet returned
+    private final AtomicLong scratchSequence = new AtomicLong();
+    private final String scratchPrefix = "LOAD-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+
+    LoadTarget(BookDAO bookDAO, CategoryDAO categoryDAO, UserAuthenticator authenticator, LoanDAO loanDAO,
+               List<BookCopy> copies, String loginUsername, String loginPassword) {
+        this.bookDAO = bookDAO;
+        this.categoryDAO = categoryDAO;
+        this.authenticator = authenticator;
+        this.loanDAO = loanDAO;
+        this.loginUsername = loginUsername;
+        this.loginPassword = loginPassword;
+
+        // Snapshot the catalog once, so operations address rows that exist
+        List<Book> books = bookDAO.getAllBooks();
+        List<Category> categories = categoryDAO.getAllCategories();
+        if (books.isEmpty() || categories.isEmpty()) {
+            throw new IllegalStateException("The target database has no books or categories; seed it first (--seed).");
+        }
+        bookIds = new String[books.size()];
+        titleFragments = new String[books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            bookIds[i] = book.getId();
+            String title = book.getTitle();
+            titleFragments[i] = title.length() > 8 ? title.substring(0, 8) : title;
+        }
+        categoryIds = new int[categories.size()];
+        for (int i = 0; i < categories.size(); i++) {
+            categoryIds[i] = categories.get(i).getId();
+        }
+        barcodes = new String[copies.size()];
+        Set<String> bookIdsWithCopies = new LinkedHashSet<>();
+        for (int i = 0; i < copies.size(); i++) {
+            BookCopy copy = copies.get(i);
+            barcodes[i] = copy.getBarcode();
+            bookIdsWithCopies.add(copy.getBookId());
+            if (copy.isOnLoan()) {
+                lentBarcodes.add(copy.getBarcode()); // Left on loan by an earlier run
+            }
+        }
+        circulatingBookIds = bookIdsWithCopies.toArray(new String[0]);
+    }
+
+    BookDAO bookDAO() {
+        return bookDAO;
+    }
+
+    CategoryDAO categoryDAO() {
+        return categoryDAO;
+    }
+
+    UserAuthenticator authenticator() {
+        return authenticator;
+    }
+
+    LoanDAO loanDAO() {
+        return loanDAO;
+    }
+
+    String loginUsername() {
+        return loginUsername;
+    }
+
+    String loginPassword() {
+        return loginPassword;
+    }
+
+    int bookCount() {
+        return bookIds.length;
+    }
+
+    int copyCount() {
+        return barcodes.length;
+    }
+
+    String randomBookId(ThreadLocalRandom random) {
+        return bookIds[random.nextInt(bookIds.length)];
+    }
+
+    String randomTitleFragment(ThreadLocalRandom random) {
+        return titleFragments[random.nextInt(titleFragments.length)];
+    }
+
+    int randomCategoryId(ThreadLocalRandom random) {
+        return categoryIds[random.nextInt(categoryIds.length)];
+    }
+
+    String randomBarcode(ThreadLocalRandom random) {
+        return barcodes[random.nextInt(barcodes.length)];
+    }
+
+    String randomCirculatingBookId(ThreadLocalRandom random) {
+        return circulatingBookIds[random.nextInt(circulatingBookIds.length)];
+    }
+
+    /**
+     * Remembers a copy checked out by the load, so a later return operation brings it back.
+     */
+    void lent(String barcode) {
+        lentBarcodes.add(barcode);
+    }
+
+    /**
+     * @return A copy checked out by the load, oldest first, or null if none is on loan.
+     */
+    String nextLent() {
+        return lentBarcodes.poll();
+    }
+
+    /**
+     * @return A book ID that does not collide with catalog rows or other clients (max 50 chars).
+     */
+    String nextScratchBookId() {
+        return scratchPrefix + scratchSequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,157 @@
+package com.librarymanagementsystem.bench.load;
+
+import com.librarymanagementsystem.dao.LoanResult;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.Loan;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A single client action driven by the load generator.
+ * Each operation calls exactly the DAO or authenticator methods the Swing client would call for it.
+ */
+public enum Operation {
+
+    GET_ALL_BOOKS("getAllBooks") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            return target.bookDAO().getAllBooks() != null;
+        }
+    },
+    GET_BOOK_BY_ID("getBookById") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            return target.bookDAO().getBookById(target.randomBookId(random)) != null;
+        }
+    },
+    GET_BOOKS_BY_CATEGORY("getBooksByCategory") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            return target.bookDAO().getBooksByCategory(target.randomCategoryId(random)) != null;
+        }
+    },
+    GET_ALL_CATEGORIES("getAllCategories") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            return target.categoryDAO().getAllCategories() != null;
+        }
+    },
+    SEARCH_BY_TITLE("searchBooksByTitle") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            return target.bookDAO().searchBooksByTitle(target.randomTitleFragment(random)) != null;
+        }
+    },
+    ADVANCED_SEARCH("advancedSearch") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            int minYear = 1900 + random.nextInt(100);
+            return target.bookDAO().advancedSearch(target.randomTitleFragment(random), "",
+                    target.randomCategoryId(random), minYear, minYear + 20) != null;
+        }
+    },
+    UPDATE_BOOK("updateBook") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            Book book = target.bookDAO().getBookById(target.randomBookId(random));
+            if (book == null) {
+                return false;
+            }
+            book.setYear(1900 + random.nextInt(120));
+            UpdateResult result = target.bookDAO().updateBook(book);
+            // Losing a race against another client's update is a correct answer, not an error
+            return result.isUpdated() || result == UpdateResult.CONFLICT;
+        }
+    },
+    ADD_AND_DELETE_BOOK("addBook+deleteBook") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            String id = target.nextScratchBookId();
+            Book book = new Book(id, "Load Test Title", "Load Test Author", target.randomCategoryId(random), 2000);
+            return target.bookDAO().addBook(book) && target.bookDAO().deleteBook(id);
+        }
+    },
+    LOGIN("authenticate") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            String token = target.authenticator().authenticate(target.loginUsername(), target.loginPassword());
+            if (token == null) {
+                return false;
+            }
+            target.authenticator().logout(token); // End the session, as a kiosk does when the patron leaves
+            return true;
+        }
+    },
+    CHECKOUT("checkout") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            String barcode = target.randomBarcode(random);
+            LoanResult result = target.loanDAO().checkout(new Loan(null, barcode, target.loginUsername()));
+            if (result.isDone()) {
+                target.lent(barcode);
+            }
+            // A copy someone else has on loan is a correct answer, not an error
+            return result.isDone() || result == LoanResult.UNAVAILABLE;
+        }
+    },
+    RETURN("return") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            String barcode = target.nextLent();
+            if (barcode == null) {
+                return true; // Everything the load checked out is back already
+            }
+            return target.loanDAO().returnCopy(new Loan(null, barcode, null)).isDone();
+        }
+    },
+    GET_AVAILABILITY("getAvailability") {
+        @Override
+        boolean execute(LoadTarget target, ThreadLocalRandom random) {
+            return target.loanDAO().getAvailability(target.randomCirculatingBookId(random)) != null;
+        }
+    };
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Runs the operation once.
+     *
+     * @return true if the call produced the expected result, false if it failed (counted as an error).
+     */
+    abstract boolean execute(LoadTarget target, ThreadLocalRandom random);
+
+    /**
+     * @return true if the operation lends or returns copies, so the target needs some.
+     */
+    boolean isCirculation() {
+        return this == CHECKOUT || this == RETURN || this == GET_AVAILABILITY;
+    }
+
+    /**
+     * @return The name used for this operation in mix specifications and reports.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Looks up an operation by its report label or enum name (case-insensitive).
+     *
+     * @param name The label or name.
+     * @return The matching operation.
+     * @throws IllegalArgumentException if no operation matches.
+     */
+    public static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.label.equalsIgnoreCase(name) || operation.name().equalsIgnoreCase(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+}
@@ -0,0 +1,138 @@
+package com.librarymanagementsystem.bench.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A weighted choice of operations plus a burst size.
+ * Every scheduled tick of a client issues {@code burstSize} operations drawn from the weights,
+ * back to back, the way a librarian pages through results or edits a batch of records.
+ */
+final class OperationMix {
+
+    private final String name;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final int burstSize;
+
+    private OperationMix(String name, Map<Operation, Integer> weights, int burstSize) {
+        if (burstSize < 1) {
+            throw new IllegalArgumentException("Burst size must be at least 1");
+        }
+        this.name = name;
+        this.burstSize = burstSize;
+        this.operations = new Operation[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+        int sum = 0;
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Weight of " + entry.getKey().label() + " must be positive");
+            }
+            sum += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulativeWeights[i] = sum;
+            i++;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+        this.totalWeight = sum;
+    }
+
+    /**
+     * Parses a mix: either a profile name (browse, search, bulk-edit, mixed, circulation) or a list like
+     * {@code getBookById=60,searchBooksByTitle=30,authenticate=10}.
+     *
+     * @param spec The mix specification.
+     * @param burstOverride Burst size to use instead of the profile default, or 0 to keep it.
+     * @return The parsed mix.
+     */
+    static OperationMix parse(String spec, int burstOverride) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        int burst;
+        switch (spec.toLowerCase()) {
+            case "browse" -> {
+                // Read-heavy browsing at a desk or kiosk
+                weights.put(Operation.GET_BOOK_BY_ID, 40);
+                weights.put(Operation.GET_BOOKS_BY_CATEGORY, 20);
+                weights.put(Operation.GET_ALL_CATEGORIES, 15);
+                weights.put(Operation.SEARCH_BY_TITLE, 15);
+                weights.put(Operation.GET_ALL_BOOKS, 5);
+                weights.put(Operation.LOGIN, 5);
+                burst = 1;
+            }
+            case "search" -> {
+                // Bursts of searches as patrons refine their query
+                weights.put(Operation.SEARCH_BY_TITLE, 50);
+                weights.put(Operation.ADVANCED_SEARCH, 40);
+                weights.put(Operation.GET_BOOK_BY_ID, 10);
+                burst = 5;
+            }
+            case "bulk-edit" -> {
+                // A librarian correcting or cataloguing many records in a row
+                weights.put(Operation.UPDATE_BOOK, 60);
+                weights.put(Operation.ADD_AND_DELETE_BOOK, 25);
+                weights.put(Operation.GET_BOOK_BY_ID, 15);
+                burst = 20;
+            }
+            case "mixed" -> {
+                weights.put(Operation.GET_BOOK_BY_ID, 30);
+                weights.put(Operation.SEARCH_BY_TITLE, 20);
+                weights.put(Operation.ADVANCED_SEARCH, 15);
+                weights.put(Operation.GET_BOOKS_BY_CATEGORY, 10);
+                weights.put(Operation.GET_ALL_CATEGORIES, 10);
+                weights.put(Operation.UPDATE_BOOK, 8);
+                weights.put(Operation.ADD_AND_DELETE_BOOK, 2);
+                weights.put(Operation.LOGIN, 5);
+                burst = 1;
+            }
+            case "circulation" -> {
+                // Desks and self-checkout kiosks lending and taking back copies
+                weights.put(Operation.CHECKOUT, 45);
+                weights.put(Operation.RETURN, 40);
+                weights.put(Operation.GET_AVAILABILITY, 15);
+                burst = 1;
+            }
+            default -> {
+                for (String part : spec.split(",")) {
+                    String[] pair = part.trim().split("=");
+                    if (pair.length != 2) {
+                        throw new IllegalArgumentException("Expected operation=weight, got: " + part);
+                    }
+                    weights.merge(Operation.fromName(pair[0].trim()), Integer.parseInt(pair[1].trim()), Integer::sum);
+                }
+                burst = 1;
+            }
+        }
+        return new OperationMix(spec, weights, burstOverride > 0 ? burstOverride : burst);
+    }
+
+    /**
+     * @return A randomly chosen operation, following the weights.
+     */
+    Operation next(ThreadLocalRandom random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    int burstSize() {
+        return burstSize;
+    }
+
+    Operation[] operations() {
+        return operations.clone();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (burst " + burstSize + ")";
+    }
+}
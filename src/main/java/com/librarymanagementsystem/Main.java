@@ -1,132 +1,761 @@
 package com.librarymanagementsystem;
 
+import com.librarymanagementsystem.audit.AuditLog;
+import com.librarymanagementsystem.audit.AuditSink;
+import com.librarymanagementsystem.audit.AuditingBookDAO;
+import com.librarymanagementsystem.audit.AuditingCategoryDAO;
+import com.librarymanagementsystem.audit.AuditingTransactionRunner;
+import com.librarymanagementsystem.audit.FileAuditSink;
+import com.librarymanagementsystem.audit.MySQLAuditSink;
+import com.librarymanagementsystem.auth.Session;
 import com.librarymanagementsystem.auth.UserAuthenticator;
+import com.librarymanagementsystem.cache.AvailabilityCachingLoanDAO;
+import com.librarymanagementsystem.cache.CacheEvictingCategoryDAO;
+import com.librarymanagementsystem.cache.CacheInvalidatingTransactionRunner;
+import com.librarymanagementsystem.cache.CatalogChangeListener;
+import com.librarymanagementsystem.cache.CatalogChangePoller;
+import com.librarymanagementsystem.cache.OffHeapCachingBookDAO;
+import com.librarymanagementsystem.cache.SearchCacheEvictingCategoryDAO;
+import com.librarymanagementsystem.cache.SearchCacheTransactionRunner;
+import com.librarymanagementsystem.cache.SearchCachingBookDAO;
+import com.librarymanagementsystem.cache.SearchResultCache;
+import com.librarymanagementsystem.cache.SnapshotBookDAO;
+import com.librarymanagementsystem.circulation.HoldAllocatingLoanDAO;
+import com.librarymanagementsystem.circulation.HoldAllocator;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.LoanDAO;
+import com.librarymanagementsystem.dao.LogStructuredBookDAO;
+import com.librarymanagementsystem.dao.LogStructuredCategoryDAO;
+import com.librarymanagementsystem.dao.LogStructuredUserDAO;
 import com.librarymanagementsystem.dao.MySQLBookDAO;
 import com.librarymanagementsystem.dao.MySQLCategoryDAO;
+import com.librarymanagementsystem.dao.MySQLHoldDAO;
+import com.librarymanagementsystem.dao.MySQLLoanDAO;
+import com.librarymanagementsystem.dao.MySQLSchema;
+import com.librarymanagementsystem.dao.MySQLTransactionRunner;
+import com.librarymanagementsystem.dao.TransactionRunner;
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.logging.Logging;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.search.DuplicateIndex;
+import com.librarymanagementsystem.search.DuplicatePair;
+import com.librarymanagementsystem.search.SearchIndexingBookDAO;
+import com.librarymanagementsystem.server.CatalogHttpServer;
+import com.librarymanagementsystem.storage.LogStore;
 import com.librarymanagementsystem.util.ConnectionManager;
+import com.librarymanagementsystem.util.DatabaseSession;
+import com.librarymanagementsystem.util.DatabaseTimeouts;
+import com.librarymanagementsystem.util.ReplicaSet;
 import com.librarymanagementsystem.view.BookManagementView;
+import com.librarymanagementsystem.view.BookTableModel;
 import com.librarymanagementsystem.view.LoginView;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.*;
 
 /**
  * Main class for the Library Management System application.
  * Initializes the application components and starts the UI.
+ * <p>
+ * By default the catalog is stored in MySQL. Start with {@code --storage=log} to use the embedded
+ * append-only log store instead (no database server needed), optionally with {@code --data-dir=PATH}.
+ * {@code --cache=offheap} keeps the catalog in an off-heap cache in front of either storage.
+ * {@code --search-cache} (or {@code --search-cache=ENTRIES}) keeps the results of repeated searches
+ * in memory; a change evicts only the searches it could affect.
+ * With MySQL, these caches also follow the changes other clients make: the change log is polled,
+ * and only the entries the changes affect are evicted or replaced ({@code --coherence=off} to disable).
+ * With MySQL, the Swing client keeps a binary snapshot of the catalog in the data directory and, at
+ * start-up, reads only the changes made since it was written instead of every book
+ * ({@code --snapshot=off} to disable).
+ * Typo-tolerant search by title and author runs on an in-memory index of the catalog, and so do the
+ * suggestions shown while a title or author is typed, and the check for a likely duplicate when a
+ * book is added; start with {@code --fuzzy-search=off}, {@code --autocomplete=off} or
+ * {@code --duplicate-check=off} to save their memory on very large catalogs.
+ * <p>
+ * {@code --find-duplicates} (or {@code --find-duplicates=FILE}) writes a report of the books that
+ * are probably entered twice, most similar first, to the console (or FILE) and exits.
+ * <p>
+ * {@code --server} (or {@code --server=PORT}) starts a headless JSON API instead of the Swing client,
+ * so many clients share one pool of database connections ({@code --pool-size=N}). With MySQL it also
+ * serves circulation (copies, checkouts, returns and renewals) to the desks and self-checkout kiosks,
+ * with the availability of each book cached in memory, and holds: a returned copy is set aside for
+ * the next user waiting for the book.
+ * <p>
+ * {@code --replicas=URL,URL} sends read-only queries to MySQL read replicas
+ * ({@code --balancing=round-robin|least-loaded}); writes always go to the primary given by
+ * {@code --db-url} (default: the URL below).
+ * <p>
+ * {@code --audit=table|file|off} records who added, changed or deleted which book or category, in
+ * the {@code audit_log} table (MySQL) or in files ({@code --audit-dir}); see {@link #createAuditLog}.
+ * <p>
+ * {@code --connect-timeout-ms}, {@code --socket-timeout-ms} and {@code --query-timeout-s} bound how
+ * long a call waits for MySQL (defaults in {@link DatabaseTimeouts#DEFAULTS}).
+ * <p>
+ * {@code --log-level=debug|info|warn|error} sets which messages the components log to the console
+ * (default info); see {@link Logging}.
+ * <p>
+ * The login window is shown at once; connecting to the database, warming the connection pool,
+ * creating missing tables, creating the default users and loading the categories run in the
+ * background, in parallel, and login is enabled when they are done. The time from JVM start to
+ * the first frame is printed. {@code --cds-training} runs the start-up without a window and exits;
+ * the {@code appcds} Maven profile uses it to record an AppCDS archive.
  */
 public class Main {
 
+    private static final Logger LOG = Logger.get(Main.class);
+
     // Database connection details
     // IMPORTANT: Replace these with your actual MySQL database credentials
     private static final String DB_URL = "jdbc:mysql://localhost:3306/library_db?useSSL=false&serverTimezone=UTC";
     private static final String DB_USERNAME = "root"; // Your MySQL username
     private static final String DB_PASSWORD = "Kerem123+"; // Your MySQL password
 
+    // Embedded storage (--storage=log): default directory of the catalog log
+    private static final String DEFAULT_DATA_DIR = Paths.get(System.getProperty("user.home"), ".library-management-system").toString();
+
+    // Server mode (--server): default port and size of the shared connection pool
+    private static final int DEFAULT_SERVER_PORT = 8080;
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    // Read replicas (--replicas): read-your-writes window and health check interval
+    private static final long DEFAULT_READ_YOUR_WRITES_MILLIS = 5_000;
+    private static final long REPLICA_HEALTH_CHECK_MILLIS = 5_000;
+
+    // Start-up: connections opened ahead of demand when the pool is warmed
+    private static final int WARM_UP_CONNECTIONS = 4;
+
+    // true in server mode: messages go to the console instead of dialogs
+    private static boolean headless;
+
     public static void main(String[] args) {
-        // Step 1: Initialize ConnectionManager
-        ConnectionManager connectionManager = new ConnectionManager(DB_URL, DB_USERNAME, DB_PASSWORD);
+        Logging.setLevel(Level.fromName(getOption(args, "--log-level", Logging.DEFAULT_LEVEL.name())));
+        String serverOption = getOption(args, "--server", hasFlag(args, "--server") ? String.valueOf(DEFAULT_SERVER_PORT) : null);
+        boolean cdsTraining = hasFlag(args, "--cds-training");
+        String duplicatesReport = getOption(args, "--find-duplicates", hasFlag(args, "--find-duplicates") ? "-" : null);
+        headless = serverOption != null || cdsTraining || duplicatesReport != null;
+        int poolSize = Integer.parseInt(getOption(args, "--pool-size", String.valueOf(DEFAULT_POOL_SIZE)));
 
-        // Test database connection (optional, but good for debugging)
-        if (connectionManager.getConnection() == null) {
-            System.err.println("Failed to connect to the database. Exiting application.");
-            JOptionPane.showMessageDialog(null, "Failed to connect to the database. Please check your connection details and MySQL server.", "Database Connection Error", JOptionPane.ERROR_MESSAGE);
-            return; // Exit if database connection fails
+        BookDAO bookDAO;
+        CategoryDAO categoryDAO;
+        TransactionRunner transactions;
+        UserAuthenticator authenticator;
+        ConnectionManager connectionManager = null; // null with embedded storage
+        LoanDAO loanDAO = null; // Circulation needs the database's conditional updates; null with embedded storage
+        HoldAllocator holdAllocator = null;
+        SnapshotBookDAO snapshotBookDAO = null;
+        BookDAO changeFeed; // The storage itself, whose change log keeps the caches and indexes current
+
+        if ("log".equalsIgnoreCase(getOption(args, "--storage", "mysql"))) {
+            // Embedded log store: no database server to run, opens in milliseconds
+            String dataDir = getOption(args, "--data-dir", DEFAULT_DATA_DIR);
+            LogStore store;
+            try {
+                store = LogStore.open(Paths.get(dataDir));
+            } catch (IOException e) {
+                System.err.println("Failed to open the embedded catalog in " + dataDir + ": " + e.getMessage());
+                showMessage("Failed to open the embedded catalog in " + dataDir + ":\n" + e.getMessage(), "Storage Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close, "log-store-shutdown"));
+            System.out.println("Using embedded catalog storage in " + dataDir);
+
+            LogStructuredBookDAO logBookDAO = new LogStructuredBookDAO(store);
+            bookDAO = logBookDAO;
+            changeFeed = logBookDAO;
+            categoryDAO = new LogStructuredCategoryDAO(store, logBookDAO);
+            transactions = TransactionRunner.DIRECT; // The log store has no multi-record transactions
+            authenticator = new UserAuthenticator(new LogStructuredUserDAO(store));
         } else {
-            System.out.println("Successfully connected to the database.");
-            // Immediately close the test connection. Note: `getConnection()` creates a new connection,
-            // so we are closing the one created specifically for the test.
-            // The `ConnectionManager` itself manages connections for DAOs later.
-            try (java.sql.Connection testConn = connectionManager.getConnection()) { // Use try-with-resources for auto-closing
-                if (testConn != null) {
-                    // Connection was successful, no need to close it explicitly here as try-with-resources handles it.
+            // Nothing is opened yet; the first connection is made by the start-up tasks
+            connectionManager = createConnectionManager(args, poolSize);
+            bookDAO = new MySQLBookDAO(connectionManager);
+            changeFeed = bookDAO;
+            categoryDAO = new MySQLCategoryDAO(connectionManager);
+            transactions = new MySQLTransactionRunner(connectionManager);
+            authenticator = new UserAuthenticator(connectionManager);
+            if (serverOption != null) {
+                AvailabilityCachingLoanDAO cachingLoanDAO = new AvailabilityCachingLoanDAO(new MySQLLoanDAO(connectionManager));
+                // Returned copies go to the next user waiting for the book before they reach the shelf
+                holdAllocator = new HoldAllocator(new MySQLHoldDAO(connectionManager), cachingLoanDAO.getCache());
+                loanDAO = new HoldAllocatingLoanDAO(cachingLoanDAO, holdAllocator, transactions);
+            }
+
+            if (!headless && !"off".equalsIgnoreCase(getOption(args, "--snapshot", "on"))) {
+                // Local copy of the catalog: start-up reads the changes since the last run, not every book
+                snapshotBookDAO = new SnapshotBookDAO(bookDAO, categoryDAO, Paths.get(getOption(args, "--data-dir", DEFAULT_DATA_DIR)),
+                        getOption(args, "--db-url", DB_URL));
+                bookDAO = snapshotBookDAO;
+            }
+        }
+
+        // Audit trail of who changed which book or category, written in the background
+        AuditLog auditLog;
+        try {
+            auditLog = createAuditLog(args, connectionManager, authenticator);
+        } catch (IOException e) {
+            System.err.println("Failed to open the audit log: " + e.getMessage());
+            showMessage("Failed to open the audit log:\n" + e.getMessage(), "Storage Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (auditLog != null) {
+            bookDAO = new AuditingBookDAO(bookDAO, auditLog);
+            categoryDAO = new AuditingCategoryDAO(categoryDAO, auditLog);
+            if (transactions != TransactionRunner.DIRECT) {
+                // Without transactions (log store) a change is final as soon as it returns
+                transactions = new AuditingTransactionRunner(transactions, auditLog);
+            }
+        }
+        if (connectionManager != null) {
+            // One hook, so the audit log writes its last batch before the pool is closed
+            ConnectionManager pool = connectionManager;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (auditLog != null) {
+                    auditLog.close();
                 }
-            } catch (SQLException e) {
-                // This catch block is mostly for the `try (java.sql.Connection testConn = connectionManager.getConnection())`
-                // in case getConnection() itself throws an exception or closing fails.
-                System.err.println("Error closing test connection: " + e.getMessage());
+                pool.close();
+            }, "connection-pool-shutdown"));
+        } else if (auditLog != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(auditLog::close, "audit-log-shutdown"));
+        }
+
+        OffHeapCachingBookDAO cachingBookDAO = null;
+        if ("offheap".equalsIgnoreCase(getOption(args, "--cache", "none"))) {
+            // Catalog cache outside the Java heap: large catalogs do not grow the old generation
+            cachingBookDAO = new OffHeapCachingBookDAO(bookDAO, 10000);
+            bookDAO = cachingBookDAO;
+            categoryDAO = new CacheEvictingCategoryDAO(categoryDAO, cachingBookDAO);
+            transactions = new CacheInvalidatingTransactionRunner(transactions, cachingBookDAO);
+        }
+
+        SearchCachingBookDAO searchCachingBookDAO = null;
+        String searchCacheOption = getOption(args, "--search-cache",
+                hasFlag(args, "--search-cache") ? String.valueOf(SearchResultCache.DEFAULT_MAX_ENTRIES) : null);
+        if (searchCacheOption != null) {
+            // Results of the searches run over and over, evicted only by the changes that affect them
+            SearchResultCache searchCache = new SearchResultCache(Integer.parseInt(searchCacheOption),
+                    SearchResultCache.DEFAULT_MAX_RESULT_SIZE);
+            searchCachingBookDAO = new SearchCachingBookDAO(bookDAO, searchCache);
+            bookDAO = searchCachingBookDAO;
+            categoryDAO = new SearchCacheEvictingCategoryDAO(categoryDAO, searchCache);
+            transactions = new SearchCacheTransactionRunner(transactions, searchCache);
+        }
+
+        SearchIndexingBookDAO searchIndexingBookDAO = null;
+        // In-memory indexes for searches with misspelled titles and author names, for completing them
+        // as they are typed and for warning about duplicates (only the Swing client shows the last two)
+        boolean fuzzySearch = duplicatesReport == null && !"off".equalsIgnoreCase(getOption(args, "--fuzzy-search", "on"));
+        boolean autocomplete = !headless && !"off".equalsIgnoreCase(getOption(args, "--autocomplete", "on"));
+        boolean duplicateCheck = !headless && !"off".equalsIgnoreCase(getOption(args, "--duplicate-check", "on"));
+        if (fuzzySearch || autocomplete || duplicateCheck) {
+            searchIndexingBookDAO = new SearchIndexingBookDAO(bookDAO, fuzzySearch, autocomplete, duplicateCheck);
+            bookDAO = searchIndexingBookDAO;
+        }
+
+        // One reader of the change log for the whole process. Changes made elsewhere (other clients, or books
+        // deleted with their category) reach every copy of the catalog through it, innermost copy first
+        List<CatalogChangeListener> listeners = new ArrayList<>();
+        if (snapshotBookDAO != null) {
+            listeners.add(snapshotBookDAO);
+        }
+        if (!"off".equalsIgnoreCase(getOption(args, "--coherence", "on"))) {
+            if (cachingBookDAO != null) {
+                listeners.add(cachingBookDAO);
+            }
+            if (searchCachingBookDAO != null) {
+                listeners.add(searchCachingBookDAO);
             }
         }
+        if (searchIndexingBookDAO != null) {
+            listeners.add(searchIndexingBookDAO);
+        }
+        CatalogChangePoller changePoller = null;
+        if (!listeners.isEmpty()) {
+            changePoller = new CatalogChangePoller(changeFeed);
+            listeners.forEach(changePoller::addListener);
+            Runtime.getRuntime().addShutdownHook(new Thread(changePoller::close, "catalog-change-poll-shutdown"));
+        }
 
+        // Everything that needs the database runs in the background while the login window is shown
+        CompletableFuture<List<Category>> startup = startBackgroundStartup(connectionManager, poolSize, snapshotBookDAO, cachingBookDAO,
+                changePoller, searchIndexingBookDAO, categoryDAO, authenticator);
 
-        // Step 2: Initialize DAO objects
-        MySQLBookDAO bookDAO = new MySQLBookDAO(connectionManager);
-        MySQLCategoryDAO categoryDAO = new MySQLCategoryDAO(connectionManager);
+        if (cdsTraining) {
+            runCdsTraining(startup);
+            return;
+        }
 
-        // Step 3: Initialize UserAuthenticator
-        UserAuthenticator authenticator = new UserAuthenticator(connectionManager);
+        if (duplicatesReport != null) {
+            awaitStartup(startup);
+            writeDuplicatesReport(bookDAO, duplicatesReport);
+            System.exit(0);
+        }
 
-        // Step 4: Check for an initial admin user and create if not exists
-        // This is a common practice for initial setup or first run
-        initializeAdminUser(authenticator, connectionManager);
-        initializeUserUser(authenticator, connectionManager);
+        if (headless) {
+            awaitStartup(startup);
+            startServer(serverOption, bookDAO, categoryDAO, authenticator, loanDAO, holdAllocator);
+            return;
+        }
 
-        // Step 5: Start the Login View on the Event Dispatch Thread (EDT)
+        // Start the Login View on the Event Dispatch Thread (EDT)
+        BookDAO loginBookDAO = bookDAO;
+        CategoryDAO loginCategoryDAO = categoryDAO;
+        TransactionRunner loginTransactions = transactions;
         SwingUtilities.invokeLater(() -> {
-            LoginView loginView = new LoginView(authenticator, bookDAO, categoryDAO); // UPDATED CALL;
+            // LoginView opens BookManagementView with these DAOs after a successful login
+            LoginView loginView = new LoginView(authenticator, loginBookDAO, loginCategoryDAO, loginTransactions);
+            loginView.setStarting("Starting up...");
+            loginView.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    reportStartupTime("Login window shown");
+                }
+            });
             loginView.setVisible(true);
 
-            // Add an action listener to handle successful login in LoginView
-            // When LoginView successfully authenticates, it will close itself.
-            // We need to pass the logic to open BookManagementView after login.
-            // A simple way is to pass a callback or use a property change listener,
-            // but for this simple example, we can extend LoginView's success behavior.
-            // We'll modify LoginView to directly open BookManagementView upon success
-            // and pass the necessary DAOs.
-
-            // Modify LoginView's attemptLogin method to call a method on Main or
-            // directly instantiate and show BookManagementView.
-            // For now, let's update LoginView's attemptLogin to directly call BookManagementView.
-            // We need to pass the DAO objects to LoginView so it can pass them to BookManagementView.
-            // Let's refine the LoginView constructor for this.
+            startup.whenComplete((categories, failure) -> SwingUtilities.invokeLater(() -> {
+                if (failure == null) {
+                    loginView.setReady(categories);
+                } else {
+                    loginView.dispose();
+                    exitAfterStartupFailure(failure);
+                }
+            }));
         });
     }
 
     /**
-     * Initializes an admin user if no users exist in the database.
-     * This is useful for the very first run of the application.
+     * Creates the audit log chosen with {@code --audit}: {@code table} (the default with MySQL) writes
+     * to the {@code audit_log} table, {@code file} (the default with the log store) to segment files in
+     * {@code --audit-dir} (default: {@code audit} in the data directory), {@code off} disables it.
+     * {@code --audit-durability=fast} skips the fsync of every batch written to a file.
      *
-     * @param authenticator The UserAuthenticator instance.
+     * @param args The command-line arguments.
+     * @param connectionManager The ConnectionManager, or null with embedded storage.
+     * @param authenticator The UserAuthenticator whose sessions name the user who made a change.
+     * @return The audit log, or null if it is off.
+     * @throws IOException if the audit directory cannot be used.
      */
-    private static void initializeAdminUser(UserAuthenticator authenticator, ConnectionManager connectionManager) {
-        // Check if any users exist in the database
-        // A simple way is to try to authenticate a non-existent user, or query directly.
-        // For simplicity, let's assume if 'admin' user doesn't exist, we create it.
-        // In a real app, you might have a dedicated method in UserDAO to check user count.
-
-        // Temporarily, we'll try to find an admin.
-        // For a more robust check, you might add a method to UserAuthenticator
-        // like `doesUserExist(username)` or `countUsers()`.
-        // For now, let's rely on `authenticate` to indirectly check existence.
-        // If "admin" user is NOT found, then we create it.
-        // This is a simplified approach, a real application might need more robust user management.
-
-        // A better check: directly query the users table for count
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        boolean adminExists = false;
+    private static AuditLog createAuditLog(String[] args, ConnectionManager connectionManager, UserAuthenticator authenticator)
+            throws IOException {
+        String mode = getOption(args, "--audit", connectionManager != null ? "table" : "file").toLowerCase(Locale.ROOT);
+        AuditSink sink;
+        if ("off".equals(mode)) {
+            return null;
+        } else if ("table".equals(mode) && connectionManager != null) {
+            sink = new MySQLAuditSink(connectionManager);
+        } else if ("file".equals(mode) || "table".equals(mode)) {
+            if ("table".equals(mode)) {
+                System.err.println("--audit=table needs MySQL storage; writing the audit log to files instead.");
+            }
+            String auditDir = getOption(args, "--audit-dir", Paths.get(getOption(args, "--data-dir", DEFAULT_DATA_DIR), "audit").toString());
+            sink = new FileAuditSink(Paths.get(auditDir), FileAuditSink.Durability.fromName(getOption(args, "--audit-durability", "sync")));
+            System.out.println("Writing the audit log to " + auditDir);
+        } else {
+            throw new IllegalArgumentException("Unknown --audit mode: " + mode + " (expected table, file or off)");
+        }
+        // API requests bind their session to the handling thread; the desktop client sets the default one at login
+        return new AuditLog(sink, () -> {
+            Session session = authenticator.getSession(DatabaseSession.current());
+            return session != null ? session.getUsername() : null;
+        });
+    }
 
-        try {
-            conn = connectionManager.getConnection(); // Access connectionManager from authenticator
-            if (conn != null) {
-                pstmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE username = 'admin'");
-                rs = pstmt.executeQuery();
-                if (rs.next() && rs.getInt(1) > 0) {
-                    adminExists = true;
+    /**
+     * Starts the start-up work that needs the database, in parallel on virtual threads:
+     * <ol>
+     *     <li>open the first connection (checks that the database is reachable) and, at the same time,
+     *     map the catalog snapshot;</li>
+     *     <li>then, at the same time, open more pooled connections and create missing tables;</li>
+     *     <li>then start following the change log, so that nothing changed while the caches fill is missed;</li>
+     *     <li>then, at the same time, create the default users, load the categories and bring the
+     *     snapshot up to date;</li>
+     *     <li>then fill the off-heap cache from the snapshot, or from storage without one;</li>
+     *     <li>then, once the cache is filled, build the search indexes from it.</li>
+     * </ol>
+     * The search indexes take seconds on large catalogs and are not needed to log in, so the returned
+     * future does not wait for them; until they are built, suggestions are empty and the first fuzzy
+     * search waits for its index.
+     *
+     * @param connectionManager The ConnectionManager, or null with embedded storage.
+     * @param poolSize The size of the connection pool.
+     * @param snapshotBookDAO The catalog snapshot to open and reconcile, or null.
+     * @param cachingBookDAO The off-heap cache to fill, or null.
+     * @param changePoller The poller that keeps the snapshot, caches and indexes current, or null.
+     * @param searchIndexingBookDAO The search indexes to build, or null.
+     * @param categoryDAO The CategoryDAO to load the categories from.
+     * @param authenticator The UserAuthenticator to create the default users with.
+     * @return Completes with the categories when everything is done, or exceptionally if a step failed.
+     */
+    private static CompletableFuture<List<Category>> startBackgroundStartup(ConnectionManager connectionManager, int poolSize,
+                                                                           SnapshotBookDAO snapshotBookDAO, OffHeapCachingBookDAO cachingBookDAO,
+                                                                           CatalogChangePoller changePoller,
+                                                                           SearchIndexingBookDAO searchIndexingBookDAO, CategoryDAO categoryDAO,
+                                                                           UserAuthenticator authenticator) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        CompletableFuture<Void> connected = CompletableFuture.runAsync(() -> {
+            if (connectionManager != null) {
+                checkConnection(connectionManager);
+            }
+        }, executor);
+        CompletableFuture<Void> snapshotOpened = CompletableFuture.runAsync(() -> {
+            if (snapshotBookDAO != null) {
+                long start = System.nanoTime();
+                if (snapshotBookDAO.open()) {
+                    System.out.println("Catalog snapshot opened with " + snapshotBookDAO.getSnapshot().size() + " books in "
+                            + (System.nanoTime() - start) / 1_000_000 + " ms.");
+                }
+            }
+        }, executor);
+
+        CompletableFuture<Void> poolWarmedUp = connected.thenRunAsync(() -> {
+            if (connectionManager != null && connectionManager.getPool() != null) {
+                connectionManager.getPool().warmUp(Math.min(poolSize, WARM_UP_CONNECTIONS));
+            }
+        }, executor);
+        CompletableFuture<Void> schemaReady = connected.thenRunAsync(() -> {
+            if (connectionManager != null) {
+                MySQLSchema.ensure(connectionManager);
+            }
+        }, executor);
+
+        // The watermark is taken before the caches fill, so the changes made meanwhile are applied afterwards
+        CompletableFuture<Void> followingChanges = schemaReady.thenRunAsync(() -> {
+            if (changePoller != null) {
+                changePoller.start();
+            }
+        }, executor);
+
+        // Check for the initial users and create them if they do not exist
+        // This is a common practice for initial setup or first run
+        CompletableFuture<Void> adminReady = schemaReady.thenRunAsync(() -> initializeAdminUser(authenticator), executor);
+        CompletableFuture<Void> userReady = schemaReady.thenRunAsync(() -> initializeUserUser(authenticator), executor);
+        CompletableFuture<List<Category>> categories = schemaReady.thenApplyAsync(ignored -> categoryDAO.getAllCategories(), executor);
+        CompletableFuture<Void> catalogReady = CompletableFuture.allOf(followingChanges, snapshotOpened).thenRunAsync(() -> {
+            if (snapshotBookDAO != null) {
+                snapshotBookDAO.reconcile();
+            }
+        }, executor);
+        CompletableFuture<Void> cacheReady = catalogReady.thenRunAsync(() -> {
+            if (cachingBookDAO != null) {
+                cachingBookDAO.preload();
+                System.out.println("Off-heap catalog cache loaded with " + cachingBookDAO.getCache().size() + " books.");
+            }
+        }, executor);
+        if (searchIndexingBookDAO != null) {
+            // Built from the cache when there is one, so the catalog is read from storage only once. On its
+            // own thread: the executor is shut down when the rest of the start-up is done
+            cacheReady.thenRunAsync(() -> {
+                searchIndexingBookDAO.load();
+                if (searchIndexingBookDAO.hasFuzzySearch()) {
+                    System.out.println("Fuzzy search index built with " + searchIndexingBookDAO.getFuzzyIndex().size() + " books.");
+                }
+                if (searchIndexingBookDAO.hasSuggestions()) {
+                    System.out.println("Suggestion index built with " + searchIndexingBookDAO.getSuggestionIndex().size() + " books.");
+                }
+                if (searchIndexingBookDAO.hasDuplicateCheck()) {
+                    System.out.println("Duplicate index built with " + searchIndexingBookDAO.getDuplicateIndex().size() + " books.");
                 }
+            }, runnable -> Thread.ofVirtual().name("search-index-build").start(runnable)).exceptionally(failure -> {
+                // Not fatal: the first fuzzy search tries again
+                System.err.println("Error building search indexes: " + failure.getMessage());
+                return null;
+            });
+        }
+
+        return CompletableFuture.allOf(poolWarmedUp, adminReady, userReady, categories, cacheReady)
+                .thenApply(ignored -> {
+                    reportStartupTime("Start-up finished");
+                    return categories.join();
+                })
+                .whenComplete((result, failure) -> executor.shutdown());
+    }
+
+    /**
+     * Opens one connection and checks that the database answers on it; closing it returns it to the pool.
+     * A failure stops the start-up.
+     *
+     * @param connectionManager The ConnectionManager to check.
+     * @throws DataAccessException if the database could not be reached.
+     */
+    private static void checkConnection(ConnectionManager connectionManager) {
+        try (Connection conn = connectionManager.getConnection()) {
+            if (!conn.isValid(5)) { // Seconds
+                throw new DataAccessException("Error connecting to the database: the connection did not respond.");
             }
+            LOG.info("Successfully connected to the database.");
         } catch (SQLException e) {
-            System.err.println("Error checking for admin user existence: " + e.getMessage());
-            // This might happen if the 'users' table doesn't exist yet, which is fine for first run.
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
+            throw new DataAccessException("Error connecting to the database: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Waits for the start-up work; exits the application if it failed.
+     *
+     * @param startup The start-up work.
+     * @return The categories loaded during start-up.
+     */
+    private static List<Category> awaitStartup(CompletableFuture<List<Category>> startup) {
+        try {
+            return startup.join();
+        } catch (CompletionException e) {
+            exitAfterStartupFailure(e);
+            return null; // Not reached
+        }
+    }
+
+    /**
+     * Reports a failed start-up step and exits.
+     *
+     * @param failure The failure, possibly wrapped in a CompletionException.
+     */
+    private static void exitAfterStartupFailure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof DataAccessException) {
+            System.err.println("Failed to connect to the database. Exiting application.");
+            showMessage("Failed to connect to the database. Please check your connection details and MySQL server.\n\n" + cause.getMessage(),
+                    "Database Connection Error", JOptionPane.ERROR_MESSAGE);
+        } else {
+            System.err.println("Start-up failed: " + cause);
+            cause.printStackTrace();
+            showMessage("Start-up failed:\n" + cause, "Start-up Error", JOptionPane.ERROR_MESSAGE);
         }
+        System.exit(1);
+    }
+
+    /**
+     * AppCDS training run (--cds-training): runs the start-up without a window, loads the classes
+     * of the first screens and exits, so that -XX:ArchiveClassesAtExit records what a real start needs.
+     *
+     * @param startup The start-up work.
+     */
+    private static void runCdsTraining(CompletableFuture<List<Category>> startup) {
+        awaitStartup(startup);
+        // The training run has no display: load the window classes without creating windows
+        for (Class<?> viewClass : List.of(LoginView.class, BookManagementView.class, BookTableModel.class, JOptionPane.class)) {
+            try {
+                Class.forName(viewClass.getName(), true, viewClass.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                System.err.println("AppCDS training: could not load " + viewClass.getName());
+            }
+        }
+        System.out.println("AppCDS training run finished.");
+        System.exit(0); // Runs the shutdown hooks; the JVM writes the archive on exit
+    }
+
+    /**
+     * Duplicate report run (--find-duplicates): indexes the catalog and writes every pair of books that
+     * are probably the same title and author entered twice, most similar first, as tab-separated values.
+     *
+     * @param bookDAO The BookDAO to read the catalog from.
+     * @param target The file to write, or "-" for the console.
+     */
+    private static void writeDuplicatesReport(BookDAO bookDAO, String target) {
+        long start = System.nanoTime();
+        List<Book> books = bookDAO.getAllBooks();
+        DuplicateIndex index = new DuplicateIndex();
+        index.rebuild(books);
+        List<DuplicatePair> duplicates = index.rankDuplicates(DuplicateIndex.MIN_SIMILARITY);
+
+        try (Writer writer = "-".equals(target)
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Paths.get(target), StandardCharsets.UTF_8)) {
+            writer.write("similarity\tid\ttitle\tauthor\tduplicate id\tduplicate title\tduplicate author\n");
+            for (DuplicatePair pair : duplicates) {
+                writer.write(String.format(Locale.ROOT, "%.3f\t%s\t%s\n", pair.getSimilarity(),
+                        reportColumns(pair.getFirst()), reportColumns(pair.getSecond())));
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing the duplicates report to " + target + ": " + e.getMessage());
+            System.exit(1);
+        }
+        System.err.println("Found " + duplicates.size() + " likely duplicate pair(s) among " + books.size() + " books in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    private static String reportColumns(Book book) {
+        // Tabs and line breaks would break the columns
+        return String.join("\t", book.getId().replaceAll("[\t\r\n]", " "), book.getTitle().replaceAll("[\t\r\n]", " "),
+                book.getAuthor().replaceAll("[\t\r\n]", " "));
+    }
+
+    /**
+     * Prints how long after JVM start a start-up milestone was reached, and whether an AppCDS
+     * archive was used, so cold (no archive) and warm (archive) starts can be compared.
+     *
+     * @param milestone What was reached, e.g. "Login window shown".
+     */
+    private static void reportStartupTime(String milestone) {
+        ProcessHandle.Info process = ProcessHandle.current().info();
+        String elapsed = process.startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis() + " ms")
+                .orElse("an unknown time");
+        boolean cds = process.arguments()
+                .map(arguments -> Arrays.stream(arguments).anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile")))
+                .orElse(false);
+        System.out.println(milestone + " " + elapsed + " after JVM start (" + (cds ? "warm: AppCDS archive" : "cold: no AppCDS archive") + ").");
+    }
+
+    /**
+     * Starts the headless JSON API and keeps the application running until it is stopped.
+     *
+     * @param port The port to listen on.
+     * @param bookDAO The BookDAO to serve.
+     * @param categoryDAO The CategoryDAO to serve.
+     * @param authenticator The UserAuthenticator for logins.
+     * @param loanDAO The LoanDAO for circulation, or null without it.
+     * @param holdAllocator The HoldAllocator for holds, or null without them; started here.
+     */
+    private static void startServer(String port, BookDAO bookDAO, CategoryDAO categoryDAO, UserAuthenticator authenticator,
+                                    LoanDAO loanDAO, HoldAllocator holdAllocator) {
+        if (holdAllocator != null) {
+            holdAllocator.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(holdAllocator::close, "hold-expiry-shutdown"));
+        }
+        try {
+            CatalogHttpServer server = new CatalogHttpServer(new InetSocketAddress(Integer.parseInt(port)), bookDAO, categoryDAO,
+                    authenticator, loanDAO, holdAllocator);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(2), "http-server-shutdown"));
+            System.out.println("Catalog API listening on http://localhost:" + server.getPort() + "/api");
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to start the catalog API on port " + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Creates the ConnectionManager for the MySQL database. No connection is opened yet.
+     *
+     * @param args The command line arguments (--db-url, --db-user, --db-password, --replicas, --balancing, --read-your-writes-ms,
+     *             --connect-timeout-ms, --socket-timeout-ms, --query-timeout-s).
+     * @param poolSize The maximum number of pooled connections per database.
+     * @return The ConnectionManager.
+     */
+    private static ConnectionManager createConnectionManager(String[] args, int poolSize) {
+        String url = getOption(args, "--db-url", DB_URL);
+        String username = getOption(args, "--db-user", DB_USERNAME);
+        String password = getOption(args, "--db-password", DB_PASSWORD);
+
+        // Time limits, so that a stalled server fails calls quickly instead of hanging the UI
+        DatabaseTimeouts defaults = DatabaseTimeouts.DEFAULTS;
+        DatabaseTimeouts timeouts = new DatabaseTimeouts(
+                Integer.parseInt(getOption(args, "--connect-timeout-ms", String.valueOf(defaults.getConnectTimeoutMillis()))),
+                Integer.parseInt(getOption(args, "--socket-timeout-ms", String.valueOf(defaults.getSocketTimeoutMillis()))),
+                Integer.parseInt(getOption(args, "--query-timeout-s", String.valueOf(defaults.getQueryTimeoutSeconds()))),
+                defaults.getBorrowTimeoutMillis());
+
+        // Optional read replicas; they use the same credentials as the primary
+        ReplicaSet replicas = null;
+        String replicaUrls = getOption(args, "--replicas", "");
+        if (!replicaUrls.isBlank()) {
+            List<String> urls = Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(u -> !u.isEmpty()).toList();
+            ReplicaSet.Balancing balancing = ReplicaSet.Balancing.fromName(getOption(args, "--balancing", "round-robin"));
+            long pinMillis = Long.parseLong(getOption(args, "--read-your-writes-ms", String.valueOf(DEFAULT_READ_YOUR_WRITES_MILLIS)));
+            replicas = new ReplicaSet(urls, username, password, poolSize, balancing, pinMillis, REPLICA_HEALTH_CHECK_MILLIS, timeouts);
+            System.out.println("Reading from " + urls.size() + " replica(s), " + balancing + " balancing.");
+        }
+
+        // Initialize ConnectionManager; DAOs share its pools of connections
+        return new ConnectionManager(url, username, password, poolSize, replicas, timeouts);
+    }
+
+    /**
+     * Returns the value of a {@code --name=value} command line option.
+     *
+     * @param args The command line arguments.
+     * @param name The option name, including the leading dashes.
+     * @param defaultValue The value to use if the option is not given.
+     * @return The option value.
+     */
+    private static String getOption(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Checks whether a flag without a value (e.g. {@code --server}) is present.
+     *
+     * @param args The command line arguments.
+     * @param name The flag, including the leading dashes.
+     * @return true if the flag is present.
+     */
+    private static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shows a message in a dialog, or on the console in server mode where there is no screen.
+     *
+     * @param message The message text.
+     * @param title The dialog title.
+     * @param messageType The JOptionPane message type.
+     */
+    private static void showMessage(String message, String title, int messageType) {
+        if (headless) {
+            // Errors are already printed to System.err by the callers; only informational messages need echoing
+            if (messageType != JOptionPane.ERROR_MESSAGE) {
+                System.out.println(title + ": " + message.replace('\n', ' '));
+            }
+        } else if (SwingUtilities.isEventDispatchThread()) {
+            JOptionPane.showMessageDialog(null, message, title, messageType);
+        } else {
+            // Start-up tasks run in the background; dialogs must be shown on the EDT
+            try {
+                SwingUtilities.invokeAndWait(() -> JOptionPane.showMessageDialog(null, message, title, messageType));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (InvocationTargetException e) {
+                System.err.println("Error showing message '" + title + "': " + e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Initializes an admin user if no users exist in the database.
+     * This is useful for the very first run of the application.
+     *
+     * @param authenticator The UserAuthenticator instance.
+     */
+    private static void initializeAdminUser(UserAuthenticator authenticator) {
+        // If the "admin" user does not exist yet, we create it
+        boolean adminExists = authenticator.userExists("admin", null);
 
         if (!adminExists) {
             // Create a default admin user if one does not exist
@@ -135,13 +764,13 @@ public class Main {
 
             if (authenticator.createUser(defaultAdminUsername, defaultAdminPassword, "ADMIN")) {
                 System.out.println("Default ADMIN user '" + defaultAdminUsername + "' created successfully.");
-                JOptionPane.showMessageDialog(null,
+                showMessage(
                         "Initial ADMIN user created:\nUsername: " + defaultAdminUsername + "\nPassword: " + defaultAdminPassword +
                                 "\nPlease change this password after first login for security.",
                         "Initial Setup", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 System.err.println("Failed to create default ADMIN user.");
-                JOptionPane.showMessageDialog(null, "Failed to create default ADMIN user.", "Initial Setup Error", JOptionPane.ERROR_MESSAGE);
+                showMessage("Failed to create default ADMIN user.", "Initial Setup Error", JOptionPane.ERROR_MESSAGE);
             }
         } else {
             System.out.println("Admin user already exists. Skipping initial admin creation.");
@@ -152,31 +781,10 @@ public class Main {
      * Initializes a standard user if one does not exist in the database.
      *
      * @param authenticator The UserAuthenticator instance.
-     * @param connectionManager The ConnectionManager instance.
      */
-    private static void initializeUserUser(UserAuthenticator authenticator, ConnectionManager connectionManager) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        boolean userExists = false;
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                // Check any USER named 'user'
-                pstmt = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE username = 'user' AND role = 'USER'");
-                rs = pstmt.executeQuery();
-                if (rs.next() && rs.getInt(1) > 0) {
-                    userExists = true;
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error checking for user existence: " + e.getMessage());
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
+    private static void initializeUserUser(UserAuthenticator authenticator) {
+        // Check any USER named 'user'
+        boolean userExists = authenticator.userExists("user", "USER");
 
         if (!userExists) {
             // Create USER
@@ -184,12 +792,12 @@ public class Main {
             String defaultUserPassword = "userpassword"; //Chose a strong password.
             if (authenticator.createUser(defaultUserUsername, defaultUserPassword, "USER")) {
                 System.out.println("Default USER user '" + defaultUserUsername + "' created successfully.");
-                JOptionPane.showMessageDialog(null,
+                showMessage(
                         "Initial USER user created:\nUsername: " + defaultUserUsername + "\nPassword: " + defaultUserPassword,
                         "Initial Setup", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 System.err.println("Failed to create default USER user.");
-                JOptionPane.showMessageDialog(null, "Failed to create default USER user.", "Initial Setup Error", JOptionPane.ERROR_MESSAGE);
+                showMessage("Failed to create default USER user.", "Initial Setup Error", JOptionPane.ERROR_MESSAGE);
             }
         } else {
             System.out.println("User user already exists. Skipping initial user creation.");
@@ -0,0 +1,80 @@
+package com.librarymanagementsystem.audit;
+
+import java.time.Instant;
+
+/**
+ * One entry of the audit trail: who changed which record, how and when. Immutable.
+ */
+public final class AuditEvent {
+
+    /**
+     * The kind of change.
+     */
+    public enum Action {
+        ADD, UPDATE, DELETE
+    }
+
+    public static final String BOOK = "BOOK";
+    public static final String CATEGORY = "CATEGORY";
+
+    private final long timestamp;   // System.currentTimeMillis() when the change returned
+    private final String actor;     // Username, or AuditLog.UNKNOWN_ACTOR
+    private final Action action;
+    private final String entity;    // BOOK or CATEGORY
+    private final String entityId;
+    private final String detail;    // Title or name after the change; null for deletes
+
+    /**
+     * @param timestamp The time of the change, in milliseconds since the epoch.
+     * @param actor The user who made the change.
+     * @param action The kind of change.
+     * @param entity The kind of record, e.g. {@link #BOOK}.
+     * @param entityId The ID of the record.
+     * @param detail A short description of the record after the change, or null.
+     */
+    public AuditEvent(long timestamp, String actor, Action action, String entity, String entityId, String detail) {
+        this.timestamp = timestamp;
+        this.actor = actor;
+        this.action = action;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.detail = detail;
+    }
+
+    // Getter Methods
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditEvent{" +
+                "time=" + Instant.ofEpochMilli(timestamp) +
+                ", actor='" + actor + '\'' +
+                ", action=" + action +
+                ", entity='" + entity + '\'' +
+                ", entityId='" + entityId + '\'' +
+                ", detail='" + detail + '\'' +
+                '}';
+    }
+}
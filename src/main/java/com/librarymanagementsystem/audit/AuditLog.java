@@ -0,0 +1,281 @@
+package com.librarymanagementsystem.audit;
+
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.util.MpscRingBuffer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * The audit trail of catalog changes, written in the background so that recording a change costs
+ * the caller no I/O.
+ * <p>
+ * {@link #record} stamps the event with the time and the current user and puts it in a bounded
+ * lock-free ring buffer. A writer thread drains the buffer in batches of up to the batch size and
+ * hands each batch to an {@link AuditSink} in one call (one file write, or one JDBC batch), so the
+ * cost of the storage is shared by every change that arrived while the previous batch was written.
+ * A batch the sink fails to store is retried with backoff until it succeeds; meanwhile the buffer
+ * takes up the changes. If it fills up, {@link #record} waits briefly for room (not at all while the
+ * sink is failing) and then drops the event, which is counted and reported, rather than stall the catalog.
+ * <p>
+ * Changes made inside an {@link AuditingTransactionRunner} transaction are held back until it
+ * commits, and discarded if it rolls back.
+ */
+public class AuditLog implements AutoCloseable {
+
+    private static final Logger LOG = Logger.get(AuditLog.class);
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final String UNKNOWN_ACTOR = "unknown";
+
+    private static final long IDLE_PARK_NANOS = 10_000_000;   // The writer looks for work at least this often
+    private static final long FULL_WAIT_NANOS = 100_000_000;  // How long record waits for room before dropping
+    private static final long FULL_PARK_NANOS = 100_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5_000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    private final AuditSink sink;
+    private final Supplier<String> actor;
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final Thread writer;
+    private final ThreadLocal<Transaction> transactions = new ThreadLocal<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long written;          // Events stored by the sink; updated by the writer only
+    private volatile long taken;            // Events the writer is done with, written or dropped; writer only
+    private volatile boolean writerIdle;    // The writer is parked with nothing to do
+    private volatile boolean sinkFailing;   // The last write failed; a full buffer will not drain soon
+    private volatile boolean closed;
+    private long reportedDrops;             // Used by the writer only
+
+    /**
+     * Creates the log with the default buffer capacity and batch size and starts its writer.
+     *
+     * @param sink Where the events are written.
+     * @param actor Names the user on whose behalf the calling thread changes the catalog; may return null.
+     */
+    public AuditLog(AuditSink sink, Supplier<String> actor) {
+        this(sink, actor, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates the log and starts its writer.
+     *
+     * @param sink Where the events are written.
+     * @param actor Names the user on whose behalf the calling thread changes the catalog; may return null.
+     * @param capacity The most events waiting to be written, rounded up to a power of two.
+     * @param batchSize The most events handed to the sink at once.
+     */
+    public AuditLog(AuditSink sink, Supplier<String> actor, int capacity, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.sink = sink;
+        this.actor = actor;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records a change made by the current user. Does not wait for the event to be written.
+     *
+     * @param action The kind of change.
+     * @param entity The kind of record, e.g. {@link AuditEvent#BOOK}.
+     * @param entityId The ID of the record.
+     * @param detail A short description of the record after the change, or null.
+     */
+    public void record(AuditEvent.Action action, String entity, String entityId, String detail) {
+        String user = actor.get();
+        AuditEvent event = new AuditEvent(System.currentTimeMillis(), user != null ? user : UNKNOWN_ACTOR,
+                action, entity, entityId, detail);
+        Transaction transaction = transactions.get();
+        if (transaction != null) {
+            transaction.events.add(event); // Published when the transaction commits
+        } else {
+            publish(event);
+        }
+    }
+
+    /**
+     * Waits until every event recorded so far has been written.
+     *
+     * @param timeout The longest time to wait.
+     * @return true if they were written in time.
+     */
+    public boolean flush(Duration timeout) {
+        long target = buffer.claimed();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (taken < target) {
+            if (System.nanoTime() - deadline > 0 || !writer.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of events written by the sink.
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * @return The number of events lost because the buffer was full, or the log was closed, or the
+     *         sink still failed while the log was closing.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes what is left in the buffer, stops the writer and closes the sink. Events recorded
+     * afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            LOG.warn("Error closing the audit log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts holding back the current thread's events; transactions may be nested.
+     */
+    void beginTransaction() {
+        Transaction transaction = transactions.get();
+        if (transaction == null) {
+            transaction = new Transaction();
+            transactions.set(transaction);
+        }
+        transaction.depth++;
+    }
+
+    /**
+     * Ends a transaction started with {@link #beginTransaction()}. Inner transactions join the
+     * outermost one, so only its end publishes or discards the events.
+     *
+     * @param committed true to publish the events held back, false to discard them.
+     */
+    void endTransaction(boolean committed) {
+        Transaction transaction = transactions.get();
+        if (transaction == null || --transaction.depth > 0) {
+            return;
+        }
+        transactions.remove();
+        if (committed) {
+            for (AuditEvent event : transaction.events) {
+                publish(event);
+            }
+        }
+    }
+
+    private void publish(AuditEvent event) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (!buffer.offer(event)) {
+            if (sinkFailing) {
+                dropped.incrementAndGet();
+                return;
+            }
+            // Full: give the writer a moment to catch up before giving up on the event
+            LockSupport.unpark(writer);
+            long deadline = System.nanoTime() + FULL_WAIT_NANOS;
+            while (!buffer.offer(event)) {
+                if (System.nanoTime() - deadline > 0) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void runWriter() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long retryDelayMillis = 0;
+        while (true) {
+            if (batch.isEmpty() && buffer.drainTo(batch, batchSize) == 0) {
+                if (closed) {
+                    break;
+                }
+                writerIdle = true;
+                if (buffer.size() == 0) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+                continue;
+            }
+            try {
+                sink.write(batch);
+                written += batch.size();
+                taken += batch.size();
+                batch.clear();
+                retryDelayMillis = 0;
+                if (sinkFailing) {
+                    sinkFailing = false;
+                    LOG.info("Audit log: writing again.");
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!sinkFailing) {
+                    sinkFailing = true;
+                    LOG.error("Error writing the audit log, retrying until it works: {}", e.getMessage());
+                }
+                if (closed) {
+                    dropped.addAndGet(batch.size()); // No time left to retry
+                    taken += batch.size();
+                    batch.clear();
+                } else {
+                    retryDelayMillis = Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(100, retryDelayMillis * 2));
+                    LockSupport.parkNanos(this, retryDelayMillis * 1_000_000);
+                }
+            }
+            reportDrops();
+        }
+        reportDrops();
+    }
+
+    private void reportDrops() {
+        long drops = dropped.get();
+        if (drops > reportedDrops) {
+            LOG.warn("Audit log: {} events dropped ({} in total)", drops - reportedDrops, drops);
+            reportedDrops = drops;
+        }
+    }
+
+    /**
+     * The events of the current thread's transaction.
+     */
+    private static final class Transaction {
+        int depth;
+        final List<AuditEvent> events = new ArrayList<>();
+    }
+}
@@ -0,0 +1,26 @@
+package com.librarymanagementsystem.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where the {@link AuditLog} writer puts the audit trail. Called by one thread at a time.
+ */
+public interface AuditSink extends AutoCloseable {
+
+    /**
+     * Stores a batch of events, in order. If it throws, the same batch is written again later, so a
+     * sink should store all of it or none of it where it can.
+     *
+     * @param events The events, oldest first; never empty.
+     * @throws IOException if a file could not be written.
+     * @throws com.librarymanagementsystem.dao.DataAccessException if the database could not be written.
+     */
+    void write(List<AuditEvent> events) throws IOException;
+
+    /**
+     * Releases the sink's resources. Called once, after the last write.
+     */
+    @Override
+    void close() throws IOException;
+}
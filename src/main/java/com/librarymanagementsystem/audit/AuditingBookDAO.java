@@ -0,0 +1,104 @@
+package com.librarymanagementsystem.audit;
+
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Book;
+
+import java.util.List;
+
+/**
+ * A BookDAO decorator that records every book added, updated or deleted through it in an
+ * {@link AuditLog}, after the storage accepted the change. Reads are passed through unchanged.
+ */
+public class AuditingBookDAO implements BookDAO {
+
+    private final BookDAO delegate;
+    private final AuditLog auditLog;
+
+    /**
+     * @param delegate The DAO that owns the books.
+     * @param auditLog The log to record the changes in.
+     */
+    public AuditingBookDAO(BookDAO delegate, AuditLog auditLog) {
+        this.delegate = delegate;
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        return delegate.getAllBooks();
+    }
+
+    @Override
+    public boolean addBook(Book book) {
+        boolean added = delegate.addBook(book);
+        if (added) {
+            auditLog.record(AuditEvent.Action.ADD, AuditEvent.BOOK, book.getId(), book.getTitle());
+        }
+        return added;
+    }
+
+    @Override
+    public UpdateResult updateBook(Book book) {
+        UpdateResult result = delegate.updateBook(book);
+        if (result.isUpdated()) {
+            auditLog.record(AuditEvent.Action.UPDATE, AuditEvent.BOOK, book.getId(), book.getTitle());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean deleteBook(String bookId) {
+        boolean deleted = delegate.deleteBook(bookId);
+        if (deleted) {
+            auditLog.record(AuditEvent.Action.DELETE, AuditEvent.BOOK, bookId, null);
+        }
+        return deleted;
+    }
+
+    @Override
+    public Book getBookById(String bookId) {
+        return delegate.getBookById(bookId);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId) {
+        return delegate.getBooksByCategory(categoryId);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories) {
+        return delegate.getBooksByCategory(categoryId, includeSubcategories);
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        return delegate.searchBooksByTitle(title);
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear) {
+        return delegate.advancedSearch(title, author, categoryId, minYear, maxYear);
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        return delegate.advancedSearch(title, author, categoryId, includeSubcategories, minYear, maxYear);
+    }
+
+    @Override
+    public long getChangeWatermark() {
+        return delegate.getChangeWatermark();
+    }
+
+    @Override
+    public BookChangeSet getChangesSince(long watermark, int limit) {
+        return delegate.getChangesSince(watermark, limit);
+    }
+
+    @Override
+    public void releaseChanges(long watermark) {
+        delegate.releaseChanges(watermark);
+    }
+}
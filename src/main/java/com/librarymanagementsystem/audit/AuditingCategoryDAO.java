@@ -0,0 +1,74 @@
+package com.librarymanagementsystem.audit;
+
+import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Category;
+
+import java.util.List;
+
+/**
+ * A CategoryDAO decorator that records every category added, updated or deleted through it in an
+ * {@link AuditLog}, after the storage accepted the change. The books deleted with a category are
+ * covered by the category's entry. Reads are passed through unchanged.
+ */
+public class AuditingCategoryDAO implements CategoryDAO {
+
+    private final CategoryDAO delegate;
+    private final AuditLog auditLog;
+
+    /**
+     * @param delegate The DAO that owns the categories.
+     * @param auditLog The log to record the changes in.
+     */
+    public AuditingCategoryDAO(CategoryDAO delegate, AuditLog auditLog) {
+        this.delegate = delegate;
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public boolean addCategory(Category category) {
+        boolean added = delegate.addCategory(category);
+        if (added) {
+            auditLog.record(AuditEvent.Action.ADD, AuditEvent.CATEGORY, String.valueOf(category.getId()), category.getName());
+        }
+        return added;
+    }
+
+    @Override
+    public UpdateResult updateCategory(Category category) {
+        UpdateResult result = delegate.updateCategory(category);
+        if (result.isUpdated()) {
+            auditLog.record(AuditEvent.Action.UPDATE, AuditEvent.CATEGORY, String.valueOf(category.getId()), category.getName());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean deleteCategory(int categoryId) {
+        boolean deleted = delegate.deleteCategory(categoryId);
+        if (deleted) {
+            auditLog.record(AuditEvent.Action.DELETE, AuditEvent.CATEGORY, String.valueOf(categoryId), null);
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<Category> getAllCategories() {
+        return delegate.getAllCategories();
+    }
+
+    @Override
+    public List<Category> getSubcategories(int parentId) {
+        return delegate.getSubcategories(parentId);
+    }
+
+    @Override
+    public Category getCategoryById(int categoryId) {
+        return delegate.getCategoryById(categoryId);
+    }
+
+    @Override
+    public Category getCategoryByName(String name) {
+        return delegate.getCategoryByName(name);
+    }
+}
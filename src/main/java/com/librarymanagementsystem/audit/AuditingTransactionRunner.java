@@ -0,0 +1,38 @@
+package com.librarymanagementsystem.audit;
+
+import com.librarymanagementsystem.dao.TransactionRunner;
+
+import java.util.function.Supplier;
+
+/**
+ * A TransactionRunner decorator that keeps an {@link AuditLog} consistent with rollbacks. The
+ * changes recorded during a transaction are held back and only reach the log when it commits;
+ * if it rolls back, they did not happen and are discarded.
+ */
+public class AuditingTransactionRunner implements TransactionRunner {
+
+    private final TransactionRunner delegate;
+    private final AuditLog auditLog;
+
+    /**
+     * @param delegate The runner of the underlying storage.
+     * @param auditLog The log the audited DAOs record in.
+     */
+    public AuditingTransactionRunner(TransactionRunner delegate, AuditLog auditLog) {
+        this.delegate = delegate;
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public <T> T inTransaction(int isolation, boolean batchWrites, Supplier<T> work) {
+        auditLog.beginTransaction();
+        boolean committed = false;
+        try {
+            T result = delegate.inTransaction(isolation, batchWrites, work);
+            committed = true;
+            return result;
+        } finally {
+            auditLog.endTransaction(committed);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.librarymanagementsystem.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Appends the audit trail to text files in a directory, one event per line, tab-separated:
+ * time (ISO-8601, UTC), user, action, entity, ID and detail; tabs, line breaks and backslashes in
+ * values are escaped with a backslash.
+ * <p>
+ * The files are segments named {@code audit-000001.log}, {@code audit-000002.log}, ...; a new segment
+ * is started when the current one would grow past the segment size, and at every start, so a segment
+ * is never written to again once closed and can be archived or shipped as it is. A batch is one write;
+ * with {@link Durability#SYNC} it is also forced to disk before the next batch is taken.
+ */
+public class FileAuditSink implements AuditSink {
+
+    /**
+     * How far a batch is written before the writer goes on.
+     */
+    public enum Durability {
+        /** Handed to the operating system: survives a process crash but not a power loss. */
+        FAST,
+        /** Forced to disk (fsync), once per batch. */
+        SYNC;
+
+        /**
+         * @param name "fast" or "sync" (case-insensitive).
+         * @return The matching mode.
+         */
+        public static Durability fromName(String name) {
+            return valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+    private static final String HEADER = "# time\tuser\taction\tentity\tid\tdetail\n";
+
+    private final Path directory;
+    private final Durability durability;
+    private final long segmentBytes;
+    private final StringBuilder text = new StringBuilder(); // Reused for every batch
+    private FileChannel channel;
+    private long segmentSize;
+    private int segmentNumber;
+
+    /**
+     * Opens a sink with the default segment size.
+     *
+     * @param directory The directory of the segments; created if missing.
+     * @param durability Whether every batch is forced to disk.
+     * @throws IOException if the directory or the first segment cannot be created.
+     */
+    public FileAuditSink(Path directory, Durability durability) throws IOException {
+        this(directory, durability, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param directory The directory of the segments; created if missing.
+     * @param durability Whether every batch is forced to disk.
+     * @param segmentBytes The size after which a new segment is started.
+     * @throws IOException if the directory or the first segment cannot be created.
+     */
+    public FileAuditSink(Path directory, Durability durability, long segmentBytes) throws IOException {
+        if (segmentBytes < HEADER.length()) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.durability = durability;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        segmentNumber = lastSegmentNumber(directory);
+        openNextSegment();
+    }
+
+    @Override
+    public void write(List<AuditEvent> events) throws IOException {
+        text.setLength(0);
+        for (AuditEvent event : events) {
+            text.append(Instant.ofEpochMilli(event.getTimestamp())).append('\t');
+            appendEscaped(event.getActor());
+            text.append('\t').append(event.getAction()).append('\t');
+            appendEscaped(event.getEntity());
+            text.append('\t');
+            appendEscaped(event.getEntityId());
+            text.append('\t');
+            appendEscaped(event.getDetail());
+            text.append('\n');
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+        if (segmentSize > HEADER.length() && segmentSize + bytes.remaining() > segmentBytes) {
+            channel.close();
+            openNextSegment();
+        }
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            if (durability == Durability.SYNC) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // The batch is written again: cut off the part that made it, so it is not there twice
+            try {
+                channel.truncate(segmentSize);
+            } catch (IOException ignored) {
+                // Reported through the original failure
+            }
+            throw e;
+        }
+        segmentSize = channel.size();
+    }
+
+    /**
+     * @return The segment being written.
+     */
+    public Path getCurrentSegment() {
+        return segmentPath(segmentNumber);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (durability == Durability.SYNC) {
+            channel.force(false);
+        }
+        channel.close();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        channel = FileChannel.open(segmentPath(segmentNumber), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        ByteBuffer header = StandardCharsets.UTF_8.encode(HEADER);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        segmentSize = channel.size();
+        if (durability == Durability.SYNC) {
+            channel.force(false);
+            syncDirectory(); // So the new file itself survives a power loss
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%s%06d%s", PREFIX, number, SUFFIX));
+    }
+
+    private static int lastSegmentNumber(Path directory) throws IOException {
+        int last = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    try {
+                        last = Math.max(last, Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // Not one of ours
+                    }
+                }
+            }
+        }
+        return last;
+    }
+
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform (e.g. Windows)
+        }
+    }
+
+    private void appendEscaped(String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t' -> text.append("\\t");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                case '\\' -> text.append("\\\\");
+                default -> text.append(c);
+            }
+        }
+    }
+}
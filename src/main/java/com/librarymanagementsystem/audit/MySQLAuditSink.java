@@ -0,0 +1,69 @@
+package com.librarymanagementsystem.audit;
+
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.util.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Writes the audit trail to the {@code audit_log} table: each batch is one JDBC batch of inserts in
+ * one transaction, so it is stored completely or not at all. Values longer than their column are
+ * cut, so a batch is never rejected and retried forever.
+ * <p>
+ * Once committed, a batch is as durable as the database makes commits (for InnoDB,
+ * {@code innodb_flush_log_at_trx_commit}); {@link FileAuditSink.Durability} does not apply.
+ */
+public class MySQLAuditSink implements AuditSink {
+
+    private static final String INSERT = "INSERT INTO audit_log (occurred_at, username, action, entity, entity_id, detail) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final ConnectionManager connectionManager;
+
+    /**
+     * @param connectionManager The ConnectionManager of the database with the {@code audit_log} table.
+     */
+    public MySQLAuditSink(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void write(List<AuditEvent> events) {
+        boolean stored = connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error writing the audit log", conn -> {
+                    try (PreparedStatement pstmt = conn.prepareStatement(INSERT)) {
+                        for (AuditEvent event : events) {
+                            pstmt.setTimestamp(1, new Timestamp(event.getTimestamp()));
+                            pstmt.setString(2, cut(event.getActor(), 50));
+                            pstmt.setString(3, event.getAction().name());
+                            pstmt.setString(4, cut(event.getEntity(), 20));
+                            pstmt.setString(5, cut(event.getEntityId(), 50));
+                            if (event.getDetail() != null) {
+                                pstmt.setString(6, cut(event.getDetail(), 255));
+                            } else {
+                                pstmt.setNull(6, Types.VARCHAR);
+                            }
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    }
+                    return true;
+                }));
+        if (!stored) {
+            throw new DataAccessException("The audit_log table rejected a batch of " + events.size() + " events");
+        }
+    }
+
+    @Override
+    public void close() {
+        // The connections belong to the ConnectionManager
+    }
+
+    private static String cut(String value, int length) {
+        return value.length() <= length ? value : value.substring(0, length);
+    }
+}
@@ -0,0 +1,71 @@
+package com.librarymanagementsystem.auth;
+
+/**
+ * A logged-in user's session. The role is captured at login, so permission checks
+ * do not need to read the users table again.
+ */
+public class Session {
+
+    private final String token;     // Opaque session token handed to the client
+    private final String username;  // Authenticated user
+    private final String role;      // Role at login time (e.g., "ADMIN", "USER")
+    private final long createdAt;   // Login time, System.currentTimeMillis()
+    private volatile long lastAccessNanos; // Last use, System.nanoTime(); drives idle expiry
+
+    /**
+     * Creates a session that was last used now.
+     *
+     * @param token The session token.
+     * @param username The authenticated username.
+     * @param role The user's role.
+     */
+    public Session(String token, String username, String role) {
+        this.token = token;
+        this.username = username;
+        this.role = role;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    // Getter Methods
+    public String getToken() {
+        return token;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    /**
+     * Records a use of the session at the given time.
+     * Writes are skipped within the same second, so sessions checked by many threads
+     * at once do not keep invalidating each other's cache line.
+     */
+    void touch(long nowNanos) {
+        if (nowNanos - lastAccessNanos > 1_000_000_000L) {
+            lastAccessNanos = nowNanos;
+        }
+    }
+
+    @Override
+    public String toString() {
+        // The token is a credential, so it is not included
+        return "Session{" +
+                "username='" + username + '\'' +
+                ", role='" + role + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
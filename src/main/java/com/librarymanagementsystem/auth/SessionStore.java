@@ -0,0 +1,121 @@
+package com.librarymanagementsystem.auth;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe store of active sessions, keyed by token.
+ * <p>
+ * A session expires when it has not been used for the idle timeout. Expired sessions are
+ * rejected on lookup and removed by a background sweep, so abandoned logins do not pile up.
+ */
+public class SessionStore implements AutoCloseable {
+
+    private static final int TOKEN_BYTES = 32; // 256 random bits
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Creates a session store and starts its expiry sweep.
+     *
+     * @param idleTimeout How long a session stays valid without being used.
+     */
+    public SessionStore(Duration idleTimeout) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be positive");
+        }
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, Math.min(idleTimeout.toMillis(), TimeUnit.MINUTES.toMillis(1)));
+        sweeper.scheduleWithFixedDelay(this::removeExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a new session.
+     *
+     * @param username The authenticated username.
+     * @param role The user's role.
+     * @return The new session; its token is unguessable and unique.
+     */
+    public Session create(String username, String role) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, username, role);
+        sessions.put(token, session);
+        return session;
+    }
+
+    /**
+     * Looks up a session and marks it as used.
+     *
+     * @param token The session token.
+     * @return The session, or null if the token is unknown or the session has expired.
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - session.getLastAccessNanos() > idleTimeoutNanos) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * Ends a session.
+     *
+     * @param token The session token.
+     * @return true if the session existed.
+     */
+    public boolean remove(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    /**
+     * Removes every session that has been idle for longer than the timeout.
+     *
+     * @return The number of sessions removed.
+     */
+    public int removeExpired() {
+        long now = System.nanoTime();
+        int before = sessions.size();
+        sessions.values().removeIf(session -> now - session.getLastAccessNanos() > idleTimeoutNanos);
+        return Math.max(0, before - sessions.size());
+    }
+
+    /**
+     * @return The number of sessions currently stored, including expired ones not yet swept.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops the expiry sweep and drops all sessions.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        sessions.clear();
+    }
+}
@@ -1,74 +1,77 @@
 package com.librarymanagementsystem.auth;
 
+import com.librarymanagementsystem.dao.MySQLUserDAO;
+import com.librarymanagementsystem.dao.UserDAO;
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.User;
 import com.librarymanagementsystem.util.ConnectionManager;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Base64; // For Base64 encoding/decoding
 
 /**
  * Handles user authentication, including password hashing, verification,
- * and session management. Interacts with the 'users' table in the database.
+ * and session management. User accounts are read and stored through a UserDAO.
+ * <p>
+ * Each successful login gets its own session token, so one instance serves any number of
+ * concurrent users. The user's role is stored with the session, and permission checks are
+ * answered from the session store without touching the users table.
  */
 public class UserAuthenticator {
 
-    private final ConnectionManager connectionManager;
-    private String currentUserRole; // Stores the role of the currently logged-in user
+    private static final Logger LOG = Logger.get(UserAuthenticator.class);
+
+    // Sessions unused for this long must log in again
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final UserDAO userDAO;
+    private final SessionStore sessions;
 
     /**
-     * Constructor for UserAuthenticator.
+     * Constructor for UserAuthenticator backed by the MySQL 'users' table.
      *
      * @param connectionManager The ConnectionManager instance to manage database connections.
      */
     public UserAuthenticator(ConnectionManager connectionManager) {
-        this.connectionManager = connectionManager;
+        this(new MySQLUserDAO(connectionManager));
     }
 
     /**
-     * Authenticates a user based on username and password.
+     * Constructor for UserAuthenticator backed by any user storage.
      *
-     * @param username The username provided by the user.
-     * @param password The plain text password provided by the user.
-     * @return true if authentication is successful, false otherwise.
+     * @param userDAO The UserDAO used to look up and create user accounts.
      */
-    public boolean authenticate(String username, String password) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        boolean authenticated = false;
+    public UserAuthenticator(UserDAO userDAO) {
+        this(userDAO, new SessionStore(DEFAULT_IDLE_TIMEOUT));
+    }
 
-        String sql = "SELECT password_hash, role FROM users WHERE username = ?";
+    /**
+     * Constructor for UserAuthenticator with a specific session store.
+     *
+     * @param userDAO The UserDAO used to look up and create user accounts.
+     * @param sessions The store that holds the sessions of logged-in users.
+     */
+    public UserAuthenticator(UserDAO userDAO, SessionStore sessions) {
+        this.userDAO = userDAO;
+        this.sessions = sessions;
+    }
 
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, username);
-                rs = pstmt.executeQuery();
-
-                if (rs.next()) {
-                    String storedHash = rs.getString("password_hash");
-                    String userRole = rs.getString("role");
-
-                    if (verifyPassword(password, storedHash)) {
-                        this.currentUserRole = userRole; // Set the role of the authenticated user
-                        authenticated = true;
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Database error during authentication: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
+    /**
+     * Authenticates a user based on username and password and starts a session.
+     *
+     * @param username The username provided by the user.
+     * @param password The plain text password provided by the user.
+     * @return The session token if authentication is successful, null otherwise.
+     */
+    public String authenticate(String username, String password) {
+        User user = userDAO.getUserByUsername(username);
+        if (user != null && verifyPassword(password, user.getPasswordHash())) {
+            return sessions.create(user.getUsername(), user.getRole()).getToken();
         }
-        return authenticated;
+        return null;
     }
 
     /**
@@ -83,8 +86,7 @@ public class UserAuthenticator {
             byte[] hash = digest.digest(password.getBytes());
             return Base64.getEncoder().encodeToString(hash); // Encode to Base64 for safe storage
         } catch (NoSuchAlgorithmException e) {
-            System.err.println("SHA-256 algorithm not found: " + e.getMessage());
-            e.printStackTrace();
+            LOG.at(Level.ERROR).cause(e).log("SHA-256 algorithm not found: {}", e.getMessage());
             return null;
         }
     }
@@ -111,59 +113,72 @@ public class UserAuthenticator {
      * @return true if the user was successfully created, false otherwise.
      */
     public boolean createUser(String username, String password, String role) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        boolean success = false;
-
         // Hash the password before storing it
         String hashedPassword = hashPassword(password);
         if (hashedPassword == null) {
-            System.err.println("Failed to hash password for user: " + username);
+            LOG.error("Failed to hash password for user: {}", username);
             return false;
         }
+        return userDAO.addUser(new User(username, hashedPassword, role));
+    }
 
-        String sql = "INSERT INTO users (username, password_hash, role) VALUES (?, ?, ?)";
+    /**
+     * Checks whether a user account exists, optionally with a specific role.
+     *
+     * @param username The username to look up.
+     * @param role     The required role, or null to accept any role.
+     * @return true if a matching user exists, false otherwise.
+     */
+    public boolean userExists(String username, String role) {
+        User user = userDAO.getUserByUsername(username);
+        return user != null && (role == null || role.equals(user.getRole()));
+    }
 
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, username);
-                pstmt.setString(2, hashedPassword);
-                pstmt.setString(3, role);
-
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    success = true;
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error creating user '" + username + "': " + e.getMessage());
-            // Check for duplicate entry error (e.g., if username is not unique)
-            if (e.getSQLState().startsWith("23")) { // SQLState for integrity constraint violation
-                System.err.println("Username already exists or other data integrity issue.");
-            }
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return success;
+    /**
+     * Retrieves the session of a logged-in user.
+     *
+     * @param sessionToken The token returned by authenticate.
+     * @return The session, or null if the token is unknown or has expired.
+     */
+    public Session getSession(String sessionToken) {
+        return sessions.get(sessionToken);
+    }
+
+    /**
+     * Retrieves the role of the user who owns a session.
+     *
+     * @param sessionToken The token returned by authenticate.
+     * @return The role string (e.g., "ADMIN", "USER"), or null if the session is not valid.
+     */
+    public String getRole(String sessionToken) {
+        Session session = sessions.get(sessionToken);
+        return session != null ? session.getRole() : null;
     }
 
     /**
-     * Retrieves the role of the currently authenticated user.
-     * @return The role string (e.g., "ADMIN", "USER"), or null if no user is authenticated.
+     * Checks whether a session is valid and belongs to a user with the given role.
+     *
+     * @param sessionToken The token returned by authenticate.
+     * @param role The required role (e.g., "ADMIN").
+     * @return true if the session is valid and has the role, false otherwise.
+     */
+    public boolean hasRole(String sessionToken, String role) {
+        return role.equalsIgnoreCase(getRole(sessionToken));
+    }
+
+    /**
+     * Ends a session, effectively logging out the user.
+     *
+     * @param sessionToken The token returned by authenticate.
      */
-    public String getCurrentUserRole() {
-        return currentUserRole;
+    public void logout(String sessionToken) {
+        sessions.remove(sessionToken);
     }
 
     /**
-     * Resets the current user role, effectively logging out the user.
+     * @return The store holding the sessions of logged-in users.
      */
-    public void logout() {
-        this.currentUserRole = null; // Clear the current user's role
-        System.out.println("User logged out.");
+    public SessionStore getSessionStore() {
+        return sessions;
     }
 }
\ No newline at end of file
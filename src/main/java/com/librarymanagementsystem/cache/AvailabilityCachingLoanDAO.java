@@ -0,0 +1,129 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.LoanDAO;
+import com.librarymanagementsystem.dao.LoanResult;
+import com.librarymanagementsystem.model.BookAvailability;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Loan;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A LoanDAO decorator that answers availability from a {@link StripedAvailabilityCache}, so a kiosk
+ * showing whether a book is on the shelf does not query the database every time.
+ * <p>
+ * Checkouts, returns and copy changes always go to the delegate, which decides them with
+ * conditional updates in storage; their outcome is then applied to the cached counts.
+ */
+public class AvailabilityCachingLoanDAO implements LoanDAO {
+
+    private final LoanDAO delegate;
+    private final StripedAvailabilityCache cache;
+
+    /**
+     * Creates the decorator with a cache of the default size and time to live.
+     *
+     * @param delegate The DAO that owns the copies and loans.
+     */
+    public AvailabilityCachingLoanDAO(LoanDAO delegate) {
+        this(delegate, new StripedAvailabilityCache());
+    }
+
+    /**
+     * @param delegate The DAO that owns the copies and loans.
+     * @param cache The cache of availability counts.
+     */
+    public AvailabilityCachingLoanDAO(LoanDAO delegate, StripedAvailabilityCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean addCopy(BookCopy copy) {
+        boolean added = delegate.addCopy(copy);
+        if (added) {
+            cache.adjust(copy.getBookId(), 1, 1);
+        }
+        return added;
+    }
+
+    @Override
+    public boolean removeCopy(String barcode) {
+        BookCopy copy = delegate.getCopy(barcode);
+        boolean removed = delegate.removeCopy(barcode);
+        if (removed && copy != null) {
+            cache.adjust(copy.getBookId(), -1, -1);
+        }
+        return removed;
+    }
+
+    @Override
+    public BookCopy getCopy(String barcode) {
+        return delegate.getCopy(barcode);
+    }
+
+    @Override
+    public List<BookCopy> getCopies(String bookId) {
+        return delegate.getCopies(bookId);
+    }
+
+    @Override
+    public BookAvailability getAvailability(String bookId) {
+        BookAvailability cached = cache.get(bookId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp(bookId);
+        BookAvailability availability = delegate.getAvailability(bookId);
+        cache.put(availability, stamp);
+        return availability;
+    }
+
+    @Override
+    public LoanResult checkout(Loan loan) {
+        LoanResult result = delegate.checkout(loan);
+        if (result.isDone()) {
+            cache.adjust(loan.getBookId(), 0, -1);
+        } else if (result == LoanResult.UNAVAILABLE && loan.getBookId() != null) {
+            cache.invalidate(loan.getBookId()); // The cache may have shown a copy on the shelf
+        }
+        return result;
+    }
+
+    @Override
+    public LoanResult returnCopy(Loan loan) {
+        LoanResult result = delegate.returnCopy(loan);
+        if (result.isDone()) {
+            cache.adjust(loan.getBookId(), 0, 1);
+        }
+        return result;
+    }
+
+    @Override
+    public LoanResult renew(Loan loan) {
+        return delegate.renew(loan);
+    }
+
+    @Override
+    public Loan getLoan(long loanId) {
+        return delegate.getLoan(loanId);
+    }
+
+    @Override
+    public List<Loan> getOpenLoans(String username) {
+        return delegate.getOpenLoans(username);
+    }
+
+    @Override
+    public List<Loan> getOverdueLoans(LocalDate today) {
+        return delegate.getOverdueLoans(today);
+    }
+
+    /**
+     * @return The cache of availability counts.
+     */
+    public StripedAvailabilityCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,66 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Category;
+
+import java.util.List;
+
+/**
+ * A CategoryDAO decorator that keeps an {@link OffHeapCachingBookDAO} consistent with category deletes.
+ * Deleting a category also deletes its books in storage (ON DELETE CASCADE), so their cached records
+ * are evicted here.
+ */
+public class CacheEvictingCategoryDAO implements CategoryDAO {
+
+    private final CategoryDAO delegate;
+    private final OffHeapCachingBookDAO bookCache;
+
+    /**
+     * @param delegate The DAO that owns the categories.
+     * @param bookCache The book cache to evict from.
+     */
+    public CacheEvictingCategoryDAO(CategoryDAO delegate, OffHeapCachingBookDAO bookCache) {
+        this.delegate = delegate;
+        this.bookCache = bookCache;
+    }
+
+    @Override
+    public boolean addCategory(Category category) {
+        return delegate.addCategory(category);
+    }
+
+    @Override
+    public UpdateResult updateCategory(Category category) {
+        return delegate.updateCategory(category);
+    }
+
+    @Override
+    public boolean deleteCategory(int categoryId) {
+        boolean deleted = delegate.deleteCategory(categoryId);
+        if (deleted) {
+            bookCache.evictCategory(categoryId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<Category> getAllCategories() {
+        return delegate.getAllCategories();
+    }
+
+    @Override
+    public List<Category> getSubcategories(int parentId) {
+        return delegate.getSubcategories(parentId);
+    }
+
+    @Override
+    public Category getCategoryById(int categoryId) {
+        return delegate.getCategoryById(categoryId);
+    }
+
+    @Override
+    public Category getCategoryByName(String name) {
+        return delegate.getCategoryByName(name);
+    }
+}
@@ -0,0 +1,35 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.TransactionRunner;
+
+import java.util.function.Supplier;
+
+/**
+ * A TransactionRunner decorator that keeps an {@link OffHeapCachingBookDAO} consistent with
+ * rollbacks. The caching DAO updates the cache as soon as a write returns. If the transaction
+ * around that write rolls back, the cache is cleared, so it is reloaded from storage.
+ */
+public class CacheInvalidatingTransactionRunner implements TransactionRunner {
+
+    private final TransactionRunner delegate;
+    private final OffHeapCachingBookDAO bookCache;
+
+    /**
+     * @param delegate The runner of the underlying storage.
+     * @param bookCache The book cache to invalidate on rollback.
+     */
+    public CacheInvalidatingTransactionRunner(TransactionRunner delegate, OffHeapCachingBookDAO bookCache) {
+        this.delegate = delegate;
+        this.bookCache = bookCache;
+    }
+
+    @Override
+    public <T> T inTransaction(int isolation, boolean batchWrites, Supplier<T> work) {
+        try {
+            return delegate.inTransaction(isolation, batchWrites, work);
+        } catch (RuntimeException | Error e) {
+            bookCache.invalidateAll();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.BookChangeSet;
+
+/**
+ * A cache that is kept consistent with the changes other clients make to the catalog, as read
+ * from the change log by a {@link CatalogChangePoller}.
+ */
+public interface CatalogChangeListener {
+
+    /**
+     * Applies a batch of changes: evicts or replaces only the entries they affect. Called on the
+     * poller's thread, in order of the changes, and also with the changes made by this client,
+     * which must be harmless to apply again.
+     *
+     * @param changes The books and categories changed since the previous batch.
+     */
+    void catalogChanged(BookChangeSet changes);
+
+    /**
+     * Drops or re-reads everything, because the change log no longer holds all the changes since
+     * the previous batch (see {@link BookChangeSet#isReloadRequired()}). Called on the poller's
+     * thread; the changes made meanwhile follow as usual.
+     */
+    void catalogReloadRequired();
+}
@@ -0,0 +1,214 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the caches of one client consistent with the changes every client makes to the shared
+ * catalog.
+ * <p>
+ * Each write to the database also appends a row to the change log ({@code catalog_changes}) with the
+ * next number of a single sequence. The poller remembers the highest number it has seen and asks
+ * for the rows after it with {@link BookDAO#getChangesSince(long, int)}: one query on a range of the
+ * log's primary key, which reads nothing when nothing changed. The changes found are handed to the
+ * {@link CatalogChangeListener}s, which evict or replace only the entries they affect; the rest of
+ * each cache stays warm.
+ * <p>
+ * The interval adapts to the traffic: after a poll that found changes the next one follows after
+ * the minimum interval, and every poll that finds nothing doubles the wait, up to the maximum. A
+ * busy catalog is followed closely and an idle one costs a query every few seconds. If the database
+ * cannot be reached, the poller waits the maximum interval and continues from the same watermark,
+ * so no change is lost.
+ * <p>
+ * Every few minutes the poller tells the storage that it no longer needs the changes up to its
+ * watermark ({@link BookDAO#releaseChanges(long)}), so the change log does not grow forever. If the
+ * log was pruned past the watermark anyway, e.g. after the client was suspended for days, the
+ * listeners are told to reload and polling continues from the current watermark.
+ */
+public class CatalogChangePoller implements AutoCloseable {
+
+    private static final Logger LOG = Logger.get(CatalogChangePoller.class);
+
+    public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofMillis(250);
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(5);
+    public static final int BATCH_SIZE = 1000;
+    private static final long RELEASE_INTERVAL_MINUTES = 10;
+
+    private final BookDAO changeFeed;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final List<CatalogChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile long watermark;
+    private volatile long intervalMillis;
+    private volatile long polls;        // Updated by the poller thread only
+    private volatile long changeSets;   // Batches of changes handed to the listeners; poller thread only
+    private volatile long reloads;      // Reloads the listeners were told to do; poller thread only
+    private volatile boolean closed;
+
+    /**
+     * Creates the poller with the default intervals.
+     *
+     * @param changeFeed The DAO to read the change log with; the storage itself, not a cache in front of it.
+     */
+    public CatalogChangePoller(BookDAO changeFeed) {
+        this(changeFeed, DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL);
+    }
+
+    /**
+     * @param changeFeed The DAO to read the change log with; the storage itself, not a cache in front of it.
+     * @param minInterval The time between two polls while changes keep coming.
+     * @param maxInterval The longest time between two polls, reached while nothing changes.
+     */
+    public CatalogChangePoller(BookDAO changeFeed, Duration minInterval, Duration maxInterval) {
+        if (minInterval.isNegative() || minInterval.isZero() || maxInterval.compareTo(minInterval) < 0) {
+            throw new IllegalArgumentException("Intervals must be positive, and the maximum at least the minimum");
+        }
+        this.changeFeed = changeFeed;
+        this.minIntervalMillis = minInterval.toMillis();
+        this.maxIntervalMillis = maxInterval.toMillis();
+        this.intervalMillis = minIntervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-change-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a cache to keep consistent. Add them before {@link #start()}.
+     */
+    public void addListener(CatalogChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Takes the current watermark and starts polling. Call it before the caches are filled: changes
+     * made while they load are then applied afterwards, and none is missed.
+     *
+     * @throws DataAccessException if the watermark cannot be read.
+     */
+    public void start() {
+        watermark = changeFeed.getChangeWatermark();
+        scheduler.schedule(this::poll, minIntervalMillis, TimeUnit.MILLISECONDS);
+        // On the poller thread too, so the watermark released is one the listeners have caught up to
+        scheduler.scheduleWithFixedDelay(this::releaseChanges, RELEASE_INTERVAL_MINUTES, RELEASE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return The sequence number of the last change applied.
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return The time until the next poll, in milliseconds.
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * @return The number of polls so far.
+     */
+    public long getPollCount() {
+        return polls;
+    }
+
+    /**
+     * @return The number of polls that found changes, counting each batch of a long backlog.
+     */
+    public long getChangeSetCount() {
+        return changeSets;
+    }
+
+    /**
+     * @return The number of times the listeners had to reload because the change log was pruned past the watermark.
+     */
+    public long getReloadCount() {
+        return reloads;
+    }
+
+    /**
+     * Stops polling.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+    }
+
+    private void poll() {
+        try {
+            boolean changed = false;
+            BookChangeSet changes;
+            do {
+                changes = changeFeed.getChangesSince(watermark, BATCH_SIZE);
+                if (changes.isReloadRequired()) {
+                    reload(changes);
+                } else if (changes.getWatermark() != watermark) {
+                    apply(changes);
+                } else {
+                    break;
+                }
+                watermark = changes.getWatermark();
+                changed = true;
+            } while (changes.hasMore() && !closed);
+            intervalMillis = changed ? minIntervalMillis : Math.min(maxIntervalMillis, intervalMillis * 2);
+        } catch (RuntimeException e) {
+            LOG.warn("Error reading the catalog change log, trying again in {} ms: {}", maxIntervalMillis, e.getMessage());
+            intervalMillis = maxIntervalMillis;
+        }
+        polls++;
+        if (!closed) {
+            scheduler.schedule(this::poll, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void apply(BookChangeSet changes) {
+        changeSets++;
+        LOG.debug("Applying catalog changes up to {}: {}", changes.getWatermark(), changes);
+        for (CatalogChangeListener listener : listeners) {
+            try {
+                listener.catalogChanged(changes);
+            } catch (RuntimeException e) {
+                // One broken cache must not keep the others stale
+                LOG.at(Level.ERROR).with("watermark", changes.getWatermark()).cause(e)
+                        .log("Error applying catalog changes to {}", listener.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private void reload(BookChangeSet changes) {
+        reloads++;
+        LOG.warn("The catalog change log was pruned past watermark {}, reloading the caches", watermark);
+        for (CatalogChangeListener listener : listeners) {
+            try {
+                listener.catalogReloadRequired();
+            } catch (RuntimeException e) {
+                LOG.at(Level.ERROR).with("watermark", changes.getWatermark()).cause(e)
+                        .log("Error reloading {}", listener.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private void releaseChanges() {
+        try {
+            changeFeed.releaseChanges(watermark);
+        } catch (RuntimeException e) {
+            // Only delays the pruning until the next run
+            LOG.warn("Error releasing catalog changes up to {}: {}", watermark, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Book records stored outside the Java heap with the Foreign Function &amp; Memory API.
+ * <p>
+ * Three off-heap regions are used:
+ * <ul>
+ *   <li><b>slots</b>: one fixed-width 56-byte record per book holding category, year, version and the
+ *       offset/length of its id, title and author strings;</li>
+ *   <li><b>strings</b>: a bump-allocated arena of UTF-8 bytes, compacted when more than half of it is dead;</li>
+ *   <li><b>index</b>: an open-addressing hash table (linear probing) from id to slot, 8 bytes per bucket
+ *       (id hash + slot number).</li>
+ * </ul>
+ * The heap only holds a handful of fields, so the cache does not grow the old generation or GC work
+ * no matter how many books it holds. {@link Book} objects are created only when a caller asks for one.
+ * <p>
+ * Thread-safe: reads run concurrently, writes are exclusive.
+ */
+public class OffHeapBookCache implements AutoCloseable {
+
+    // Slot layout
+    private static final long SLOT_SIZE = 56; // 52 bytes of fields, padded to a multiple of 8 so the long fields stay aligned
+    private static final long CATEGORY = 0;
+    private static final long YEAR = 4;
+    private static final long ID_OFFSET = 8;
+    private static final long TITLE_OFFSET = 16;
+    private static final long AUTHOR_OFFSET = 24;
+    private static final long ID_LENGTH = 32;
+    private static final long TITLE_LENGTH = 36;
+    private static final long AUTHOR_LENGTH = 40;
+    private static final long FLAGS = 44; // 1 = live; a free slot stores the next free slot in CATEGORY
+    private static final long VERSION = 48;
+
+    // Index bucket layout: int hash, int slot + 1 (0 = empty, -1 = deleted)
+    private static final long BUCKET_SIZE = 8;
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Region slots;
+    private Region strings;
+    private Region index;
+    private int slotCapacity;
+    private int slotsUsed;        // High-water mark of slots ever handed out
+    private int freeSlot = -1;    // Head of the free slot list
+    private int size;
+    private long stringsUsed;
+    private long stringsDead;
+    private int bucketCount;      // Power of two
+    private int bucketsDeleted;
+    private boolean closed;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param expectedBooks The number of books to size the regions for; they grow as needed.
+     */
+    public OffHeapBookCache(int expectedBooks) {
+        slotCapacity = Math.max(16, expectedBooks);
+        slots = new Region(slotCapacity * SLOT_SIZE);
+        strings = new Region(Math.max(1024, slotCapacity * 64L));
+        bucketCount = Integer.highestOneBit(Math.max(16, expectedBooks * 2 - 1)) << 1;
+        index = new Region(bucketCount * BUCKET_SIZE);
+    }
+
+    /**
+     * Adds a book, or replaces the cached record with the same id.
+     */
+    public void put(Book book) {
+        write(book, false);
+    }
+
+    /**
+     * Adds a book, or replaces the cached record with the same id unless that record has a higher
+     * version. Use it for books read from storage, which may be older than the cached record: read
+     * from a lagging replica, or before a write that has since been cached.
+     *
+     * @return true if the book was stored.
+     */
+    public boolean putUnlessOlder(Book book) {
+        return write(book, true);
+    }
+
+    private boolean write(Book book, boolean unlessOlder) {
+        byte[] id = book.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] title = bytesOf(book.getTitle());
+        byte[] author = bytesOf(book.getAuthor());
+        int hash = hash(id);
+
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int bucket = findBucket(id, hash);
+            int slot;
+            if (bucket >= 0) {
+                slot = bucketSlot(bucket);
+                MemorySegment s = slots.segment;
+                long base = slot * SLOT_SIZE;
+                if (unlessOlder && s.get(INT, base + VERSION) > book.getVersion()) {
+                    return false;
+                }
+                stringsDead += s.get(INT, base + TITLE_LENGTH) + s.get(INT, base + AUTHOR_LENGTH);
+            } else {
+                slot = allocateSlot();
+                insertBucket(hash, slot);
+                size++;
+            }
+            ensureStringCapacity(title.length + author.length + (bucket >= 0 ? 0 : id.length));
+
+            MemorySegment s = slots.segment;
+            long base = slot * SLOT_SIZE;
+            if (bucket < 0) {
+                s.set(LONG, base + ID_OFFSET, appendString(id));
+                s.set(INT, base + ID_LENGTH, id.length);
+            }
+            s.set(INT, base + CATEGORY, book.getCategory());
+            s.set(INT, base + YEAR, book.getYear());
+            s.set(INT, base + VERSION, book.getVersion());
+            s.set(LONG, base + TITLE_OFFSET, appendString(title));
+            s.set(INT, base + TITLE_LENGTH, title.length);
+            s.set(LONG, base + AUTHOR_OFFSET, appendString(author));
+            s.set(INT, base + AUTHOR_LENGTH, author.length);
+            s.set(INT, base + FLAGS, 1);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return A new Book built from the cached record, or null if the id is not cached.
+     */
+    public Book get(String bookId) {
+        byte[] id = bookId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(id);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            int bucket = findBucket(id, hash);
+            return bucket < 0 ? null : materialize(bucketSlot(bucket));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the id is cached.
+     */
+    public boolean contains(String bookId) {
+        byte[] id = bookId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(id);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            return findBucket(id, hash) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the cache.
+     *
+     * @return true if the id was cached.
+     */
+    public boolean remove(String bookId) {
+        byte[] id = bookId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(id);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int bucket = findBucket(id, hash);
+            if (bucket < 0) {
+                return false;
+            }
+            int slot = bucketSlot(bucket);
+            index.segment.set(INT, bucket * BUCKET_SIZE + 4, DELETED);
+            bucketsDeleted++;
+
+            MemorySegment s = slots.segment;
+            long base = slot * SLOT_SIZE;
+            stringsDead += s.get(INT, base + ID_LENGTH) + s.get(INT, base + TITLE_LENGTH) + s.get(INT, base + AUTHOR_LENGTH);
+            s.set(INT, base + FLAGS, 0);
+            s.set(INT, base + CATEGORY, freeSlot);
+            freeSlot = slot;
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every book of a category, for example after the category was deleted with its books.
+     *
+     * @return The number of books removed.
+     */
+    public int removeCategory(int categoryId) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            List<String> ids = new ArrayList<>();
+            MemorySegment s = slots.segment;
+            for (int slot = 0; slot < slotsUsed; slot++) {
+                long base = slot * SLOT_SIZE;
+                if (s.get(INT, base + FLAGS) != 0 && s.get(INT, base + CATEGORY) == categoryId) {
+                    ids.add(readString(s.get(LONG, base + ID_OFFSET), s.get(INT, base + ID_LENGTH)));
+                }
+            }
+            for (String id : ids) {
+                remove(id); // The write lock is reentrant
+            }
+            return ids.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Every cached book, materialized, in slot order.
+     */
+    public List<Book> getAll() {
+        return select(0, false, 0, 0);
+    }
+
+    /**
+     * Scans the fixed-width slots and materializes only the matching books.
+     * Category and year are compared off-heap, so non-matching records cost no allocation.
+     *
+     * @param categoryId The category to match, used only if {@code filterCategory} is true.
+     * @param filterCategory Whether to filter by category.
+     * @param minYear The minimum year, or 0 or negative for no minimum.
+     * @param maxYear The maximum year, or 0 or negative for no maximum.
+     * @return The matching books.
+     */
+    public List<Book> select(int categoryId, boolean filterCategory, int minYear, int maxYear) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            List<Book> books = new ArrayList<>();
+            MemorySegment s = slots.segment;
+            for (int slot = 0; slot < slotsUsed; slot++) {
+                long base = slot * SLOT_SIZE;
+                if (s.get(INT, base + FLAGS) == 0) {
+                    continue;
+                }
+                if (filterCategory && s.get(INT, base + CATEGORY) != categoryId) {
+                    continue;
+                }
+                int year = s.get(INT, base + YEAR);
+                if ((minYear > 0 && year < minYear) || (maxYear > 0 && year > maxYear)) {
+                    continue;
+                }
+                books.add(materialize(slot));
+            }
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every book, keeping the allocated regions for reuse.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            index.segment.fill((byte) 0);
+            // Reused slots must not look live before they are written (the string compaction scans them)
+            slots.segment.asSlice(0, slotsUsed * SLOT_SIZE).fill((byte) 0);
+            slotsUsed = 0;
+            freeSlot = -1;
+            size = 0;
+            stringsUsed = 0;
+            stringsDead = 0;
+            bucketsDeleted = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of cached books.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The bytes of native memory currently reserved by the cache.
+     */
+    public long getOffHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return closed ? 0 : slots.segment.byteSize() + strings.segment.byteSize() + index.segment.byteSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Frees all native memory. The cache cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                slots.close();
+                strings.close();
+                index.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- Internals (callers hold the lock)
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Off-heap book cache is closed");
+        }
+    }
+
+    private Book materialize(int slot) {
+        MemorySegment s = slots.segment;
+        long base = slot * SLOT_SIZE;
+        String id = readString(s.get(LONG, base + ID_OFFSET), s.get(INT, base + ID_LENGTH));
+        String title = readString(s.get(LONG, base + TITLE_OFFSET), s.get(INT, base + TITLE_LENGTH));
+        String author = readString(s.get(LONG, base + AUTHOR_OFFSET), s.get(INT, base + AUTHOR_LENGTH));
+        return new Book(id, title, author, s.get(INT, base + CATEGORY), s.get(INT, base + YEAR), s.get(INT, base + VERSION));
+    }
+
+    private String readString(long offset, int length) {
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(strings.segment, ValueLayout.JAVA_BYTE, offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long appendString(byte[] bytes) {
+        long offset = stringsUsed;
+        MemorySegment.copy(bytes, 0, strings.segment, ValueLayout.JAVA_BYTE, offset, bytes.length);
+        stringsUsed += bytes.length;
+        return offset;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot >= 0) {
+            int slot = freeSlot;
+            freeSlot = slots.segment.get(INT, slot * SLOT_SIZE + CATEGORY);
+            return slot;
+        }
+        if (slotsUsed == slotCapacity) {
+            slotCapacity *= 2;
+            Region grown = new Region(slotCapacity * SLOT_SIZE);
+            MemorySegment.copy(slots.segment, 0, grown.segment, 0, slotsUsed * SLOT_SIZE);
+            slots.close();
+            slots = grown;
+        }
+        return slotsUsed++;
+    }
+
+    /**
+     * Makes room for {@code needed} more string bytes, compacting the arena if most of it is dead.
+     */
+    private void ensureStringCapacity(long needed) {
+        long capacity = strings.segment.byteSize();
+        if (stringsUsed + needed <= capacity) {
+            return;
+        }
+        long live = stringsUsed - stringsDead;
+        long newCapacity = capacity;
+        while (live + needed > newCapacity / 2) {
+            newCapacity *= 2; // Keep at least half free after compaction, so compaction cost stays amortized
+        }
+        Region compacted = new Region(newCapacity);
+        long position = 0;
+        MemorySegment s = slots.segment;
+        for (int slot = 0; slot < slotsUsed; slot++) {
+            long base = slot * SLOT_SIZE;
+            if (s.get(INT, base + FLAGS) == 0) {
+                continue;
+            }
+            position = moveString(s, base + ID_OFFSET, base + ID_LENGTH, compacted.segment, position);
+            position = moveString(s, base + TITLE_OFFSET, base + TITLE_LENGTH, compacted.segment, position);
+            position = moveString(s, base + AUTHOR_OFFSET, base + AUTHOR_LENGTH, compacted.segment, position);
+        }
+        strings.close();
+        strings = compacted;
+        stringsUsed = position;
+        stringsDead = 0;
+    }
+
+    private long moveString(MemorySegment s, long offsetField, long lengthField, MemorySegment target, long position) {
+        int length = s.get(INT, lengthField);
+        MemorySegment.copy(strings.segment, s.get(LONG, offsetField), target, position, length);
+        s.set(LONG, offsetField, position);
+        return position + length;
+    }
+
+    /**
+     * @return The bucket holding the id, or -1 if it is not in the index.
+     */
+    private int findBucket(byte[] id, int hash) {
+        MemorySegment idx = index.segment;
+        int mask = bucketCount - 1;
+        for (int bucket = hash & mask; ; bucket = (bucket + 1) & mask) {
+            long base = bucket * BUCKET_SIZE;
+            int slotRef = idx.get(INT, base + 4);
+            if (slotRef == EMPTY) {
+                return -1;
+            }
+            if (slotRef != DELETED && idx.get(INT, base) == hash && idEquals(slotRef - 1, id)) {
+                return bucket;
+            }
+        }
+    }
+
+    private int bucketSlot(int bucket) {
+        return index.segment.get(INT, bucket * BUCKET_SIZE + 4) - 1;
+    }
+
+    private boolean idEquals(int slot, byte[] id) {
+        MemorySegment s = slots.segment;
+        long base = slot * SLOT_SIZE;
+        if (s.get(INT, base + ID_LENGTH) != id.length) {
+            return false;
+        }
+        long offset = s.get(LONG, base + ID_OFFSET);
+        return MemorySegment.mismatch(strings.segment, offset, offset + id.length,
+                MemorySegment.ofArray(id), 0, id.length) == -1;
+    }
+
+    private void insertBucket(int hash, int slot) {
+        // Keep the table at most half full, counting deleted buckets, so probe sequences stay short
+        if ((size + bucketsDeleted + 1) * 2L > bucketCount) {
+            rehash(size + 1 > bucketCount / 4 ? bucketCount * 2 : bucketCount);
+        }
+        MemorySegment idx = index.segment;
+        int mask = bucketCount - 1;
+        for (int bucket = hash & mask; ; bucket = (bucket + 1) & mask) {
+            long base = bucket * BUCKET_SIZE;
+            int slotRef = idx.get(INT, base + 4);
+            if (slotRef == EMPTY || slotRef == DELETED) {
+                if (slotRef == DELETED) {
+                    bucketsDeleted--;
+                }
+                idx.set(INT, base, hash);
+                idx.set(INT, base + 4, slot + 1);
+                return;
+            }
+        }
+    }
+
+    private void rehash(int newBucketCount) {
+        Region old = index;
+        int oldCount = bucketCount;
+        index = new Region(newBucketCount * BUCKET_SIZE);
+        bucketCount = newBucketCount;
+        bucketsDeleted = 0;
+        int mask = newBucketCount - 1;
+        for (int i = 0; i < oldCount; i++) {
+            int slotRef = old.segment.get(INT, i * BUCKET_SIZE + 4);
+            if (slotRef == EMPTY || slotRef == DELETED) {
+                continue;
+            }
+            int hash = old.segment.get(INT, i * BUCKET_SIZE);
+            for (int bucket = hash & mask; ; bucket = (bucket + 1) & mask) {
+                long base = bucket * BUCKET_SIZE;
+                if (index.segment.get(INT, base + 4) == EMPTY) {
+                    index.segment.set(INT, base, hash);
+                    index.segment.set(INT, base + 4, slotRef);
+                    break;
+                }
+            }
+        }
+        old.close();
+    }
+
+    private static int hash(byte[] id) {
+        int h = 1;
+        for (byte b : id) {
+            h = 31 * h + b;
+        }
+        return h ^ (h >>> 16); // Spread high bits into the masked low bits
+    }
+
+    private static byte[] bytesOf(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A native memory block with its own arena, so it can be freed as soon as it is replaced by a larger one.
+     */
+    private static final class Region {
+        final Arena arena;
+        final MemorySegment segment;
+
+        Region(long bytes) {
+            arena = Arena.ofShared();
+            segment = arena.allocate(bytes, 8); // Zero-initialized
+        }
+
+        void close() {
+            arena.close();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Book;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A BookDAO decorator that keeps the catalog in an {@link OffHeapBookCache}.
+ * <p>
+ * Lookups by ID are served from the cache and fall back to the wrapped DAO on a miss.
+ * Once the whole catalog has been loaded (by {@link #preload()} or the first {@link #getAllBooks()}),
+ * category listings are served from the cache as well. Writes go to the wrapped DAO first and
+ * are applied to the cache only if they succeed. Text searches are always delegated, so their
+ * matching rules (collation, wildcards) stay those of the underlying storage; the books they
+ * return refresh the cache, except where it holds a newer version of the book.
+ * <p>
+ * Changes made by other clients are applied by a {@link CatalogChangePoller}, which replaces or
+ * removes only the books they touched.
+ */
+public class OffHeapCachingBookDAO implements BookDAO, CatalogChangeListener, AutoCloseable {
+
+    private final BookDAO delegate;
+    private final OffHeapBookCache cache;
+    private volatile boolean complete; // true once the cache holds the whole catalog
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param delegate The DAO that owns the data.
+     * @param expectedBooks The approximate catalog size, used to size the off-heap regions.
+     */
+    public OffHeapCachingBookDAO(BookDAO delegate, int expectedBooks) {
+        this.delegate = delegate;
+        this.cache = new OffHeapBookCache(expectedBooks);
+    }
+
+    /**
+     * Loads the whole catalog into the cache.
+     */
+    public void preload() {
+        loadAll(delegate.getAllBooks());
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        if (complete) {
+            hits.increment();
+            return cache.getAll();
+        }
+        misses.increment();
+        List<Book> books = delegate.getAllBooks();
+        loadAll(books);
+        return books;
+    }
+
+    @Override
+    public boolean addBook(Book book) {
+        boolean added = delegate.addBook(book);
+        if (added) {
+            cache.put(book);
+        }
+        return added;
+    }
+
+    @Override
+    public UpdateResult updateBook(Book book) {
+        UpdateResult result = delegate.updateBook(book);
+        if (result.isUpdated()) {
+            cache.put(book);
+        } else if (result == UpdateResult.CONFLICT || result == UpdateResult.NOT_FOUND) {
+            // Changed or deleted by another client: drop the stale record, so a reload reads the stored one
+            cache.remove(book.getId());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean deleteBook(String bookId) {
+        boolean deleted = delegate.deleteBook(bookId);
+        if (deleted) {
+            cache.remove(bookId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public Book getBookById(String bookId) {
+        Book book = cache.get(bookId);
+        if (book != null) {
+            hits.increment();
+            return book;
+        }
+        // Not cached: the row may have been added by another client, so ask the database
+        misses.increment();
+        book = delegate.getBookById(bookId);
+        if (book != null) {
+            cache.putUnlessOlder(book); // A write or the change poller may have cached a newer version meanwhile
+        }
+        return book;
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId) {
+        if (complete) {
+            hits.increment();
+            return cache.select(categoryId, true, 0, 0);
+        }
+        misses.increment();
+        return refresh(delegate.getBooksByCategory(categoryId));
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories) {
+        if (!includeSubcategories) {
+            return getBooksByCategory(categoryId);
+        }
+        // The cache does not know the category hierarchy
+        return refresh(delegate.getBooksByCategory(categoryId, true));
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        return refresh(delegate.searchBooksByTitle(title));
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear) {
+        return refresh(delegate.advancedSearch(title, author, categoryId, minYear, maxYear));
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        return refresh(delegate.advancedSearch(title, author, categoryId, includeSubcategories, minYear, maxYear));
+    }
+
+    @Override
+    public long getChangeWatermark() {
+        return delegate.getChangeWatermark();
+    }
+
+    @Override
+    public BookChangeSet getChangesSince(long watermark, int limit) {
+        return delegate.getChangesSince(watermark, limit);
+    }
+
+    @Override
+    public void releaseChanges(long watermark) {
+        delegate.releaseChanges(watermark);
+    }
+
+    /**
+     * Drops the cached books of a category. The storage deletes a category's books together with the
+     * category, so the category DAO must call this (see {@link CacheEvictingCategoryDAO}).
+     */
+    public void evictCategory(int categoryId) {
+        cache.removeCategory(categoryId);
+    }
+
+    /**
+     * Applies changes read from the change log: a changed book replaces its cached record, or is
+     * added if the whole catalog is cached; a deleted one is removed.
+     * <p>
+     * A write of this client may land in between the poll and this call, leaving the cache one
+     * version behind; its own change log entry is then applied by the next poll.
+     */
+    @Override
+    public void catalogChanged(BookChangeSet changes) {
+        for (Book book : changes.getUpserts()) {
+            if (complete || cache.get(book.getId()) != null) {
+                cache.put(book);
+            }
+        }
+        for (String bookId : changes.getDeletedIds()) {
+            cache.remove(bookId);
+        }
+    }
+
+    /**
+     * Drops every cached book, as {@link #invalidateAll()}.
+     */
+    @Override
+    public void catalogReloadRequired() {
+        invalidateAll();
+    }
+
+    /**
+     * Drops every cached book; the next getAllBooks() reloads the catalog.
+     * Use this when another client may have deleted books.
+     */
+    public void invalidateAll() {
+        complete = false;
+        cache.clear();
+    }
+
+    /**
+     * @return The number of reads answered from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of reads passed to the wrapped DAO.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The cache, for size and memory statistics.
+     */
+    public OffHeapBookCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Frees the off-heap memory. The wrapped DAO is not closed.
+     */
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    private void loadAll(List<Book> books) {
+        cache.clear();
+        for (Book book : books) {
+            cache.put(book);
+        }
+        complete = true;
+    }
+
+    private List<Book> refresh(List<Book> books) {
+        for (Book book : books) {
+            cache.putUnlessOlder(book); // The result may come from a replica that lags behind the cache
+        }
+        return books;
+    }
+}
@@ -0,0 +1,76 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Category;
+
+import java.util.List;
+
+/**
+ * A CategoryDAO decorator that keeps a {@link SearchResultCache} consistent with category changes.
+ * Deleting a category also deletes its books in storage (ON DELETE CASCADE), so the searches that
+ * returned them are evicted; moving a category to another parent changes which books a search
+ * with subcategories returns, so those searches are evicted.
+ */
+public class SearchCacheEvictingCategoryDAO implements CategoryDAO {
+
+    private final CategoryDAO delegate;
+    private final SearchResultCache cache;
+
+    /**
+     * @param delegate The DAO that owns the categories.
+     * @param cache The search cache to evict from.
+     */
+    public SearchCacheEvictingCategoryDAO(CategoryDAO delegate, SearchResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean addCategory(Category category) {
+        // A new category has no books yet
+        return delegate.addCategory(category);
+    }
+
+    @Override
+    public UpdateResult updateCategory(Category category) {
+        cache.beginWrite();
+        try {
+            return delegate.updateCategory(category);
+        } finally {
+            cache.invalidateSubcategorySearches();
+            cache.endWrite();
+        }
+    }
+
+    @Override
+    public boolean deleteCategory(int categoryId) {
+        cache.beginWrite();
+        try {
+            return delegate.deleteCategory(categoryId);
+        } finally {
+            cache.invalidateCategory(categoryId);
+            cache.endWrite();
+        }
+    }
+
+    @Override
+    public List<Category> getAllCategories() {
+        return delegate.getAllCategories();
+    }
+
+    @Override
+    public List<Category> getSubcategories(int parentId) {
+        return delegate.getSubcategories(parentId);
+    }
+
+    @Override
+    public Category getCategoryById(int categoryId) {
+        return delegate.getCategoryById(categoryId);
+    }
+
+    @Override
+    public Category getCategoryByName(String name) {
+        return delegate.getCategoryByName(name);
+    }
+}
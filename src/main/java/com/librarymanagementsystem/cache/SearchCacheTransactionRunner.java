@@ -0,0 +1,36 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.TransactionRunner;
+
+import java.util.function.Supplier;
+
+/**
+ * A TransactionRunner decorator that keeps a {@link SearchResultCache} consistent with
+ * transactions. The caching DAO evicts the affected searches when a write returns, but other
+ * threads still read the old rows until the transaction commits; the whole transaction counts as
+ * one write in progress, so none of their results is cached until it has ended.
+ */
+public class SearchCacheTransactionRunner implements TransactionRunner {
+
+    private final TransactionRunner delegate;
+    private final SearchResultCache cache;
+
+    /**
+     * @param delegate The runner of the underlying storage.
+     * @param cache The search cache.
+     */
+    public SearchCacheTransactionRunner(TransactionRunner delegate, SearchResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public <T> T inTransaction(int isolation, boolean batchWrites, Supplier<T> work) {
+        cache.beginWrite();
+        try {
+            return delegate.inTransaction(isolation, batchWrites, work);
+        } finally {
+            cache.endWrite();
+        }
+    }
+}
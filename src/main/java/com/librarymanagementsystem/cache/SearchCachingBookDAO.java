@@ -0,0 +1,170 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.model.Book;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A BookDAO decorator that answers repeated searches from a {@link SearchResultCache}: advanced
+ * searches, title searches and category listings are all searches by {@link SearchCriteria}, so
+ * e.g. a title search and an advanced search with only that title share one entry.
+ * <p>
+ * Every write evicts the searches the book could affect, whether it succeeded or not (a write
+ * whose answer was lost may still have been applied). Deleting a category deletes its books, so
+ * the category DAO must report it (see {@link SearchCacheEvictingCategoryDAO}), and writes in a
+ * transaction must be reported until it ends (see {@link SearchCacheTransactionRunner}).
+ * <p>
+ * Changes made by other clients are applied by a {@link CatalogChangePoller}; until the next poll,
+ * a search may return their results from before the change.
+ */
+public class SearchCachingBookDAO implements BookDAO, CatalogChangeListener {
+
+    private final BookDAO delegate;
+    private final SearchResultCache cache;
+
+    /**
+     * @param delegate The DAO that runs the searches.
+     * @param cache The cache of their results.
+     */
+    public SearchCachingBookDAO(BookDAO delegate, SearchResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * @return The cache, for its hit ratio and size.
+     */
+    public SearchResultCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        // The whole catalog is not a search worth keeping a second copy of
+        return delegate.getAllBooks();
+    }
+
+    @Override
+    public boolean addBook(Book book) {
+        cache.beginWrite();
+        try {
+            return delegate.addBook(book);
+        } finally {
+            cache.invalidateBook(book.getId(), book);
+            cache.endWrite();
+        }
+    }
+
+    @Override
+    public UpdateResult updateBook(Book book) {
+        cache.beginWrite();
+        try {
+            return delegate.updateBook(book);
+        } finally {
+            // Also on a conflict: the stored row is not the one the cached searches returned
+            cache.invalidateBook(book.getId(), book);
+            cache.endWrite();
+        }
+    }
+
+    @Override
+    public boolean deleteBook(String bookId) {
+        cache.beginWrite();
+        try {
+            return delegate.deleteBook(bookId);
+        } finally {
+            cache.invalidateBook(bookId, null);
+            cache.endWrite();
+        }
+    }
+
+    @Override
+    public Book getBookById(String bookId) {
+        return delegate.getBookById(bookId);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId) {
+        return search(SearchCriteria.of(null, null, categoryId, false, 0, 0),
+                () -> delegate.getBooksByCategory(categoryId));
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories) {
+        return search(SearchCriteria.of(null, null, categoryId, includeSubcategories, 0, 0),
+                () -> delegate.getBooksByCategory(categoryId, includeSubcategories));
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        return search(SearchCriteria.of(title, null, 0, false, 0, 0), () -> delegate.searchBooksByTitle(title));
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear) {
+        return search(SearchCriteria.of(title, author, categoryId, false, minYear, maxYear),
+                () -> delegate.advancedSearch(title, author, categoryId, minYear, maxYear));
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        return search(SearchCriteria.of(title, author, categoryId, includeSubcategories, minYear, maxYear),
+                () -> delegate.advancedSearch(title, author, categoryId, includeSubcategories, minYear, maxYear));
+    }
+
+    @Override
+    public long getChangeWatermark() {
+        return delegate.getChangeWatermark();
+    }
+
+    @Override
+    public BookChangeSet getChangesSince(long watermark, int limit) {
+        return delegate.getChangesSince(watermark, limit);
+    }
+
+    @Override
+    public void releaseChanges(long watermark) {
+        delegate.releaseChanges(watermark);
+    }
+
+    /**
+     * Evicts the searches the changed books could affect, as for the writes of this client. A moved
+     * category changes which books a search that includes subcategories finds, so a changed category
+     * evicts those searches.
+     */
+    @Override
+    public void catalogChanged(BookChangeSet changes) {
+        for (Book book : changes.getUpserts()) {
+            cache.invalidateBook(book.getId(), book);
+        }
+        for (String bookId : changes.getDeletedIds()) {
+            cache.invalidateBook(bookId, null);
+        }
+        if (!changes.getChangedCategoryIds().isEmpty()) {
+            cache.invalidateSubcategorySearches();
+        }
+    }
+
+    /**
+     * Evicts every cached search.
+     */
+    @Override
+    public void catalogReloadRequired() {
+        cache.clear();
+    }
+
+    private List<Book> search(SearchCriteria criteria, Supplier<List<Book>> query) {
+        List<Book> cached = cache.get(criteria);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
+        List<Book> books = query.get();
+        cache.put(criteria, books, stamp);
+        return books;
+    }
+}
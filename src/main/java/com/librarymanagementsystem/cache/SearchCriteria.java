@@ -0,0 +1,133 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The criteria of a book search, normalized so that searches the storage answers the same way
+ * compare equal: an empty title or author is no filter, like null, and a category or year of 0 or
+ * less is no filter, like 0. Text is kept as typed, since whether case matters is up to the storage.
+ * Immutable; used as the key of {@link SearchResultCache}.
+ */
+public final class SearchCriteria {
+
+    private final String title;     // null if not filtered
+    private final String author;    // null if not filtered
+    private final int categoryId;   // 0 if not filtered
+    private final boolean includeSubcategories;
+    private final int minYear;      // 0 if not filtered
+    private final int maxYear;      // 0 if not filtered
+    private final int hash;
+
+    private SearchCriteria(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        this.title = title;
+        this.author = author;
+        this.categoryId = categoryId;
+        this.includeSubcategories = includeSubcategories;
+        this.minYear = minYear;
+        this.maxYear = maxYear;
+        this.hash = Objects.hash(title, author, categoryId, includeSubcategories, minYear, maxYear);
+    }
+
+    /**
+     * Normalizes the arguments of {@code BookDAO.advancedSearch}.
+     */
+    public static SearchCriteria of(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        int category = Math.max(categoryId, 0);
+        return new SearchCriteria(title == null || title.isEmpty() ? null : title,
+                author == null || author.isEmpty() ? null : author,
+                category, category > 0 && includeSubcategories, Math.max(minYear, 0), Math.max(maxYear, 0));
+    }
+
+    /**
+     * Tells whether a book could be in the result of this search, erring on the side of yes: a
+     * book that the storage would match is never reported as not matching. Text is compared as a
+     * case-insensitive substring; text with LIKE wildcards or characters outside ASCII, whose
+     * matching depends on the collation, always could match, and so does any category when the
+     * search includes subcategories, since the hierarchy is not known here.
+     *
+     * @param book A book as stored.
+     * @return false only if the storage would certainly not return the book.
+     */
+    public boolean couldMatch(Book book) {
+        return couldContain(book.getTitle(), title)
+                && couldContain(book.getAuthor(), author)
+                && (categoryId == 0 || includeSubcategories || book.getCategory() == categoryId)
+                && (minYear == 0 || book.getYear() >= minYear)
+                && (maxYear == 0 || book.getYear() <= maxYear);
+    }
+
+    private static boolean couldContain(String value, String pattern) {
+        if (pattern == null || value == null) {
+            return true;
+        }
+        if (!isPlainAscii(pattern) || !isPlainAscii(value)) {
+            return true;
+        }
+        return value.toLowerCase(Locale.ROOT).contains(pattern.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isPlainAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c > 127 || c == '%' || c == '_' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Getter Methods
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public boolean isIncludeSubcategories() {
+        return includeSubcategories;
+    }
+
+    public int getMinYear() {
+        return minYear;
+    }
+
+    public int getMaxYear() {
+        return maxYear;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SearchCriteria other)) {
+            return false;
+        }
+        return hash == other.hash && categoryId == other.categoryId && includeSubcategories == other.includeSubcategories
+                && minYear == other.minYear && maxYear == other.maxYear
+                && Objects.equals(title, other.title) && Objects.equals(author, other.author);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCriteria{" +
+                "title='" + title + '\'' +
+                ", author='" + author + '\'' +
+                ", categoryId=" + categoryId +
+                ", includeSubcategories=" + includeSubcategories +
+                ", minYear=" + minYear +
+                ", maxYear=" + maxYear +
+                '}';
+    }
+}
@@ -0,0 +1,318 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory cache of search results, keyed by {@link SearchCriteria}, so the searches a library's
+ * staff run all day are answered without a query.
+ * <p>
+ * Invalidation is targeted: a changed book evicts only the searches that could have returned it
+ * before or after the change. Before, because a search's cached result lists exactly the books it
+ * matched, so the search is evicted if its result holds the book; after, because the search's
+ * criteria could match the new row ({@link SearchCriteria#couldMatch}). Every other search stays cached.
+ * <p>
+ * A result read from storage is stored only if no write started or finished while it was being
+ * read (see {@link #stamp}), and none is stored while a write is under way, so a slow search cannot
+ * store a result that a write has already made stale. The cache is bounded: it keeps at most the
+ * maximum number of searches, dropping the least recently used one, and does not keep results
+ * larger than the maximum result size.
+ */
+public final class SearchResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final int DEFAULT_MAX_RESULT_SIZE = 5000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<SearchCriteria, Entry> entries; // Least recently used first; guarded by lock
+    private final int maxResultSize;
+    private long writes;          // Writes started or finished; guarded by lock
+    private int writesInProgress; // Guarded by lock
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache of 1024 searches of up to 5000 books each.
+     */
+    public SearchResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_RESULT_SIZE);
+    }
+
+    /**
+     * @param maxEntries The number of searches kept before the least recently used one is dropped.
+     * @param maxResultSize The most books in a result that is kept.
+     */
+    public SearchResultCache(int maxEntries, int maxResultSize) {
+        if (maxEntries < 1 || maxResultSize < 0) {
+            throw new IllegalArgumentException("Max entries must be positive and the max result size not negative");
+        }
+        this.maxResultSize = maxResultSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchCriteria, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return Copies of the books of a cached search, or null if the search is not cached.
+     */
+    public List<Book> get(SearchCriteria criteria) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(criteria);
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        // The caller may change the books, e.g. an update advances the version
+        List<Book> books = new ArrayList<>(entry.books.length);
+        for (Book book : entry.books) {
+            books.add(copy(book));
+        }
+        return books;
+    }
+
+    /**
+     * Returns the number of writes so far. Take it before running the search and pass it to {@link #put}.
+     */
+    public long stamp() {
+        lock.lock();
+        try {
+            return writes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caches the result of a search, unless a write started or finished since the stamp was taken,
+     * a write is under way, or the result is too large.
+     *
+     * @param criteria The search.
+     * @param books Its result, as read from storage.
+     * @param stamp The {@link #stamp} taken before the search ran.
+     * @return true if the result was cached.
+     */
+    public boolean put(SearchCriteria criteria, List<Book> books, long stamp) {
+        if (books.size() > maxResultSize) {
+            return false;
+        }
+        Entry entry = new Entry(books);
+        lock.lock();
+        try {
+            if (writes != stamp || writesInProgress > 0) {
+                return false;
+            }
+            entries.put(criteria, entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a write to the catalog; until the matching {@link #endWrite()}, no result is cached.
+     */
+    public void beginWrite() {
+        lock.lock();
+        try {
+            writes++;
+            writesInProgress++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the end of a write started with {@link #beginWrite()}, whether it succeeded or not.
+     */
+    public void endWrite() {
+        lock.lock();
+        try {
+            writes++;
+            writesInProgress--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the searches a changed book could affect: those whose result holds it, and those
+     * whose criteria could match its new row.
+     *
+     * @param bookId The ID of the book added, updated or deleted.
+     * @param newRow The book as stored now, or null if it was deleted (or its state is not known).
+     * @return The number of searches evicted.
+     */
+    public int invalidateBook(String bookId, Book newRow) {
+        lock.lock();
+        try {
+            writes++;
+            int evicted = 0;
+            for (Iterator<Map.Entry<SearchCriteria, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<SearchCriteria, Entry> e = it.next();
+                if (e.getValue().ids.contains(bookId) || (newRow != null && e.getKey().couldMatch(newRow))) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+            evictions.add(evicted);
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the searches affected by deleting a category together with its books: those filtered
+     * by the category and those whose result holds one of its books.
+     *
+     * @return The number of searches evicted.
+     */
+    public int invalidateCategory(int categoryId) {
+        lock.lock();
+        try {
+            writes++;
+            int evicted = 0;
+            for (Iterator<Map.Entry<SearchCriteria, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<SearchCriteria, Entry> e = it.next();
+                if (e.getKey().getCategoryId() == categoryId || e.getValue().hasCategory(categoryId)) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+            evictions.add(evicted);
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the searches that include subcategories, whose results change when a category moves
+     * to another parent.
+     *
+     * @return The number of searches evicted.
+     */
+    public int invalidateSubcategorySearches() {
+        lock.lock();
+        try {
+            writes++;
+            int evicted = 0;
+            for (Iterator<SearchCriteria> it = entries.keySet().iterator(); it.hasNext(); ) {
+                if (it.next().isIncludeSubcategories()) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+            evictions.add(evicted);
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every cached search.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            writes++;
+            evictions.add(entries.size());
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of cached searches.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of searches answered from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of searches passed to storage.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The share of searches answered from the cache, from 0 to 1; 0 before the first search.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return The number of searches evicted because of writes, not counting those dropped for space.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(), book.getYear(), book.getVersion());
+    }
+
+    /**
+     * The books of one search, copied so the caller's later changes do not reach the cache.
+     */
+    private static final class Entry {
+        final Book[] books;
+        final Set<String> ids;
+
+        Entry(List<Book> result) {
+            books = new Book[result.size()];
+            ids = new HashSet<>(Math.max(16, result.size() * 2));
+            for (int i = 0; i < books.length; i++) {
+                books[i] = copy(result.get(i));
+                ids.add(books[i].getId());
+            }
+        }
+
+        boolean hasCategory(int categoryId) {
+            for (Book book : books) {
+                if (book.getCategory() == categoryId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
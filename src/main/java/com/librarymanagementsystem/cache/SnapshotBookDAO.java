@@ -0,0 +1,427 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.storage.CatalogSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A BookDAO decorator that answers {@link #getAllBooks()} from a {@link CatalogSnapshot} on local
+ * disk, kept current with the wrapped DAO's change log, so the catalog is never read in full from
+ * the database once a snapshot exists.
+ * <p>
+ * {@link #open()} maps the snapshot without touching the database; {@link #reconcile()} then reads
+ * only the changes made since it was taken (or, without a usable snapshot, reads the catalog once and
+ * writes one). Afterwards the changes made elsewhere arrive from the process's
+ * {@link CatalogChangePoller}, which this DAO listens to, and successful writes made through this DAO
+ * are applied at once. Changed and deleted books are kept in memory on top of the snapshot, which is
+ * rewritten at the next reconcile once enough of them have piled up.
+ * <p>
+ * All other calls are passed through unchanged.
+ */
+public class SnapshotBookDAO implements BookDAO, CatalogChangeListener {
+
+    private static final Logger LOG = Logger.get(SnapshotBookDAO.class);
+
+    private static final int CATCH_UP_BATCH = 1000;
+    private static final int REWRITE_THRESHOLD = 1000; // Changed books kept on top of the snapshot before it is rewritten
+
+    private final BookDAO delegate;
+    private final CategoryDAO categoryDAO;
+    private final Path directory;
+    private final String source;
+
+    private final ReentrantLock syncLock = new ReentrantLock();   // Held while applying changes or (re)writing the snapshot
+    private final ReentrantLock stateLock = new ReentrantLock();  // Guards the overlay below
+    private volatile CatalogSnapshot snapshot;        // Null until opened, or if none could be written
+    private final BitSet replaced = new BitSet();     // Snapshot books changed or deleted since it was taken
+    private final Map<String, Book> changed = new LinkedHashMap<>(); // Current data of the books changed since
+    private List<Book> books;                         // The merged catalog, rebuilt after a change
+
+    private volatile boolean reconciled;
+    private volatile long watermark;   // The change log watermark the merged catalog is current at
+
+    /**
+     * @param delegate The DAO that owns the data.
+     * @param categoryDAO The DAO the categories are read from when a snapshot is written.
+     * @param directory The directory of the snapshot files.
+     * @param source The database the data comes from, e.g. its URL; a snapshot of another one is not used.
+     */
+    public SnapshotBookDAO(BookDAO delegate, CategoryDAO categoryDAO, Path directory, String source) {
+        this.delegate = delegate;
+        this.categoryDAO = categoryDAO;
+        this.directory = directory;
+        this.source = source;
+    }
+
+    /**
+     * Maps the snapshot left by an earlier run, if there is one. Does not use the database.
+     *
+     * @return true if a snapshot was found.
+     */
+    public boolean open() {
+        syncLock.lock();
+        try {
+            CatalogSnapshot found = CatalogSnapshot.open(directory, source);
+            if (found == null) {
+                return false;
+            }
+            useSnapshot(found);
+            return true;
+        } catch (IOException e) {
+            LOG.warn("Error reading the catalog snapshot in {}: {}", directory, e.getMessage());
+            return false;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Brings the catalog up to date with the database: applies the changes made since the snapshot
+     * was taken, or reads the whole catalog and writes a snapshot if there is none, it does not fit
+     * the database (e.g. the database was recreated) or the change log no longer goes back to it.
+     * Called at start-up, after the change poller has started; otherwise the first getAllBooks() does it.
+     *
+     * @throws DataAccessException if the database could not be read.
+     */
+    public void reconcile() {
+        syncLock.lock();
+        try {
+            if (reconciled) {
+                return;
+            }
+            CatalogSnapshot current = snapshot;
+            if (current == null || delegate.getChangeWatermark() < current.getWatermark()) {
+                loadFromDelegate();
+            } else {
+                catchUp();
+                if (snapshot != null && overlaySize() >= REWRITE_THRESHOLD) {
+                    rewrite();
+                }
+            }
+            reconciled = true;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the changes polled from the change log on top of the snapshot; until it is reconciled,
+     * the reconcile reads them itself.
+     */
+    @Override
+    public void catalogChanged(BookChangeSet changes) {
+        syncLock.lock();
+        try {
+            if (!reconciled || snapshot == null) {
+                return;
+            }
+            for (Book book : changes.getUpserts()) {
+                applyUpsert(book);
+            }
+            for (String bookId : changes.getDeletedIds()) {
+                applyDelete(bookId);
+            }
+            watermark = Math.max(watermark, changes.getWatermark());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the whole catalog and writes a new snapshot, as at a start without one.
+     */
+    @Override
+    public void catalogReloadRequired() {
+        syncLock.lock();
+        try {
+            if (reconciled && snapshot != null) {
+                loadFromDelegate();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * @return The snapshot in use, for statistics; null if there is none.
+     */
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        if (!reconciled) {
+            reconcile();
+        }
+        if (snapshot == null) {
+            return delegate.getAllBooks(); // No snapshot could be written; read the catalog as usual
+        }
+        return mergedBooks();
+    }
+
+    @Override
+    public boolean addBook(Book book) {
+        boolean added = delegate.addBook(book);
+        if (added) {
+            applyUpsert(book);
+        }
+        return added;
+    }
+
+    @Override
+    public UpdateResult updateBook(Book book) {
+        UpdateResult result = delegate.updateBook(book);
+        if (result.isUpdated()) {
+            applyUpsert(book);
+        } else if (result == UpdateResult.NOT_FOUND) {
+            applyDelete(book.getId());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean deleteBook(String bookId) {
+        boolean deleted = delegate.deleteBook(bookId);
+        if (deleted) {
+            applyDelete(bookId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public Book getBookById(String bookId) {
+        return delegate.getBookById(bookId);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId) {
+        return delegate.getBooksByCategory(categoryId);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories) {
+        return delegate.getBooksByCategory(categoryId, includeSubcategories);
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        return delegate.searchBooksByTitle(title);
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear) {
+        return delegate.advancedSearch(title, author, categoryId, minYear, maxYear);
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        return delegate.advancedSearch(title, author, categoryId, includeSubcategories, minYear, maxYear);
+    }
+
+    /**
+     * @return The watermark getAllBooks() is current at while it is served from the snapshot, so
+     *         callers that read the catalog and then follow the change log miss nothing.
+     */
+    @Override
+    public long getChangeWatermark() {
+        return snapshot != null ? watermark : delegate.getChangeWatermark();
+    }
+
+    @Override
+    public BookChangeSet getChangesSince(long watermark, int limit) {
+        return delegate.getChangesSince(watermark, limit);
+    }
+
+    @Override
+    public void releaseChanges(long watermark) {
+        delegate.releaseChanges(watermark);
+    }
+
+    // ---------------------------------------------------------------- Internals
+
+    /**
+     * Reads the change log from the snapshot's watermark to its end, once at start-up; the poller
+     * brings the changes after that. If the log no longer goes back that far, reads the whole
+     * catalog instead. The caller holds the sync lock.
+     */
+    private void catchUp() {
+        BookChangeSet changes;
+        do {
+            changes = delegate.getChangesSince(watermark, CATCH_UP_BATCH);
+            if (changes.isReloadRequired()) {
+                loadFromDelegate();
+                return;
+            }
+            for (Book book : changes.getUpserts()) {
+                applyUpsert(book);
+            }
+            for (String bookId : changes.getDeletedIds()) {
+                applyDelete(bookId);
+            }
+            watermark = changes.getWatermark();
+        } while (changes.hasMore());
+    }
+
+    /**
+     * Reads the whole catalog and writes it as a new snapshot. The caller holds the sync lock.
+     */
+    private void loadFromDelegate() {
+        // Watermark first: changes made while the catalog is read are polled again and applied afterwards
+        long start = delegate.getChangeWatermark();
+        List<Book> all = delegate.getAllBooks();
+        try {
+            CatalogSnapshot.write(directory, source, start, categoryDAO.getAllCategories(), all);
+            CatalogSnapshot written = CatalogSnapshot.open(directory, source);
+            if (written != null) {
+                useSnapshot(written);
+                System.out.println("Catalog snapshot written with " + written.size() + " books to " + written.getFile() + ".");
+                return;
+            }
+        } catch (IOException e) {
+            LOG.warn("Error writing the catalog snapshot in {}: {}", directory, e.getMessage());
+        }
+        snapshot = null; // getAllBooks() reads from the delegate
+    }
+
+    /**
+     * Writes the merged catalog as a new snapshot and continues from it. The caller holds the sync lock.
+     */
+    private void rewrite() {
+        long current = watermark;
+        List<Book> all = mergedBooks();
+        try {
+            CatalogSnapshot.write(directory, source, current, categoryDAO.getAllCategories(), all);
+            CatalogSnapshot written = CatalogSnapshot.open(directory, source);
+            if (written != null) {
+                useSnapshot(written);
+            }
+        } catch (IOException e) {
+            // The old snapshot and the changes on top of it stay in use; the next start tries again
+            LOG.warn("Error rewriting the catalog snapshot in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void useSnapshot(CatalogSnapshot found) {
+        stateLock.lock();
+        try {
+            snapshot = found;
+            watermark = found.getWatermark();
+            replaced.clear();
+            changed.clear();
+            books = null;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void applyUpsert(Book book) {
+        stateLock.lock();
+        try {
+            CatalogSnapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            int index = current.indexOf(book.getId());
+            if (index >= 0) {
+                replaced.set(index);
+            }
+            changed.put(book.getId(), book);
+            books = null;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void applyDelete(String bookId) {
+        stateLock.lock();
+        try {
+            CatalogSnapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            int index = current.indexOf(bookId);
+            if (index >= 0) {
+                replaced.set(index);
+            }
+            changed.remove(bookId);
+            books = null;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private int overlaySize() {
+        stateLock.lock();
+        try {
+            return replaced.cardinality() + changed.size();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * @return The snapshot's books that were not changed since, followed by the changed ones.
+     */
+    private List<Book> mergedBooks() {
+        stateLock.lock();
+        try {
+            if (books == null) {
+                books = mergeWithChanges(snapshot);
+            }
+            return books;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private List<Book> mergeWithChanges(CatalogSnapshot current) {
+        int[] kept = new int[current.size() - replaced.cardinality()];
+        int next = 0;
+        for (int i = replaced.nextClearBit(0); i < current.size(); i = replaced.nextClearBit(i + 1)) {
+            kept[next++] = i;
+        }
+        return new MergedBooks(current, kept, new ArrayList<>(changed.values()));
+    }
+
+    /**
+     * A read-only list of snapshot books, decoded on access, and books held in memory.
+     */
+    private static final class MergedBooks extends AbstractList<Book> implements RandomAccess {
+        private final CatalogSnapshot snapshot;
+        private final int[] kept;
+        private final List<Book> changed;
+
+        MergedBooks(CatalogSnapshot snapshot, int[] kept, List<Book> changed) {
+            this.snapshot = snapshot;
+            this.kept = kept;
+            this.changed = changed;
+        }
+
+        @Override
+        public Book get(int index) {
+            return index < kept.length ? snapshot.getBook(kept[index]) : changed.get(index - kept.length);
+        }
+
+        @Override
+        public int size() {
+            return kept.length + changed.size();
+        }
+    }
+}
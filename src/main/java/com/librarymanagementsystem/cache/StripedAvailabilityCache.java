@@ -0,0 +1,218 @@
+package com.librarymanagementsystem.cache;
+
+import com.librarymanagementsystem.model.BookAvailability;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory cache of book availability counts, split into stripes that each have their own lock,
+ * so hundreds of desks and kiosks checking different books do not queue behind one lock.
+ * <p>
+ * Each stripe is a small LRU map, so the cache stays bounded however large the catalog is, and
+ * an entry is reloaded after a short time to live, so checkouts made by other application
+ * instances show up. The counts in storage remain the authority: a checkout never consults the
+ * cache, it only corrects it afterwards with {@link #adjust}.
+ * <p>
+ * A count read from storage is stored only if no write to the same stripe happened while it was
+ * being read (see {@link #stamp}), so a slow read cannot overwrite a newer checkout or return.
+ */
+public final class StripedAvailabilityCache {
+
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int DEFAULT_ENTRIES_PER_STRIPE = 1024;
+    private static final long DEFAULT_TIME_TO_LIVE_MILLIS = 2_000;
+
+    private final Stripe[] stripes;
+    private final int entriesPerStripe;
+    private final long timeToLiveNanos;
+
+    /**
+     * Creates a cache of 64 stripes of 1024 entries, with a time to live of 2 seconds.
+     */
+    public StripedAvailabilityCache() {
+        this(DEFAULT_STRIPES, DEFAULT_ENTRIES_PER_STRIPE, DEFAULT_TIME_TO_LIVE_MILLIS);
+    }
+
+    /**
+     * @param stripes The number of stripes; rounded up to a power of two.
+     * @param entriesPerStripe The number of books each stripe keeps before it drops the least recently used one.
+     * @param timeToLiveMillis How long a count read from storage is used.
+     */
+    public StripedAvailabilityCache(int stripes, int entriesPerStripe, long timeToLiveMillis) {
+        if (stripes < 1 || entriesPerStripe < 1 || timeToLiveMillis < 0) {
+            throw new IllegalArgumentException("Stripes and entries must be positive and the time to live not negative");
+        }
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.entriesPerStripe = entriesPerStripe;
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+    }
+
+    /**
+     * @return The cached counts of a book, or null if they are not cached or too old.
+     */
+    public BookAvailability get(String bookId) {
+        Stripe stripe = stripeFor(bookId);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(bookId);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt > timeToLiveNanos) {
+                stripe.entries.remove(bookId);
+                return null;
+            }
+            return new BookAvailability(bookId, entry.totalCopies, entry.availableCopies);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of writes to the stripe of a book so far. Take it before reading the counts
+     * from storage and pass it to {@link #put}.
+     */
+    public long stamp(String bookId) {
+        Stripe stripe = stripeFor(bookId);
+        stripe.lock.lock();
+        try {
+            return stripe.writes;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Caches counts read from storage, unless the stripe was written since the stamp was taken.
+     *
+     * @param availability The counts.
+     * @param stamp The {@link #stamp} taken before they were read.
+     * @return true if they were cached.
+     */
+    public boolean put(BookAvailability availability, long stamp) {
+        Stripe stripe = stripeFor(availability.getBookId());
+        stripe.lock.lock();
+        try {
+            if (stripe.writes != stamp) {
+                return false;
+            }
+            stripe.entries.put(availability.getBookId(),
+                    new Entry(availability.getTotalCopies(), availability.getAvailableCopies(), System.nanoTime()));
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a change made in storage to the cached counts of a book, if they are cached.
+     *
+     * @param bookId The book.
+     * @param totalDelta The change in copies, e.g. 1 for an added copy.
+     * @param availableDelta The change in copies on the shelf, e.g. -1 for a checkout.
+     */
+    public void adjust(String bookId, int totalDelta, int availableDelta) {
+        Stripe stripe = stripeFor(bookId);
+        stripe.lock.lock();
+        try {
+            stripe.writes++;
+            Entry entry = stripe.entries.get(bookId);
+            if (entry == null) {
+                return;
+            }
+            entry.totalCopies += totalDelta;
+            entry.availableCopies += availableDelta;
+            if (entry.availableCopies < 0 || entry.availableCopies > entry.totalCopies) {
+                stripe.entries.remove(bookId); // Out of step with storage; read it again
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cached counts of a book.
+     */
+    public void invalidate(String bookId) {
+        Stripe stripe = stripeFor(bookId);
+        stripe.lock.lock();
+        try {
+            stripe.writes++;
+            stripe.entries.remove(bookId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops all cached counts.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.writes++;
+                stripe.entries.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return The number of cached books, including expired ones not dropped yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String bookId) {
+        int hash = bookId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * One lock and the books that hash to it, least recently used first.
+     */
+    private final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > entriesPerStripe;
+            }
+        };
+        long writes; // Guarded by lock
+    }
+
+    private static final class Entry {
+        int totalCopies;
+        int availableCopies;
+        final long loadedAt; // System.nanoTime() when read from storage
+
+        Entry(int totalCopies, int availableCopies, long loadedAt) {
+            this.totalCopies = totalCopies;
+            this.availableCopies = availableCopies;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.librarymanagementsystem.circulation;
+
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.LoanDAO;
+import com.librarymanagementsystem.dao.LoanResult;
+import com.librarymanagementsystem.dao.TransactionRunner;
+import com.librarymanagementsystem.model.BookAvailability;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Loan;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A LoanDAO decorator that hands copies coming back on the shelf to the next user waiting for the
+ * book, through a {@link HoldAllocator}, before anyone else can take them.
+ * <p>
+ * A returned copy is set aside in the transaction of the return: it is never on the shelf in
+ * between, so a checkout at another desk cannot take it from the user at the head of the queue. The
+ * queue is looked up in storage, so holds placed through other instances are served as well.
+ */
+public class HoldAllocatingLoanDAO implements LoanDAO {
+
+    private final LoanDAO delegate;
+    private final HoldAllocator allocator;
+    private final TransactionRunner transactions;
+
+    /**
+     * @param delegate The DAO that owns the copies and loans.
+     * @param allocator The allocator to notify of returned and added copies.
+     * @param transactions Runs a return and the allocation of the returned copy as one unit of work.
+     */
+    public HoldAllocatingLoanDAO(LoanDAO delegate, HoldAllocator allocator, TransactionRunner transactions) {
+        this.delegate = delegate;
+        this.allocator = allocator;
+        this.transactions = transactions;
+    }
+
+    @Override
+    public boolean addCopy(BookCopy copy) {
+        boolean added = delegate.addCopy(copy);
+        if (added) {
+            allocator.onCopyAvailable(copy.getBookId());
+        }
+        return added;
+    }
+
+    @Override
+    public boolean removeCopy(String barcode) {
+        return delegate.removeCopy(barcode);
+    }
+
+    @Override
+    public BookCopy getCopy(String barcode) {
+        return delegate.getCopy(barcode);
+    }
+
+    @Override
+    public List<BookCopy> getCopies(String bookId) {
+        return delegate.getCopies(bookId);
+    }
+
+    @Override
+    public BookAvailability getAvailability(String bookId) {
+        return delegate.getAvailability(bookId);
+    }
+
+    @Override
+    public LoanResult checkout(Loan loan) {
+        return delegate.checkout(loan);
+    }
+
+    /**
+     * Returns the copy and, in the same transaction, sets it aside for the first waiting hold on
+     * the book, if there is one. If the allocation fails, the return is rolled back with it.
+     */
+    @Override
+    public LoanResult returnCopy(Loan loan) {
+        try {
+            boolean[] allocated = new boolean[1];
+            LoanResult returned = transactions.inTransaction(() -> {
+                LoanResult result = delegate.returnCopy(loan);
+                if (result.isDone()) {
+                    allocated[0] = !allocator.allocate(loan.getBookId()).isEmpty();
+                }
+                return result;
+            });
+            if (allocated[0]) {
+                // Also dropped before the commit, when a read could cache the count from before it
+                allocator.invalidate(loan.getBookId());
+            }
+            return returned;
+        } catch (DataAccessException e) {
+            // The cached count was adjusted for a return that was rolled back
+            allocator.invalidate(loan.getBookId());
+            throw e;
+        }
+    }
+
+    @Override
+    public LoanResult renew(Loan loan) {
+        return delegate.renew(loan);
+    }
+
+    @Override
+    public Loan getLoan(long loanId) {
+        return delegate.getLoan(loanId);
+    }
+
+    @Override
+    public List<Loan> getOpenLoans(String username) {
+        return delegate.getOpenLoans(username);
+    }
+
+    @Override
+    public List<Loan> getOverdueLoans(LocalDate today) {
+        return delegate.getOverdueLoans(today);
+    }
+}
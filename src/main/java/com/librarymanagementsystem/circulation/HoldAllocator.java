@@ -0,0 +1,241 @@
+package com.librarymanagementsystem.circulation;
+
+import com.librarymanagementsystem.cache.StripedAvailabilityCache;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.HoldDAO;
+import com.librarymanagementsystem.dao.HoldResult;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.Hold;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A HoldDAO decorator that hands copies to the next user in line.
+ * <p>
+ * The waiting holds are mirrored in {@link HoldQueues}. A returned copy is set aside by
+ * {@link HoldAllocatingLoanDAO} in the transaction of the return, with one lookup in the storage's
+ * queue index. When a copy comes on the shelf otherwise ({@link #onCopyAvailable(String)}: an added
+ * copy, a cancelled or expired hold), the book's queue is checked in memory, and only if someone
+ * waits is the copy set aside in storage for the first of them.
+ * <p>
+ * A background sweep expires lapsed holds and uncollected copies in batches, passes those copies on,
+ * and reloads the queues, so holds placed through other instances are seen within one sweep.
+ */
+public class HoldAllocator implements HoldDAO, AutoCloseable {
+
+    private static final Logger LOG = Logger.get(HoldAllocator.class);
+
+    public static final Duration DEFAULT_SWEEP_INTERVAL = Duration.ofMinutes(1);
+    public static final int DEFAULT_EXPIRY_BATCH = 500;
+
+    private final HoldDAO delegate;
+    private final StripedAvailabilityCache availabilityCache; // null without one
+    private final HoldQueues queues = new HoldQueues();
+    private final Set<String> retries = ConcurrentHashMap.newKeySet(); // Books whose allocation failed, tried again by the sweep
+    private final long sweepMillis;
+    private final int expiryBatch;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Creates the allocator with the default sweep interval and expiry batch size.
+     *
+     * @param delegate The DAO that owns the holds.
+     * @param availabilityCache The cache of availability counts to keep up to date, or null.
+     */
+    public HoldAllocator(HoldDAO delegate, StripedAvailabilityCache availabilityCache) {
+        this(delegate, availabilityCache, DEFAULT_SWEEP_INTERVAL, DEFAULT_EXPIRY_BATCH);
+    }
+
+    /**
+     * @param delegate The DAO that owns the holds.
+     * @param availabilityCache The cache of availability counts to keep up to date, or null.
+     * @param sweepInterval The time between two expiry sweeps.
+     * @param expiryBatch The most holds expired per storage call.
+     */
+    public HoldAllocator(HoldDAO delegate, StripedAvailabilityCache availabilityCache, Duration sweepInterval, int expiryBatch) {
+        if (sweepInterval.isNegative() || sweepInterval.isZero() || expiryBatch < 1) {
+            throw new IllegalArgumentException("Sweep interval and expiry batch must be positive");
+        }
+        this.delegate = delegate;
+        this.availabilityCache = availabilityCache;
+        this.sweepMillis = sweepInterval.toMillis();
+        this.expiryBatch = expiryBatch;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the queues from storage, passes on copies that are on the shelf while holds wait, and
+     * starts the expiry sweep. If the storage cannot be reached, the first sweep loads the queues.
+     */
+    public void start() {
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            LOG.error("Error loading the hold queues: {}", e.getMessage());
+        }
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called when a copy of a book was put on the shelf (returned or added): sets it aside for the
+     * first waiting hold, if there is one. A storage failure is logged and the book is tried again
+     * by the next sweep, so the caller's return is not failed by it.
+     *
+     * @param bookId The ID of the book.
+     */
+    public void onCopyAvailable(String bookId) {
+        if (!queues.hasWaiting(bookId)) {
+            return;
+        }
+        try {
+            allocate(bookId);
+        } catch (DataAccessException e) {
+            LOG.error("Error allocating copies of book {} to holds: {}", bookId, e.getMessage());
+            retries.add(bookId);
+        }
+    }
+
+    @Override
+    public HoldResult placeHold(Hold hold) {
+        HoldResult result = delegate.placeHold(hold);
+        if (result.isDone()) {
+            queues.add(hold);
+            // A copy may be on the shelf already
+            for (Hold ready : allocate(hold.getBookId())) {
+                if (ready.getId() == hold.getId()) {
+                    hold.setStatus(ready.getStatus());
+                    hold.setExpiresOn(ready.getExpiresOn());
+                    hold.setCopyId(ready.getCopyId());
+                    hold.setBarcode(ready.getBarcode());
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public HoldResult cancelHold(Hold hold) {
+        HoldResult result = delegate.cancelHold(hold);
+        queues.remove(hold.getId());
+        if (result.isDone()) {
+            invalidate(hold.getBookId());
+            onCopyAvailable(hold.getBookId()); // A copy set aside for the hold goes to the next in line
+        }
+        return result;
+    }
+
+    @Override
+    public Hold getHold(long holdId) {
+        return delegate.getHold(holdId);
+    }
+
+    @Override
+    public List<Hold> getHolds(String username) {
+        return delegate.getHolds(username);
+    }
+
+    @Override
+    public List<Hold> getQueue(String bookId) {
+        return delegate.getQueue(bookId);
+    }
+
+    @Override
+    public List<Hold> getWaitingHolds() {
+        return delegate.getWaitingHolds();
+    }
+
+    @Override
+    public List<Hold> allocate(String bookId) {
+        List<Hold> ready = delegate.allocate(bookId);
+        for (Hold hold : ready) {
+            queues.remove(hold.getId());
+        }
+        if (!ready.isEmpty()) {
+            invalidate(bookId);
+        }
+        return ready;
+    }
+
+    @Override
+    public List<Hold> expireHolds(LocalDate today, int limit) {
+        List<Hold> expired = delegate.expireHolds(today, limit);
+        Set<String> released = new HashSet<>();
+        for (Hold hold : expired) {
+            queues.remove(hold.getId());
+            if (hold.getCopyId() != 0) {
+                released.add(hold.getBookId());
+            }
+        }
+        for (String bookId : released) {
+            invalidate(bookId);
+            onCopyAvailable(bookId);
+        }
+        return expired;
+    }
+
+    /**
+     * @return The place of a waiting hold in its book's queue, 1 for the next to be served; 0 if it is not waiting.
+     */
+    public int position(long holdId) {
+        return queues.position(holdId);
+    }
+
+    /**
+     * @return The number of holds waiting for the book.
+     */
+    public int waiting(String bookId) {
+        return queues.waiting(bookId);
+    }
+
+    /**
+     * Stops the expiry sweep.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private void sweep() {
+        try {
+            List<Hold> batch;
+            do {
+                batch = expireHolds(LocalDate.now(), expiryBatch);
+            } while (batch.size() == expiryBatch);
+            for (String bookId : Set.copyOf(retries)) {
+                retries.remove(bookId);
+                onCopyAvailable(bookId);
+            }
+            reload();
+        } catch (RuntimeException e) {
+            // Keep sweeping; the next run picks up what this one missed
+            LOG.error("Error expiring holds: {}", e.getMessage());
+        }
+    }
+
+    private void reload() {
+        for (String bookId : queues.reload(delegate::getWaitingHolds)) {
+            onCopyAvailable(bookId); // Placed elsewhere while a copy was on the shelf here
+        }
+    }
+
+    /**
+     * Drops the cached availability of a book, e.g. after a return that was rolled back.
+     */
+    void invalidate(String bookId) {
+        if (availabilityCache != null) {
+            availabilityCache.invalidate(bookId);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.librarymanagementsystem.circulation;
+
+import com.librarymanagementsystem.model.Hold;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The waiting holds of every book, mirrored in memory, so a return can tell without a query whether
+ * anyone waits for the book and a user can be told their place in the queue.
+ * <p>
+ * A book's queue is an immutable array in the order it is served (highest priority first, then
+ * oldest first), replaced as a whole when a hold joins or leaves it. Queues are short, so this
+ * costs little, and reads never lock. Books nobody waits for have no entry.
+ */
+public final class HoldQueues {
+
+    private final ConcurrentHashMap<String, Waiting[]> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> bookOfHold = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a waiting hold to its book's queue; holds that are not waiting are ignored.
+     */
+    public void add(Hold hold) {
+        if (hold.getStatus() != Hold.Status.WAITING || bookOfHold.putIfAbsent(hold.getId(), hold.getBookId()) != null) {
+            return;
+        }
+        Waiting waiting = new Waiting(hold.getId(), hold.getPriority());
+        queues.compute(hold.getBookId(), (bookId, queue) -> {
+            if (queue == null) {
+                return new Waiting[]{waiting};
+            }
+            int at = 0;
+            while (at < queue.length && !waiting.isServedBefore(queue[at])) {
+                at++;
+            }
+            Waiting[] longer = new Waiting[queue.length + 1];
+            System.arraycopy(queue, 0, longer, 0, at);
+            longer[at] = waiting;
+            System.arraycopy(queue, at, longer, at + 1, queue.length - at);
+            return longer;
+        });
+    }
+
+    /**
+     * Removes a hold from its book's queue, e.g. because it became ready or was cancelled.
+     */
+    public void remove(long holdId) {
+        String bookId = bookOfHold.remove(holdId);
+        if (bookId == null) {
+            return;
+        }
+        queues.computeIfPresent(bookId, (id, queue) -> {
+            Waiting[] shorter = Arrays.stream(queue).filter(waiting -> waiting.holdId != holdId).toArray(Waiting[]::new);
+            return shorter.length > 0 ? shorter : null;
+        });
+    }
+
+    /**
+     * @return true if a hold waits for the book.
+     */
+    public boolean hasWaiting(String bookId) {
+        return queues.containsKey(bookId);
+    }
+
+    /**
+     * @return The number of holds waiting for the book.
+     */
+    public int waiting(String bookId) {
+        Waiting[] queue = queues.get(bookId);
+        return queue != null ? queue.length : 0;
+    }
+
+    /**
+     * @return The place of a waiting hold in its book's queue, 1 for the next to be served; 0 if it is not waiting.
+     */
+    public int position(long holdId) {
+        String bookId = bookOfHold.get(holdId);
+        Waiting[] queue = bookId != null ? queues.get(bookId) : null;
+        if (queue != null) {
+            for (int i = 0; i < queue.length; i++) {
+                if (queue[i].holdId == holdId) {
+                    return i + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Brings the queues in line with storage, where other instances may have placed or closed holds.
+     * Holds added or removed here while the storage is read are left as they are, so a slow read
+     * cannot bring back a hold that was just served.
+     *
+     * @param loader Reads every waiting hold from storage.
+     * @return The books that have waiting holds these queues did not know of.
+     */
+    public Set<String> reload(Supplier<List<Hold>> loader) {
+        Set<Long> known = new HashSet<>(bookOfHold.keySet());
+        List<Hold> waiting = loader.get();
+        Set<Long> loaded = new HashSet<>();
+        Set<String> gained = new HashSet<>();
+        for (Hold hold : waiting) {
+            loaded.add(hold.getId());
+            if (!known.contains(hold.getId()) && !bookOfHold.containsKey(hold.getId())) {
+                add(hold);
+                gained.add(hold.getBookId());
+            }
+        }
+        for (long holdId : known) {
+            if (!loaded.contains(holdId)) {
+                remove(holdId);
+            }
+        }
+        return gained;
+    }
+
+    /**
+     * @return The number of waiting holds.
+     */
+    public int size() {
+        return bookOfHold.size();
+    }
+
+    private static final class Waiting {
+        private final long holdId;
+        private final int priority;
+
+        private Waiting(long holdId, int priority) {
+            this.holdId = holdId;
+            this.priority = priority;
+        }
+
+        private boolean isServedBefore(Waiting other) {
+            return priority != other.priority ? priority > other.priority : holdId < other.holdId;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The books changed after a watermark, as returned by {@link BookDAO#getChangesSince(long, int)}.
+ * <p>
+ * Each changed book appears once, either among the upserts with its current data or among the
+ * deleted IDs, ordered by its latest change. Applying a change set to a copy of the catalog that
+ * was current at the old watermark makes it current at the new one.
+ * <p>
+ * Storage that logs category changes in the same sequence (MySQL) also lists the categories added,
+ * updated or deleted, so a client can tell when its category hierarchy is out of date.
+ * <p>
+ * Storage keeps the changes only as long as its readers need them. A watermark older than what is
+ * kept gets a change set that {@link #isReloadRequired() requires a reload}: the copy must be read
+ * again from scratch, and kept up to date from the watermark of that change set.
+ */
+public final class BookChangeSet {
+
+    private final List<Book> upserts;
+    private final List<String> deletedIds;
+    private final List<Integer> changedCategoryIds;
+    private final long watermark;
+    private final boolean hasMore;
+    private final boolean reloadRequired;
+
+    /**
+     * @param upserts The added or updated books, with their current data.
+     * @param deletedIds The IDs of the deleted books.
+     * @param watermark The watermark to ask for the next changes with.
+     * @param hasMore true if the limit was reached and more changes are waiting.
+     */
+    public BookChangeSet(List<Book> upserts, List<String> deletedIds, long watermark, boolean hasMore) {
+        this(upserts, deletedIds, Collections.emptyList(), watermark, hasMore);
+    }
+
+    /**
+     * @param upserts The added or updated books, with their current data.
+     * @param deletedIds The IDs of the deleted books.
+     * @param changedCategoryIds The IDs of the added, updated or deleted categories.
+     * @param watermark The watermark to ask for the next changes with.
+     * @param hasMore true if the limit was reached and more changes are waiting.
+     */
+    public BookChangeSet(List<Book> upserts, List<String> deletedIds, List<Integer> changedCategoryIds, long watermark,
+                         boolean hasMore) {
+        this(upserts, deletedIds, changedCategoryIds, watermark, hasMore, false);
+    }
+
+    private BookChangeSet(List<Book> upserts, List<String> deletedIds, List<Integer> changedCategoryIds, long watermark,
+                          boolean hasMore, boolean reloadRequired) {
+        this.upserts = Collections.unmodifiableList(upserts);
+        this.deletedIds = Collections.unmodifiableList(deletedIds);
+        this.changedCategoryIds = Collections.unmodifiableList(changedCategoryIds);
+        this.watermark = watermark;
+        this.hasMore = hasMore;
+        this.reloadRequired = reloadRequired;
+    }
+
+    /**
+     * @param watermark The current watermark, read before the caller reloads, so the changes made
+     *                  during the reload are applied afterwards.
+     * @return A change set saying the changes after the caller's watermark are no longer all kept.
+     */
+    public static BookChangeSet reloadRequired(long watermark) {
+        return new BookChangeSet(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), watermark, false, true);
+    }
+
+    public List<Book> getUpserts() {
+        return upserts;
+    }
+
+    public List<String> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public List<Integer> getChangedCategoryIds() {
+        return changedCategoryIds;
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return true if the limit was reached; call again with the new watermark for the rest.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return true if the changes since the watermark asked for are no longer all kept; read the
+     *         catalog again, then continue from {@link #getWatermark()}.
+     */
+    public boolean isReloadRequired() {
+        return reloadRequired;
+    }
+
+    /**
+     * @return true if no book changed.
+     */
+    public boolean isEmpty() {
+        return upserts.isEmpty() && deletedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BookChangeSet{" +
+                "upserts=" + upserts.size() +
+                ", deleted=" + deletedIds.size() +
+                ", categories=" + changedCategoryIds.size() +
+                ", watermark=" + watermark +
+                ", hasMore=" + hasMore +
+                ", reloadRequired=" + reloadRequired +
+                '}';
+    }
+}
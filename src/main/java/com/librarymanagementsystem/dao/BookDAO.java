@@ -6,6 +6,9 @@ import java.util.List;
 /**
  * Interface for Data Access Operations related to Book objects.
  * Defines the contract for interacting with book data storage.
+ * <p>
+ * If the storage cannot be reached or does not answer in time, methods throw
+ * {@link DataAccessException} instead of returning false, null or an empty list.
  */
 public interface BookDAO {
     /**
@@ -22,11 +25,12 @@ public interface BookDAO {
     boolean addBook(Book book);
 
     /**
-     * Updates an existing book in the database.
-     * @param book The Book object with updated information (ID must match an existing book).
-     * @return true if the book was successfully updated, false otherwise.
+     * Updates an existing book in the database, unless it was changed since it was read.
+     * On success the book's version is advanced to the stored one.
+     * @param book The Book object with updated information (ID must match an existing book) and the version it was read with.
+     * @return UPDATED, or CONFLICT if the stored version differs, NOT_FOUND or REJECTED.
      */
-    boolean updateBook(Book book);
+    UpdateResult updateBook(Book book);
 
     /**
      * Deletes a book from the database by its ID.
@@ -49,6 +53,14 @@ public interface BookDAO {
      */
     List<Book> getBooksByCategory(int categoryId);
 
+    /**
+     * Retrieves the books of a category, or of a category and all its subcategories at any depth.
+     * @param categoryId The ID of the category.
+     * @param includeSubcategories true to include the books of the category's descendants.
+     * @return A list of books in the category (or its subtree).
+     */
+    List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories);
+
     /**
      * Searches for books by their title.
      * @param title The title (or part of it) to search for.
@@ -68,4 +80,42 @@ public interface BookDAO {
      * @return A list of books matching the advanced search criteria.
      */
     List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear);
-}
\ No newline at end of file
+
+    /**
+     * Performs an advanced search like {@link #advancedSearch(String, String, int, int, int)}, where
+     * the category filter may include the category's subcategories at any depth.
+     *
+     * @param title The title to search for (can be partial).
+     * @param author The author to search for (can be partial).
+     * @param categoryId The ID of the category to filter by (0 or negative if not used).
+     * @param includeSubcategories true to also match books of the category's descendants.
+     * @param minYear The minimum publication year (0 or negative if not used).
+     * @param maxYear The maximum publication year (0 or negative if not used).
+     * @return A list of books matching the advanced search criteria.
+     */
+    List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear);
+
+    /**
+     * Returns the current change watermark. To keep a copy of the catalog up to date, take the
+     * watermark, then read all books, then ask for the changes since the watermark from time to time.
+     * @return The watermark of the latest change.
+     */
+    long getChangeWatermark();
+
+    /**
+     * Retrieves the books added, updated or deleted after a watermark, oldest change first.
+     * @param watermark A watermark from getChangeWatermark() or from an earlier change set.
+     * @param limit The maximum number of changes to return (at least 1).
+     * @return The changes and the watermark to continue from, or, if the watermark is older than the
+     *         changes the storage still keeps, a change set that requires a reload.
+     */
+    BookChangeSet getChangesSince(long watermark, int limit);
+
+    /**
+     * Tells the storage that this process no longer reads the changes up to a watermark, so it may
+     * forget them once no other reader needs them either. Readers that continue from an older
+     * watermark afterwards get a change set that requires a reload.
+     * @param watermark The oldest watermark this process still continues from.
+     */
+    void releaseChanges(long watermark);
+}
@@ -6,26 +6,35 @@ import java.util.List;
 /**
  * Interface for Data Access Operations related to Category objects.
  * Defines the contract for interacting with category data storage.
+ * <p>
+ * If the storage cannot be reached or does not answer in time, methods throw
+ * {@link DataAccessException} instead of returning false, null or an empty list.
+ * <p>
+ * Categories can be nested through their parent ID. A category cannot be moved below itself or
+ * one of its descendants, and a category with subcategories cannot be deleted.
  */
 public interface CategoryDAO {
     /**
-     * Adds a new category to the database.
+     * Adds a new category to the database, as a subcategory if it has a parent ID.
      * @param category The Category object to be added.
-     * @return true if the category was successfully added, false otherwise.
+     * @return true if the category was successfully added, false otherwise (e.g. its parent does not exist).
      */
     boolean addCategory(Category category);
 
     /**
-     * Updates an existing category in the database.
-     * @param category The Category object with updated information (ID must match an existing category).
-     * @return true if the category was successfully updated, false otherwise.
+     * Updates an existing category in the database, unless it was changed since it was read.
+     * On success the category's version is advanced to the stored one. A changed parent ID moves
+     * the category, with its subcategories, below the new parent.
+     * @param category The Category object with updated information (ID must match an existing category) and the version it was read with.
+     * @return UPDATED, or CONFLICT if the stored version differs, NOT_FOUND, or REJECTED (e.g. the new
+     *         parent does not exist or is the category itself or one of its descendants).
      */
-    boolean updateCategory(Category category);
+    UpdateResult updateCategory(Category category);
 
     /**
      * Deletes a category from the database by its ID.
      * @param categoryId The ID of the category to be deleted.
-     * @return true if the category was successfully deleted, false otherwise.
+     * @return true if the category was successfully deleted, false otherwise (e.g. it has subcategories).
      */
     boolean deleteCategory(int categoryId);
 
@@ -35,6 +44,13 @@ public interface CategoryDAO {
      */
     List<Category> getAllCategories();
 
+    /**
+     * Retrieves the categories directly below a category.
+     * @param parentId The ID of the parent category, or 0 for the top-level categories.
+     * @return The subcategories, by name.
+     */
+    List<Category> getSubcategories(int parentId);
+
     /**
      * Retrieves a category by its unique ID.
      * @param categoryId The ID of the category to retrieve.
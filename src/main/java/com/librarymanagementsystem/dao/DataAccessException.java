@@ -0,0 +1,28 @@
+package com.librarymanagementsystem.dao;
+
+/**
+ * Thrown by DAO methods when the storage could not answer: the database is unreachable, a query
+ * timed out, or the circuit breaker rejected the call because the database is known to be down.
+ * <p>
+ * It is unchecked so that the DAO interfaces keep their signatures. A DAO never reports such a
+ * failure as an empty list or null; those mean "nothing found".
+ */
+public class DataAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message A description of the failed operation.
+     */
+    public DataAccessException(String message) {
+        super(message);
+    }
+
+    /**
+     * @param message A description of the failed operation.
+     * @param cause The underlying SQLException or I/O error.
+     */
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,82 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.Hold;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interface for holds: the queue of users waiting for a copy of a book.
+ * <p>
+ * A copy on the shelf is set aside for the first waiting hold of its book by
+ * {@link #allocate(String)}; a set-aside copy is not counted as available and can only be checked
+ * out by the user of that hold (see {@link LoanDAO#checkout}), which fulfils the hold. Holds that
+ * waited too long, and set-aside copies that were not picked up in time, are released by
+ * {@link #expireHolds(LocalDate, int)}.
+ * <p>
+ * If the storage cannot be reached or does not answer in time, methods throw
+ * {@link DataAccessException} instead of returning false, null or an empty list.
+ */
+public interface HoldDAO {
+    /**
+     * Places a hold at the end of its priority in the book's queue. If a copy is on the shelf and
+     * nobody is ahead, it is set aside at once and the hold is ready. On success the hold's ID,
+     * status, dates and (if ready) copy are set.
+     * @param hold The hold (see {@link Hold#Hold(String, String, int)}).
+     * @return DONE, NOT_FOUND if the book does not exist, or DUPLICATE.
+     */
+    HoldResult placeHold(Hold hold);
+
+    /**
+     * Cancels a waiting or ready hold; a copy set aside for it goes to the next waiting hold or
+     * back on the shelf. On success the hold is filled in with the cancelled hold.
+     * @param hold The hold, with at least its ID set.
+     * @return DONE, NOT_FOUND, or CLOSED.
+     */
+    HoldResult cancelHold(Hold hold);
+
+    /**
+     * Retrieves a hold by its ID.
+     * @param holdId The ID of the hold.
+     * @return The hold if found, null otherwise.
+     */
+    Hold getHold(long holdId);
+
+    /**
+     * Retrieves the waiting and ready holds of a user.
+     * @param username The user.
+     * @return The holds, oldest first.
+     */
+    List<Hold> getHolds(String username);
+
+    /**
+     * Retrieves the waiting and ready holds on a book.
+     * @param bookId The ID of the book.
+     * @return The ready holds, then the waiting ones in the order they will be served.
+     */
+    List<Hold> getQueue(String bookId);
+
+    /**
+     * Retrieves every waiting hold, to mirror the queues in memory.
+     * @return The holds, by book and then in the order they will be served.
+     */
+    List<Hold> getWaitingHolds();
+
+    /**
+     * Sets the copies of a book that are on the shelf aside for its first waiting holds, one copy
+     * per hold, until either runs out.
+     * @param bookId The ID of the book.
+     * @return The holds that became ready, with their copies.
+     */
+    List<Hold> allocate(String bookId);
+
+    /**
+     * Expires waiting holds that lapsed and ready holds whose copy was not picked up, before a day.
+     * The copies of expired ready holds go back on the shelf; {@link #allocate(String)} their books
+     * to pass them on.
+     * @param today Holds that expire before this day are expired.
+     * @param limit The most holds to expire in one call, so a large backlog is worked off in batches.
+     * @return The expired holds.
+     */
+    List<Hold> expireHolds(LocalDate today, int limit);
+}
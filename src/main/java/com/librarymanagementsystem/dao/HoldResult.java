@@ -0,0 +1,22 @@
+package com.librarymanagementsystem.dao;
+
+/**
+ * The outcome of placing or cancelling a hold ({@link HoldDAO#placeHold}, {@link HoldDAO#cancelHold}).
+ */
+public enum HoldResult {
+    /** The hold was placed or cancelled. */
+    DONE,
+    /** The book or hold does not exist. */
+    NOT_FOUND,
+    /** The user already has a waiting or ready hold on the book, or a copy of it on loan. */
+    DUPLICATE,
+    /** The hold was already fulfilled, cancelled or expired. */
+    CLOSED;
+
+    /**
+     * @return true if the operation was stored.
+     */
+    public boolean isDone() {
+        return this == DONE;
+    }
+}
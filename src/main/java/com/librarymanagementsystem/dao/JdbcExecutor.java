@@ -0,0 +1,180 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.util.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The JDBC statements of the MySQL DAOs: prepares the statement, binds the parameters, maps the
+ * rows with a {@link RowMapper} and closes everything, on top of the {@link ConnectionManager}'s
+ * read and write handling (replicas, retries, timeouts, transactions).
+ * <p>
+ * Parameters are bound by their type: String, Integer, Long, Boolean, or null.
+ */
+public final class JdbcExecutor {
+
+    private final ConnectionManager connectionManager;
+
+    /**
+     * @param connectionManager The ConnectionManager the statements run on.
+     */
+    public JdbcExecutor(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Runs a read and maps all rows.
+     *
+     * @param description What the read does, for the error message.
+     * @param sql The SELECT statement.
+     * @param mapper Maps each row.
+     * @param params The statement's parameters, in order.
+     * @param <T> The type of the mapped objects.
+     * @return The mapped rows, in the order of the result.
+     * @throws DataAccessException if the read failed.
+     */
+    public <T> List<T> queryList(String description, String sql, RowMapper<T> mapper, Object... params) {
+        return connectionManager.executeRead(description, conn -> query(conn, sql, mapper, params));
+    }
+
+    /**
+     * Runs a read and maps the first row.
+     *
+     * @param description What the read does, for the error message.
+     * @param sql The SELECT statement.
+     * @param mapper Maps the row.
+     * @param params The statement's parameters, in order.
+     * @param <T> The type of the mapped object.
+     * @return The mapped row, or null if there is none.
+     * @throws DataAccessException if the read failed.
+     */
+    public <T> T queryOne(String description, String sql, RowMapper<T> mapper, Object... params) {
+        return connectionManager.executeRead(description, conn -> queryOne(conn, sql, mapper, params));
+    }
+
+    /**
+     * Runs a single-row write; see {@link ConnectionManager#update}.
+     *
+     * @param description What the write does, for the error message.
+     * @param sql The INSERT, UPDATE or DELETE statement.
+     * @param params The statement's parameters, in order.
+     * @return true if a row was changed (or the write was queued), false if none was or a constraint was violated.
+     * @throws DataAccessException if the database could not be reached or did not answer in time.
+     */
+    public boolean update(String description, String sql, Object... params) {
+        return connectionManager.update(description, sql, pstmt -> bind(pstmt, params));
+    }
+
+    /**
+     * Runs a read on a connection the caller already has, within a larger unit of work.
+     *
+     * @param conn The connection.
+     * @param sql The SELECT statement.
+     * @param mapper Maps each row.
+     * @param params The statement's parameters, in order.
+     * @param <T> The type of the mapped objects.
+     * @return The mapped rows.
+     * @throws SQLException if the statement failed.
+     */
+    public static <T> List<T> query(Connection conn, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return mapAll(rs, mapper);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #query(Connection, String, RowMapper, Object...)}, for the first row only.
+     *
+     * @return The mapped row, or null if there is none.
+     */
+    public static <T> T queryOne(Connection conn, String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            pstmt.setMaxRows(1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapper.forResultSet(rs).read(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Runs a write on a connection the caller already has, within a larger unit of work.
+     *
+     * @param conn The connection.
+     * @param sql The INSERT, UPDATE or DELETE statement.
+     * @param params The statement's parameters, in order.
+     * @return The number of rows changed.
+     * @throws SQLException if the statement failed.
+     */
+    public static int execute(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * @return true if the query finds a row.
+     */
+    public static boolean exists(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Maps the remaining rows of a ResultSet, resolving the mapper's columns once.
+     *
+     * @param rs The ResultSet, positioned before the rows to map.
+     * @param mapper Maps each row.
+     * @param <T> The type of the mapped objects.
+     * @return The mapped rows.
+     * @throws SQLException if reading failed.
+     */
+    public static <T> List<T> mapAll(ResultSet rs, RowMapper<T> mapper) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        RowMapper.RowReader<T> reader = mapper.forResultSet(rs);
+        while (rs.next()) {
+            rows.add(reader.read(rs));
+        }
+        return rows;
+    }
+
+    /**
+     * Sets a statement's parameters by their type.
+     *
+     * @param pstmt The statement.
+     * @param params The parameters, in order.
+     * @throws SQLException if a parameter could not be set.
+     */
+    public static void bind(PreparedStatement pstmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            if (param instanceof String value) {
+                pstmt.setString(i + 1, value);
+            } else if (param instanceof Integer value) {
+                pstmt.setInt(i + 1, value);
+            } else if (param instanceof Long value) {
+                pstmt.setLong(i + 1, value);
+            } else if (param instanceof Boolean value) {
+                pstmt.setBoolean(i + 1, value);
+            } else if (param == null) {
+                pstmt.setNull(i + 1, Types.NULL);
+            } else {
+                pstmt.setObject(i + 1, param);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.BookAvailability;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Loan;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interface for the circulation of books: the copies the library owns and their loans.
+ * <p>
+ * Every book keeps a count of its copies and of the copies on the shelf. Checkouts and returns
+ * change a copy and that count together, with conditional updates, so concurrent desks and kiosks
+ * never lend the same copy twice and the count never drifts from the copies.
+ * <p>
+ * If the storage cannot be reached or does not answer in time, methods throw
+ * {@link DataAccessException} instead of returning false, null or an empty list.
+ */
+public interface LoanDAO {
+    /**
+     * Adds a copy of a book, on the shelf.
+     * @param copy The copy; its ID is set when it was added.
+     * @return true if the copy was added, false otherwise (e.g. the book does not exist or the barcode is taken).
+     */
+    boolean addCopy(BookCopy copy);
+
+    /**
+     * Removes a copy that is on the shelf, e.g. because it was lost or withdrawn.
+     * @param barcode The barcode of the copy.
+     * @return true if the copy was removed, false if it does not exist, is on loan or is set aside for a hold.
+     */
+    boolean removeCopy(String barcode);
+
+    /**
+     * Retrieves a copy by its barcode.
+     * @param barcode The barcode of the copy.
+     * @return The copy if found, null otherwise.
+     */
+    BookCopy getCopy(String barcode);
+
+    /**
+     * Retrieves the copies of a book.
+     * @param bookId The ID of the book.
+     * @return The copies, by barcode.
+     */
+    List<BookCopy> getCopies(String bookId);
+
+    /**
+     * Retrieves how many copies of a book there are and how many are on the shelf.
+     * @param bookId The ID of the book.
+     * @return The counts; both 0 if the book has no copies.
+     */
+    BookAvailability getAvailability(String bookId);
+
+    /**
+     * Checks out a copy: the one with the loan's barcode, or, without one, the copy of the loan's
+     * book set aside for the user by a hold, or else any copy on the shelf. Checking out a copy set
+     * aside for the user fulfils the hold. On success the loan's ID, copy, book and dates are set.
+     * @param loan The checkout request (see {@link Loan#Loan(String, String, String)}).
+     * @return DONE, NOT_FOUND if the copy or book does not exist, or UNAVAILABLE if the copy is on
+     *         loan or set aside for another user, or no copy of the book is on the shelf.
+     */
+    LoanResult checkout(Loan loan);
+
+    /**
+     * Returns a copy: closes its open loan and puts it back on the shelf, from where
+     * {@link HoldDAO#allocate(String)} passes it on to a waiting hold. On success the loan is
+     * filled in with the closed loan (who borrowed the copy, when it was due).
+     * @param loan The return request: a loan with only the barcode of the copy set.
+     * @return DONE, NOT_FOUND if the copy does not exist, or NOT_ON_LOAN if it is on the shelf.
+     */
+    LoanResult returnCopy(Loan loan);
+
+    /**
+     * Extends the due date of an open loan by one loan period from today, unless it was renewed
+     * since it was read. On success the loan's due date and renewal count are updated.
+     * @param loan The loan, with the renewal count it was read with.
+     * @return DONE, NOT_FOUND, NOT_ON_LOAN if it was returned, RENEWAL_LIMIT, HOLDS_WAITING, or CONFLICT.
+     */
+    LoanResult renew(Loan loan);
+
+    /**
+     * Retrieves a loan by its ID.
+     * @param loanId The ID of the loan.
+     * @return The loan if found, null otherwise.
+     */
+    Loan getLoan(long loanId);
+
+    /**
+     * Retrieves the open loans of a user.
+     * @param username The user.
+     * @return The loans, earliest due first.
+     */
+    List<Loan> getOpenLoans(String username);
+
+    /**
+     * Retrieves the open loans that were due before a day.
+     * @param today The day to compare the due dates with.
+     * @return The loans, earliest due first.
+     */
+    List<Loan> getOverdueLoans(LocalDate today);
+}
@@ -0,0 +1,29 @@
+package com.librarymanagementsystem.dao;
+
+/**
+ * The outcome of a circulation operation ({@link LoanDAO#checkout}, {@link LoanDAO#returnCopy},
+ * {@link LoanDAO#renew}).
+ */
+public enum LoanResult {
+    /** The checkout, return or renewal was stored. */
+    DONE,
+    /** The copy, book or loan does not exist. */
+    NOT_FOUND,
+    /** The copy is already on loan, or no copy of the book is on the shelf. */
+    UNAVAILABLE,
+    /** The copy is not on loan, or the loan was already closed. */
+    NOT_ON_LOAN,
+    /** The loan was renewed as often as allowed. */
+    RENEWAL_LIMIT,
+    /** The loan cannot be renewed because other users are waiting for the book. */
+    HOLDS_WAITING,
+    /** The loan was renewed by someone else since it was read. Reload it and try again. */
+    CONFLICT;
+
+    /**
+     * @return true if the operation was stored.
+     */
+    public boolean isDone() {
+        return this == DONE;
+    }
+}
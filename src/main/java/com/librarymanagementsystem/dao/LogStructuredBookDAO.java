@@ -0,0 +1,297 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.CategoryTree;
+import com.librarymanagementsystem.storage.LogStore;
+import com.librarymanagementsystem.storage.LogStore.Keyspace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * LogStore implementation of the BookDAO interface.
+ * Stores books in an embedded append-only log, so no database server is needed.
+ * Searches follow the MySQL semantics of MySQLBookDAO (case-insensitive partial matches).
+ */
+public class LogStructuredBookDAO implements BookDAO {
+
+    private static final Logger LOG = Logger.get(LogStructuredBookDAO.class);
+
+    private final LogStore store;
+    private volatile CategoryTree categoryTree; // Set by LogStructuredCategoryDAO; null until then
+    // Book writes hold the read lock from the check of the book's category to the write, and a
+    // category delete holds the write lock, so no book is written into a category being deleted
+    private final ReentrantReadWriteLock categoryLock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor for LogStructuredBookDAO.
+     *
+     * @param store The opened LogStore holding the catalog.
+     */
+    public LogStructuredBookDAO(LogStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        return findBooks(book -> true, "Error retrieving all books");
+    }
+
+    @Override
+    public boolean addBook(Book book) {
+        categoryLock.readLock().lock();
+        try {
+            if (!store.contains(Keyspace.CATEGORIES, String.valueOf(book.getCategory()))) {
+                LOG.warn("Error adding book: category {} does not exist.", book.getCategory());
+                return false;
+            }
+            return store.insert(Keyspace.BOOKS, book.getId(), encode(book, book.getVersion()));
+        } catch (RuntimeException e) {
+            throw failure("Error adding book", e);
+        } finally {
+            categoryLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public UpdateResult updateBook(Book book) {
+        categoryLock.readLock().lock();
+        try {
+            if (!store.contains(Keyspace.CATEGORIES, String.valueOf(book.getCategory()))) {
+                LOG.warn("Error updating book: category {} does not exist.", book.getCategory());
+                return UpdateResult.REJECTED;
+            }
+            int readVersion = book.getVersion();
+            if (store.compareAndUpdate(Keyspace.BOOKS, book.getId(),
+                    current -> decode(book.getId(), current).getVersion() == readVersion, encode(book, readVersion + 1))) {
+                book.setVersion(readVersion + 1);
+                return UpdateResult.UPDATED;
+            }
+            return store.contains(Keyspace.BOOKS, book.getId()) ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+        } catch (RuntimeException e) {
+            throw failure("Error updating book", e);
+        } finally {
+            categoryLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteBook(String bookId) {
+        try {
+            return store.delete(Keyspace.BOOKS, bookId);
+        } catch (RuntimeException e) {
+            throw failure("Error deleting book", e);
+        }
+    }
+
+    @Override
+    public Book getBookById(String bookId) {
+        try {
+            byte[] value = store.get(Keyspace.BOOKS, bookId);
+            return value == null ? null : decode(bookId, value);
+        } catch (RuntimeException e) {
+            throw failure("Error retrieving book by ID", e);
+        }
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId) {
+        return getBooksByCategory(categoryId, false);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories) {
+        CategoryTree tree = includeSubcategories ? categoryTree : null;
+        return findBooks(book -> inCategory(book, categoryId, tree), "Error retrieving books by category");
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        String pattern = String.valueOf(title).toLowerCase(Locale.ROOT);
+        return findBooks(book -> containsIgnoreCase(book.getTitle(), pattern), "Error searching books by title");
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear) {
+        return advancedSearch(title, author, categoryId, false, minYear, maxYear);
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        CategoryTree tree = includeSubcategories ? categoryTree : null;
+        // Same rules as the SQL query: empty text, 0 or negative numbers mean "no filter"
+        String titlePattern = title != null && !title.isEmpty() ? title.toLowerCase(Locale.ROOT) : null;
+        String authorPattern = author != null && !author.isEmpty() ? author.toLowerCase(Locale.ROOT) : null;
+        return findBooks(book -> (titlePattern == null || containsIgnoreCase(book.getTitle(), titlePattern))
+                        && (authorPattern == null || containsIgnoreCase(book.getAuthor(), authorPattern))
+                        && (categoryId <= 0 || inCategory(book, categoryId, tree))
+                        && (minYear <= 0 || book.getYear() >= minYear)
+                        && (maxYear <= 0 || book.getYear() <= maxYear),
+                "Error during advanced book search");
+    }
+
+    @Override
+    public long getChangeWatermark() {
+        try {
+            return store.getLastSequence();
+        } catch (RuntimeException e) {
+            throw failure("Error reading the change watermark", e);
+        }
+    }
+
+    @Override
+    public BookChangeSet getChangesSince(long watermark, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        try {
+            // The log's sequence numbers serve as watermarks; deletes are kept as tombstones until
+            // compaction drops those no reader needs, after which older watermarks must reload. The
+            // horizon is checked after the read, so a compaction in between cannot go unnoticed
+            List<LogStore.Change> changes = store.changesSince(Keyspace.BOOKS, watermark, limit);
+            if (watermark < store.getChangeHorizon()) {
+                return BookChangeSet.reloadRequired(store.getLastSequence());
+            }
+            List<Book> upserts = new ArrayList<>();
+            List<String> deletedIds = new ArrayList<>();
+            long newWatermark = watermark;
+            for (LogStore.Change change : changes) {
+                if (change.isDeleted()) {
+                    deletedIds.add(change.getKey());
+                } else {
+                    upserts.add(decode(change.getKey(), change.getValue()));
+                }
+                newWatermark = change.getSequence();
+            }
+            return new BookChangeSet(upserts, deletedIds, newWatermark, changes.size() == limit);
+        } catch (RuntimeException e) {
+            throw failure("Error retrieving book changes", e);
+        }
+    }
+
+    /**
+     * Lets compaction drop the tombstones of books deleted up to the watermark. This process is the
+     * only one that opens the store, so the watermark is that of its oldest reader; clients of the
+     * HTTP API that are further behind reload.
+     */
+    @Override
+    public void releaseChanges(long watermark) {
+        try {
+            store.retainChangesAfter(watermark);
+        } catch (RuntimeException e) {
+            throw failure("Error releasing book changes", e);
+        }
+    }
+
+    /**
+     * Deletes a category and every book of it. Used by LogStructuredCategoryDAO to mirror ON DELETE
+     * CASCADE. No book can be added to or moved into the category meanwhile.
+     * <p>
+     * The books are deleted first and the category last. If the process stops in between, the
+     * category is left with some of its books, and deleting it again finishes the job. The store
+     * never holds a book whose category is gone.
+     *
+     * @param categoryId The ID of the category to delete.
+     * @return true if the category existed.
+     */
+    boolean deleteCategory(int categoryId) {
+        categoryLock.writeLock().lock();
+        try {
+            String key = String.valueOf(categoryId);
+            if (!store.contains(Keyspace.CATEGORIES, key)) {
+                return false;
+            }
+            for (Book book : getBooksByCategory(categoryId)) {
+                store.delete(Keyspace.BOOKS, book.getId());
+            }
+            return store.delete(Keyspace.CATEGORIES, key);
+        } finally {
+            categoryLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the category hierarchy used by searches that include subcategories. Called by
+     * LogStructuredCategoryDAO whenever the categories change.
+     */
+    void setCategoryTree(CategoryTree tree) {
+        categoryTree = tree;
+    }
+
+    /**
+     * @param tree The hierarchy, to include subcategories; null to match the category only.
+     */
+    private static boolean inCategory(Book book, int categoryId, CategoryTree tree) {
+        return book.getCategory() == categoryId || (tree != null && tree.isInSubtree(book.getCategory(), categoryId));
+    }
+
+    private List<Book> findBooks(Predicate<Book> filter, String errorMessage) {
+        List<Book> books = new ArrayList<>();
+        try {
+            store.forEach(Keyspace.BOOKS, (id, value) -> {
+                Book book = decode(id, value);
+                if (filter.test(book)) {
+                    books.add(book);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw failure(errorMessage, e);
+        }
+        return books;
+    }
+
+    /**
+     * Logs a failure of the store and wraps it for the caller.
+     */
+    static DataAccessException failure(String description, RuntimeException e) {
+        LOG.at(Level.ERROR).with("operation", description).cause(e).log("{}: {}", description, e.getMessage());
+        return new DataAccessException(description + ": " + e.getMessage(), e);
+    }
+
+    private static boolean containsIgnoreCase(String text, String lowerCasePattern) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(lowerCasePattern);
+    }
+
+    private static byte[] encode(Book book, int version) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(book.getTitle());
+            out.writeUTF(book.getAuthor());
+            out.writeInt(book.getCategory());
+            out.writeInt(book.getYear());
+            out.writeInt(version);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Book decode(String id, byte[] value) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+            String title = in.readUTF();
+            String author = in.readUTF();
+            int categoryId = in.readInt();
+            int year = in.readInt();
+            int version = in.readInt();
+            if (in.available() != 0) {
+                throw new IOException("unexpected bytes after the record");
+            }
+            return new Book(id, title, author, categoryId, year, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt book record " + id, e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.model.CategoryTree;
+import com.librarymanagementsystem.storage.LogStore;
+import com.librarymanagementsystem.storage.LogStore.Keyspace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LogStore implementation of the CategoryDAO interface.
+ * Category IDs are assigned from a counter that continues after the highest stored ID,
+ * like an AUTO_INCREMENT column.
+ * <p>
+ * The category hierarchy is kept in memory as a {@link CategoryTree}, rebuilt after every change and
+ * shared with the book DAO for searches that include subcategories.
+ */
+public class LogStructuredCategoryDAO implements CategoryDAO {
+
+    private static final Logger LOG = Logger.get(LogStructuredCategoryDAO.class);
+
+    private final LogStore store;
+    private final LogStructuredBookDAO bookDAO; // Books of a deleted category are deleted too (ON DELETE CASCADE)
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ReentrantLock hierarchyLock = new ReentrantLock(); // Held by writes, so a move is checked against the current tree
+    private volatile CategoryTree tree;
+
+    /**
+     * Constructor for LogStructuredCategoryDAO.
+     *
+     * @param store The opened LogStore holding the catalog.
+     * @param bookDAO The book DAO over the same store.
+     */
+    public LogStructuredCategoryDAO(LogStore store, LogStructuredBookDAO bookDAO) {
+        this.store = store;
+        this.bookDAO = bookDAO;
+        for (String key : store.keys(Keyspace.CATEGORIES)) {
+            lastId.accumulateAndGet(Integer.parseInt(key), Math::max);
+        }
+        refreshTree();
+    }
+
+    @Override
+    public boolean addCategory(Category category) {
+        hierarchyLock.lock();
+        try {
+            int parentId = Math.max(category.getParentId(), 0);
+            if (parentId > 0 && !tree.contains(parentId)) {
+                LOG.warn("Error adding category: parent category {} does not exist.", parentId);
+                return false;
+            }
+            if (isNameTaken(category.getName(), 0)) {
+                LOG.warn("Error adding category: a category named '{}' already exists.", category.getName());
+                return false;
+            }
+            int id = lastId.incrementAndGet();
+            if (store.insert(Keyspace.CATEGORIES, String.valueOf(id), encode(category.getName(), category.getVersion(), parentId))) {
+                category.setId(id); // Set the ID back to the category object
+                refreshTree();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            throw LogStructuredBookDAO.failure("Error adding category", e);
+        } finally {
+            hierarchyLock.unlock();
+        }
+        return false;
+    }
+
+    @Override
+    public UpdateResult updateCategory(Category category) {
+        hierarchyLock.lock();
+        try {
+            String key = String.valueOf(category.getId());
+            int readVersion = category.getVersion();
+            int parentId = Math.max(category.getParentId(), 0);
+            Category stored = tree.get(category.getId());
+            // Moving a category below itself or one of its descendants would make a cycle
+            if (stored != null && parentId != stored.getParentId() && parentId > 0
+                    && (!tree.contains(parentId) || tree.isInSubtree(parentId, category.getId()))) {
+                LOG.warn("Error updating category: category {} cannot be the parent of category {}.",
+                        parentId, category.getId());
+                return stored.getVersion() == readVersion ? UpdateResult.REJECTED : UpdateResult.CONFLICT;
+            }
+            if (stored != null && isNameTaken(category.getName(), category.getId())) {
+                LOG.warn("Error updating category: a category named '{}' already exists.", category.getName());
+                return stored.getVersion() == readVersion ? UpdateResult.REJECTED : UpdateResult.CONFLICT;
+            }
+            if (store.compareAndUpdate(Keyspace.CATEGORIES, key,
+                    current -> decode(key, current).getVersion() == readVersion, encode(category.getName(), readVersion + 1, parentId))) {
+                category.setVersion(readVersion + 1);
+                refreshTree();
+                return UpdateResult.UPDATED;
+            }
+            return store.contains(Keyspace.CATEGORIES, key) ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+        } catch (RuntimeException e) {
+            throw LogStructuredBookDAO.failure("Error updating category", e);
+        } finally {
+            hierarchyLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteCategory(int categoryId) {
+        hierarchyLock.lock();
+        try {
+            if (!tree.getChildren(categoryId).isEmpty()) {
+                LOG.warn("Error deleting category: category {} has subcategories.", categoryId);
+                return false;
+            }
+            if (bookDAO.deleteCategory(categoryId)) {
+                refreshTree();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            throw LogStructuredBookDAO.failure("Error deleting category", e);
+        } finally {
+            hierarchyLock.unlock();
+        }
+        return false;
+    }
+
+    @Override
+    public List<Category> getAllCategories() {
+        List<Category> categories = new ArrayList<>();
+        try {
+            store.forEach(Keyspace.CATEGORIES, (key, value) -> categories.add(decode(key, value)));
+            categories.sort(Comparator.comparingInt(Category::getId)); // Keys sort as text; list them by ID
+        } catch (RuntimeException e) {
+            throw LogStructuredBookDAO.failure("Error retrieving all categories", e);
+        }
+        return categories;
+    }
+
+    @Override
+    public List<Category> getSubcategories(int parentId) {
+        return tree.getChildren(parentId);
+    }
+
+    /**
+     * @return The category hierarchy as of the last change.
+     */
+    public CategoryTree getCategoryTree() {
+        return tree;
+    }
+
+    @Override
+    public Category getCategoryById(int categoryId) {
+        try {
+            String key = String.valueOf(categoryId);
+            byte[] value = store.get(Keyspace.CATEGORIES, key);
+            return value == null ? null : decode(key, value);
+        } catch (RuntimeException e) {
+            throw LogStructuredBookDAO.failure("Error retrieving category by ID", e);
+        }
+    }
+
+    @Override
+    public Category getCategoryByName(String name) {
+        // Case-insensitive, like the default MySQL collation
+        for (Category category : getAllCategories()) {
+            if (category.getName().equalsIgnoreCase(name)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Names are unique, compared without case like the UNIQUE key of the MySQL table. Called with
+     * the hierarchy lock held, so no other write can take the name in between.
+     *
+     * @param exceptId The category being renamed, which may keep its own name; 0 for a new category.
+     */
+    private boolean isNameTaken(String name, int exceptId) {
+        for (Category category : tree.inTreeOrder()) {
+            if (category.getId() != exceptId && category.getName().equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds the hierarchy from the store and hands it to the book DAO. Called with the hierarchy
+     * lock held, or from the constructor.
+     */
+    private void refreshTree() {
+        CategoryTree current = CategoryTree.of(getAllCategories());
+        tree = current;
+        bookDAO.setCategoryTree(current);
+    }
+
+    /**
+     * A category is stored as its name (length-prefixed modified UTF-8, as written by
+     * {@link DataOutputStream#writeUTF}), the version and the parent ID (0 for a top-level category).
+     */
+    private static byte[] encode(String name, int version, int parentId) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(name);
+            out.writeInt(version);
+            out.writeInt(parentId);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Category decode(String key, byte[] value) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+            String name = in.readUTF();
+            int version = in.readInt();
+            int parentId = in.readInt();
+            if (in.available() != 0) {
+                throw new IOException("unexpected bytes after the record");
+            }
+            return new Category(Integer.parseInt(key), name, parentId, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt category record " + key, e);
+        }
+    }
+}
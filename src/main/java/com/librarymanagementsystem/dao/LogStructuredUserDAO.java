@@ -0,0 +1,68 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.User;
+import com.librarymanagementsystem.storage.LogStore;
+import com.librarymanagementsystem.storage.LogStore.Keyspace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * LogStore implementation of the UserDAO interface.
+ * Users are keyed by username, so usernames are unique as in the 'users' table.
+ */
+public class LogStructuredUserDAO implements UserDAO {
+
+    private static final Logger LOG = Logger.get(LogStructuredUserDAO.class);
+
+    private final LogStore store;
+
+    /**
+     * Constructor for LogStructuredUserDAO.
+     *
+     * @param store The opened LogStore holding the user accounts.
+     */
+    public LogStructuredUserDAO(LogStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        try {
+            byte[] value = store.get(Keyspace.USERS, username);
+            if (value == null) {
+                return null;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+            return new User(username, in.readUTF(), in.readUTF());
+        } catch (IOException | RuntimeException e) {
+            String description = "Error retrieving user '" + username + "'";
+            LOG.at(Level.ERROR).with("operation", description).cause(e).log("{}: {}", description, e.getMessage());
+            throw new DataAccessException(description + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(user.getPasswordHash());
+            out.writeUTF(user.getRole());
+            if (!store.insert(Keyspace.USERS, user.getUsername(), bytes.toByteArray())) {
+                LOG.warn("Error creating user '{}': username already exists.", user.getUsername());
+                return false;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            String description = "Error creating user '" + user.getUsername() + "'";
+            LOG.at(Level.ERROR).with("operation", description).cause(e).log("{}: {}", description, e.getMessage());
+            throw new DataAccessException(description + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -5,18 +5,62 @@ import com.librarymanagementsystem.util.ConnectionManager;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * MySQL implementation of the BookDAO interface.
  * Handles database operations for Book objects using JDBC.
+ * <p>
+ * Failures of the database surface as {@link DataAccessException}; an empty list or null
+ * always means that nothing matched.
  */
 public class MySQLBookDAO implements BookDAO {
 
+    private static final String COLUMNS = "SELECT id, title, author, category_id, year, version FROM books";
+    // The categories of a subtree, from the closure table's primary key
+    private static final String IN_SUBTREE = "category_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = ?)";
+
+    /**
+     * Maps the columns id, title, author, category_id, year and version to a Book.
+     */
+    public static final RowMapper<Book> BOOK_MAPPER = rs -> {
+        int id = rs.findColumn("id");
+        int title = rs.findColumn("title");
+        int author = rs.findColumn("author");
+        int categoryId = rs.findColumn("category_id");
+        int year = rs.findColumn("year");
+        int version = rs.findColumn("version");
+        return row -> new Book(row.getString(id), row.getString(title), row.getString(author), row.getInt(categoryId),
+                row.getInt(year), row.getInt(version));
+    };
+
+    // A change log row joined with the book's current data; no book if it was deleted
+    private static final RowMapper<Change> CHANGE_MAPPER = rs -> {
+        int seq = rs.findColumn("seq");
+        int entity = rs.findColumn("entity");
+        int entityId = rs.findColumn("entity_id");
+        int title = rs.findColumn("title");
+        int author = rs.findColumn("author");
+        int categoryId = rs.findColumn("category_id");
+        int year = rs.findColumn("year");
+        int version = rs.findColumn("version");
+        return row -> {
+            String id = row.getString(entityId);
+            String bookTitle = row.getString(title);
+            Book book = bookTitle == null ? null
+                    : new Book(id, bookTitle, row.getString(author), row.getInt(categoryId), row.getInt(year), row.getInt(version));
+            return new Change(row.getLong(seq), row.getString(entity), id, book);
+        };
+    };
+
     private final ConnectionManager connectionManager;
+    private final JdbcExecutor jdbc;
+    private final MySQLChangeLog changeLog;
 
     /**
      * Constructor for MySQLBookDAO.
@@ -25,255 +69,92 @@ public class MySQLBookDAO implements BookDAO {
      */
     public MySQLBookDAO(ConnectionManager connectionManager) {
         this.connectionManager = connectionManager;
+        this.jdbc = new JdbcExecutor(connectionManager);
+        this.changeLog = new MySQLChangeLog(connectionManager);
     }
 
     @Override
     public List<Book> getAllBooks() {
-        List<Book> books = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT id, title, author, category_id, year FROM books";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                rs = pstmt.executeQuery();
-
-                while (rs.next()) {
-                    String id = rs.getString("id");
-                    String title = rs.getString("title");
-                    String author = rs.getString("author");
-                    int categoryId = rs.getInt("category_id");
-                    int year = rs.getInt("year");
-                    books.add(new Book(id, title, author, categoryId, year));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving all books: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return books;
+        return jdbc.queryList("Error retrieving all books", COLUMNS, BOOK_MAPPER);
     }
 
     @Override
     public boolean addBook(Book book) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        boolean success = false;
-
         String sql = "INSERT INTO books (id, title, author, category_id, year) VALUES (?, ?, ?, ?, ?)";
 
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, book.getId());
-                pstmt.setString(2, book.getTitle());
-                pstmt.setString(3, book.getAuthor());
-                pstmt.setInt(4, book.getCategory());
-                pstmt.setInt(5, book.getYear());
-
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    success = true;
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error adding book: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return success;
+        // The change is logged in the same transaction, so delta sync sees it exactly when it commits
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                jdbc.update("Error adding book", sql, book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(), book.getYear())
+                        && changeLog.record(MySQLChangeLog.BOOK, book.getId(), false));
     }
 
     @Override
-    public boolean updateBook(Book book) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        boolean success = false;
-
-        String sql = "UPDATE books SET title = ?, author = ?, category_id = ?, year = ? WHERE id = ?";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, book.getTitle());
-                pstmt.setString(2, book.getAuthor());
-                pstmt.setInt(3, book.getCategory());
-                pstmt.setInt(4, book.getYear());
-                pstmt.setString(5, book.getId()); // WHERE clause parameter
-
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    success = true;
+    public UpdateResult updateBook(Book book) {
+        // Applies only if nobody changed the row since it was read; no lock is held in between
+        String sql = "UPDATE books SET title = ?, author = ?, category_id = ?, year = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+        UpdateResult result = connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () -> {
+            UpdateResult outcome = connectionManager.executeWrite("Error updating book", conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    JdbcExecutor.bind(pstmt, book.getTitle(), book.getAuthor(), book.getCategory(), book.getYear(),
+                            book.getId(), book.getVersion()); // Then the WHERE clause parameters
+                    if (pstmt.executeUpdate() > 0) {
+                        return UpdateResult.UPDATED;
+                    }
                 }
+                // Nothing matched: tell a concurrent change apart from a missing book
+                return JdbcExecutor.exists(conn, "SELECT 1 FROM books WHERE id = ?", book.getId()) ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+            }, UpdateResult.REJECTED);
+            if (outcome.isUpdated()) {
+                changeLog.record(MySQLChangeLog.BOOK, book.getId(), false);
             }
-        } catch (SQLException e) {
-            System.err.println("Error updating book: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
+            return outcome;
+        });
+        if (result.isUpdated()) {
+            book.setVersion(book.getVersion() + 1);
         }
-        return success;
+        return result;
     }
 
     @Override
     public boolean deleteBook(String bookId) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        boolean success = false;
-
         String sql = "DELETE FROM books WHERE id = ?";
 
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, bookId);
-
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    success = true;
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error deleting book: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return success;
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                jdbc.update("Error deleting book", sql, bookId) && changeLog.record(MySQLChangeLog.BOOK, bookId, true));
     }
 
     @Override
     public Book getBookById(String bookId) {
-        Book book = null;
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT id, title, author, category_id, year FROM books WHERE id = ?";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, bookId);
-                rs = pstmt.executeQuery();
-
-                if (rs.next()) {
-                    String id = rs.getString("id");
-                    String title = rs.getString("title");
-                    String author = rs.getString("author");
-                    int categoryId = rs.getInt("category_id");
-                    int year = rs.getInt("year");
-                    book = new Book(id, title, author, categoryId, year);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving book by ID: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return book;
+        return jdbc.queryOne("Error retrieving book by ID", COLUMNS + " WHERE id = ?", BOOK_MAPPER, bookId);
     }
 
     @Override
     public List<Book> getBooksByCategory(int categoryId) {
-        List<Book> books = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT id, title, author, category_id, year FROM books WHERE category_id = ?";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setInt(1, categoryId);
-                rs = pstmt.executeQuery();
+        return getBooksByCategory(categoryId, false);
+    }
 
-                while (rs.next()) {
-                    String id = rs.getString("id");
-                    String title = rs.getString("title");
-                    String author = rs.getString("author");
-                    int catId = rs.getInt("category_id");
-                    int year = rs.getInt("year");
-                    books.add(new Book(id, title, author, catId, year));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving books by category: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return books;
+    @Override
+    public List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories) {
+        String condition = includeSubcategories ? IN_SUBTREE : "category_id = ?";
+        return jdbc.queryList("Error retrieving books by category", COLUMNS + " WHERE " + condition, BOOK_MAPPER, categoryId);
     }
 
     @Override
     public List<Book> searchBooksByTitle(String title) {
-        List<Book> books = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT id, title, author, category_id, year FROM books WHERE title LIKE ?";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, "%" + title + "%"); // Use % for partial matching
-                rs = pstmt.executeQuery();
-
-                while (rs.next()) {
-                    String id = rs.getString("id");
-                    String bookTitle = rs.getString("title");
-                    String author = rs.getString("author");
-                    int categoryId = rs.getInt("category_id");
-                    int year = rs.getInt("year");
-                    books.add(new Book(id, bookTitle, author, categoryId, year));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error searching books by title: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return books;
+        // Use % for partial matching
+        return jdbc.queryList("Error searching books by title", COLUMNS + " WHERE title LIKE ?", BOOK_MAPPER, "%" + title + "%");
     }
 
     @Override
     public List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear) {
-        List<Book> books = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
+        return advancedSearch(title, author, categoryId, false, minYear, maxYear);
+    }
 
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
         // Start with a base SQL query
-        StringBuilder sql = new StringBuilder("SELECT id, title, author, category_id, year FROM books WHERE 1=1");
+        StringBuilder sql = new StringBuilder(COLUMNS + " WHERE 1=1");
         List<Object> params = new ArrayList<>();
 
         // Dynamically add conditions based on provided search criteria
@@ -286,7 +167,7 @@ public class MySQLBookDAO implements BookDAO {
             params.add("%" + author + "%");
         }
         if (categoryId > 0) { // Assuming 0 or negative means no category filter
-            sql.append(" AND category_id = ?");
+            sql.append(includeSubcategories ? " AND " + IN_SUBTREE : " AND category_id = ?");
             params.add(categoryId);
         }
         if (minYear > 0) { // Assuming 0 or negative means no minYear filter
@@ -298,41 +179,84 @@ public class MySQLBookDAO implements BookDAO {
             params.add(maxYear);
         }
 
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql.toString());
-
-                // Set parameters based on their order in the SQL query
-                for (int i = 0; i < params.size(); i++) {
-                    Object param = params.get(i);
-                    if (param instanceof String) {
-                        pstmt.setString(i + 1, (String) param);
-                    } else if (param instanceof Integer) {
-                        pstmt.setInt(i + 1, (Integer) param);
-                    }
-                    // Add other types if necessary (e.g., Double, Date)
-                }
+        return jdbc.queryList("Error during advanced book search", sql.toString(), BOOK_MAPPER, params.toArray());
+    }
 
-                rs = pstmt.executeQuery();
+    @Override
+    public long getChangeWatermark() {
+        return changeLog.getWatermark();
+    }
 
-                while (rs.next()) {
-                    String bookId = rs.getString("id");
-                    String bookTitle = rs.getString("title");
-                    String bookAuthor = rs.getString("author");
-                    int catId = rs.getInt("category_id");
-                    int bookYear = rs.getInt("year");
-                    books.add(new Book(bookId, bookTitle, bookAuthor, catId, bookYear));
-                }
+    @Override
+    public BookChangeSet getChangesSince(long watermark, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        // The change log says which books and categories changed; the join supplies the books' current
+        // data, or none if deleted. A range of the primary key, so a poll that finds nothing reads one
+        // row: the change at the watermark, which proves that the log was not pruned past it
+        String sql = "SELECT c.seq, c.entity, c.entity_id, b.title, b.author, b.category_id, b.year, b.version "
+                + "FROM catalog_changes c LEFT JOIN books b ON c.entity = ? AND b.id = c.entity_id "
+                + "WHERE c.seq >= ? ORDER BY c.seq LIMIT ?";
+        List<Change> rows = jdbc.queryList("Error retrieving book changes", sql, CHANGE_MAPPER, MySQLChangeLog.BOOK,
+                watermark, limit == Integer.MAX_VALUE ? limit : limit + 1);
+        int first = 0;
+        if (!rows.isEmpty() && rows.get(0).seq == watermark) {
+            first = 1; // Already seen by the caller
+        } else if (watermark > 0 || (!rows.isEmpty() && rows.get(0).seq > 1)) {
+            // Sequence numbers have no gaps, so the missing changes were pruned (see MySQLChangeLog)
+            return BookChangeSet.reloadRequired(changeLog.getWatermark());
+        }
+        rows = rows.subList(first, Math.min(rows.size(), first + limit));
+
+        // Latest state per book, in the order of its latest change
+        Map<String, Book> latest = new LinkedHashMap<>();
+        Set<Integer> categoryIds = new LinkedHashSet<>();
+        long newWatermark = watermark;
+        for (Change change : rows) {
+            newWatermark = change.seq;
+            if (MySQLChangeLog.CATEGORY.equals(change.entity)) {
+                categoryIds.add(Integer.valueOf(change.entityId));
+                continue;
+            }
+            latest.remove(change.entityId);
+            latest.put(change.entityId, change.book); // Null if deleted (now)
+        }
+        List<Book> upserts = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        latest.forEach((id, book) -> {
+            if (book != null) {
+                upserts.add(book);
+            } else {
+                deletedIds.add(id);
             }
-        } catch (SQLException e) {
-            System.err.println("Error during advanced book search: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
+        });
+        return new BookChangeSet(upserts, deletedIds, new ArrayList<>(categoryIds), newWatermark, rows.size() == limit);
+    }
+
+    /**
+     * Prunes the change log (see MySQLChangeLog): deletes the changes older than its retention
+     * period, up to the watermark. Other clients behind what remains reload.
+     */
+    @Override
+    public void releaseChanges(long watermark) {
+        changeLog.prune(watermark);
+    }
+
+    /**
+     * A row of the change log, joined with the book's current data if it is a book.
+     */
+    private static final class Change {
+        final long seq;
+        final String entity;
+        final String entityId;
+        final Book book; // Null if the book no longer exists, or the row is not about a book
+
+        Change(long seq, String entity, String entityId, Book book) {
+            this.seq = seq;
+            this.entity = entity;
+            this.entityId = entityId;
+            this.book = book;
         }
-        return books;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.librarymanagementsystem.dao;
 
+import com.librarymanagementsystem.logging.Logger;
 import com.librarymanagementsystem.model.Category;
 import com.librarymanagementsystem.util.ConnectionManager;
 
@@ -8,16 +9,37 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement; // Used for generated keys for addCategory
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * MySQL implementation of the CategoryDAO interface.
  * Handles database operations for Category objects using JDBC.
+ * <p>
+ * Failures of the database surface as {@link DataAccessException}.
  */
 public class MySQLCategoryDAO implements CategoryDAO {
 
+    private static final Logger LOG = Logger.get(MySQLCategoryDAO.class);
+
+    private static final String COLUMNS = "SELECT id, name, parent_id, version FROM categories";
+
+    /**
+     * Maps the columns id, name, parent_id (NULL for a top-level category) and version to a Category.
+     */
+    public static final RowMapper<Category> CATEGORY_MAPPER = rs -> {
+        int id = rs.findColumn("id");
+        int name = rs.findColumn("name");
+        int parentId = rs.findColumn("parent_id");
+        int version = rs.findColumn("version");
+        return row -> new Category(row.getInt(id), row.getString(name), row.getInt(parentId), row.getInt(version));
+    };
+
+    // A closure table row: a category and how far it is below (or above) another one
+    private static final RowMapper<int[]> CLOSURE_MAPPER = rs -> row -> new int[]{row.getInt(1), row.getInt(2)};
+
     private final ConnectionManager connectionManager;
+    private final JdbcExecutor jdbc;
+    private final MySQLChangeLog changeLog;
 
     /**
      * Constructor for MySQLCategoryDAO.
@@ -26,198 +48,166 @@ public class MySQLCategoryDAO implements CategoryDAO {
      */
     public MySQLCategoryDAO(ConnectionManager connectionManager) {
         this.connectionManager = connectionManager;
+        this.jdbc = new JdbcExecutor(connectionManager);
+        this.changeLog = new MySQLChangeLog(connectionManager);
     }
 
     @Override
     public boolean addCategory(Category category) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet generatedKeys = null;
-        boolean success = false;
-
-        String sql = "INSERT INTO categories (name) VALUES (?)";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                // Use RETURN_GENERATED_KEYS to get the auto-generated ID
-                pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                pstmt.setString(1, category.getName());
-
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    generatedKeys = pstmt.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        category.setId(generatedKeys.getInt(1)); // Set the ID back to the category object
-                        success = true;
+        String sql = "INSERT INTO categories (name, parent_id) VALUES (?, ?)";
+
+        // The category and its closure table rows are written together
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error adding category", conn -> {
+                    int parentId = category.getParentId();
+                    // Databases from before the hierarchy have no foreign key on parent_id
+                    if (parentId > 0 && !JdbcExecutor.exists(conn, "SELECT 1 FROM categories WHERE id = ?", parentId)) {
+                        LOG.warn("Error adding category: parent category {} does not exist.", parentId);
+                        return false;
                     }
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error adding category: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(generatedKeys);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return success;
+                    // Use RETURN_GENERATED_KEYS to get the auto-generated ID
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                        JdbcExecutor.bind(pstmt, category.getName(), parentId > 0 ? parentId : null);
+                        if (pstmt.executeUpdate() == 0) {
+                            return false;
+                        }
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            if (!generatedKeys.next()) {
+                                return false;
+                            }
+                            category.setId(generatedKeys.getInt(1)); // Set the ID back to the category object
+                        }
+                    }
+                    // Its ancestors are its parent's ancestors, one level further up, and itself
+                    JdbcExecutor.execute(conn, "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, 0)",
+                            category.getId(), category.getId());
+                    if (parentId > 0) {
+                        JdbcExecutor.execute(conn, "INSERT INTO category_closure (ancestor_id, descendant_id, depth) "
+                                + "SELECT ancestor_id, ?, depth + 1 FROM category_closure WHERE descendant_id = ?", category.getId(), parentId);
+                    }
+                    return true;
+                }) && changeLog.record(MySQLChangeLog.CATEGORY, String.valueOf(category.getId()), false));
     }
 
     @Override
-    public boolean updateCategory(Category category) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        boolean success = false;
-
-        String sql = "UPDATE categories SET name = ? WHERE id = ?";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, category.getName());
-                pstmt.setInt(2, category.getId());
-
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    success = true;
+    public UpdateResult updateCategory(Category category) {
+        // Applies only if nobody changed the row since it was read; no lock is held in between
+        String sql = "UPDATE categories SET name = ?, parent_id = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+        // SERIALIZABLE keeps two concurrent moves from making categories each other's ancestors
+        UpdateResult result = connectionManager.inTransaction(Connection.TRANSACTION_SERIALIZABLE, false, () -> {
+            UpdateResult updated = connectionManager.executeWrite("Error updating category", conn -> {
+                Category stored = JdbcExecutor.queryOne(conn, COLUMNS + " WHERE id = ?", CATEGORY_MAPPER, category.getId());
+                if (stored == null) {
+                    return UpdateResult.NOT_FOUND;
+                }
+                if (stored.getVersion() != category.getVersion()) {
+                    return UpdateResult.CONFLICT;
+                }
+                int parentId = Math.max(category.getParentId(), 0);
+                boolean moved = parentId != stored.getParentId();
+                // The category's closure rows as descendant include itself, so this also rejects its own ID
+                if (moved && parentId > 0 && (!JdbcExecutor.exists(conn, "SELECT 1 FROM categories WHERE id = ?", parentId)
+                        || JdbcExecutor.exists(conn, "SELECT 1 FROM category_closure WHERE ancestor_id = ? AND descendant_id = ?",
+                        category.getId(), parentId))) {
+                    LOG.warn("Error updating category: category {} cannot be the parent of category {}.",
+                            parentId, category.getId());
+                    return UpdateResult.REJECTED;
+                }
+                if (JdbcExecutor.execute(conn, sql, category.getName(), parentId > 0 ? parentId : null, category.getId(),
+                        category.getVersion()) == 0) {
+                    return UpdateResult.CONFLICT;
                 }
+                if (moved) {
+                    moveSubtree(conn, category.getId(), parentId);
+                }
+                return UpdateResult.UPDATED;
+            }, UpdateResult.REJECTED);
+            if (updated.isUpdated()) {
+                changeLog.record(MySQLChangeLog.CATEGORY, String.valueOf(category.getId()), false);
             }
-        } catch (SQLException e) {
-            System.err.println("Error updating category: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
+            return updated;
+        });
+        if (result.isUpdated()) {
+            category.setVersion(category.getVersion() + 1);
         }
-        return success;
+        return result;
     }
 
     @Override
     public boolean deleteCategory(int categoryId) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        boolean success = false;
-
         String sql = "DELETE FROM categories WHERE id = ?";
 
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setInt(1, categoryId);
-
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    success = true;
-                }
+        // The category's books are deleted with it (ON DELETE CASCADE), so their deletion is logged
+        // for delta sync. SERIALIZABLE keeps books from being added to the category in between.
+        return connectionManager.inTransaction(Connection.TRANSACTION_SERIALIZABLE, false, () -> {
+            if (jdbc.queryOne("Error deleting category", "SELECT id FROM categories WHERE parent_id = ?", rs -> row -> row.getInt(1),
+                    categoryId) != null) {
+                LOG.warn("Error deleting category: category {} has subcategories.", categoryId);
+                return false;
             }
-        } catch (SQLException e) {
-            System.err.println("Error deleting category: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return success;
+            List<String> bookIds = jdbc.queryList("Error deleting category", "SELECT id FROM books WHERE category_id = ?",
+                    rs -> row -> row.getString(1), categoryId);
+            if (!jdbc.update("Error deleting category", sql, categoryId)) {
+                return false;
+            }
+            changeLog.recordAll(MySQLChangeLog.BOOK, bookIds, true);
+            return changeLog.record(MySQLChangeLog.CATEGORY, String.valueOf(categoryId), true);
+        });
     }
 
     @Override
     public List<Category> getAllCategories() {
-        List<Category> categories = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT id, name FROM categories";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                rs = pstmt.executeQuery();
-
-                while (rs.next()) {
-                    int id = rs.getInt("id");
-                    String name = rs.getString("name");
-                    categories.add(new Category(id, name));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving all categories: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
+        return jdbc.queryList("Error retrieving all categories", COLUMNS, CATEGORY_MAPPER);
+    }
+
+    @Override
+    public List<Category> getSubcategories(int parentId) {
+        if (parentId <= 0) {
+            return jdbc.queryList("Error retrieving subcategories", COLUMNS + " WHERE parent_id IS NULL ORDER BY name", CATEGORY_MAPPER);
         }
-        return categories;
+        return jdbc.queryList("Error retrieving subcategories", COLUMNS + " WHERE parent_id = ? ORDER BY name", CATEGORY_MAPPER, parentId);
     }
 
     @Override
     public Category getCategoryById(int categoryId) {
-        Category category = null;
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT id, name FROM categories WHERE id = ?";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setInt(1, categoryId);
-                rs = pstmt.executeQuery();
-
-                if (rs.next()) {
-                    int id = rs.getInt("id");
-                    String name = rs.getString("name");
-                    category = new Category(id, name);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving category by ID: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
-        }
-        return category;
+        return jdbc.queryOne("Error retrieving category by ID", COLUMNS + " WHERE id = ?", CATEGORY_MAPPER, categoryId);
     }
 
     @Override
     public Category getCategoryByName(String name) {
-        Category category = null;
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        String sql = "SELECT id, name FROM categories WHERE name = ?";
-
-        try {
-            conn = connectionManager.getConnection();
-            if (conn != null) {
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, name);
-                rs = pstmt.executeQuery();
-
-                if (rs.next()) {
-                    int id = rs.getInt("id");
-                    String categoryName = rs.getString("name");
-                    category = new Category(id, categoryName);
+        return jdbc.queryOne("Error retrieving category by name", COLUMNS + " WHERE name = ?", CATEGORY_MAPPER, name);
+    }
+
+    /**
+     * Moves a category's subtree in the closure table below a new parent: unlinks every category
+     * in it from the ancestors of the moved category, then links it to the new parent's ancestors.
+     */
+    private static void moveSubtree(Connection conn, int categoryId, int parentId) throws SQLException {
+        // Each category of the subtree, with how far it is below the moved category
+        List<int[]> subtree = JdbcExecutor.query(conn, "SELECT descendant_id, depth FROM category_closure WHERE ancestor_id = ?",
+                CLOSURE_MAPPER, categoryId);
+        // A subtree category's rows that reach further up than the moved category lead to the old ancestors
+        try (PreparedStatement unlink = conn.prepareStatement("DELETE FROM category_closure WHERE descendant_id = ? AND depth > ?")) {
+            for (int[] member : subtree) {
+                JdbcExecutor.bind(unlink, member[0], member[1]);
+                unlink.addBatch();
+            }
+            unlink.executeBatch();
+        }
+        if (parentId <= 0) {
+            return;
+        }
+        List<int[]> ancestors = JdbcExecutor.query(conn, "SELECT ancestor_id, depth FROM category_closure WHERE descendant_id = ?",
+                CLOSURE_MAPPER, parentId);
+        try (PreparedStatement link = conn.prepareStatement("INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)")) {
+            for (int[] ancestor : ancestors) {
+                for (int[] member : subtree) {
+                    JdbcExecutor.bind(link, ancestor[0], member[0], ancestor[1] + 1 + member[1]);
+                    link.addBatch();
                 }
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving category by name: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            connectionManager.closeResultSet(rs);
-            connectionManager.closeStatement(pstmt);
-            connectionManager.closeConnection(conn);
+            link.executeBatch();
         }
-        return category;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.util.ConnectionManager;
+import com.librarymanagementsystem.util.Transaction;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends to the {@code catalog_changes} table, which lets clients fetch what changed after a
+ * watermark instead of re-reading the catalog.
+ * <p>
+ * Sequence numbers come from the single row of {@code catalog_sequence}, incremented in the
+ * transaction of the change. Its row lock is held until that transaction ends, so sequence numbers
+ * become visible in order: a reader never sees change n + 1 before change n, and may safely continue
+ * from the highest number it has read. Recording must therefore run in the same transaction as the
+ * change it describes.
+ * <p>
+ * In a transaction, changes are only collected, and written when the transaction flushes, after
+ * its queued writes: all of them with one increment of the sequence and one batch of inserts. The
+ * statements of the changes themselves stay together in their own batches, and the sequence row is
+ * locked only from the flush before the commit, not from the first change.
+ * <p>
+ * Books and categories share the sequence, so one watermark covers both. A deleted category's books
+ * are recorded as deleted books.
+ * <p>
+ * Changes are kept for {@link #RETENTION}; {@link #prune(long)} deletes older ones. The newest
+ * change it would delete is kept, so every change after a watermark is still there exactly when the
+ * change at the watermark is: a reader that does not find it has fallen behind the log and must reload.
+ */
+final class MySQLChangeLog {
+
+    static final String BOOK = "BOOK";
+    static final String CATEGORY = "CATEGORY";
+
+    /**
+     * How long changes are kept. Clients that poll less often than this, or snapshots older than
+     * this, reload the catalog instead.
+     */
+    static final Duration RETENTION = Duration.ofDays(7);
+
+    private static final RowMapper<Long> SEQUENCE_MAPPER = rs -> row -> row.getLong(1);
+
+    private final ConnectionManager connectionManager;
+    private final JdbcExecutor jdbc;
+
+    MySQLChangeLog(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+        this.jdbc = new JdbcExecutor(connectionManager);
+    }
+
+    /**
+     * Records one change, at the next flush of the calling thread's transaction.
+     *
+     * @return Always true, so it can be chained after the change with {@code &&}.
+     * @throws DataAccessException if the change could not be recorded; the caller's transaction then rolls back.
+     */
+    boolean record(String entity, String entityId, boolean deleted) {
+        recordAll(entity, List.of(entityId), deleted);
+        return true;
+    }
+
+    /**
+     * Records many changes, e.g. the books removed by a cascading delete, at the next flush of the
+     * calling thread's transaction. Without a transaction they are written at once.
+     *
+     * @throws DataAccessException if the changes could not be recorded; the caller's transaction then rolls back.
+     */
+    void recordAll(String entity, List<String> entityIds, boolean deleted) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        Transaction transaction = connectionManager.currentTransaction();
+        if (transaction != null) {
+            transaction.flushStep(PendingChanges.class, PendingChanges::new).add(entity, entityIds, deleted);
+            return;
+        }
+        PendingChanges changes = new PendingChanges();
+        changes.add(entity, entityIds, deleted);
+        connectionManager.executeWrite("Error recording catalog changes", conn -> {
+            changes.flush(conn);
+            return true;
+        });
+    }
+
+    /**
+     * @return The sequence number of the latest committed change.
+     */
+    long getWatermark() {
+        Long watermark = jdbc.queryOne("Error reading the change watermark", "SELECT value FROM catalog_sequence WHERE id = 1", SEQUENCE_MAPPER);
+        return watermark != null ? watermark : 0L;
+    }
+
+    /**
+     * Deletes the changes older than {@link #RETENTION}, up to a watermark, except the newest of
+     * them. Run from time to time by every client; each one passes the watermark it continues from,
+     * so none of them has to reload because of its own pruning.
+     *
+     * @param watermark The oldest watermark the calling client still continues from.
+     * @throws DataAccessException if the change log could not be read or pruned.
+     */
+    void prune(long watermark) {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(RETENTION));
+        Long horizon = jdbc.queryOne("Error pruning the change log",
+                "SELECT MAX(seq) FROM catalog_changes WHERE seq <= ? AND changed_at < ?", SEQUENCE_MAPPER, watermark, cutoff);
+        if (horizon == null || horizon <= 1) {
+            return;
+        }
+        connectionManager.executeWrite("Error pruning the change log",
+                conn -> JdbcExecutor.execute(conn, "DELETE FROM catalog_changes WHERE seq < ?", horizon), 0);
+    }
+
+    /**
+     * The changes a transaction made since it last flushed, in order.
+     */
+    private static final class PendingChanges implements Transaction.FlushStep {
+        private final List<String> entities = new ArrayList<>();
+        private final List<String> entityIds = new ArrayList<>();
+        private final List<Boolean> deleted = new ArrayList<>();
+
+        void add(String entity, List<String> ids, boolean isDeleted) {
+            for (String id : ids) {
+                entities.add(entity);
+                entityIds.add(id);
+                deleted.add(isDeleted);
+            }
+        }
+
+        @Override
+        public void flush(Connection conn) throws SQLException {
+            int count = entityIds.size();
+            if (count == 0) {
+                return;
+            }
+            // Takes the numbers for all the changes at once; the row stays locked until the commit
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE catalog_sequence SET value = value + ? WHERE id = 1")) {
+                pstmt.setInt(1, count);
+                if (pstmt.executeUpdate() == 0) {
+                    throw new SQLException("Error recording catalog changes: the catalog_sequence table has no row.");
+                }
+            }
+            long sequence = JdbcExecutor.queryOne(conn, "SELECT value FROM catalog_sequence WHERE id = 1", SEQUENCE_MAPPER) - count;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO catalog_changes (seq, entity, entity_id, deleted) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < count; i++) {
+                    JdbcExecutor.bind(pstmt, ++sequence, entities.get(i), entityIds.get(i), deleted.get(i));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            entities.clear();
+            entityIds.clear();
+            deleted.clear();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Hold;
+import com.librarymanagementsystem.util.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL implementation of the HoldDAO interface.
+ * <p>
+ * A book's queue is one range of the index {@code idx_holds_queue (book_id, status, priority DESC, id)},
+ * in the order it is served, so finding the next hold for a returned copy is a single index lookup
+ * however many holds there are. Expiry reads lapsed holds from {@code idx_holds_expiry (status, expires_on)}
+ * in batches.
+ * <p>
+ * A copy is set aside with {@code UPDATE book_copies SET hold_id = ? WHERE id = ? AND on_loan = FALSE
+ * AND hold_id IS NULL}, in the same transaction as the book's availability count and the hold, and
+ * in the same lock order as {@link MySQLLoanDAO}: copy, count, hold.
+ */
+public class MySQLHoldDAO implements HoldDAO {
+
+    public static final int DEFAULT_PICKUP_DAYS = 7;
+    public static final int DEFAULT_MAX_WAIT_DAYS = 180;
+
+    private static final String HOLD_COLUMNS = "SELECT h.id, h.book_id, h.username, h.priority, h.status, h.placed_on, "
+            + "h.expires_on, h.copy_id, c.barcode FROM holds h LEFT JOIN book_copies c ON c.id = h.copy_id";
+    private static final String QUEUE_ORDER = " ORDER BY h.priority DESC, h.id";
+
+    /**
+     * Maps the columns of a hold joined with its copy's barcode to a Hold.
+     */
+    public static final RowMapper<Hold> HOLD_MAPPER = rs -> {
+        int id = rs.findColumn("id");
+        int bookId = rs.findColumn("book_id");
+        int username = rs.findColumn("username");
+        int priority = rs.findColumn("priority");
+        int status = rs.findColumn("status");
+        int placedOn = rs.findColumn("placed_on");
+        int expiresOn = rs.findColumn("expires_on");
+        int copyId = rs.findColumn("copy_id");
+        int barcode = rs.findColumn("barcode");
+        return row -> new Hold(row.getLong(id), row.getString(bookId), row.getString(username), row.getInt(priority),
+                Hold.Status.valueOf(row.getString(status)), row.getObject(placedOn, LocalDate.class),
+                row.getObject(expiresOn, LocalDate.class), row.getInt(copyId), row.getString(barcode));
+    };
+
+    private final ConnectionManager connectionManager;
+    private final JdbcExecutor jdbc;
+    private final int pickupDays;
+    private final int maxWaitDays;
+
+    /**
+     * Constructor for MySQLHoldDAO with the default pickup and waiting periods.
+     *
+     * @param connectionManager The ConnectionManager instance to manage database connections.
+     */
+    public MySQLHoldDAO(ConnectionManager connectionManager) {
+        this(connectionManager, DEFAULT_PICKUP_DAYS, DEFAULT_MAX_WAIT_DAYS);
+    }
+
+    /**
+     * @param connectionManager The ConnectionManager instance to manage database connections.
+     * @param pickupDays The number of days a copy stays set aside for a ready hold.
+     * @param maxWaitDays The number of days a hold waits in the queue before it lapses.
+     */
+    public MySQLHoldDAO(ConnectionManager connectionManager, int pickupDays, int maxWaitDays) {
+        if (pickupDays < 1 || maxWaitDays < 1) {
+            throw new IllegalArgumentException("Pickup and waiting periods must be at least 1 day");
+        }
+        this.connectionManager = connectionManager;
+        this.jdbc = new JdbcExecutor(connectionManager);
+        this.pickupDays = pickupDays;
+        this.maxWaitDays = maxWaitDays;
+    }
+
+    @Override
+    public HoldResult placeHold(Hold hold) {
+        String sql = "INSERT INTO holds (book_id, username, priority, status, placed_on, expires_on) VALUES (?, ?, ?, ?, ?, ?)";
+
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error placing hold", conn -> {
+                    if (!JdbcExecutor.exists(conn, "SELECT 1 FROM books WHERE id = ?", hold.getBookId())) {
+                        return HoldResult.NOT_FOUND;
+                    }
+                    if (JdbcExecutor.exists(conn, "SELECT 1 FROM holds WHERE username = ? AND status IN ('WAITING', 'READY') "
+                            + "AND book_id = ?", hold.getUsername(), hold.getBookId())
+                            || JdbcExecutor.exists(conn, "SELECT 1 FROM loans WHERE username = ? AND return_date IS NULL "
+                            + "AND book_id = ?", hold.getUsername(), hold.getBookId())) {
+                        return HoldResult.DUPLICATE;
+                    }
+                    LocalDate today = LocalDate.now();
+                    LocalDate expiresOn = today.plusDays(maxWaitDays);
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                        JdbcExecutor.bind(pstmt, hold.getBookId(), hold.getUsername(), hold.getPriority(),
+                                Hold.Status.WAITING.name(), today, expiresOn);
+                        pstmt.executeUpdate();
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("No ID was generated for the hold on book " + hold.getBookId());
+                            }
+                            hold.setId(generatedKeys.getLong(1));
+                        }
+                    }
+                    hold.setStatus(Hold.Status.WAITING);
+                    hold.setPlacedOn(today);
+                    hold.setExpiresOn(expiresOn);
+                    hold.setCopyId(0);
+                    hold.setBarcode(null);
+                    return HoldResult.DONE;
+                }, HoldResult.NOT_FOUND));
+    }
+
+    @Override
+    public HoldResult cancelHold(Hold hold) {
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error cancelling hold", conn -> {
+                    Hold stored = JdbcExecutor.queryOne(conn, HOLD_COLUMNS + " WHERE h.id = ?", HOLD_MAPPER, hold.getId());
+                    if (stored == null) {
+                        return HoldResult.NOT_FOUND;
+                    }
+                    boolean closed = stored.getStatus() == Hold.Status.READY
+                            ? close(conn, stored, Hold.Status.CANCELLED)
+                            : stored.getStatus() == Hold.Status.WAITING && JdbcExecutor.execute(conn,
+                                    "UPDATE holds SET status = 'CANCELLED' WHERE id = ? AND status = 'WAITING'", stored.getId()) > 0;
+                    if (!closed) {
+                        return HoldResult.CLOSED; // Also if it became ready, or was picked up, since it was read
+                    }
+                    copyInto(stored, hold);
+                    hold.setStatus(Hold.Status.CANCELLED);
+                    hold.setCopyId(0);
+                    hold.setBarcode(null);
+                    return HoldResult.DONE;
+                }, HoldResult.NOT_FOUND));
+    }
+
+    @Override
+    public Hold getHold(long holdId) {
+        return jdbc.queryOne("Error retrieving hold", HOLD_COLUMNS + " WHERE h.id = ?", HOLD_MAPPER, holdId);
+    }
+
+    @Override
+    public List<Hold> getHolds(String username) {
+        return jdbc.queryList("Error retrieving holds", HOLD_COLUMNS + " WHERE h.username = ? AND h.status IN ('WAITING', 'READY') "
+                + "ORDER BY h.id", HOLD_MAPPER, username);
+    }
+
+    @Override
+    public List<Hold> getQueue(String bookId) {
+        List<Hold> queue = jdbc.queryList("Error retrieving holds", HOLD_COLUMNS + " WHERE h.book_id = ? AND h.status = 'READY' "
+                + "ORDER BY h.id", HOLD_MAPPER, bookId);
+        queue.addAll(jdbc.queryList("Error retrieving holds", HOLD_COLUMNS + " WHERE h.book_id = ? AND h.status = 'WAITING'"
+                + QUEUE_ORDER, HOLD_MAPPER, bookId));
+        return queue;
+    }
+
+    @Override
+    public List<Hold> getWaitingHolds() {
+        return jdbc.queryList("Error retrieving holds", HOLD_COLUMNS + " WHERE h.status = 'WAITING' ORDER BY h.book_id, h.priority DESC, h.id",
+                HOLD_MAPPER);
+    }
+
+    @Override
+    public List<Hold> allocate(String bookId) {
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error allocating copies to holds", conn -> {
+                    List<Hold> ready = new ArrayList<>();
+                    Hold next;
+                    while ((next = JdbcExecutor.queryOne(conn, HOLD_COLUMNS + " WHERE h.book_id = ? AND h.status = 'WAITING'"
+                            + QUEUE_ORDER + " LIMIT 1", HOLD_MAPPER, bookId)) != null) {
+                        BookCopy copy = MySQLLoanDAO.claimShelfCopy(conn, bookId, next.getId());
+                        if (copy == null) {
+                            break; // Nothing left on the shelf
+                        }
+                        MySQLLoanDAO.changeAvailability(conn, bookId, "available_copies = available_copies - 1", "available_copies > 0");
+                        LocalDate pickUpBy = LocalDate.now().plusDays(pickupDays);
+                        if (JdbcExecutor.execute(conn, "UPDATE holds SET status = 'READY', copy_id = ?, expires_on = ? "
+                                + "WHERE id = ? AND status = 'WAITING'", copy.getId(), pickUpBy, next.getId()) == 0) {
+                            // Cancelled or allocated by someone else since it was read: put the copy back and look again
+                            JdbcExecutor.execute(conn, "UPDATE book_copies SET hold_id = NULL WHERE id = ?", copy.getId());
+                            MySQLLoanDAO.changeAvailability(conn, bookId, "available_copies = available_copies + 1",
+                                    "available_copies < total_copies");
+                            continue;
+                        }
+                        next.setStatus(Hold.Status.READY);
+                        next.setExpiresOn(pickUpBy);
+                        next.setCopyId(copy.getId());
+                        next.setBarcode(copy.getBarcode());
+                        ready.add(next);
+                    }
+                    return ready;
+                }, List.of()));
+    }
+
+    @Override
+    public List<Hold> expireHolds(LocalDate today, int limit) {
+        // Uncollected copies first, so they go back into circulation even when many waiting holds lapse at once
+        List<Hold> expired = new ArrayList<>();
+        for (Hold hold : jdbc.queryList("Error retrieving expired holds", HOLD_COLUMNS + " WHERE h.status = 'READY' "
+                + "AND h.expires_on < ? LIMIT ?", HOLD_MAPPER, today, limit)) {
+            boolean closed = connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                    connectionManager.executeWrite("Error expiring hold", conn -> close(conn, hold, Hold.Status.EXPIRED)));
+            if (closed) {
+                hold.setStatus(Hold.Status.EXPIRED);
+                expired.add(hold);
+            }
+        }
+        if (expired.size() >= limit) {
+            return expired;
+        }
+
+        List<Hold> lapsed = jdbc.queryList("Error retrieving expired holds", HOLD_COLUMNS + " WHERE h.status = 'WAITING' "
+                + "AND h.expires_on < ? LIMIT ?", HOLD_MAPPER, today, limit - expired.size());
+        if (lapsed.isEmpty()) {
+            return expired;
+        }
+        int[] counts = connectionManager.executeWrite("Error expiring holds", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE holds SET status = 'EXPIRED' WHERE id = ? AND status = 'WAITING'")) {
+                for (Hold hold : lapsed) {
+                    pstmt.setLong(1, hold.getId());
+                    pstmt.addBatch();
+                }
+                return pstmt.executeBatch();
+            }
+        }, new int[lapsed.size()]);
+        for (int i = 0; i < lapsed.size(); i++) {
+            // A hold that was allocated or cancelled meanwhile is left as it is
+            if (counts[i] != 0) {
+                lapsed.get(i).setStatus(Hold.Status.EXPIRED);
+                expired.add(lapsed.get(i));
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Closes a ready hold without checkout and puts its copy back on the shelf.
+     *
+     * @return true if the hold was closed; false if its copy was picked up, or the hold closed, meanwhile.
+     */
+    private static boolean close(Connection conn, Hold hold, Hold.Status status) throws SQLException {
+        if (JdbcExecutor.execute(conn, "UPDATE book_copies SET hold_id = NULL WHERE id = ? AND hold_id = ?",
+                hold.getCopyId(), hold.getId()) == 0) {
+            return false;
+        }
+        MySQLLoanDAO.changeAvailability(conn, hold.getBookId(), "available_copies = available_copies + 1",
+                "available_copies < total_copies");
+        if (JdbcExecutor.execute(conn, "UPDATE holds SET status = ?, copy_id = NULL WHERE id = ? AND status = 'READY'",
+                status.name(), hold.getId()) == 0) {
+            throw new SQLException("Copy " + hold.getCopyId() + " was set aside for hold " + hold.getId() + ", which is not ready");
+        }
+        return true;
+    }
+
+    private static void copyInto(Hold from, Hold to) {
+        to.setId(from.getId());
+        to.setBookId(from.getBookId());
+        to.setUsername(from.getUsername());
+        to.setPriority(from.getPriority());
+        to.setStatus(from.getStatus());
+        to.setPlacedOn(from.getPlacedOn());
+        to.setExpiresOn(from.getExpiresOn());
+        to.setCopyId(from.getCopyId());
+        to.setBarcode(from.getBarcode());
+    }
+}
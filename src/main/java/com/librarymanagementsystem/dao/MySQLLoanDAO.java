@@ -0,0 +1,383 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.BookAvailability;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Loan;
+import com.librarymanagementsystem.util.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MySQL implementation of the LoanDAO interface.
+ * <p>
+ * A copy is lent by {@code UPDATE book_copies SET on_loan = TRUE WHERE id = ? AND on_loan = FALSE}:
+ * the database applies the condition to the latest committed row under the row lock, so of two
+ * desks scanning the same copy at once exactly one changes the row and the other is told the copy
+ * is unavailable. The book's count in {@code book_availability} is changed in the same transaction,
+ * again with a condition that keeps it between 0 and the number of copies. No row is read with a
+ * lock first, so a checkout takes two short row locks and no round trip waits for another desk
+ * except on the very same copy or book.
+ * <p>
+ * A copy set aside for a hold (see {@link MySQLHoldDAO}) is not on the shelf: it is not counted as
+ * available, and only the user of the hold can check it out, which fulfils the hold.
+ * <p>
+ * Every write locks the copy first, then the book's count, then the hold, then the loan, so
+ * concurrent checkouts, returns and hold allocations cannot deadlock each other.
+ */
+public class MySQLLoanDAO implements LoanDAO {
+
+    public static final int DEFAULT_LOAN_DAYS = 21;
+    public static final int DEFAULT_MAX_RENEWALS = 2;
+
+    // Copies of a book tried by a checkout without a barcode before it reports none on the shelf
+    private static final int CANDIDATE_COPIES = 8;
+
+    static final String COPY_COLUMNS = "SELECT id, book_id, barcode, on_loan, hold_id FROM book_copies";
+    private static final String LOAN_COLUMNS = "SELECT l.id, l.copy_id, c.barcode, l.book_id, l.username, l.checkout_date, "
+            + "l.due_date, l.return_date, l.renewals FROM loans l JOIN book_copies c ON c.id = l.copy_id";
+
+    /**
+     * Maps the columns id, book_id, barcode, on_loan and hold_id to a BookCopy.
+     */
+    public static final RowMapper<BookCopy> COPY_MAPPER = rs -> {
+        int id = rs.findColumn("id");
+        int bookId = rs.findColumn("book_id");
+        int barcode = rs.findColumn("barcode");
+        int onLoan = rs.findColumn("on_loan");
+        int holdId = rs.findColumn("hold_id");
+        return row -> new BookCopy(row.getInt(id), row.getString(bookId), row.getString(barcode), row.getBoolean(onLoan),
+                row.getLong(holdId)); // getLong() reads NULL as 0
+    };
+
+    /**
+     * Maps the columns of a loan joined with its copy's barcode to a Loan.
+     */
+    public static final RowMapper<Loan> LOAN_MAPPER = rs -> {
+        int id = rs.findColumn("id");
+        int copyId = rs.findColumn("copy_id");
+        int barcode = rs.findColumn("barcode");
+        int bookId = rs.findColumn("book_id");
+        int username = rs.findColumn("username");
+        int checkoutDate = rs.findColumn("checkout_date");
+        int dueDate = rs.findColumn("due_date");
+        int returnDate = rs.findColumn("return_date");
+        int renewals = rs.findColumn("renewals");
+        return row -> new Loan(row.getLong(id), row.getInt(copyId), row.getString(barcode), row.getString(bookId),
+                row.getString(username), row.getObject(checkoutDate, LocalDate.class), row.getObject(dueDate, LocalDate.class),
+                row.getObject(returnDate, LocalDate.class), row.getInt(renewals));
+    };
+
+    private static final RowMapper<int[]> COUNTS_MAPPER = rs -> row -> new int[]{row.getInt(1), row.getInt(2)};
+    private static final RowMapper<long[]> READY_HOLD_MAPPER = rs -> row -> new long[]{row.getLong(1), row.getLong(2)};
+
+    private final ConnectionManager connectionManager;
+    private final JdbcExecutor jdbc;
+    private final int loanDays;
+    private final int maxRenewals;
+
+    /**
+     * Constructor for MySQLLoanDAO with the default loan period and renewal limit.
+     *
+     * @param connectionManager The ConnectionManager instance to manage database connections.
+     */
+    public MySQLLoanDAO(ConnectionManager connectionManager) {
+        this(connectionManager, DEFAULT_LOAN_DAYS, DEFAULT_MAX_RENEWALS);
+    }
+
+    /**
+     * @param connectionManager The ConnectionManager instance to manage database connections.
+     * @param loanDays The number of days a copy is lent for, and a renewal extends it by.
+     * @param maxRenewals The number of times a loan can be renewed.
+     */
+    public MySQLLoanDAO(ConnectionManager connectionManager, int loanDays, int maxRenewals) {
+        if (loanDays < 1 || maxRenewals < 0) {
+            throw new IllegalArgumentException("Loan period must be at least 1 day and renewals cannot be negative");
+        }
+        this.connectionManager = connectionManager;
+        this.jdbc = new JdbcExecutor(connectionManager);
+        this.loanDays = loanDays;
+        this.maxRenewals = maxRenewals;
+    }
+
+    @Override
+    public boolean addCopy(BookCopy copy) {
+        String sql = "INSERT INTO book_copies (book_id, barcode) VALUES (?, ?)";
+
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error adding copy", conn -> {
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                        JdbcExecutor.bind(pstmt, copy.getBookId(), copy.getBarcode());
+                        if (pstmt.executeUpdate() == 0) {
+                            return false;
+                        }
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            if (!generatedKeys.next()) {
+                                return false;
+                            }
+                            copy.setId(generatedKeys.getInt(1));
+                        }
+                    }
+                    JdbcExecutor.execute(conn, "INSERT IGNORE INTO book_availability (book_id, total_copies, available_copies) "
+                            + "VALUES (?, 0, 0)", copy.getBookId());
+                    JdbcExecutor.execute(conn, "UPDATE book_availability SET total_copies = total_copies + 1, "
+                            + "available_copies = available_copies + 1 WHERE book_id = ?", copy.getBookId());
+                    return true;
+                }));
+    }
+
+    @Override
+    public boolean removeCopy(String barcode) {
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error removing copy", conn -> {
+                    BookCopy copy = JdbcExecutor.queryOne(conn, COPY_COLUMNS + " WHERE barcode = ?", COPY_MAPPER, barcode);
+                    // A copy on loan stays until it is returned, and one set aside until its hold is closed
+                    if (copy == null || JdbcExecutor.execute(conn, "DELETE FROM book_copies WHERE id = ? AND on_loan = FALSE "
+                            + "AND hold_id IS NULL", copy.getId()) == 0) {
+                        return false;
+                    }
+                    changeAvailability(conn, copy.getBookId(), "total_copies = total_copies - 1, available_copies = available_copies - 1",
+                            "available_copies > 0");
+                    return true;
+                }));
+    }
+
+    @Override
+    public BookCopy getCopy(String barcode) {
+        return jdbc.queryOne("Error retrieving copy", COPY_COLUMNS + " WHERE barcode = ?", COPY_MAPPER, barcode);
+    }
+
+    @Override
+    public List<BookCopy> getCopies(String bookId) {
+        return jdbc.queryList("Error retrieving copies", COPY_COLUMNS + " WHERE book_id = ? ORDER BY barcode", COPY_MAPPER, bookId);
+    }
+
+    @Override
+    public BookAvailability getAvailability(String bookId) {
+        int[] counts = jdbc.queryOne("Error retrieving availability",
+                "SELECT total_copies, available_copies FROM book_availability WHERE book_id = ?", COUNTS_MAPPER, bookId);
+        return counts != null ? new BookAvailability(bookId, counts[0], counts[1]) : new BookAvailability(bookId, 0, 0);
+    }
+
+    @Override
+    public LoanResult checkout(Loan loan) {
+        String sql = "INSERT INTO loans (copy_id, book_id, username, checkout_date, due_date) VALUES (?, ?, ?, ?, ?)";
+
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error checking out copy", conn -> {
+                    BookCopy copy = loan.getBarcode() != null
+                            ? claimCopy(conn, loan.getBarcode(), loan.getUsername())
+                            : claimAnyCopy(conn, loan.getBookId(), loan.getUsername());
+                    if (copy == null) {
+                        return loan.getBarcode() != null ? LoanResult.NOT_FOUND : bookExists(conn, loan.getBookId());
+                    }
+                    if (!copy.isOnLoan()) {
+                        return LoanResult.UNAVAILABLE;
+                    }
+                    if (copy.isOnHold()) {
+                        // A copy set aside was not counted as on the shelf; the hold it was set aside for is fulfilled
+                        if (JdbcExecutor.execute(conn, "UPDATE holds SET status = 'FULFILLED' WHERE id = ? AND status = 'READY'",
+                                copy.getHoldId()) == 0) {
+                            throw new SQLException("Copy " + copy.getBarcode() + " is set aside for hold " + copy.getHoldId()
+                                    + ", which is not ready");
+                        }
+                    } else {
+                        changeAvailability(conn, copy.getBookId(), "available_copies = available_copies - 1", "available_copies > 0");
+                    }
+
+                    LocalDate today = LocalDate.now();
+                    LocalDate dueDate = today.plusDays(loanDays);
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                        JdbcExecutor.bind(pstmt, copy.getId(), copy.getBookId(), loan.getUsername(), today, dueDate);
+                        pstmt.executeUpdate();
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("No ID was generated for the loan of copy " + copy.getBarcode());
+                            }
+                            loan.setId(generatedKeys.getLong(1));
+                        }
+                    }
+                    loan.setCopyId(copy.getId());
+                    loan.setBarcode(copy.getBarcode());
+                    loan.setBookId(copy.getBookId());
+                    loan.setCheckoutDate(today);
+                    loan.setDueDate(dueDate);
+                    loan.setReturnDate(null);
+                    loan.setRenewals(0);
+                    return LoanResult.DONE;
+                }, LoanResult.NOT_FOUND));
+    }
+
+    @Override
+    public LoanResult returnCopy(Loan loan) {
+        return connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () ->
+                connectionManager.executeWrite("Error returning copy", conn -> {
+                    BookCopy copy = JdbcExecutor.queryOne(conn, COPY_COLUMNS + " WHERE barcode = ?", COPY_MAPPER, loan.getBarcode());
+                    if (copy == null) {
+                        return LoanResult.NOT_FOUND;
+                    }
+                    if (JdbcExecutor.execute(conn, "UPDATE book_copies SET on_loan = FALSE WHERE id = ? AND on_loan = TRUE", copy.getId()) == 0) {
+                        return LoanResult.NOT_ON_LOAN;
+                    }
+                    changeAvailability(conn, copy.getBookId(), "available_copies = available_copies + 1", "available_copies < total_copies");
+
+                    Loan open = JdbcExecutor.queryOne(conn, LOAN_COLUMNS + " WHERE l.copy_id = ? AND l.return_date IS NULL", LOAN_MAPPER,
+                            copy.getId());
+                    if (open == null) {
+                        throw new SQLException("Copy " + copy.getBarcode() + " is on loan but has no open loan");
+                    }
+                    LocalDate today = LocalDate.now();
+                    JdbcExecutor.execute(conn, "UPDATE loans SET return_date = ? WHERE id = ?", today, open.getId());
+                    loan.setId(open.getId());
+                    loan.setCopyId(open.getCopyId());
+                    loan.setBookId(open.getBookId());
+                    loan.setUsername(open.getUsername());
+                    loan.setCheckoutDate(open.getCheckoutDate());
+                    loan.setDueDate(open.getDueDate());
+                    loan.setReturnDate(today);
+                    loan.setRenewals(open.getRenewals());
+                    return LoanResult.DONE;
+                }, LoanResult.NOT_FOUND));
+    }
+
+    @Override
+    public LoanResult renew(Loan loan) {
+        // Applies only if nobody renewed or returned the loan since it was read
+        String sql = "UPDATE loans SET due_date = ?, renewals = renewals + 1 WHERE id = ? AND return_date IS NULL AND renewals = ?";
+
+        Loan stored = getLoan(loan.getId());
+        if (stored == null) {
+            return LoanResult.NOT_FOUND;
+        }
+        if (!stored.isOpen()) {
+            return LoanResult.NOT_ON_LOAN;
+        }
+        if (stored.getRenewals() != loan.getRenewals()) {
+            return LoanResult.CONFLICT;
+        }
+        if (stored.getRenewals() >= maxRenewals) {
+            return LoanResult.RENEWAL_LIMIT;
+        }
+        // The copy is due back for the next user in the queue
+        if (jdbc.queryOne("Error checking holds", "SELECT 1 FROM holds WHERE book_id = ? AND status = 'WAITING' LIMIT 1",
+                rs -> row -> Boolean.TRUE, stored.getBookId()) != null) {
+            return LoanResult.HOLDS_WAITING;
+        }
+        LocalDate renewed = LocalDate.now().plusDays(loanDays);
+        LocalDate dueDate = renewed.isAfter(stored.getDueDate()) ? renewed : stored.getDueDate();
+        if (!jdbc.update("Error renewing loan", sql, dueDate, loan.getId(), loan.getRenewals())) {
+            return LoanResult.CONFLICT;
+        }
+        loan.setDueDate(dueDate);
+        loan.setRenewals(stored.getRenewals() + 1);
+        return LoanResult.DONE;
+    }
+
+    @Override
+    public Loan getLoan(long loanId) {
+        return jdbc.queryOne("Error retrieving loan", LOAN_COLUMNS + " WHERE l.id = ?", LOAN_MAPPER, loanId);
+    }
+
+    @Override
+    public List<Loan> getOpenLoans(String username) {
+        return jdbc.queryList("Error retrieving loans", LOAN_COLUMNS + " WHERE l.username = ? AND l.return_date IS NULL ORDER BY l.due_date",
+                LOAN_MAPPER, username);
+    }
+
+    @Override
+    public List<Loan> getOverdueLoans(LocalDate today) {
+        return jdbc.queryList("Error retrieving overdue loans",
+                LOAN_COLUMNS + " WHERE l.return_date IS NULL AND l.due_date < ? ORDER BY l.due_date", LOAN_MAPPER, today);
+    }
+
+    /**
+     * Lends the copy with the given barcode if it is on the shelf, or set aside for the user.
+     *
+     * @return The copy, marked on loan if it was claimed and not on loan if it is unavailable, with the
+     *         hold it was set aside for; null if it does not exist.
+     */
+    private static BookCopy claimCopy(Connection conn, String barcode, String username) throws SQLException {
+        BookCopy copy = JdbcExecutor.queryOne(conn, COPY_COLUMNS + " WHERE barcode = ?", COPY_MAPPER, barcode);
+        if (copy == null) {
+            return null;
+        }
+        boolean claimed;
+        if (copy.isOnHold()) {
+            claimed = JdbcExecutor.exists(conn, "SELECT 1 FROM holds WHERE id = ? AND username = ? AND status = 'READY'",
+                    copy.getHoldId(), username) && claimHeldCopy(conn, copy.getId(), copy.getHoldId());
+        } else {
+            claimed = JdbcExecutor.execute(conn, "UPDATE book_copies SET on_loan = TRUE WHERE id = ? AND on_loan = FALSE "
+                    + "AND hold_id IS NULL", copy.getId()) > 0;
+        }
+        return new BookCopy(copy.getId(), copy.getBookId(), copy.getBarcode(), claimed, copy.getHoldId());
+    }
+
+    /**
+     * Lends the copy of a book set aside for the user, or else one of the copies on the shelf.
+     *
+     * @return The claimed copy (marked on loan, with the hold it was set aside for), or null if none could be claimed.
+     */
+    private static BookCopy claimAnyCopy(Connection conn, String bookId, String username) throws SQLException {
+        long[] ready = JdbcExecutor.queryOne(conn, "SELECT id, copy_id FROM holds WHERE username = ? AND status = 'READY' AND book_id = ?",
+                READY_HOLD_MAPPER, username, bookId);
+        if (ready != null && claimHeldCopy(conn, (int) ready[1], ready[0])) {
+            BookCopy copy = JdbcExecutor.queryOne(conn, COPY_COLUMNS + " WHERE id = ?", COPY_MAPPER, (int) ready[1]);
+            return new BookCopy(copy.getId(), copy.getBookId(), copy.getBarcode(), true, ready[0]);
+        }
+        return claimShelfCopy(conn, bookId, 0);
+    }
+
+    private static boolean claimHeldCopy(Connection conn, int copyId, long holdId) throws SQLException {
+        return JdbcExecutor.execute(conn, "UPDATE book_copies SET on_loan = TRUE, hold_id = NULL WHERE id = ? AND hold_id = ? "
+                + "AND on_loan = FALSE", copyId, holdId) > 0;
+    }
+
+    /**
+     * Claims one of the copies of a book that are on the shelf: lends it, or sets it aside for a hold.
+     * Concurrent claims on the same book start at different copies, so they rarely try to claim the same one.
+     *
+     * @param holdId The hold to set the copy aside for, or 0 to lend it.
+     * @return The claimed copy (marked on loan, or set aside), or null if none could be claimed.
+     */
+    static BookCopy claimShelfCopy(Connection conn, String bookId, long holdId) throws SQLException {
+        List<BookCopy> candidates;
+        do {
+            candidates = JdbcExecutor.query(conn, COPY_COLUMNS + " WHERE book_id = ? AND on_loan = FALSE AND hold_id IS NULL LIMIT ?",
+                    COPY_MAPPER, bookId, CANDIDATE_COPIES);
+            int start = candidates.isEmpty() ? 0 : ThreadLocalRandom.current().nextInt(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                BookCopy copy = candidates.get((start + i) % candidates.size());
+                boolean claimed = holdId == 0
+                        ? JdbcExecutor.execute(conn, "UPDATE book_copies SET on_loan = TRUE WHERE id = ? AND on_loan = FALSE "
+                                + "AND hold_id IS NULL", copy.getId()) > 0
+                        : JdbcExecutor.execute(conn, "UPDATE book_copies SET hold_id = ? WHERE id = ? AND on_loan = FALSE "
+                                + "AND hold_id IS NULL", holdId, copy.getId()) > 0;
+                if (claimed) {
+                    return new BookCopy(copy.getId(), copy.getBookId(), copy.getBarcode(), holdId == 0, holdId);
+                }
+            }
+            // Every candidate was claimed meanwhile; a full batch means there may be more on the shelf
+        } while (candidates.size() == CANDIDATE_COPIES);
+        return null;
+    }
+
+    private static LoanResult bookExists(Connection conn, String bookId) throws SQLException {
+        return JdbcExecutor.exists(conn, "SELECT 1 FROM books WHERE id = ?", bookId) ? LoanResult.UNAVAILABLE : LoanResult.NOT_FOUND;
+    }
+
+    /**
+     * Changes a book's counts together with the copy just changed. The condition cannot fail while
+     * the counts match the copies; if it does, the transaction is rolled back rather than let them drift.
+     */
+    static void changeAvailability(Connection conn, String bookId, String assignments, String condition) throws SQLException {
+        if (JdbcExecutor.execute(conn, "UPDATE book_availability SET " + assignments + " WHERE book_id = ? AND " + condition, bookId) == 0) {
+            throw new SQLException("Availability count of book " + bookId + " does not match its copies");
+        }
+    }
+}
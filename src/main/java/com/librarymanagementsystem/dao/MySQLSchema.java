@@ -0,0 +1,172 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.util.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * The tables used by the MySQL DAOs. {@link #ensure(ConnectionManager)} creates the ones that
+ * are missing, so a fresh, empty database works on the first start.
+ */
+public final class MySQLSchema {
+
+    private static final String[] TABLES = {
+            "CREATE TABLE IF NOT EXISTS users ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(50) NOT NULL UNIQUE, "
+                    + "password_hash VARCHAR(255) NOT NULL, "
+                    + "role VARCHAR(20) NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS categories ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "name VARCHAR(255) NOT NULL UNIQUE, "
+                    + "parent_id INT, "
+                    + "version INT NOT NULL DEFAULT 0, "
+                    + "FOREIGN KEY (parent_id) REFERENCES categories(id))",
+            // Closure table of the category hierarchy: one row per category and each of its ancestors,
+            // itself included (depth 0), so a whole subtree is one index range (see MySQLCategoryDAO)
+            "CREATE TABLE IF NOT EXISTS category_closure ("
+                    + "ancestor_id INT NOT NULL, "
+                    + "descendant_id INT NOT NULL, "
+                    + "depth INT NOT NULL, "
+                    + "PRIMARY KEY (ancestor_id, descendant_id), "
+                    + "FOREIGN KEY (ancestor_id) REFERENCES categories(id) ON DELETE CASCADE, "
+                    + "FOREIGN KEY (descendant_id) REFERENCES categories(id) ON DELETE CASCADE)",
+            "CREATE TABLE IF NOT EXISTS books ("
+                    + "id VARCHAR(50) PRIMARY KEY, "
+                    + "title VARCHAR(255) NOT NULL, "
+                    + "author VARCHAR(255) NOT NULL, "
+                    + "category_id INT, "
+                    + "year INT, "
+                    + "version INT NOT NULL DEFAULT 0, "
+                    + "FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE)",
+            // Change log for delta sync (see MySQLChangeLog); one row per change, keyed by its sequence number
+            "CREATE TABLE IF NOT EXISTS catalog_sequence ("
+                    + "id INT PRIMARY KEY, "
+                    + "value BIGINT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS catalog_changes ("
+                    + "seq BIGINT PRIMARY KEY, "
+                    + "entity VARCHAR(20) NOT NULL, "
+                    + "entity_id VARCHAR(50) NOT NULL, "
+                    + "deleted BOOLEAN NOT NULL, "
+                    + "changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)",
+            "INSERT IGNORE INTO catalog_sequence (id, value) VALUES (1, 0)",
+            // Circulation (see MySQLLoanDAO): the copies of each book, how many of them are on the shelf, and the loans
+            "CREATE TABLE IF NOT EXISTS book_copies ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "book_id VARCHAR(50) NOT NULL, "
+                    + "barcode VARCHAR(50) NOT NULL UNIQUE, "
+                    + "on_loan BOOLEAN NOT NULL DEFAULT FALSE, "
+                    + "hold_id BIGINT, "
+                    + "INDEX idx_book_copies_book (book_id, on_loan), "
+                    + "FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE)",
+            "CREATE TABLE IF NOT EXISTS book_availability ("
+                    + "book_id VARCHAR(50) PRIMARY KEY, "
+                    + "total_copies INT NOT NULL, "
+                    + "available_copies INT NOT NULL, "
+                    + "FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE)",
+            "CREATE TABLE IF NOT EXISTS loans ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "copy_id INT NOT NULL, "
+                    + "book_id VARCHAR(50) NOT NULL, "
+                    + "username VARCHAR(50) NOT NULL, "
+                    + "checkout_date DATE NOT NULL, "
+                    + "due_date DATE NOT NULL, "
+                    + "return_date DATE, "
+                    + "renewals INT NOT NULL DEFAULT 0, "
+                    + "INDEX idx_loans_copy (copy_id, return_date), "
+                    + "INDEX idx_loans_user (username, return_date), "
+                    + "INDEX idx_loans_due (return_date, due_date), "
+                    + "FOREIGN KEY (copy_id) REFERENCES book_copies(id) ON DELETE CASCADE)",
+            // Holds (see MySQLHoldDAO); a book's queue, the next hold first, is one range of idx_holds_queue
+            "CREATE TABLE IF NOT EXISTS holds ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "book_id VARCHAR(50) NOT NULL, "
+                    + "username VARCHAR(50) NOT NULL, "
+                    + "priority INT NOT NULL DEFAULT 0, "
+                    + "status VARCHAR(10) NOT NULL, "
+                    + "placed_on DATE NOT NULL, "
+                    + "expires_on DATE NOT NULL, "
+                    + "copy_id INT, "
+                    + "INDEX idx_holds_queue (book_id, status, priority DESC, id), "
+                    + "INDEX idx_holds_user (username, status), "
+                    + "INDEX idx_holds_expiry (status, expires_on), "
+                    + "FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE, "
+                    + "FOREIGN KEY (copy_id) REFERENCES book_copies(id) ON DELETE SET NULL)",
+            // Audit trail (see MySQLAuditSink): append-only, no foreign keys, so it outlives what it describes
+            "CREATE TABLE IF NOT EXISTS audit_log ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "occurred_at TIMESTAMP(3) NOT NULL, "
+                    + "username VARCHAR(50) NOT NULL, "
+                    + "action VARCHAR(10) NOT NULL, "
+                    + "entity VARCHAR(20) NOT NULL, "
+                    + "entity_id VARCHAR(50) NOT NULL, "
+                    + "detail VARCHAR(255), "
+                    + "INDEX idx_audit_entity (entity, entity_id), "
+                    + "INDEX idx_audit_user (username, occurred_at))"
+    };
+
+    // Columns added after the first release: table, column, definition. Added to older databases on start-up.
+    private static final String[][] ADDED_COLUMNS = {
+            {"categories", "version", "INT NOT NULL DEFAULT 0"},
+            {"categories", "parent_id", "INT"},
+            {"books", "version", "INT NOT NULL DEFAULT 0"}
+    };
+
+    private MySQLSchema() {
+        // Static helpers only
+    }
+
+    /**
+     * Creates the missing tables on the primary database.
+     *
+     * @param connectionManager The ConnectionManager of the database.
+     * @throws DataAccessException if the database could not be reached.
+     */
+    public static void ensure(ConnectionManager connectionManager) {
+        connectionManager.executeWrite("Error creating the database tables", conn -> {
+            create(conn);
+            return true;
+        });
+    }
+
+    /**
+     * Creates the missing tables over the given connection, and adds columns that tables created
+     * by an older version lack.
+     *
+     * @param conn An open connection; it is not closed.
+     * @throws SQLException if a statement fails.
+     */
+    public static void create(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : TABLES) {
+                stmt.execute(statement);
+            }
+            for (String[] column : ADDED_COLUMNS) {
+                if (!hasColumn(conn, column[0], column[1])) {
+                    stmt.execute("ALTER TABLE " + column[0] + " ADD COLUMN " + column[1] + " " + column[2]);
+                }
+            }
+            // Categories created before the hierarchy are top-level: their only closure row is their own
+            stmt.execute("INSERT INTO category_closure (ancestor_id, descendant_id, depth) SELECT id, id, 0 FROM categories c "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM category_closure cc WHERE cc.descendant_id = c.id)");
+        }
+    }
+
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        // MySQL reports table names as created, H2 (used by the benchmarks) in upper case
+        for (String tableName : new String[]{table, table.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, tableName, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.util.ConnectionManager;
+
+import java.util.function.Supplier;
+
+/**
+ * MySQL implementation of the TransactionRunner interface: the MySQL DAOs sharing the
+ * ConnectionManager take part in the transaction of the calling thread.
+ */
+public class MySQLTransactionRunner implements TransactionRunner {
+
+    private final ConnectionManager connectionManager;
+
+    /**
+     * Constructor for MySQLTransactionRunner.
+     *
+     * @param connectionManager The ConnectionManager shared with the DAOs.
+     */
+    public MySQLTransactionRunner(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public <T> T inTransaction(int isolation, boolean batchWrites, Supplier<T> work) {
+        return connectionManager.inTransaction(isolation, batchWrites, work);
+    }
+}
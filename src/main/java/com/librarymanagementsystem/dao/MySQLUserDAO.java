@@ -0,0 +1,47 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.User;
+import com.librarymanagementsystem.util.ConnectionManager;
+
+/**
+ * MySQL implementation of the UserDAO interface.
+ * Handles database operations on the 'users' table using JDBC.
+ * <p>
+ * Failures of the database surface as {@link DataAccessException}.
+ */
+public class MySQLUserDAO implements UserDAO {
+
+    private static final RowMapper<User> USER_MAPPER = rs -> {
+        int username = rs.findColumn("username");
+        int passwordHash = rs.findColumn("password_hash");
+        int role = rs.findColumn("role");
+        return row -> new User(row.getString(username), row.getString(passwordHash), row.getString(role));
+    };
+
+    private final JdbcExecutor jdbc;
+
+    /**
+     * Constructor for MySQLUserDAO.
+     *
+     * @param connectionManager The ConnectionManager instance to manage database connections.
+     */
+    public MySQLUserDAO(ConnectionManager connectionManager) {
+        this.jdbc = new JdbcExecutor(connectionManager);
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        String sql = "SELECT username, password_hash, role FROM users WHERE username = ?";
+
+        // Null if there is no such user
+        return jdbc.queryOne("Error retrieving user '" + username + "'", sql, USER_MAPPER, username);
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        String sql = "INSERT INTO users (username, password_hash, role) VALUES (?, ?, ?)";
+
+        // A duplicate username violates the unique key; update() reports it as false
+        return jdbc.update("Error creating user '" + user.getUsername() + "'", sql, user.getUsername(), user.getPasswordHash(), user.getRole());
+    }
+}
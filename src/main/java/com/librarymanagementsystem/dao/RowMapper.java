@@ -0,0 +1,46 @@
+package com.librarymanagementsystem.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns the rows of a ResultSet into objects.
+ * <p>
+ * A mapper is prepared once per ResultSet: {@link #forResultSet(ResultSet)} looks up the positions of
+ * the columns it needs by name and returns a reader that fetches each row's values by position. A
+ * lookup by name searches the result's column labels on every call, so on large scans reading by
+ * position is noticeably cheaper, while queries can still list their columns in any order.
+ * <p>
+ * For example:
+ * <pre>{@code
+ * RowMapper<Category> CATEGORY = rs -> {
+ *     int id = rs.findColumn("id");
+ *     int name = rs.findColumn("name");
+ *     return row -> new Category(row.getInt(id), row.getString(name));
+ * };
+ * }</pre>
+ *
+ * @param <T> The type of the mapped objects.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Resolves the columns this mapper reads.
+     *
+     * @param rs The ResultSet about to be read.
+     * @return The reader for its rows.
+     * @throws SQLException if a column is missing.
+     */
+    RowReader<T> forResultSet(ResultSet rs) throws SQLException;
+
+    /**
+     * Maps the current row of the ResultSet it was prepared for.
+     *
+     * @param <T> The type of the mapped objects.
+     */
+    @FunctionalInterface
+    interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,46 @@
+package com.librarymanagementsystem.dao;
+
+import java.sql.Connection;
+import java.util.function.Supplier;
+
+/**
+ * Runs several DAO calls as one unit of work: they share one connection and commit once, or
+ * roll back together if the work throws.
+ */
+public interface TransactionRunner {
+
+    /**
+     * For storages without transactions (the embedded log store): runs the work directly.
+     * Each DAO call is still atomic on its own, but nothing is rolled back if the work fails.
+     */
+    TransactionRunner DIRECT = new TransactionRunner() {
+        @Override
+        public <T> T inTransaction(int isolation, boolean batchWrites, Supplier<T> work) {
+            return work.get();
+        }
+    };
+
+    /**
+     * Runs the work in a transaction.
+     *
+     * @param isolation The JDBC isolation level, e.g. {@link Connection#TRANSACTION_SERIALIZABLE}.
+     * @param batchWrites true to queue single-row writes and send them together at commit;
+     *                    such writes then report true before they reach the database.
+     * @param work The DAO calls to run.
+     * @param <T> The result type.
+     * @return The result of the work, after the commit.
+     * @throws DataAccessException if the storage failed; the transaction is then rolled back.
+     */
+    <T> T inTransaction(int isolation, boolean batchWrites, Supplier<T> work);
+
+    /**
+     * Runs the work in a READ COMMITTED transaction without batching.
+     *
+     * @param work The DAO calls to run.
+     * @param <T> The result type.
+     * @return The result of the work, after the commit.
+     */
+    default <T> T inTransaction(Supplier<T> work) {
+        return inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, work);
+    }
+}
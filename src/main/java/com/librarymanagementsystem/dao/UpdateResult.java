@@ -0,0 +1,26 @@
+package com.librarymanagementsystem.dao;
+
+/**
+ * The outcome of an optimistic update ({@link BookDAO#updateBook}, {@link CategoryDAO#updateCategory}).
+ * <p>
+ * The object passed to the update carries the version it was read with. The storage applies the
+ * change only if the stored version is still the same, and then increments it; no lock is held
+ * while the user edits.
+ */
+public enum UpdateResult {
+    /** The change was stored and the object's version was advanced. */
+    UPDATED,
+    /** Someone else changed the record since it was read; nothing was stored. Reload it and retry or merge. */
+    CONFLICT,
+    /** The record does not exist (any more). */
+    NOT_FOUND,
+    /** The storage rejected the change, e.g. because the category does not exist. */
+    REJECTED;
+
+    /**
+     * @return true if the change was stored.
+     */
+    public boolean isUpdated() {
+        return this == UPDATED;
+    }
+}
@@ -0,0 +1,26 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.User;
+
+/**
+ * Interface for Data Access Operations related to User accounts.
+ * Defines the contract for interacting with user data storage.
+ * <p>
+ * If the storage cannot be reached or does not answer in time, methods throw
+ * {@link DataAccessException} instead of returning false, null or an empty list.
+ */
+public interface UserDAO {
+    /**
+     * Retrieves a user by username.
+     * @param username The username to look up.
+     * @return The User object if found, null otherwise.
+     */
+    User getUserByUsername(String username);
+
+    /**
+     * Adds a new user to the database.
+     * @param user The User object to be added (with an already hashed password).
+     * @return true if the user was successfully added, false otherwise (e.g. the username already exists).
+     */
+    boolean addUser(User user);
+}
@@ -0,0 +1,188 @@
+package com.librarymanagementsystem.logging;
+
+import com.librarymanagementsystem.util.MpscRingBuffer;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log records on a background thread, so that logging costs the caller an allocation and
+ * a slot in a lock-free ring buffer, never formatting or I/O. The writer formats each batch into one
+ * string and prints it with one call. If the buffer is full, records are dropped and counted
+ * rather than making the caller wait; the writer reports how many.
+ * <p>
+ * Each record becomes one line in logfmt style, followed by the stack trace of its cause if any:
+ * <pre>
+ * 2026-10-19T09:41:07.512Z WARN ConnectionManager [http-7] Error adding book: Lock wait timeout exceeded operation="Error adding book" sql="INSERT INTO books ..." elapsedMs=50003
+ * </pre>
+ */
+final class AsyncAppender {
+
+    private static final int CAPACITY = 8192;
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 50_000_000;
+    private static final long FLUSH_PARK_NANOS = 100_000;
+    private static final int MAX_VALUE_LENGTH = 300; // Longer context values (SQL) are cut
+
+    private final MpscRingBuffer<LogRecord> buffer = new MpscRingBuffer<>(CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile PrintStream out;
+    private volatile long taken;          // Records the writer is done with; updated by the writer only
+    private volatile boolean writerIdle;
+    private long reportedDrops;           // Used by the writer only
+
+    AsyncAppender(PrintStream out) {
+        this.out = out;
+        this.writer = new Thread(this::runWriter, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Queues a record. Never blocks.
+     */
+    void append(LogRecord record) {
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until every record appended so far has been written.
+     *
+     * @return true if they were written within the timeout.
+     */
+    boolean flush(long timeoutMillis) {
+        long target = buffer.claimed();
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        while (taken < target) {
+            if (System.nanoTime() - deadline > 0 || !writer.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FLUSH_PARK_NANOS);
+        }
+        return true;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void runWriter() {
+        List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        StringBuilder text = new StringBuilder(16 * 1024);
+        while (true) {
+            if (buffer.drainTo(batch, BATCH_SIZE) == 0) {
+                writerIdle = true;
+                if (buffer.size() == 0) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+                continue;
+            }
+            for (LogRecord record : batch) {
+                int start = text.length();
+                try {
+                    format(record, text);
+                } catch (RuntimeException e) {
+                    // An argument's toString() failed; still say that something was logged
+                    text.setLength(start);
+                    text.append(Instant.ofEpochMilli(record.getTimestamp())).append(' ').append(record.getLevel())
+                            .append(' ').append(record.getLogger()).append(' ').append(record.getTemplate())
+                            .append(" formatError=").append(quote(String.valueOf(e))).append('\n');
+                }
+            }
+            long drops = dropped.get();
+            if (drops > reportedDrops) {
+                text.append(Instant.now()).append(" WARN Logging [log-writer] ").append(drops - reportedDrops)
+                        .append(" log messages dropped because the buffer was full total=").append(drops).append('\n');
+                reportedDrops = drops;
+            }
+            PrintStream stream = out;
+            stream.print(text);
+            stream.flush();
+            taken += batch.size();
+            batch.clear();
+            if (text.length() > 1024 * 1024) {
+                text = new StringBuilder(16 * 1024); // Do not keep the memory of one huge stack trace
+            } else {
+                text.setLength(0);
+            }
+        }
+    }
+
+    private static void format(LogRecord record, StringBuilder text) {
+        int start = text.length();
+        text.append(Instant.ofEpochMilli(record.getTimestamp())).append(' ')
+                .append(record.getLevel()).append(' ')
+                .append(record.getLogger()).append(" [").append(record.getThread()).append("] ")
+                .append(record.getMessage());
+        for (int i = 0; i < record.getContextSize(); i++) {
+            text.append(' ').append(record.getContextKey(i)).append('=').append(quote(record.getContextValue(i)));
+        }
+        if (record.getSuppressed() > 0) {
+            text.append(" suppressed=").append(record.getSuppressed());
+        }
+        // Keep one record on one line, whatever the message contains
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                text.setCharAt(i, ' ');
+            }
+        }
+        text.append('\n');
+        if (record.getCause() != null) {
+            StringWriter trace = new StringWriter();
+            record.getCause().printStackTrace(new PrintWriter(trace));
+            text.append(trace);
+        }
+    }
+
+    /**
+     * Quotes a context value if it is empty or contains spaces, quotes or equals signs.
+     */
+    private static String quote(Object value) {
+        String s = String.valueOf(value);
+        if (s.length() > MAX_VALUE_LENGTH) {
+            s = s.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        boolean plain = !s.isEmpty();
+        for (int i = 0; i < s.length() && plain; i++) {
+            char c = s.charAt(i);
+            plain = c > ' ' && c != '"' && c != '=';
+        }
+        if (plain) {
+            return s;
+        }
+        StringBuilder quoted = new StringBuilder(s.length() + 8).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c <= ' ') {
+                if (quoted.charAt(quoted.length() - 1) != ' ') {
+                    quoted.append(' '); // Runs of spaces, newlines and tabs of multi-line SQL become one space
+                }
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
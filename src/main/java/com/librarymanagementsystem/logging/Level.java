@@ -0,0 +1,17 @@
+package com.librarymanagementsystem.logging;
+
+/**
+ * The severity of a log message, from least to most severe.
+ */
+public enum Level {
+    DEBUG, INFO, WARN, ERROR;
+
+    /**
+     * @param name A level name such as "warn"; case does not matter.
+     * @return The matching level.
+     * @throws IllegalArgumentException if there is no such level.
+     */
+    public static Level fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
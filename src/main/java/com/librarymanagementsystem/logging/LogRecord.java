@@ -0,0 +1,96 @@
+package com.librarymanagementsystem.logging;
+
+/**
+ * One log message as the caller left it: the template and its arguments, not yet formatted, and
+ * the key-value context. Formatting happens later on the writer thread. Immutable, except that the
+ * arguments are referenced and not copied.
+ */
+public final class LogRecord {
+
+    private final long timestamp;       // System.currentTimeMillis() when logged
+    private final Level level;
+    private final String logger;
+    private final String thread;
+    private final String template;      // "{}" marks where the next argument goes
+    private final Object[] arguments;
+    private final Object[] context;     // Key, value, key, value, ...; null if none
+    private final Throwable cause;      // null if none
+    private final int suppressed;       // Identical messages dropped by the rate limit before this one
+
+    LogRecord(long timestamp, Level level, String logger, String thread, String template, Object[] arguments,
+              Object[] context, Throwable cause, int suppressed) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.logger = logger;
+        this.thread = thread;
+        this.template = template;
+        this.arguments = arguments;
+        this.context = context;
+        this.cause = cause;
+        this.suppressed = suppressed;
+    }
+
+    // Getter Methods
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public String getLogger() {
+        return logger;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public Throwable getCause() {
+        return cause;
+    }
+
+    public int getSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * @return The number of key-value pairs in the context.
+     */
+    public int getContextSize() {
+        return context == null ? 0 : context.length / 2;
+    }
+
+    public String getContextKey(int index) {
+        return (String) context[2 * index];
+    }
+
+    public Object getContextValue(int index) {
+        return context[2 * index + 1];
+    }
+
+    /**
+     * Puts the arguments into the template: each "{}" is replaced by the next argument.
+     *
+     * @return The message.
+     */
+    public String getMessage() {
+        if (arguments == null || arguments.length == 0) {
+            return template;
+        }
+        StringBuilder message = new StringBuilder(template.length() + 16 * arguments.length);
+        int next = 0;
+        int from = 0;
+        int at;
+        while (next < arguments.length && (at = template.indexOf("{}", from)) >= 0) {
+            message.append(template, from, at).append(arguments[next++]);
+            from = at + 2;
+        }
+        return message.append(template, from, template.length()).toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.librarymanagementsystem.logging;
+
+import java.util.Arrays;
+
+/**
+ * Logs messages for one class. Messages are templates with "{}" placeholders and are formatted on
+ * the writer thread only if their level is enabled, so a disabled call costs a level check:
+ * <pre>
+ * private static final Logger LOG = Logger.get(ConnectionManager.class);
+ *
+ * LOG.warn("Read replica {} is unavailable: {}", url, reason);
+ * LOG.at(Level.ERROR).with("operation", description).with("elapsedMs", elapsed).cause(e)
+ *         .log("{}: {}", description, e.getMessage());
+ * </pre>
+ * The arguments and context values are kept as they are and turned into text later, so pass values
+ * that do not change afterwards (strings, numbers).
+ */
+public final class Logger {
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param type The class that logs; its simple name names the logger.
+     * @return A logger for the class.
+     */
+    public static Logger get(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    /**
+     * @return The logger's name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true if messages of the level are logged; use it to skip expensive work done only for a message.
+     */
+    public boolean isEnabled(Level level) {
+        return Logging.isEnabled(level);
+    }
+
+    public void debug(String template, Object... arguments) {
+        log(Level.DEBUG, template, arguments, null, null);
+    }
+
+    public void info(String template, Object... arguments) {
+        log(Level.INFO, template, arguments, null, null);
+    }
+
+    public void warn(String template, Object... arguments) {
+        log(Level.WARN, template, arguments, null, null);
+    }
+
+    public void error(String template, Object... arguments) {
+        log(Level.ERROR, template, arguments, null, null);
+    }
+
+    /**
+     * Starts a message with context, e.g. {@code at(Level.WARN).with("sql", sql).log("Slow query")}.
+     *
+     * @param level The message's level.
+     * @return A builder for the message; one that ignores everything if the level is disabled.
+     */
+    public Entry at(Level level) {
+        return Logging.isEnabled(level) ? new Entry(this, level) : Entry.DISABLED;
+    }
+
+    private void log(Level level, String template, Object[] arguments, Object[] context, Throwable cause) {
+        if (!Logging.isEnabled(level)) {
+            return;
+        }
+        int suppressed = 0;
+        if (level.compareTo(Level.WARN) >= 0) {
+            suppressed = Logging.admit(name, template, arguments);
+            if (suppressed < 0) {
+                return;
+            }
+        }
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName();
+        if (threadName.isEmpty()) {
+            threadName = "#" + thread.threadId(); // Virtual threads are unnamed
+        }
+        Logging.append(new LogRecord(System.currentTimeMillis(), level, name, threadName, template, arguments,
+                context, cause, suppressed));
+    }
+
+    /**
+     * A message being built with {@link #at(Level)}. Use it on the thread that created it, once.
+     */
+    public static final class Entry {
+
+        static final Entry DISABLED = new Entry(null, null);
+
+        private final Logger logger;   // null if the level is disabled
+        private final Level level;
+        private Object[] context;
+        private int contextLength;
+        private Throwable cause;
+
+        private Entry(Logger logger, Level level) {
+            this.logger = logger;
+            this.level = level;
+        }
+
+        /**
+         * Adds a key-value pair to the message's context, e.g. the operation or the elapsed time.
+         *
+         * @param key A short name without spaces.
+         * @param value The value; null values are left out.
+         * @return This entry.
+         */
+        public Entry with(String key, Object value) {
+            if (logger == null || value == null) {
+                return this;
+            }
+            if (context == null) {
+                context = new Object[8];
+            } else if (contextLength == context.length) {
+                context = Arrays.copyOf(context, 2 * contextLength);
+            }
+            context[contextLength++] = key;
+            context[contextLength++] = value;
+            return this;
+        }
+
+        /**
+         * Attaches an exception, whose stack trace is printed after the message.
+         *
+         * @return This entry.
+         */
+        public Entry cause(Throwable throwable) {
+            if (logger != null) {
+                cause = throwable;
+            }
+            return this;
+        }
+
+        /**
+         * Logs the message.
+         *
+         * @param template The message, with "{}" for each argument.
+         * @param arguments The arguments.
+         */
+        public void log(String template, Object... arguments) {
+            if (logger == null) {
+                return;
+            }
+            Object[] pairs = context;
+            if (pairs != null && contextLength < pairs.length) {
+                pairs = Arrays.copyOf(pairs, contextLength);
+            }
+            logger.log(level, template, arguments, pairs, cause);
+        }
+    }
+}
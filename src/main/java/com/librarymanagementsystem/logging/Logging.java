@@ -0,0 +1,93 @@
+package com.librarymanagementsystem.logging;
+
+import java.io.PrintStream;
+import java.time.Duration;
+
+/**
+ * The settings of the application's logging, shared by every {@link Logger}: the level below which
+ * messages are ignored, and the background writer that prints the rest to standard error.
+ * <p>
+ * Repeated identical warnings and errors are rate-limited: at most {@link #REPEAT_BURST} per
+ * {@link #REPEAT_WINDOW_MILLIS} get through, and the next one that does carries the number dropped.
+ * Whatever is still queued when the JVM exits is written by a shutdown hook.
+ */
+public final class Logging {
+
+    public static final Level DEFAULT_LEVEL = Level.INFO;
+    public static final int REPEAT_BURST = 5;
+    public static final long REPEAT_WINDOW_MILLIS = 10_000;
+
+    private static final long SHUTDOWN_FLUSH_MILLIS = 2_000;
+
+    private static volatile Level level = DEFAULT_LEVEL;
+    private static final RepeatLimiter repeats = new RepeatLimiter(REPEAT_BURST, REPEAT_WINDOW_MILLIS);
+
+    private Logging() {
+    }
+
+    /**
+     * Sets the least severe level that is logged.
+     *
+     * @param newLevel The level, e.g. {@link Level#DEBUG} to see everything.
+     */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * @return The least severe level that is logged.
+     */
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Sends the log to another stream instead of standard error.
+     *
+     * @param out The stream; the writer thread prints to it.
+     */
+    public static void setOutput(PrintStream out) {
+        Appender.INSTANCE.setOutput(out);
+    }
+
+    /**
+     * Waits until every message logged so far has been written.
+     *
+     * @param timeout The longest time to wait.
+     * @return true if they were written in time.
+     */
+    public static boolean flush(Duration timeout) {
+        return Appender.INSTANCE.flush(timeout.toMillis());
+    }
+
+    /**
+     * @return The number of messages lost because the writer could not keep up.
+     */
+    public static long getDroppedCount() {
+        return Appender.INSTANCE.getDroppedCount();
+    }
+
+    static boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) >= 0;
+    }
+
+    static int admit(String logger, String template, Object[] arguments) {
+        return repeats.admit(logger, template, arguments);
+    }
+
+    static void append(LogRecord record) {
+        Appender.INSTANCE.append(record);
+    }
+
+    /**
+     * Starts the writer thread when the first message is logged, not when the class is loaded.
+     */
+    private static final class Appender {
+        static final AsyncAppender INSTANCE = new AsyncAppender(System.err);
+
+        static {
+            Thread hook = new Thread(() -> INSTANCE.flush(SHUTDOWN_FLUSH_MILLIS), "log-flush");
+            Runtime.getRuntime().addShutdownHook(hook);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.librarymanagementsystem.logging;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits how often the same message is logged: of identical messages (same logger, template and
+ * arguments) only the first few in each window get through. The next one that does is marked with
+ * the number dropped in between, so a failure repeated by every request of an outage shows up as a
+ * handful of lines with counts instead of a flood that hides everything else.
+ */
+final class RepeatLimiter {
+
+    private static final int MAX_TRACKED = 1024; // Distinct messages remembered; beyond that all are forgotten
+
+    private final int burst;
+    private final long windowNanos;
+    private final ConcurrentHashMap<Key, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param burst The most identical messages let through per window.
+     * @param windowMillis The length of a window.
+     */
+    RepeatLimiter(int burst, long windowMillis) {
+        this.burst = burst;
+        this.windowNanos = windowMillis * 1_000_000;
+    }
+
+    /**
+     * Counts a message.
+     *
+     * @return -1 if it should be dropped, otherwise the number of identical messages dropped since
+     *         the last one let through.
+     */
+    int admit(String logger, String template, Object[] arguments) {
+        Key key = new Key(logger, template, arguments);
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= MAX_TRACKED) {
+                windows.clear();
+            }
+            window = windows.computeIfAbsent(key, k -> new Window());
+        }
+        long now = System.nanoTime();
+        synchronized (window) {
+            if (window.count == 0 || now - window.start >= windowNanos) {
+                window.start = now;
+                window.count = 0;
+            }
+            if (++window.count > burst) {
+                window.suppressed++;
+                return -1;
+            }
+            int suppressed = window.suppressed;
+            window.suppressed = 0;
+            return suppressed;
+        }
+    }
+
+    private static final class Window {
+        long start;
+        int count;       // Messages seen in the current window
+        int suppressed;  // Messages dropped since the last one let through
+    }
+
+    private static final class Key {
+        private final String logger;
+        private final String template;
+        private final Object[] arguments;
+        private final int hash;
+
+        Key(String logger, String template, Object[] arguments) {
+            this.logger = logger;
+            this.template = template;
+            this.arguments = arguments;
+            this.hash = 31 * (31 * logger.hashCode() + template.hashCode()) + Arrays.hashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash && logger.equals(other.logger) && template.equals(other.template)
+                    && Arrays.equals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -10,6 +10,7 @@ public class Book {
     private String author;    // Book Author
     private int category;     // Book Category ID
     private int year;         // Book Year
+    private int version;      // Incremented by every update; used to detect concurrent edits
 
     /**
      * The constructor of book class.
@@ -29,6 +30,21 @@ public class Book {
         this.year = year;
     }
 
+    /**
+     * Constructor for a book read from storage, together with its version.
+     *
+     * @param id Unique ID for book.
+     * @param title The tittle of book.
+     * @param author The author of book.
+     * @param category The categoryID which book belongs it.
+     * @param year Publissh year of book.
+     * @param version The number of updates the stored book has had.
+     */
+    public Book(String id, String title, String author, int category, int year, int version) {
+        this(id, title, author, category, year);
+        this.version = version;
+    }
+
     // Getter Methods
     public String getId() {
         return id;
@@ -50,6 +66,10 @@ public class Book {
         return year;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     // Setter Methods (İsteğe bağlı, ancak güncelleme işlemleri için faydalı olabilir)
     public void setId(String id) {
         this.id = id;
@@ -71,6 +91,10 @@ public class Book {
         this.year = year;
     }
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Book{" +
@@ -79,6 +103,7 @@ public class Book {
                 ", author='" + author + '\'' +
                 ", category=" + category +
                 ", year=" + year +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.librarymanagementsystem.model;
+
+/**
+ * How many copies of a book the library owns and how many of them are on the shelf.
+ */
+public class BookAvailability {
+    private final String bookId;
+    private final int totalCopies;     // Copies owned
+    private final int availableCopies; // Copies not on loan
+
+    /**
+     * @param bookId The ID of the book.
+     * @param totalCopies The number of copies the library owns.
+     * @param availableCopies The number of copies that are not on loan.
+     */
+    public BookAvailability(String bookId, int totalCopies, int availableCopies) {
+        this.bookId = bookId;
+        this.totalCopies = totalCopies;
+        this.availableCopies = availableCopies;
+    }
+
+    // Getter methods
+    public String getBookId() {
+        return bookId;
+    }
+
+    public int getTotalCopies() {
+        return totalCopies;
+    }
+
+    public int getAvailableCopies() {
+        return availableCopies;
+    }
+
+    /**
+     * @return true if at least one copy is on the shelf.
+     */
+    public boolean isAvailable() {
+        return availableCopies > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BookAvailability{" +
+                "bookId='" + bookId + '\'' +
+                ", totalCopies=" + totalCopies +
+                ", availableCopies=" + availableCopies +
+                '}';
+    }
+}
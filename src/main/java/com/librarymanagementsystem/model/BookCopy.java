@@ -0,0 +1,97 @@
+package com.librarymanagementsystem.model;
+
+/**
+ * The class which represents one physical copy of a book.
+ * A book can have many copies; each has its own barcode and is on the shelf, on loan, or set
+ * aside for the user whose hold it was allocated to.
+ */
+public class BookCopy {
+    private int id;         // Copy ID, assigned by the storage
+    private String bookId;  // ID of the book it is a copy of
+    private String barcode; // Barcode on the copy, scanned at the desks and kiosks
+    private boolean onLoan; // true while the copy is checked out
+    private long holdId;    // ID of the hold the copy is set aside for; 0 if none
+
+    /**
+     * Constructor for a new copy; the ID is assigned when it is added.
+     *
+     * @param bookId The ID of the book.
+     * @param barcode The barcode on the copy, unique in the library.
+     */
+    public BookCopy(String bookId, String barcode) {
+        this.bookId = bookId;
+        this.barcode = barcode;
+    }
+
+    /**
+     * Constructor for a copy read from storage.
+     *
+     * @param id The copy ID.
+     * @param bookId The ID of the book.
+     * @param barcode The barcode on the copy.
+     * @param onLoan true if the copy is checked out.
+     */
+    public BookCopy(int id, String bookId, String barcode, boolean onLoan) {
+        this(id, bookId, barcode, onLoan, 0);
+    }
+
+    /**
+     * Constructor for a copy read from storage.
+     *
+     * @param id The copy ID.
+     * @param bookId The ID of the book.
+     * @param barcode The barcode on the copy.
+     * @param onLoan true if the copy is checked out.
+     * @param holdId The ID of the hold the copy is set aside for, or 0 if none.
+     */
+    public BookCopy(int id, String bookId, String barcode, boolean onLoan, long holdId) {
+        this(bookId, barcode);
+        this.id = id;
+        this.onLoan = onLoan;
+        this.holdId = holdId;
+    }
+
+    // Getter methods
+    public int getId() {
+        return id;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public boolean isOnLoan() {
+        return onLoan;
+    }
+
+    public long getHoldId() {
+        return holdId;
+    }
+
+    /**
+     * @return true while the copy waits to be picked up by the user whose hold it was allocated to.
+     */
+    public boolean isOnHold() {
+        return holdId != 0;
+    }
+
+    // Setter methods
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return "BookCopy{" +
+                "id=" + id +
+                ", bookId='" + bookId + '\'' +
+                ", barcode='" + barcode + '\'' +
+                ", onLoan=" + onLoan +
+                ", holdId=" + holdId +
+                '}';
+    }
+}
@@ -3,10 +3,14 @@ package com.librarymanagementsystem.model;
 /**
  * The class which represents the book category object class.
  * This class includes category ID, Category name for each category.
+ * Categories can be nested: a category with a parent is a subcategory of it (Science, then Physics
+ * under Science, then Optics under Physics); see {@link CategoryTree}.
  */
 public class Category {
     private int id;       // Category ID
     private String name;  // Category name
+    private int parentId; // ID of the parent category; 0 for a top-level category
+    private int version;  // Incremented by every update; used to detect concurrent edits
 
     /**
      * Constructor of Category class .
@@ -20,6 +24,31 @@ public class Category {
         this.name = name;
     }
 
+    /**
+     * Constructor for a category read from storage, together with its version.
+     *
+     * @param id Unique ID for book.
+     * @param name name of Category.
+     * @param version The number of updates the stored category has had.
+     */
+    public Category(int id, String name, int version) {
+        this(id, name);
+        this.version = version;
+    }
+
+    /**
+     * Constructor for a subcategory read from storage, together with its version.
+     *
+     * @param id Unique ID for book.
+     * @param name name of Category.
+     * @param parentId The ID of the parent category, or 0 for a top-level category.
+     * @param version The number of updates the stored category has had.
+     */
+    public Category(int id, String name, int parentId, int version) {
+        this(id, name, version);
+        this.parentId = parentId;
+    }
+
     /**
      * Category class constructor without ID
      * Used for cases where the ID will be assigned automatically when adding a new category
@@ -39,6 +68,14 @@ public class Category {
         return name;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public int getParentId() {
+        return parentId;
+    }
+
     // Setter methods
     public void setId(int id) {
         this.id = id;
@@ -48,11 +85,21 @@ public class Category {
         this.name = name;
     }
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public void setParentId(int parentId) {
+        this.parentId = parentId;
+    }
+
     @Override
     public String toString() {
         return "Category{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
+                ", parentId=" + parentId +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.librarymanagementsystem.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The category hierarchy, as an immutable copy of a list of categories, for answering "is this
+ * category under that one" in constant time.
+ * <p>
+ * The categories are numbered in pre-order (every category is followed by its whole subtree), so
+ * the subtree of a category is a range of positions and membership is two comparisons. Siblings
+ * are ordered by name. A category whose parent is missing, or that is part of a cycle, is treated
+ * as a top-level category. Categories returned by the tree are copies.
+ */
+public final class CategoryTree {
+
+    private static final Comparator<Category> BY_NAME = Comparator.comparing(Category::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(Category::getId);
+
+    private final Category[] ordered;              // Pre-order
+    private final int[] subtreeEnd;                // By position: the position after the category's subtree
+    private final int[] depth;                     // By position: 0 for a top-level category
+    private final Map<Integer, Integer> positions; // Category ID -> position
+
+    private CategoryTree(Category[] ordered, int[] subtreeEnd, int[] depth, Map<Integer, Integer> positions) {
+        this.ordered = ordered;
+        this.subtreeEnd = subtreeEnd;
+        this.depth = depth;
+        this.positions = positions;
+    }
+
+    /**
+     * Builds the hierarchy of a list of categories.
+     *
+     * @param categories The categories; copied, so later changes to them are not seen.
+     * @return The tree.
+     */
+    public static CategoryTree of(Collection<Category> categories) {
+        Map<Integer, Category> byId = new LinkedHashMap<>();
+        for (Category category : categories) {
+            byId.put(category.getId(), copy(category));
+        }
+        Map<Integer, List<Category>> childrenOf = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+        for (Category category : byId.values()) {
+            int parentId = category.getParentId();
+            if (parentId > 0 && parentId != category.getId() && byId.containsKey(parentId)) {
+                childrenOf.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category);
+            } else {
+                roots.add(category);
+            }
+        }
+        roots.sort(BY_NAME);
+        childrenOf.values().forEach(children -> children.sort(BY_NAME));
+
+        int count = byId.size();
+        Category[] ordered = new Category[count];
+        int[] depth = new int[count];
+        Map<Integer, Integer> positions = new HashMap<>(count * 2);
+        int next = 0;
+        Deque<Category> stack = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        // Categories not reached from a top-level one are in a cycle; each then starts a tree of its own
+        List<Category> starts = new ArrayList<>(roots);
+        starts.addAll(byId.values());
+        for (Category start : starts) {
+            if (positions.containsKey(start.getId())) {
+                continue;
+            }
+            stack.push(start);
+            depths.push(0);
+            while (!stack.isEmpty()) {
+                Category category = stack.pop();
+                int level = depths.pop();
+                if (positions.containsKey(category.getId())) {
+                    continue; // Reached again through a cycle
+                }
+                positions.put(category.getId(), next);
+                ordered[next] = category;
+                depth[next] = level;
+                next++;
+                List<Category> children = childrenOf.getOrDefault(category.getId(), List.of());
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(children.get(i));
+                    depths.push(level + 1);
+                }
+            }
+        }
+
+        // A subtree ends at the next category that is not deeper than its root
+        int[] subtreeEnd = new int[count];
+        Deque<Integer> open = new ArrayDeque<>();
+        for (int position = 0; position < count; position++) {
+            while (!open.isEmpty() && depth[open.peek()] >= depth[position]) {
+                subtreeEnd[open.pop()] = position;
+            }
+            open.push(position);
+        }
+        while (!open.isEmpty()) {
+            subtreeEnd[open.pop()] = count;
+        }
+        return new CategoryTree(ordered, subtreeEnd, depth, positions);
+    }
+
+    /**
+     * @return true if the category is in the tree.
+     */
+    public boolean contains(int categoryId) {
+        return positions.containsKey(categoryId);
+    }
+
+    /**
+     * @return The category, or null if it is not in the tree.
+     */
+    public Category get(int categoryId) {
+        Integer position = positions.get(categoryId);
+        return position != null ? copy(ordered[position]) : null;
+    }
+
+    /**
+     * Checks whether a category is a given category or one of its descendants.
+     *
+     * @param categoryId The category to check.
+     * @param rootId The category whose subtree is checked.
+     * @return true if categoryId is rootId or below it; false if either is not in the tree.
+     */
+    public boolean isInSubtree(int categoryId, int rootId) {
+        Integer position = positions.get(categoryId);
+        Integer root = positions.get(rootId);
+        return position != null && root != null && position >= root && position < subtreeEnd[root];
+    }
+
+    /**
+     * @return The IDs of a category and all its descendants, the category first; empty if it is not in the tree.
+     */
+    public int[] getSubtreeIds(int rootId) {
+        Integer root = positions.get(rootId);
+        if (root == null) {
+            return new int[0];
+        }
+        int[] ids = new int[subtreeEnd[root] - root];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ordered[root + i].getId();
+        }
+        return ids;
+    }
+
+    /**
+     * @param parentId A category ID, or 0 for the top-level categories.
+     * @return The categories directly below it, by name.
+     */
+    public List<Category> getChildren(int parentId) {
+        int from = 0;
+        int to = ordered.length;
+        if (parentId > 0) {
+            Integer parent = positions.get(parentId);
+            if (parent == null) {
+                return new ArrayList<>();
+            }
+            from = parent + 1;
+            to = subtreeEnd[parent];
+        }
+        List<Category> children = new ArrayList<>();
+        for (int position = from; position < to; position = subtreeEnd[position]) {
+            children.add(copy(ordered[position]));
+        }
+        return children;
+    }
+
+    /**
+     * @return All categories, each followed by its subcategories, siblings by name; for showing the hierarchy.
+     */
+    public List<Category> inTreeOrder() {
+        List<Category> categories = new ArrayList<>(ordered.length);
+        for (Category category : ordered) {
+            categories.add(copy(category));
+        }
+        return categories;
+    }
+
+    /**
+     * @return How many ancestors the category has: 0 for a top-level category (or one not in the tree).
+     */
+    public int getDepth(int categoryId) {
+        Integer position = positions.get(categoryId);
+        return position != null ? depth[position] : 0;
+    }
+
+    /**
+     * @return The names from the top-level category down to the category, e.g. "Science / Physics / Optics";
+     *         null if it is not in the tree.
+     */
+    public String getPath(int categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return null;
+        }
+        String[] names = new String[depth[position] + 1];
+        // The parent of a category is the nearest category before it that is one level higher
+        for (int at = position, level = depth[position]; level >= 0; at--) {
+            if (depth[at] == level) {
+                names[level--] = ordered[at].getName();
+            }
+        }
+        return String.join(" / ", names);
+    }
+
+    /**
+     * @return The number of categories.
+     */
+    public int size() {
+        return ordered.length;
+    }
+
+    private static Category copy(Category category) {
+        return new Category(category.getId(), category.getName(), category.getParentId(), category.getVersion());
+    }
+}
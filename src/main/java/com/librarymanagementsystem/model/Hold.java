@@ -0,0 +1,170 @@
+package com.librarymanagementsystem.model;
+
+import java.time.LocalDate;
+
+/**
+ * The class which represents a hold: a user waiting for a copy of a book.
+ * <p>
+ * Holds on a book are served in order of priority, highest first, and within the same priority
+ * first come, first served. When a copy comes back it is set aside for the first waiting hold,
+ * which becomes ready; the user then has until the expiry day to check it out.
+ */
+public class Hold {
+
+    /**
+     * Where a hold is in its life.
+     */
+    public enum Status {
+        /** In the queue for the next copy. */
+        WAITING,
+        /** A copy is set aside for the user. */
+        READY,
+        /** The user checked out the copy. */
+        FULFILLED,
+        /** The user or an ADMIN cancelled the hold. */
+        CANCELLED,
+        /** The hold waited too long, or the copy was not picked up in time. */
+        EXPIRED;
+
+        /**
+         * @return true while the hold is waiting or ready.
+         */
+        public boolean isActive() {
+            return this == WAITING || this == READY;
+        }
+    }
+
+    private long id;             // Hold ID, assigned when it is placed
+    private String bookId;       // ID of the book the user waits for
+    private String username;     // User who placed the hold
+    private int priority;        // Higher is served first; 0 for a regular hold
+    private Status status;
+    private LocalDate placedOn;
+    private LocalDate expiresOn; // Waiting: when the hold lapses; ready: the last day to pick the copy up
+    private int copyId;          // ID of the copy set aside; 0 while waiting, and once cancelled or expired
+    private String barcode;      // Barcode of the copy set aside; null when copyId is 0
+
+    /**
+     * Constructor for a new hold; the rest is filled in when it is placed.
+     *
+     * @param bookId The ID of the book.
+     * @param username The user who waits for it.
+     * @param priority The priority; 0 for a regular hold.
+     */
+    public Hold(String bookId, String username, int priority) {
+        this.bookId = bookId;
+        this.username = username;
+        this.priority = priority;
+    }
+
+    /**
+     * Constructor for a hold read from storage.
+     *
+     * @param id The hold ID.
+     * @param bookId The ID of the book.
+     * @param username The user who placed the hold.
+     * @param priority The priority.
+     * @param status The status.
+     * @param placedOn The day the hold was placed.
+     * @param expiresOn The day the hold lapses, or the last day to pick the copy up.
+     * @param copyId The ID of the copy set aside, or 0.
+     * @param barcode The barcode of the copy set aside, or null.
+     */
+    public Hold(long id, String bookId, String username, int priority, Status status, LocalDate placedOn,
+                LocalDate expiresOn, int copyId, String barcode) {
+        this(bookId, username, priority);
+        this.id = id;
+        this.status = status;
+        this.placedOn = placedOn;
+        this.expiresOn = expiresOn;
+        this.copyId = copyId;
+        this.barcode = barcode;
+    }
+
+    // Getter methods
+    public long getId() {
+        return id;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDate getPlacedOn() {
+        return placedOn;
+    }
+
+    public LocalDate getExpiresOn() {
+        return expiresOn;
+    }
+
+    public int getCopyId() {
+        return copyId;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    // Setter methods
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public void setBookId(String bookId) {
+        this.bookId = bookId;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public void setPlacedOn(LocalDate placedOn) {
+        this.placedOn = placedOn;
+    }
+
+    public void setExpiresOn(LocalDate expiresOn) {
+        this.expiresOn = expiresOn;
+    }
+
+    public void setCopyId(int copyId) {
+        this.copyId = copyId;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    @Override
+    public String toString() {
+        return "Hold{" +
+                "id=" + id +
+                ", bookId='" + bookId + '\'' +
+                ", username='" + username + '\'' +
+                ", priority=" + priority +
+                ", status=" + status +
+                ", expiresOn=" + expiresOn +
+                ", barcode='" + barcode + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,159 @@
+package com.librarymanagementsystem.model;
+
+import java.time.LocalDate;
+
+/**
+ * The class which represents a loan: one copy of a book checked out by a user, from the checkout
+ * until the copy is returned.
+ */
+public class Loan {
+    private long id;               // Loan ID, assigned at checkout
+    private int copyId;            // ID of the copy on loan
+    private String barcode;        // Barcode of the copy on loan
+    private String bookId;         // ID of the book the copy belongs to
+    private String username;       // User who borrowed the copy
+    private LocalDate checkoutDate;
+    private LocalDate dueDate;
+    private LocalDate returnDate;  // null while the loan is open
+    private int renewals;          // Number of times the due date was extended
+
+    /**
+     * Constructor for a checkout request: either a given copy (as scanned at a desk or kiosk) or
+     * any copy of a book that is on the shelf. The checkout fills in the rest.
+     *
+     * @param bookId The ID of the book, or null if a barcode is given.
+     * @param barcode The barcode of the copy, or null for any copy of the book.
+     * @param username The user who borrows the copy.
+     */
+    public Loan(String bookId, String barcode, String username) {
+        this.bookId = bookId;
+        this.barcode = barcode;
+        this.username = username;
+    }
+
+    /**
+     * Constructor for a loan read from storage.
+     *
+     * @param id The loan ID.
+     * @param copyId The ID of the copy.
+     * @param barcode The barcode of the copy.
+     * @param bookId The ID of the book.
+     * @param username The user who borrowed the copy.
+     * @param checkoutDate The day the copy was checked out.
+     * @param dueDate The day the copy is due back.
+     * @param returnDate The day the copy was returned, or null if it is still on loan.
+     * @param renewals The number of times the loan was renewed.
+     */
+    public Loan(long id, int copyId, String barcode, String bookId, String username, LocalDate checkoutDate,
+                LocalDate dueDate, LocalDate returnDate, int renewals) {
+        this(bookId, barcode, username);
+        this.id = id;
+        this.copyId = copyId;
+        this.checkoutDate = checkoutDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.renewals = renewals;
+    }
+
+    // Getter methods
+    public long getId() {
+        return id;
+    }
+
+    public int getCopyId() {
+        return copyId;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    public int getRenewals() {
+        return renewals;
+    }
+
+    /**
+     * @return true until the copy is returned.
+     */
+    public boolean isOpen() {
+        return returnDate == null;
+    }
+
+    /**
+     * @return true if the loan is open and its due date is before the given day.
+     */
+    public boolean isOverdue(LocalDate today) {
+        return isOpen() && dueDate != null && dueDate.isBefore(today);
+    }
+
+    // Setter methods
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public void setCopyId(int copyId) {
+        this.copyId = copyId;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public void setBookId(String bookId) {
+        this.bookId = bookId;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public void setCheckoutDate(LocalDate checkoutDate) {
+        this.checkoutDate = checkoutDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public void setReturnDate(LocalDate returnDate) {
+        this.returnDate = returnDate;
+    }
+
+    public void setRenewals(int renewals) {
+        this.renewals = renewals;
+    }
+
+    @Override
+    public String toString() {
+        return "Loan{" +
+                "id=" + id +
+                ", barcode='" + barcode + '\'' +
+                ", bookId='" + bookId + '\'' +
+                ", username='" + username + '\'' +
+                ", checkoutDate=" + checkoutDate +
+                ", dueDate=" + dueDate +
+                ", returnDate=" + returnDate +
+                ", renewals=" + renewals +
+                '}';
+    }
+}
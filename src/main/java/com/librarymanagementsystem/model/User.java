@@ -0,0 +1,59 @@
+package com.librarymanagementsystem.model;
+
+/**
+ * The class which represents an application user account.
+ * This class includes the username, the hashed password and the role (ADMIN or USER) of each user.
+ */
+public class User {
+    private String username;      // Unique login name
+    private String passwordHash;  // SHA-256 hash of the password, Base64 encoded
+    private String role;          // "ADMIN" or "USER"
+
+    /**
+     * Constructor of User class.
+     * Initializes all attributes.
+     *
+     * @param username Unique login name of the user.
+     * @param passwordHash The hashed password (never the plain text password).
+     * @param role The role of the user.
+     */
+    public User(String username, String passwordHash, String role) {
+        this.username = username;
+        this.passwordHash = passwordHash;
+        this.role = role;
+    }
+
+    // Getter methods
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    // Setter methods
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    @Override
+    public String toString() {
+        return "User{" +
+                "username='" + username + '\'' +
+                ", role='" + role + '\'' +
+                '}';
+    }
+}
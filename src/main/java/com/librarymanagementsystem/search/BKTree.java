@@ -0,0 +1,150 @@
+package com.librarymanagementsystem.search;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A BK-tree (Burkhard-Keller tree) of distinct words under the Levenshtein distance.
+ * <p>
+ * Each child hangs off its parent at the distance between the two words. Because the distance is a
+ * metric, a search for words within {@code k} of a query only has to descend into the children at
+ * distances {@code d - k .. d + k} of a node at distance {@code d}, so most of the tree is never
+ * visited. Words cannot be removed; callers rebuild the tree when too many of its words are unused.
+ * <p>
+ * There is one tree per word length: two words are at least as far apart as their lengths differ,
+ * so a search for words within {@code k} only looks at the trees of lengths {@code L - k .. L + k},
+ * and the distances within a tree are spread wider, which prunes more of it.
+ * <p>
+ * A search still compares the query with thousands of words, so the tree is stored in a few
+ * primitive arrays rather than as node objects: the characters of all words in one pool, and per
+ * node its word's position, first child, next sibling, distance to its parent and largest distance
+ * to a child. A search then walks memory that fits in the CPU caches instead of chasing pointers
+ * across the heap.
+ * <p>
+ * Not thread-safe; {@link FuzzyBookIndex} guards it with its lock.
+ */
+final class BKTree {
+
+    private static final int NONE = -1;
+    private static final int MAX_TREE_LENGTH = 32; // Longer words share the last tree
+
+    private char[] pool = new char[1024]; // Characters of all words, back to back
+    private int poolSize;
+
+    // Per node
+    private int[] wordStart = new int[128];
+    private int[] wordLength = new int[128];
+    private int[] firstChild = new int[128];
+    private int[] nextSibling = new int[128];
+    private int[] distanceToParent = new int[128];
+    private int[] maxChildDistance = new int[128];
+    private int size;
+
+    private final int[] roots = new int[MAX_TREE_LENGTH + 1]; // By word length
+
+    BKTree() {
+        Arrays.fill(roots, NONE);
+    }
+
+    /**
+     * Adds a word unless it is already in the tree.
+     *
+     * @param word The word to add.
+     * @return true if it was added.
+     */
+    boolean add(String word) {
+        int tree = Math.min(word.length(), MAX_TREE_LENGTH);
+        if (roots[tree] == NONE) {
+            roots[tree] = newNode(word, 0);
+            return true;
+        }
+        SearchText.Pattern pattern = new SearchText.Pattern(word);
+        int node = roots[tree];
+        while (true) {
+            int distance = pattern.distance(pool, wordStart[node], wordLength[node], Integer.MAX_VALUE - 1);
+            if (distance == 0) {
+                return false;
+            }
+            int child = firstChild[node];
+            while (child != NONE && distanceToParent[child] != distance) {
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                int added = newNode(word, distance);
+                nextSibling[added] = firstChild[node];
+                firstChild[node] = added;
+                maxChildDistance[node] = Math.max(maxChildDistance[node], distance);
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Finds the words within a distance of the query.
+     *
+     * @param query The word to look for.
+     * @param maxDistance The largest distance of a match.
+     * @param matches Receives each matching word with its distance, in no particular order.
+     */
+    void search(String query, int maxDistance, ObjIntConsumer<String> matches) {
+        SearchText.Pattern pattern = new SearchText.Pattern(query);
+        int[] pending = new int[64];
+        int top = 0;
+        int fromTree = Math.min(Math.max(query.length() - maxDistance, 0), MAX_TREE_LENGTH);
+        int toTree = Math.min(query.length() + maxDistance, MAX_TREE_LENGTH);
+        for (int tree = fromTree; tree <= toTree; tree++) {
+            if (roots[tree] != NONE) {
+                pending[top++] = roots[tree];
+            }
+        }
+        while (top > 0) {
+            int node = pending[--top];
+            // Beyond this no child can be within maxDistance of the query, so no exact value is needed
+            int distance = pattern.distance(pool, wordStart[node], wordLength[node], maxDistance + maxChildDistance[node]);
+            if (distance <= maxDistance) {
+                matches.accept(new String(pool, wordStart[node], wordLength[node]), distance);
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(distanceToParent[child] - distance) <= maxDistance) {
+                    if (top == pending.length) {
+                        pending = Arrays.copyOf(pending, top * 2);
+                    }
+                    pending[top++] = child;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of words in the tree.
+     */
+    int size() {
+        return size;
+    }
+
+    private int newNode(String word, int distance) {
+        if (size == wordStart.length) {
+            int capacity = size * 2;
+            wordStart = Arrays.copyOf(wordStart, capacity);
+            wordLength = Arrays.copyOf(wordLength, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            distanceToParent = Arrays.copyOf(distanceToParent, capacity);
+            maxChildDistance = Arrays.copyOf(maxChildDistance, capacity);
+        }
+        if (poolSize + word.length() > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + word.length()));
+        }
+        word.getChars(0, word.length(), pool, poolSize);
+        int node = size++;
+        wordStart[node] = poolSize;
+        wordLength[node] = word.length();
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        distanceToParent[node] = distance;
+        maxChildDistance[node] = 0;
+        poolSize += word.length();
+        return node;
+    }
+}
@@ -0,0 +1,343 @@
+package com.librarymanagementsystem.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A radix trie from keys to weighted completions, answering "the K heaviest completions of the keys
+ * starting with this prefix" without looking at every key under the prefix.
+ * <p>
+ * Each node stores the largest weight in its subtree. A query walks down to the prefix and then
+ * expands the subtrees best first: the frontier is ordered by that largest weight, and among equal
+ * weights by key, which no completion inside a subtree can beat. The first K completions taken from
+ * the frontier are therefore the answer, ordered by weight and then key, and only about K paths
+ * are followed however many keys share the prefix.
+ * <p>
+ * Chains of single-child nodes are merged into one node whose edge label is a slice of one of the
+ * keys below it, so labels share the key strings instead of copying them.
+ * <p>
+ * Several keys may lead to the same completion, such as a title with and without its leading
+ * article; a query reports it once.
+ * Not thread-safe; {@link SuggestionIndex} guards it with its lock.
+ */
+final class CompletionTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("", 0, 0);
+    private int size;
+
+    /**
+     * What a key completes to: the text shown to the user and how often it occurs.
+     */
+    static final class Completion {
+        final String text;
+        int weight;
+
+        Completion(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Builds a trie from many keys at once, computing the subtree weights in one pass at the end
+     * instead of after each key.
+     *
+     * @param completions Completion by key.
+     * @return The trie.
+     */
+    static CompletionTrie build(Map<String, Completion> completions) {
+        // In key order each insert walks the path the previous one just used, and children are
+        // always added last, which is several times faster than inserting in hash order
+        List<Map.Entry<String, Completion>> entries = new ArrayList<>(completions.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        CompletionTrie trie = new CompletionTrie();
+        for (Map.Entry<String, Completion> entry : entries) {
+            trie.insert(entry.getKey(), entry.getValue(), null);
+        }
+        computeMaxWeights(trie.root);
+        return trie;
+    }
+
+    /**
+     * Adds a key, or updates it after its completion's weight changed.
+     *
+     * @param key The normalized key.
+     * @param completion What it completes to.
+     */
+    void put(String key, Completion completion) {
+        List<Node> path = new ArrayList<>();
+        insert(key, completion, path);
+        refresh(path);
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key The normalized key.
+     * @return true if it was in the trie.
+     */
+    boolean remove(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(root);
+        int depth = 0;
+        while (depth < key.length()) {
+            int index = node.childIndex(key.charAt(depth));
+            if (index < 0) {
+                return false;
+            }
+            Node child = node.children[index];
+            int length = child.end - child.start;
+            if (depth + length > key.length() || !key.regionMatches(depth, child.source, child.start, length)) {
+                return false;
+            }
+            node = child;
+            depth += length;
+            path.add(node);
+        }
+        if (node.completion == null) {
+            return false;
+        }
+        node.completion = null;
+        size--;
+
+        // Drop the nodes left without keys, then merge a remaining key-less node into its only child
+        int last = path.size() - 1;
+        while (last > 0 && path.get(last).completion == null && path.get(last).children.length == 0) {
+            path.get(last - 1).removeChild(path.get(last));
+            last--;
+        }
+        Node end = path.get(last);
+        if (last > 0 && end.completion == null && end.children.length == 1) {
+            Node child = end.children[0];
+            child.start = end.start; // Still a slice of child.source, which passes through end's label
+            path.get(last - 1).replaceChild(end, child);
+            last--;
+        }
+        refresh(path.subList(0, last + 1));
+        return true;
+    }
+
+    /**
+     * Finds the heaviest completions of the keys starting with a prefix.
+     *
+     * @param prefix The normalized prefix.
+     * @param limit The maximum number of completions.
+     * @return The completions, heaviest first; among equal weights in key order.
+     */
+    List<Completion> complete(String prefix, int limit) {
+        List<Completion> found = new ArrayList<>(limit);
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            int index = node.childIndex(prefix.charAt(depth));
+            if (index < 0) {
+                return found;
+            }
+            node = node.children[index];
+            int compared = Math.min(node.end - node.start, prefix.length() - depth);
+            if (!prefix.regionMatches(depth, node.source, node.start, compared)) {
+                return found;
+            }
+            depth += node.end - node.start;
+        }
+
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>();
+        frontier.add(new Candidate(node, null, node.maxWeight));
+        while (!frontier.isEmpty() && found.size() < limit) {
+            Candidate next = frontier.poll();
+            if (next.completion != null) {
+                if (!found.contains(next.completion)) {
+                    found.add(next.completion);
+                }
+                continue;
+            }
+            Node expanded = next.node;
+            if (expanded.completion != null) {
+                frontier.add(new Candidate(expanded, expanded.completion, expanded.completion.weight));
+            }
+            for (Node child : expanded.children) {
+                frontier.add(new Candidate(child, null, child.maxWeight));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return The number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Walks down to the key, splitting an edge or adding a leaf where it leaves the trie.
+     *
+     * @param path Receives the nodes from the root to the key's node, or null.
+     */
+    private void insert(String key, Completion completion, List<Node> path) {
+        Node node = root;
+        int depth = 0;
+        if (path != null) {
+            path.add(root);
+        }
+        while (depth < key.length()) {
+            int index = node.childIndex(key.charAt(depth));
+            if (index < 0) {
+                Node leaf = new Node(key, depth, key.length());
+                node.insertChild(-index - 1, leaf);
+                node = leaf;
+                if (path != null) {
+                    path.add(leaf);
+                }
+                break;
+            }
+            Node child = node.children[index];
+            int length = child.end - child.start;
+            int common = 0;
+            while (common < length && depth + common < key.length()
+                    && child.source.charAt(child.start + common) == key.charAt(depth + common)) {
+                common++;
+            }
+            if (common < length) {
+                // The key leaves the edge part-way: the shared part becomes a node of its own
+                Node middle = new Node(child.source, child.start, child.start + common);
+                child.start += common;
+                middle.children = new Node[]{child};
+                middle.maxWeight = child.maxWeight;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            depth += common;
+            if (path != null) {
+                path.add(node);
+            }
+        }
+        if (node.completion == null) {
+            size++;
+        }
+        node.completion = completion;
+    }
+
+    private static void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            int max = node.completion != null ? node.completion.weight : 0;
+            for (Node child : node.children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            node.maxWeight = max;
+        }
+    }
+
+    private static int computeMaxWeights(Node node) {
+        int max = node.completion != null ? node.completion.weight : 0;
+        for (Node child : node.children) {
+            max = Math.max(max, computeMaxWeights(child));
+        }
+        node.maxWeight = max;
+        return max;
+    }
+
+    private static final class Node {
+        // Edge label: source.substring(start, end), where source is a key below this node and start
+        // is the length of the path above it; the whole path is source.substring(0, end)
+        final String source;
+        int start;
+        final int end;
+        Node[] children = NO_CHILDREN; // Sorted by the first character of their label
+        Completion completion;         // If a key ends here
+        int maxWeight;                 // Largest completion weight in this subtree
+
+        Node(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return The index of the child whose label starts with c, or -(insertion point) - 1.
+         */
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].source.charAt(children[mid].start);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(Node child) {
+            int index = Arrays.asList(children).indexOf(child);
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, shrunk.length - index);
+            children = shrunk;
+        }
+
+        void replaceChild(Node child, Node replacement) {
+            children[Arrays.asList(children).indexOf(child)] = replacement;
+        }
+    }
+
+    /**
+     * A subtree still to expand, or a completion ready to report.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        final Node node;
+        final Completion completion; // Null for a subtree
+        final int weight;
+
+        Candidate(Node node, Completion completion, int weight) {
+            this.node = node;
+            this.completion = completion;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (weight != other.weight) {
+                return Integer.compare(other.weight, weight);
+            }
+            // By path; a completion comes before the subtree of the same node, whose keys extend it
+            int order = comparePaths(node, other.node);
+            if (order != 0) {
+                return order;
+            }
+            return Boolean.compare(completion == null, other.completion == null);
+        }
+
+        private static int comparePaths(Node a, Node b) {
+            int length = Math.min(a.end, b.end);
+            for (int i = 0; i < length; i++) {
+                char x = a.source.charAt(i);
+                char y = b.source.charAt(i);
+                if (x != y) {
+                    return Character.compare(x, y);
+                }
+            }
+            return Integer.compare(a.end, b.end);
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.librarymanagementsystem.search;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index for finding near-duplicate books: the same title and author entered again under
+ * another ID with small variations (typos, punctuation, accents, a missing article).
+ * <p>
+ * A book is reduced to its shingles, the trigrams of its normalized title and author, and those to
+ * a MinHash signature of {@link #BANDS} x {@link #ROWS} values; two books agree on each value with a
+ * probability equal to the Jaccard similarity of their shingles. Locality-sensitive hashing splits
+ * the signature into bands and keeps, for each band, the books sorted by the hash of their band, so
+ * only books that agree on a whole band are ever compared. With 16 bands of 4 values, a pair with a
+ * similarity of 0.8 is compared with a probability of 0.999, one of 0.6 with 0.89 and one of 0.3 with
+ * 0.12. Compared pairs are scored with their exact similarity.
+ * <p>
+ * The index holds 16 band hashes per book (64 bytes) plus a copy of the book. Added and changed books
+ * are appended and looked up by a linear scan until the bands are sorted again, once they and the
+ * removed books make up a quarter of the index.
+ * <p>
+ * Thread-safe: lookups run concurrently, changes are exclusive.
+ */
+public class DuplicateIndex {
+
+    /** Lowest similarity of the books reported as duplicates. */
+    public static final double MIN_SIMILARITY = 0.6;
+
+    static final int BANDS = 16;
+    static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+
+    // Books sharing a band with more books than this are not compared through that band: such a band
+    // is shared by chance (very short titles) and would cost a quadratic number of comparisons
+    private static final int MAX_BUCKET = 1000;
+    private static final int MIN_CHANGES_FOR_RESORT = 4096;
+    private static final long AUTHOR_SHINGLE = 1L << 63; // Trigrams use the low 63 bits
+
+    // The hash functions: h(x) = a * x + b on a mixed shingle, keeping the high bits
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] ADDENDS = new long[HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED);
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            ADDENDS[i] = random.nextLong();
+        }
+    }
+
+    private static final Comparator<DuplicatePair> RANKING = Comparator.comparingDouble(DuplicatePair::getSimilarity).reversed()
+            .thenComparing(pair -> pair.getFirst().getId())
+            .thenComparing(pair -> pair.getSecond().getId());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Book[] books = new Book[16];           // By ordinal; null once removed or replaced
+    private int[] bandKeys = new int[16 * BANDS];  // BANDS hashes per ordinal
+    private int ordinalLimit;                      // Next ordinal to hand out
+    private final Map<String, Integer> ordinals = new HashMap<>(); // Book ID -> live ordinal
+    private int[][] sortedBands = new int[BANDS][0]; // Per band, the ordinals below sortedLimit by band hash
+    private int sortedLimit;
+    private int removed;
+
+    /**
+     * Replaces the indexed books. Signatures are computed and the bands sorted on all cores.
+     *
+     * @param catalog The whole catalog.
+     */
+    public void rebuild(Collection<Book> catalog) {
+        Book[] copies = catalog.toArray(new Book[0]);
+        int count = copies.length;
+        int[] keys = new int[Math.max(count, 16) * BANDS];
+        IntStream.range(0, count).parallel().forEach(ordinal -> {
+            copies[ordinal] = copy(copies[ordinal]);
+            computeBandKeys(shingles(copies[ordinal]), keys, ordinal * BANDS);
+        });
+        int[][] sorted = sortBands(keys, count);
+
+        lock.writeLock().lock();
+        try {
+            books = count >= 16 ? copies : Arrays.copyOf(copies, 16);
+            bandKeys = keys;
+            ordinalLimit = count;
+            ordinals.clear();
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                ordinals.put(copies[ordinal].getId(), ordinal);
+            }
+            sortedBands = sorted;
+            sortedLimit = count;
+            removed = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book, or replaces the indexed book with the same ID.
+     *
+     * @param book The book as stored.
+     */
+    public void put(Book book) {
+        Book copy = copy(book);
+        int[] keys = new int[BANDS];
+        computeBandKeys(shingles(copy), keys, 0);
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getId());
+            if (ordinalLimit == books.length) {
+                books = Arrays.copyOf(books, books.length * 2);
+                bandKeys = Arrays.copyOf(bandKeys, books.length * BANDS);
+            }
+            int ordinal = ordinalLimit++;
+            books[ordinal] = copy;
+            System.arraycopy(keys, 0, bandKeys, ordinal * BANDS, BANDS);
+            ordinals.put(copy.getId(), ordinal);
+            resortIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book.
+     *
+     * @param bookId The ID of the book.
+     * @return true if it was indexed.
+     */
+    public boolean remove(String bookId) {
+        lock.writeLock().lock();
+        try {
+            boolean wasIndexed = removeLocked(bookId);
+            resortIfNeeded();
+            return wasIndexed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the indexed books that are probably the same as a book, e.g. one about to be added.
+     *
+     * @param book The book; an indexed book with the same ID is not reported.
+     * @param minSimilarity The lowest similarity to report, from 0 to 1.
+     * @param limit The maximum number of books.
+     * @return Copies of the most similar books with their similarity, most similar first.
+     */
+    public List<FuzzyMatch> findSimilar(Book book, double minSimilarity, int limit) {
+        long[] shingles = shingles(book);
+        int[] keys = new int[BANDS];
+        computeBandKeys(shingles, keys, 0);
+
+        List<FuzzyMatch> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Integer> candidates = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                int[] sorted = sortedBands[band];
+                int first = lowerBound(sorted, band, keys[band]);
+                for (int i = first; i < sorted.length && i - first < MAX_BUCKET && keyOf(sorted[i], band) == keys[band]; i++) {
+                    candidates.add(sorted[i]);
+                }
+                for (int ordinal = sortedLimit; ordinal < ordinalLimit; ordinal++) {
+                    if (keyOf(ordinal, band) == keys[band]) {
+                        candidates.add(ordinal);
+                    }
+                }
+            }
+            for (int ordinal : candidates) {
+                Book candidate = books[ordinal];
+                if (candidate == null || candidate.getId().equals(book.getId())) {
+                    continue;
+                }
+                double similarity = jaccard(shingles, shingles(candidate));
+                if (similarity >= minSimilarity) {
+                    matches.add(new FuzzyMatch(copy(candidate), similarity));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(FuzzyMatch::getScore).reversed()
+                .thenComparing(match -> match.getBook().getId()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Finds every pair of indexed books that are probably duplicates, comparing the bands on all
+     * cores. Each pair is passed to the sink once, as soon as it is found, in no particular order.
+     * Changes wait until the scan is done.
+     *
+     * @param minSimilarity The lowest similarity to report, from 0 to 1.
+     * @param sink Receives the pairs; called from several threads at once.
+     */
+    public void findDuplicates(double minSimilarity, Consumer<DuplicatePair> sink) {
+        lock.writeLock().lock();
+        try {
+            if (sortedLimit < ordinalLimit || removed > 0) {
+                resort(); // So every book is in the sorted bands
+            }
+            lock.readLock().lock(); // Downgrade: lookups may continue during the scan
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            IntStream.range(0, BANDS).parallel().forEach(band -> scanBand(band, minSimilarity, sink));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #findDuplicates(double, Consumer)}, collecting the pairs into a ranked list.
+     *
+     * @param minSimilarity The lowest similarity to report, from 0 to 1.
+     * @return The pairs, most similar first.
+     */
+    public List<DuplicatePair> rankDuplicates(double minSimilarity) {
+        ConcurrentLinkedQueue<DuplicatePair> found = new ConcurrentLinkedQueue<>();
+        findDuplicates(minSimilarity, found::add);
+        List<DuplicatePair> ranked = new ArrayList<>(found);
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    /**
+     * @return The number of indexed books.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The shingles of a book: the trigrams of its normalized title, and those of its normalized
+     * author marked as such.
+     *
+     * @return The shingles, sorted.
+     */
+    static long[] shingles(Book book) {
+        long[] title = TrigramIndex.trigrams(SearchText.normalize(book.getTitle()));
+        long[] author = TrigramIndex.trigrams(SearchText.normalize(book.getAuthor()));
+        long[] shingles = Arrays.copyOf(title, title.length + author.length);
+        for (int i = 0; i < author.length; i++) {
+            shingles[title.length + i] = author[i] | AUTHOR_SHINGLE;
+        }
+        Arrays.sort(shingles);
+        return shingles;
+    }
+
+    /**
+     * @return The Jaccard similarity of two sorted sets: shared elements / all elements.
+     */
+    static double jaccard(long[] a, long[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    /**
+     * Computes the MinHash signature of the shingles and stores the hash of each band.
+     */
+    static void computeBandKeys(long[] shingles, int[] target, int offset) {
+        int[] minimums = new int[HASHES];
+        Arrays.fill(minimums, Integer.MAX_VALUE);
+        for (long shingle : shingles) {
+            long mixed = mix(shingle);
+            for (int i = 0; i < HASHES; i++) {
+                int value = (int) ((MULTIPLIERS[i] * mixed + ADDENDS[i]) >>> 33);
+                if (value < minimums[i]) {
+                    minimums[i] = value;
+                }
+            }
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+            for (int row = 0; row < ROWS; row++) {
+                hash = hash * 0x9E3779B97F4A7C15L + minimums[band * ROWS + row];
+            }
+            target[offset + band] = (int) (mix(hash) >>> 32);
+        }
+    }
+
+    // ---------------------------------------------------------------- Internals
+
+    /**
+     * Compares the books sharing each hash of one band; a pair sharing several bands is compared only
+     * in the first of them.
+     */
+    private void scanBand(int band, double minSimilarity, Consumer<DuplicatePair> sink) {
+        int[] sorted = sortedBands[band];
+        int start = 0;
+        while (start < sorted.length) {
+            int key = keyOf(sorted[start], band);
+            int end = start + 1;
+            while (end < sorted.length && keyOf(sorted[end], band) == key) {
+                end++;
+            }
+            if (end - start > 1 && end - start <= MAX_BUCKET) {
+                long[][] bucketShingles = new long[end - start][];
+                for (int i = start; i < end; i++) {
+                    bucketShingles[i - start] = shingles(books[sorted[i]]);
+                }
+                for (int i = start; i < end; i++) {
+                    for (int j = i + 1; j < end; j++) {
+                        if (firstSharedBand(sorted[i], sorted[j]) != band) {
+                            continue;
+                        }
+                        double similarity = jaccard(bucketShingles[i - start], bucketShingles[j - start]);
+                        if (similarity >= minSimilarity) {
+                            sink.accept(pair(books[sorted[i]], books[sorted[j]], similarity));
+                        }
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    private int firstSharedBand(int a, int b) {
+        for (int band = 0; band < BANDS; band++) {
+            if (keyOf(a, band) == keyOf(b, band)) {
+                return band;
+            }
+        }
+        return -1;
+    }
+
+    private int keyOf(int ordinal, int band) {
+        return bandKeys[ordinal * BANDS + band];
+    }
+
+    /**
+     * @return The first position in the sorted band whose hash is not below the key.
+     */
+    private int lowerBound(int[] sorted, int band, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyOf(sorted[middle], band) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean removeLocked(String bookId) {
+        Integer ordinal = ordinals.remove(bookId);
+        if (ordinal == null) {
+            return false;
+        }
+        books[ordinal] = null;
+        removed++;
+        return true;
+    }
+
+    private void resortIfNeeded() {
+        int changes = removed + ordinalLimit - sortedLimit;
+        if (changes >= Math.max(MIN_CHANGES_FOR_RESORT, ordinals.size() / 4)) {
+            resort();
+        }
+    }
+
+    /**
+     * Renumbers the live books and sorts every band again. The caller holds the write lock.
+     */
+    private void resort() {
+        int count = ordinals.size();
+        Book[] live = new Book[Math.max(count, 16)];
+        int[] keys = new int[live.length * BANDS];
+        int next = 0;
+        for (int ordinal = 0; ordinal < ordinalLimit; ordinal++) {
+            if (books[ordinal] != null) {
+                live[next] = books[ordinal];
+                System.arraycopy(bandKeys, ordinal * BANDS, keys, next * BANDS, BANDS);
+                ordinals.put(live[next].getId(), next);
+                next++;
+            }
+        }
+        books = live;
+        bandKeys = keys;
+        ordinalLimit = count;
+        sortedBands = sortBands(keys, count);
+        sortedLimit = count;
+        removed = 0;
+    }
+
+    /**
+     * @return Per band, the ordinals below count sorted by their hash of that band.
+     */
+    private static int[][] sortBands(int[] keys, int count) {
+        return IntStream.range(0, BANDS).parallel().mapToObj(band -> {
+            long[] packed = new long[count];
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                packed[ordinal] = ((long) keys[ordinal * BANDS + band] << 32) | ordinal;
+            }
+            Arrays.sort(packed);
+            int[] sorted = new int[count];
+            for (int i = 0; i < count; i++) {
+                sorted[i] = (int) packed[i];
+            }
+            return sorted;
+        }).toArray(int[][]::new);
+    }
+
+    private static DuplicatePair pair(Book a, Book b, double similarity) {
+        return a.getId().compareTo(b.getId()) <= 0
+                ? new DuplicatePair(copy(a), copy(b), similarity)
+                : new DuplicatePair(copy(b), copy(a), similarity);
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(), book.getYear(), book.getVersion());
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer, so that similar shingles get unrelated hashes.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
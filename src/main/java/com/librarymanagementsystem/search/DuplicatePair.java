@@ -0,0 +1,44 @@
+package com.librarymanagementsystem.search;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.Locale;
+
+/**
+ * Two books that are probably the same title by the same author entered twice, as found by
+ * {@link DuplicateIndex}.
+ */
+public final class DuplicatePair {
+
+    private final Book first;
+    private final Book second;
+    private final double similarity;
+
+    /**
+     * @param first The book with the smaller ID.
+     * @param second The other book.
+     * @param similarity The Jaccard similarity of their title and author shingles, from 0 to 1.
+     */
+    public DuplicatePair(Book first, Book second, double similarity) {
+        this.first = first;
+        this.second = second;
+        this.similarity = similarity;
+    }
+
+    public Book getFirst() {
+        return first;
+    }
+
+    public Book getSecond() {
+        return second;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%.2f %s / %s", similarity, first, second);
+    }
+}
@@ -0,0 +1,382 @@
+package com.librarymanagementsystem.search;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index for typo-tolerant search by title and author.
+ * <p>
+ * Authors are matched word by word, so "Dostoyevski" finds "Fyodor Dostoevsky": the distinct words
+ * of all author names are kept in a {@link BKTree}, which finds the words within a few edits of each
+ * query word, and the authors containing those words are ranked by the mean similarity of each
+ * query word to its closest word in the name. Titles are matched by their trigrams with a
+ * {@link TrigramIndex}, so part of a title with typos still finds it. With both a title and an author, a book must match both and its score is the
+ * mean of the two.
+ * <p>
+ * Books are indexed under ordinals that only increase; an updated book gets a new one and its old
+ * one becomes dead. Dead ordinals and author words no longer used are dropped by rebuilding the
+ * affected structure once they outnumber the live ones.
+ * <p>
+ * Thread-safe: searches run concurrently, changes are exclusive.
+ */
+public class FuzzyBookIndex {
+
+    /** Lowest share of the query's trigrams a title must contain to match. */
+    public static final double TITLE_COVERAGE = 0.5;
+    /** Lowest word similarity of an author match. */
+    public static final double AUTHOR_THRESHOLD = 0.6;
+
+    // Dead entries tolerated before a rebuild, so small indexes are not rebuilt on every delete
+    private static final int MIN_GARBAGE_FOR_REBUILD = 1024;
+    // With a title and an author: up to this many books by the matching authors, their titles are
+    // compared one by one instead of searching all titles
+    private static final int MAX_BOOKS_SCORED_DIRECTLY = 5000;
+
+    private static final Comparator<FuzzyMatch> RANKING = Comparator.comparingDouble(FuzzyMatch::getScore)
+            .thenComparing((FuzzyMatch match) -> match.getBook().getTitle(), Comparator.reverseOrder())
+            .thenComparing((FuzzyMatch match) -> match.getBook().getId(), Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Titles
+    private TrigramIndex titles = new TrigramIndex();
+    private ArrayList<Entry> entries = new ArrayList<>();          // By ordinal; null once dead
+    private final Map<String, Integer> ordinals = new HashMap<>(); // Book ID -> live ordinal
+    private int deadEntries;
+
+    // Authors
+    private BKTree authorWords = new BKTree();
+    private final Map<String, Author> authors = new HashMap<>();          // Normalized name -> its books
+    private final Map<String, Set<Author>> authorsByWord = new HashMap<>(); // Word -> names containing it
+    private int unusedWords; // In the BK-tree but in no author's name any more
+
+    /**
+     * Replaces the indexed books.
+     *
+     * @param books The whole catalog.
+     */
+    public void rebuild(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            titles = new TrigramIndex();
+            entries = new ArrayList<>(books.size());
+            ordinals.clear();
+            deadEntries = 0;
+            authorWords = new BKTree();
+            authors.clear();
+            authorsByWord.clear();
+            unusedWords = 0;
+            for (Book book : books) {
+                putLocked(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book, or replaces the indexed book with the same ID.
+     *
+     * @param book The book as stored.
+     */
+    public void put(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getId());
+            putLocked(book);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book.
+     *
+     * @param bookId The ID of the book.
+     * @return true if it was indexed.
+     */
+    public boolean remove(String bookId) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(bookId);
+            compactIfNeeded();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books whose title and author are close to the query, allowing for typos, missing
+     * words and accents. Empty criteria are ignored.
+     *
+     * @param title The title, or part of it; may be null or empty.
+     * @param author The author, or part of the name; may be null or empty.
+     * @param limit The maximum number of matches.
+     * @return The best matches, most similar first; empty if neither criterion is given.
+     */
+    public List<FuzzyMatch> search(String title, String author, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        String titleQuery = SearchText.normalize(title);
+        String[] authorQuery = SearchText.words(SearchText.normalize(author));
+        if (titleQuery.isEmpty() && authorQuery.length == 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<FuzzyMatch> best = new PriorityQueue<>(limit + 1, RANKING);
+        lock.readLock().lock();
+        try {
+            Map<Author, Double> authorScores = authorQuery.length > 0 ? matchAuthors(authorQuery) : null;
+            if (titleQuery.isEmpty()) {
+                for (Map.Entry<Author, Double> match : authorScores.entrySet()) {
+                    for (String bookId : match.getKey().bookIds) {
+                        offer(best, new FuzzyMatch(entries.get(ordinals.get(bookId)).book, match.getValue()), limit);
+                    }
+                }
+            } else if (authorScores != null && bookCount(authorScores.keySet()) <= MAX_BOOKS_SCORED_DIRECTLY) {
+                long[] trigrams = TrigramIndex.trigrams(titleQuery);
+                for (Map.Entry<Author, Double> match : authorScores.entrySet()) {
+                    for (String bookId : match.getKey().bookIds) {
+                        Book book = entries.get(ordinals.get(bookId)).book;
+                        double titleScore = TrigramIndex.score(trigrams,
+                                TrigramIndex.trigrams(SearchText.normalize(book.getTitle())), TITLE_COVERAGE);
+                        if (titleScore >= 0) {
+                            offer(best, new FuzzyMatch(book, (titleScore + match.getValue()) / 2), limit);
+                        }
+                    }
+                }
+            } else {
+                titles.search(TrigramIndex.trigrams(titleQuery), TITLE_COVERAGE, (ordinal, titleScore) -> {
+                    Entry entry = entries.get(ordinal);
+                    if (entry == null) {
+                        return; // Deleted or replaced by a newer version
+                    }
+                    double score = titleScore;
+                    if (authorScores != null) {
+                        Double authorScore = authorScores.get(entry.author);
+                        if (authorScore == null) {
+                            return;
+                        }
+                        score = (titleScore + authorScore) / 2;
+                    }
+                    offer(best, new FuzzyMatch(entry.book, score), limit);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Copies, so callers can edit the books without changing the index
+        List<FuzzyMatch> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            FuzzyMatch match = best.poll();
+            Book book = match.getBook();
+            ranked.add(new FuzzyMatch(new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(),
+                    book.getYear(), book.getVersion()), match.getScore()));
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    /**
+     * @return The number of indexed books.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of distinct author names indexed.
+     */
+    public int authorCount() {
+        lock.readLock().lock();
+        try {
+            return authors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The largest number of edits for a query word to still match a word, as Elasticsearch's
+     * AUTO fuzziness: none up to two letters, where one edit already makes another word, one up to
+     * five letters and two beyond.
+     */
+    static int maxEdits(String word) {
+        int length = word.length();
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Scores the authors that have a word close to some query word.
+     *
+     * @return The authors reaching {@link #AUTHOR_THRESHOLD}, with their score.
+     */
+    private Map<Author, Double> matchAuthors(String[] queryWords) {
+        Set<Author> candidates = new HashSet<>();
+        for (String queryWord : queryWords) {
+            authorWords.search(queryWord, maxEdits(queryWord), (word, distance) -> {
+                Set<Author> withWord = authorsByWord.get(word);
+                if (withWord != null) {
+                    candidates.addAll(withWord);
+                }
+            });
+        }
+        Map<Author, Double> scores = new HashMap<>();
+        for (Author candidate : candidates) {
+            double total = 0;
+            for (String queryWord : queryWords) {
+                double closest = 0;
+                for (String word : candidate.words) {
+                    closest = Math.max(closest, SearchText.similarity(queryWord, word));
+                }
+                total += closest;
+            }
+            double score = total / queryWords.length;
+            if (score >= AUTHOR_THRESHOLD) {
+                scores.put(candidate, score);
+            }
+        }
+        return scores;
+    }
+
+    private static int bookCount(Set<Author> matchedAuthors) {
+        int count = 0;
+        for (Author author : matchedAuthors) {
+            count += author.bookIds.size();
+        }
+        return count;
+    }
+
+    private static void offer(PriorityQueue<FuzzyMatch> best, FuzzyMatch match, int limit) {
+        if (best.size() < limit) {
+            best.add(match);
+        } else if (RANKING.compare(match, best.peek()) > 0) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    private void putLocked(Book book) {
+        Author author = authors.get(SearchText.normalize(book.getAuthor()));
+        if (author == null) {
+            author = new Author(SearchText.normalize(book.getAuthor()));
+            authors.put(author.name, author);
+            for (String word : author.words) {
+                Set<Author> withWord = authorsByWord.get(word);
+                if (withWord == null) {
+                    withWord = new HashSet<>();
+                    authorsByWord.put(word, withWord);
+                    if (!authorWords.add(word)) {
+                        unusedWords--; // Was in the tree from an earlier author
+                    }
+                }
+                withWord.add(author);
+            }
+        }
+        author.bookIds.add(book.getId());
+
+        int ordinal = entries.size();
+        entries.add(new Entry(new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(),
+                book.getYear(), book.getVersion()), author));
+        ordinals.put(book.getId(), ordinal);
+        titles.add(ordinal, TrigramIndex.trigrams(SearchText.normalize(book.getTitle())));
+    }
+
+    private boolean removeLocked(String bookId) {
+        Integer ordinal = ordinals.remove(bookId);
+        if (ordinal == null) {
+            return false;
+        }
+        Entry entry = entries.set(ordinal, null);
+        deadEntries++;
+
+        Author author = entry.author;
+        author.bookIds.remove(bookId);
+        if (author.bookIds.isEmpty()) {
+            authors.remove(author.name);
+            for (String word : author.words) {
+                Set<Author> withWord = authorsByWord.get(word);
+                withWord.remove(author);
+                if (withWord.isEmpty()) {
+                    authorsByWord.remove(word);
+                    unusedWords++;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void compactIfNeeded() {
+        if (deadEntries > MIN_GARBAGE_FOR_REBUILD && deadEntries > ordinals.size()) {
+            // Renumber the live books; their relative order, and so the posting order, is kept
+            ArrayList<Entry> live = new ArrayList<>(ordinals.size());
+            TrigramIndex rebuilt = new TrigramIndex();
+            for (Entry entry : entries) {
+                if (entry != null) {
+                    int ordinal = live.size();
+                    live.add(entry);
+                    ordinals.put(entry.book.getId(), ordinal);
+                    rebuilt.add(ordinal, TrigramIndex.trigrams(SearchText.normalize(entry.book.getTitle())));
+                }
+            }
+            entries = live;
+            titles = rebuilt;
+            deadEntries = 0;
+        }
+        if (unusedWords > MIN_GARBAGE_FOR_REBUILD && unusedWords > authorsByWord.size()) {
+            BKTree rebuilt = new BKTree();
+            for (String word : authorsByWord.keySet()) {
+                rebuilt.add(word);
+            }
+            authorWords = rebuilt;
+            unusedWords = 0;
+        }
+    }
+
+    private static final class Entry {
+        final Book book;
+        final Author author;
+
+        Entry(Book book, Author author) {
+            this.book = book;
+            this.author = author;
+        }
+    }
+
+    /**
+     * A distinct normalized author name and the books written under it.
+     */
+    private static final class Author {
+        final String name;
+        final String[] words;
+        final Set<String> bookIds = new HashSet<>();
+
+        Author(String name) {
+            this.name = name;
+            this.words = new HashSet<>(List.of(SearchText.words(name))).toArray(new String[0]);
+        }
+    }
+}
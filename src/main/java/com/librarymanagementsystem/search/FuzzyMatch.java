@@ -0,0 +1,36 @@
+package com.librarymanagementsystem.search;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.Locale;
+
+/**
+ * A book found by a fuzzy search, with how closely it matches the query.
+ */
+public final class FuzzyMatch {
+
+    private final Book book;
+    private final double score;
+
+    /**
+     * @param book The matching book.
+     * @param score The similarity to the query, from 0 (unrelated) to 1 (exact).
+     */
+    public FuzzyMatch(Book book, double score) {
+        this.book = book;
+        this.score = score;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%.2f %s", score, book);
+    }
+}
@@ -0,0 +1,365 @@
+package com.librarymanagementsystem.search;
+
+import com.librarymanagementsystem.cache.CatalogChangeListener;
+import com.librarymanagementsystem.cache.CatalogChangePoller;
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A BookDAO decorator that keeps in-memory search indexes of the catalog: a {@link FuzzyBookIndex}
+ * for typo-tolerant search ({@link #fuzzySearch(String, String, int)}), a {@link SuggestionIndex}
+ * for completing titles and author names as they are typed ({@link #suggestTitles(String, int)}) and
+ * a {@link DuplicateIndex} for spotting books entered twice ({@link #findPossibleDuplicates(Book, int)}).
+ * Any of them may be left out. All BookDAO calls are passed through unchanged.
+ * <p>
+ * Successful writes made through this DAO are applied to the indexes at once. Changes made elsewhere
+ * (other clients, or books deleted with their category) arrive from the process's
+ * {@link CatalogChangePoller}, which this DAO listens to; searches never wait for the change log.
+ */
+public class SearchIndexingBookDAO implements BookDAO, CatalogChangeListener {
+
+    private static final Logger LOG = Logger.get(SearchIndexingBookDAO.class);
+
+    private final BookDAO delegate;
+    private final FuzzyBookIndex fuzzyIndex;           // Null if fuzzy search is off
+    private final SuggestionIndex suggestionIndex;     // Null if suggestions are off
+    private final DuplicateIndex duplicateIndex;       // Null if duplicate checks are off
+
+    private final ReentrantLock loadLock = new ReentrantLock(); // Held while loading, and while applying changes
+    private final AtomicBoolean backgroundLoad = new AtomicBoolean(); // A background load is running
+    private volatile boolean loaded;
+
+    /**
+     * @param delegate The DAO that owns the data.
+     * @param fuzzySearch Whether to keep the index for typo-tolerant search.
+     * @param suggestions Whether to keep the index for completing titles and author names.
+     * @param duplicateCheck Whether to keep the index for finding near-duplicate books.
+     */
+    public SearchIndexingBookDAO(BookDAO delegate, boolean fuzzySearch, boolean suggestions, boolean duplicateCheck) {
+        this.delegate = delegate;
+        this.fuzzyIndex = fuzzySearch ? new FuzzyBookIndex() : null;
+        this.suggestionIndex = suggestions ? new SuggestionIndex() : null;
+        this.duplicateIndex = duplicateCheck ? new DuplicateIndex() : null;
+    }
+
+    /**
+     * Indexes the whole catalog. Called at start-up, after the change poller has started; otherwise
+     * the first use of an index does it.
+     */
+    public void load() {
+        loadLock.lock();
+        try {
+            // Changes polled while the catalog is read wait for the lock and are applied afterwards
+            List<Book> books = delegate.getAllBooks();
+            if (fuzzyIndex != null) {
+                fuzzyIndex.rebuild(books);
+            }
+            if (suggestionIndex != null) {
+                suggestionIndex.rebuild(books);
+            }
+            if (duplicateIndex != null) {
+                duplicateIndex.rebuild(books);
+            }
+            loaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if typo-tolerant search is available.
+     */
+    public boolean hasFuzzySearch() {
+        return fuzzyIndex != null;
+    }
+
+    /**
+     * @return true if title and author suggestions are available.
+     */
+    public boolean hasSuggestions() {
+        return suggestionIndex != null;
+    }
+
+    /**
+     * @return true if books can be checked for near-duplicates.
+     */
+    public boolean hasDuplicateCheck() {
+        return duplicateIndex != null;
+    }
+
+    /**
+     * Searches by title and/or author, tolerating typos; see {@link FuzzyBookIndex#search(String, String, int)}.
+     *
+     * @param title The title, or part of it; may be empty.
+     * @param author The author, or part of the name; may be empty.
+     * @param limit The maximum number of matches.
+     * @return The best matches, most similar first; empty if fuzzy search is off.
+     */
+    public List<FuzzyMatch> fuzzySearch(String title, String author, int limit) {
+        if (fuzzyIndex == null) {
+            return new ArrayList<>();
+        }
+        loadIfNeeded();
+        return fuzzyIndex.search(title, author, limit);
+    }
+
+    /**
+     * Finds the books that are probably the same as a book about to be added or changed: the same
+     * title and author with small variations; see {@link DuplicateIndex#findSimilar(Book, double, int)}.
+     *
+     * @param book The book; a stored book with the same ID is not reported.
+     * @param limit The maximum number of books.
+     * @return The likely duplicates, most similar first; empty if duplicate checks are off.
+     */
+    public List<FuzzyMatch> findPossibleDuplicates(Book book, int limit) {
+        if (duplicateIndex == null) {
+            return new ArrayList<>();
+        }
+        loadIfNeeded();
+        return duplicateIndex.findSimilar(book, DuplicateIndex.MIN_SIMILARITY, limit);
+    }
+
+    /**
+     * Completes a partly typed title from memory, without waiting for the database; see
+     * {@link SuggestionIndex#suggestTitles(String, int)}.
+     *
+     * @param typed The text typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return The suggestions, most common first; empty until the index is loaded or if suggestions are off.
+     */
+    public List<String> suggestTitles(String typed, int limit) {
+        if (suggestionIndex == null) {
+            return new ArrayList<>();
+        }
+        loadInBackgroundIfNeeded();
+        return loaded ? suggestionIndex.suggestTitles(typed, limit) : new ArrayList<>();
+    }
+
+    /**
+     * Completes a partly typed author name from memory, without waiting for the database; see
+     * {@link SuggestionIndex#suggestAuthors(String, int)}.
+     *
+     * @param typed The text typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return The suggestions, most common first; empty until the index is loaded or if suggestions are off.
+     */
+    public List<String> suggestAuthors(String typed, int limit) {
+        if (suggestionIndex == null) {
+            return new ArrayList<>();
+        }
+        loadInBackgroundIfNeeded();
+        return loaded ? suggestionIndex.suggestAuthors(typed, limit) : new ArrayList<>();
+    }
+
+    /**
+     * Applies the changes polled from the change log to the indexes; until they are loaded, the
+     * load reads the changes with the catalog.
+     */
+    @Override
+    public void catalogChanged(BookChangeSet changes) {
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (Book book : changes.getUpserts()) {
+                putInIndexes(book);
+            }
+            for (String bookId : changes.getDeletedIds()) {
+                removeFromIndexes(bookId);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the indexes from the whole catalog, if they are loaded.
+     */
+    @Override
+    public void catalogReloadRequired() {
+        loadLock.lock();
+        try {
+            if (loaded) {
+                load();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * @return The fuzzy search index, for size statistics; null if fuzzy search is off.
+     */
+    public FuzzyBookIndex getFuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    /**
+     * @return The suggestion index, for size statistics; null if suggestions are off.
+     */
+    public SuggestionIndex getSuggestionIndex() {
+        return suggestionIndex;
+    }
+
+    /**
+     * @return The duplicate index, for size statistics and the duplicates report; null if duplicate checks are off.
+     */
+    public DuplicateIndex getDuplicateIndex() {
+        return duplicateIndex;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        return delegate.getAllBooks();
+    }
+
+    @Override
+    public boolean addBook(Book book) {
+        boolean added = delegate.addBook(book);
+        if (added && loaded) {
+            putInIndexes(book);
+        }
+        return added;
+    }
+
+    @Override
+    public UpdateResult updateBook(Book book) {
+        UpdateResult result = delegate.updateBook(book);
+        if (result.isUpdated() && loaded) {
+            putInIndexes(book);
+        } else if (result == UpdateResult.NOT_FOUND && loaded) {
+            removeFromIndexes(book.getId());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean deleteBook(String bookId) {
+        boolean deleted = delegate.deleteBook(bookId);
+        if (deleted && loaded) {
+            removeFromIndexes(bookId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public Book getBookById(String bookId) {
+        return delegate.getBookById(bookId);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId) {
+        return delegate.getBooksByCategory(categoryId);
+    }
+
+    @Override
+    public List<Book> getBooksByCategory(int categoryId, boolean includeSubcategories) {
+        return delegate.getBooksByCategory(categoryId, includeSubcategories);
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        return delegate.searchBooksByTitle(title);
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, int minYear, int maxYear) {
+        return delegate.advancedSearch(title, author, categoryId, minYear, maxYear);
+    }
+
+    @Override
+    public List<Book> advancedSearch(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        return delegate.advancedSearch(title, author, categoryId, includeSubcategories, minYear, maxYear);
+    }
+
+    @Override
+    public long getChangeWatermark() {
+        return delegate.getChangeWatermark();
+    }
+
+    @Override
+    public BookChangeSet getChangesSince(long watermark, int limit) {
+        return delegate.getChangesSince(watermark, limit);
+    }
+
+    @Override
+    public void releaseChanges(long watermark) {
+        delegate.releaseChanges(watermark);
+    }
+
+    private void putInIndexes(Book book) {
+        if (fuzzyIndex != null) {
+            fuzzyIndex.put(book);
+        }
+        if (suggestionIndex != null) {
+            suggestionIndex.put(book);
+        }
+        if (duplicateIndex != null) {
+            duplicateIndex.put(book);
+        }
+    }
+
+    private void removeFromIndexes(String bookId) {
+        if (fuzzyIndex != null) {
+            fuzzyIndex.remove(bookId);
+        }
+        if (suggestionIndex != null) {
+            suggestionIndex.remove(bookId);
+        }
+        if (duplicateIndex != null) {
+            duplicateIndex.remove(bookId);
+        }
+    }
+
+    /**
+     * Indexes the catalog unless that is done, or was done while waiting for another thread doing it.
+     */
+    private void loadIfNeeded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Starts the first load on a virtual thread if the one at start-up failed and none is running.
+     */
+    private void loadInBackgroundIfNeeded() {
+        if (loaded || !backgroundLoad.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("search-index-load").start(() -> {
+            try {
+                if (loadLock.tryLock()) {
+                    try {
+                        loadIfNeeded(); // Unless the start-up build is still running
+                    } finally {
+                        loadLock.unlock();
+                    }
+                }
+            } catch (DataAccessException e) {
+                // Suggestions stay empty; the next keystroke retries
+                LOG.warn("Error loading search indexes: {}", e.getMessage());
+            } finally {
+                backgroundLoad.set(false);
+            }
+        });
+    }
+}
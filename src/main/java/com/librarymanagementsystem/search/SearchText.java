@@ -0,0 +1,204 @@
+package com.librarymanagementsystem.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Text normalization shared by the in-memory search indexes, so that indexed values and queries
+ * are compared in the same form.
+ */
+final class SearchText {
+
+    private static final String[] NO_WORDS = new String[0];
+
+    private SearchText() {
+        // Static helpers only
+    }
+
+    /**
+     * Lower-cases the text, removes accents ("Dostoïevski" becomes "dostoievski") and replaces
+     * punctuation with spaces, leaving words of letters and digits separated by single spaces.
+     *
+     * @param text The text to normalize, may be null.
+     * @return The normalized text, empty if there are no letters or digits.
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // The accent of a decomposed letter
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param normalized Text returned by {@link #normalize(String)}.
+     * @return Its words.
+     */
+    static String[] words(String normalized) {
+        return normalized.isEmpty() ? NO_WORDS : normalized.split(" ");
+    }
+
+    /**
+     * Levenshtein distance (insertions, deletions and substitutions), computed only up to a limit.
+     *
+     * @param query The first string.
+     * @param term The second string.
+     * @param max The largest distance of interest.
+     * @return The distance, or {@code max + 1} if it is larger than max.
+     */
+    static int distance(String query, String term, int max) {
+        return new Pattern(query).distance(term, max);
+    }
+
+    /**
+     * A query word prepared for computing its edit distance to many words, as a BK-tree search does.
+     * Words of up to 64 characters use Myers' bit-parallel algorithm: the query's column of the
+     * distance table is kept as bit vectors, and the positions of each character in the query are
+     * looked up once here instead of being compared cell by cell. Longer words use the classic
+     * dynamic program.
+     */
+    static final class Pattern {
+        private final String word;
+        private final long[] asciiPositions; // Bit i set where word.charAt(i) is that ASCII character
+
+        Pattern(String word) {
+            this.word = word;
+            this.asciiPositions = new long[128];
+            if (word.length() <= 64) {
+                for (int i = 0; i < word.length(); i++) {
+                    char c = word.charAt(i);
+                    if (c < 128) {
+                        asciiPositions[c] |= 1L << i;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param term The word to compare with.
+         * @param max The largest distance of interest.
+         * @return The distance, or {@code max + 1} if it is larger than max.
+         */
+        int distance(String term, int max) {
+            return distance(term.toCharArray(), 0, term.length(), max);
+        }
+
+        /**
+         * @param chars Holds the word to compare with.
+         * @param start Where the word starts in chars.
+         * @param m The length of the word.
+         * @param max The largest distance of interest.
+         * @return The distance, or {@code max + 1} if it is larger than max.
+         */
+        int distance(char[] chars, int start, int m, int max) {
+            int n = word.length();
+            if (Math.abs(n - m) > max) {
+                return max + 1;
+            }
+            if (n == 0 || m == 0) {
+                return Math.max(n, m);
+            }
+            if (n > 64) {
+                return rowDistance(word, new String(chars, start, m), max);
+            }
+            long pv = n == 64 ? -1L : (1L << n) - 1;
+            long mv = 0;
+            long last = 1L << (n - 1);
+            int score = n;
+            for (int j = 0; j < m; j++) {
+                long eq = positions(chars[start + j]);
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // The distance can fall by at most one per remaining term character
+                if (score - (m - j - 1) > max) {
+                    return max + 1;
+                }
+                ph = (ph << 1) | 1;
+                mh <<= 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            return Math.min(score, max + 1);
+        }
+
+        private long positions(char c) {
+            if (c < 128) {
+                return asciiPositions[c];
+            }
+            long positions = 0;
+            for (int i = 0; i < word.length(); i++) {
+                if (word.charAt(i) == c) {
+                    positions |= 1L << i;
+                }
+            }
+            return positions;
+        }
+    }
+
+    private static int rowDistance(String query, String term, int max) {
+        int n = query.length();
+        int m = term.length();
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            previous[i] = i;
+        }
+        for (int j = 1; j <= m; j++) {
+            char c = term.charAt(j - 1);
+            current[0] = j;
+            int rowMin = j;
+            for (int i = 1; i <= n; i++) {
+                int cost = query.charAt(i - 1) == c ? 0 : 1;
+                int value = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                current[i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1; // Every path through this row already costs more than max
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[n], max + 1);
+    }
+
+    /**
+     * Similarity of two words from 0 (nothing in common) to 1 (equal), based on their edit distance.
+     *
+     * @param a The first word.
+     * @param b The second word.
+     * @return 1 - distance / length of the longer word.
+     */
+    static double similarity(String a, String b) {
+        int longer = Math.max(a.length(), b.length());
+        if (longer == 0) {
+            return 1;
+        }
+        return 1 - (double) distance(a, b, longer) / longer;
+    }
+}
@@ -0,0 +1,269 @@
+package com.librarymanagementsystem.search;
+
+import com.librarymanagementsystem.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index for completing titles and author names as they are typed.
+ * <p>
+ * The distinct titles and author names of the catalog are kept in two {@link CompletionTrie}s,
+ * weighted by the number of books with them, so the most common completions come first. Keys are
+ * normalized as for fuzzy search (case and accents are ignored). A title is also found without
+ * its leading article ("hob" suggests "The Hobbit"), and an author name by any of its words
+ * ("tolk" suggests "J.R.R. Tolkien").
+ * <p>
+ * Thread-safe. Suggestions are meant to be asked for on every keystroke on the event dispatch
+ * thread, so a full rebuild prepares the new tries before taking the lock and only swaps them in.
+ */
+public class SuggestionIndex {
+
+    // Skipped at the start of a title, as library catalogs file titles
+    private static final Set<String> LEADING_ARTICLES = Set.of("the", "a", "an");
+    // Ends a shortened key, followed by the words left out, so that "the hobbit" shortened to
+    // "hobbit" and the title "Hobbit" do not share a key; normalized text never contains it
+    private static final char DROPPED_WORDS = '\0';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Catalog catalog = new Catalog();
+
+    /**
+     * Replaces the indexed books.
+     *
+     * @param books The whole catalog.
+     */
+    public void rebuild(Collection<Book> books) {
+        Catalog rebuilt = new Catalog();
+        for (Book book : books) {
+            rebuilt.add(book, false);
+        }
+        rebuilt.titleTrie = CompletionTrie.build(rebuilt.allTitleKeys());
+        rebuilt.authorTrie = CompletionTrie.build(rebuilt.allAuthorKeys());
+        lock.writeLock().lock();
+        try {
+            catalog = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book, or replaces the indexed book with the same ID.
+     *
+     * @param book The book as stored.
+     */
+    public void put(Book book) {
+        lock.writeLock().lock();
+        try {
+            catalog.remove(book.getId());
+            catalog.add(book, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book.
+     *
+     * @param bookId The ID of the book.
+     * @return true if it was indexed.
+     */
+    public boolean remove(String bookId) {
+        lock.writeLock().lock();
+        try {
+            return catalog.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Completes a partly typed title.
+     *
+     * @param typed The text typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return Titles starting with the text (or with it after a leading article), the most common
+     *         first; empty if nothing was typed.
+     */
+    public List<String> suggestTitles(String typed, int limit) {
+        return suggest(typed, limit, true);
+    }
+
+    /**
+     * Completes a partly typed author name.
+     *
+     * @param typed The text typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return Author names with a word starting with the text, the authors with the most books
+     *         first; empty if nothing was typed.
+     */
+    public List<String> suggestAuthors(String typed, int limit) {
+        return suggest(typed, limit, false);
+    }
+
+    /**
+     * @return The number of indexed books.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return catalog.books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> suggest(String typed, int limit, boolean titles) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        String prefix = SearchText.normalize(typed);
+        if (prefix.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (Character.isWhitespace(typed.charAt(typed.length() - 1))) {
+            prefix += ' '; // A finished word: only longer titles or names with a next word
+        }
+        List<String> suggestions = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            CompletionTrie trie = titles ? catalog.titleTrie : catalog.authorTrie;
+            for (CompletionTrie.Completion completion : trie.complete(prefix, limit)) {
+                suggestions.add(completion.text);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    /**
+     * The keys a title is found under: the whole title and, after a leading article, the rest.
+     */
+    private static List<String> titleKeys(String normalizedTitle) {
+        List<String> keys = new ArrayList<>(2);
+        keys.add(normalizedTitle);
+        int space = normalizedTitle.indexOf(' ');
+        if (space > 0 && LEADING_ARTICLES.contains(normalizedTitle.substring(0, space))) {
+            keys.add(shortened(normalizedTitle, space));
+        }
+        return keys;
+    }
+
+    /**
+     * The keys an author is found under: the name from each of its words on.
+     */
+    private static List<String> authorKeys(String normalizedName) {
+        List<String> keys = new ArrayList<>();
+        keys.add(normalizedName);
+        for (int i = normalizedName.indexOf(' '); i >= 0; i = normalizedName.indexOf(' ', i + 1)) {
+            keys.add(shortened(normalizedName, i));
+        }
+        return keys;
+    }
+
+    /**
+     * @return The text after the space, marked as shortened and followed by the words before it.
+     */
+    private static String shortened(String normalized, int space) {
+        return normalized.substring(space + 1) + DROPPED_WORDS + normalized.substring(0, space);
+    }
+
+    /**
+     * The indexed books with their titles and author names counted, and the tries over them.
+     */
+    private static final class Catalog {
+        final Map<String, Indexed> books = new HashMap<>();                         // Book ID -> what it counts in
+        final Map<String, CompletionTrie.Completion> titles = new HashMap<>();  // Normalized title
+        final Map<String, CompletionTrie.Completion> authors = new HashMap<>(); // Normalized name
+        CompletionTrie titleTrie = new CompletionTrie();
+        CompletionTrie authorTrie = new CompletionTrie();
+
+        /**
+         * @param updateTries false while rebuilding; the tries are then built from all keys at the end.
+         */
+        void add(Book book, boolean updateTries) {
+            String title = SearchText.normalize(book.getTitle());
+            String author = SearchText.normalize(book.getAuthor());
+            books.put(book.getId(), new Indexed(title, author));
+            count(titles, title, book.getTitle(), 1, updateTries ? titleTrie : null, titleKeys(title));
+            count(authors, author, book.getAuthor(), 1, updateTries ? authorTrie : null, authorKeys(author));
+        }
+
+        boolean remove(String bookId) {
+            Indexed indexed = books.remove(bookId);
+            if (indexed == null) {
+                return false;
+            }
+            count(titles, indexed.title, null, -1, titleTrie, titleKeys(indexed.title));
+            count(authors, indexed.author, null, -1, authorTrie, authorKeys(indexed.author));
+            return true;
+        }
+
+        Map<String, CompletionTrie.Completion> allTitleKeys() {
+            return keys(titles, true);
+        }
+
+        Map<String, CompletionTrie.Completion> allAuthorKeys() {
+            return keys(authors, false);
+        }
+
+        private static Map<String, CompletionTrie.Completion> keys(Map<String, CompletionTrie.Completion> completions, boolean titles) {
+            Map<String, CompletionTrie.Completion> keys = new HashMap<>(completions.size() * 2);
+            for (Map.Entry<String, CompletionTrie.Completion> entry : completions.entrySet()) {
+                for (String key : titles ? titleKeys(entry.getKey()) : authorKeys(entry.getKey())) {
+                    keys.put(key, entry.getValue());
+                }
+            }
+            return keys;
+        }
+
+        /**
+         * Changes how many books have a title or name, adding or dropping its completion as needed.
+         *
+         * @param text The text as entered, shown when the value is new.
+         * @param trie The trie to update, or null while rebuilding.
+         */
+        private static void count(Map<String, CompletionTrie.Completion> completions, String normalized, String text, int change,
+                                  CompletionTrie trie, List<String> keys) {
+            if (normalized.isEmpty()) {
+                return;
+            }
+            CompletionTrie.Completion completion = completions.get(normalized);
+            if (completion == null) {
+                completion = new CompletionTrie.Completion(text.strip());
+                completions.put(normalized, completion);
+            }
+            completion.weight += change;
+            if (completion.weight == 0) {
+                completions.remove(normalized);
+            }
+            if (trie == null) {
+                return;
+            }
+            for (String key : keys) {
+                if (completion.weight == 0) {
+                    trie.remove(key);
+                } else {
+                    trie.put(key, completion);
+                }
+            }
+        }
+    }
+
+    private static final class Indexed {
+        final String title;  // Normalized
+        final String author; // Normalized
+
+        Indexed(String title, String author) {
+            this.title = title;
+            this.author = author;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.librarymanagementsystem.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Inverted index from the trigrams of a text to the documents containing them.
+ * <p>
+ * A document matches a query if it contains enough of the query's trigrams (the coverage, shared
+ * trigrams / query trigrams), so a query for part of a title matches the whole title. Matches are
+ * scored by the mean of the coverage and the trigram similarity of the two texts (as PostgreSQL's
+ * pg_trgm: shared trigrams / distinct trigrams of both texts together), so a document that is
+ * about as long as the query ranks above a longer one that contains it.
+ * <p>
+ * Documents are numbered by the caller with increasing ordinals, so every posting list is sorted.
+ * Postings are never removed: a changed document is added again under a new ordinal and the caller
+ * skips ordinals that are no longer live, then rebuilds the index when too many are dead.
+ * <p>
+ * A query first counts the shared trigrams in the shortest posting lists. A document must share at
+ * least {@code ceil(minCoverage * n)} of the query's {@code n} trigrams, so every match appears in
+ * at least one of the {@code n - ceil(minCoverage * n) + 1} shortest lists; the longest lists
+ * (trigrams such as "the") are only probed for those candidates.
+ * <p>
+ * Not thread-safe for writes; concurrent queries are fine. {@link FuzzyBookIndex} guards it with its lock.
+ */
+final class TrigramIndex {
+
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int[] trigramCounts = new int[1024]; // Per ordinal: number of distinct trigrams of the document
+    private int ordinalLimit;                     // Highest ordinal added + 1
+
+    // Per-query counters, one entry per ordinal; borrowed and handed back cleared
+    private final ConcurrentLinkedQueue<int[]> scratch = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Collects the distinct trigrams of a normalized text. Each word is padded with two spaces in
+     * front and one behind, so that its beginning weighs more than its middle: "war" gives
+     * "  w", " wa", "war" and "ar ".
+     *
+     * @param normalized Text returned by {@link SearchText#normalize(String)}.
+     * @return The trigrams encoded as longs (three 21-bit characters), sorted.
+     */
+    static long[] trigrams(String normalized) {
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        long[] trigrams = new long[normalized.length() * 2 + 2];
+        int count = 0;
+        int start = 0;
+        while (start < normalized.length()) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) {
+                end = normalized.length();
+            }
+            long a = ' ';
+            long b = ' ';
+            for (int i = start; i <= end; i++) {
+                long c = i < end ? normalized.charAt(i) : ' ';
+                trigrams[count++] = (a << 42) | (b << 21) | c;
+                a = b;
+                b = c;
+            }
+            start = end + 1;
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Indexes a document. Ordinals must increase from call to call.
+     *
+     * @param ordinal The document's ordinal.
+     * @param trigrams The document's trigrams, from {@link #trigrams(String)}.
+     */
+    void add(int ordinal, long[] trigrams) {
+        if (ordinal < ordinalLimit) {
+            throw new IllegalArgumentException("Ordinals must increase: " + ordinal + " after " + (ordinalLimit - 1));
+        }
+        if (ordinal >= trigramCounts.length) {
+            trigramCounts = Arrays.copyOf(trigramCounts, Math.max(ordinal + 1, trigramCounts.length * 2));
+        }
+        trigramCounts[ordinal] = trigrams.length;
+        ordinalLimit = ordinal + 1;
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new Postings()).add(ordinal);
+        }
+    }
+
+    /**
+     * Finds the documents that contain enough of the query's trigrams.
+     *
+     * @param query The query's trigrams, from {@link #trigrams(String)}.
+     * @param minCoverage The lowest share of the query's trigrams a match contains, above 0 and at most 1.
+     * @param matches Receives each matching ordinal with its score; the caller skips dead ordinals.
+     */
+    void search(long[] query, double minCoverage, Matches matches) {
+        int n = query.length;
+        if (n == 0) {
+            return;
+        }
+        int[][] lists = new int[n][];
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            Postings list = postings.get(query[i]);
+            lists[i] = list != null ? list.ordinals : NO_ORDINALS;
+            sizes[i] = list != null ? list.size : 0;
+        }
+        sortBySize(lists, sizes);
+
+        int required = Math.max((int) Math.ceil(minCoverage * n), 1);
+        int prefix = n - required + 1;
+        int[] counts = borrowScratch();
+        int[] candidates = new int[64];
+        int candidateCount = 0;
+        try {
+            // Every document that can reach the threshold shares a trigram from the shortest lists
+            for (int l = 0; l < prefix; l++) {
+                int[] list = lists[l];
+                for (int i = 0; i < sizes[l]; i++) {
+                    int ordinal = list[i];
+                    if (counts[ordinal]++ == 0) {
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        }
+                        candidates[candidateCount++] = ordinal;
+                    }
+                }
+            }
+            // The remaining, longest lists only matter for the candidates found so far
+            for (int l = prefix; l < n; l++) {
+                int[] list = lists[l];
+                int size = sizes[l];
+                if ((long) candidateCount * (32 - Integer.numberOfLeadingZeros(size + 1)) < size) {
+                    for (int c = 0; c < candidateCount; c++) {
+                        if (Arrays.binarySearch(list, 0, size, candidates[c]) >= 0) {
+                            counts[candidates[c]]++;
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        if (counts[list[i]] > 0) {
+                            counts[list[i]]++;
+                        }
+                    }
+                }
+            }
+            for (int c = 0; c < candidateCount; c++) {
+                int ordinal = candidates[c];
+                int shared = counts[ordinal];
+                if (shared >= required) {
+                    matches.accept(ordinal, score(n, trigramCounts[ordinal], shared));
+                }
+            }
+        } finally {
+            for (int c = 0; c < candidateCount; c++) {
+                counts[candidates[c]] = 0;
+            }
+            scratch.offer(counts);
+        }
+    }
+
+    /**
+     * Scores one document against a query without the index, for when the caller has already
+     * narrowed the candidates down to a few.
+     *
+     * @param query The query's trigrams.
+     * @param document The document's trigrams.
+     * @param minCoverage The lowest share of the query's trigrams a match contains.
+     * @return The score as {@link #search} reports it, or -1 if the document does not match.
+     */
+    static double score(long[] query, long[] document, double minCoverage) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < query.length && j < document.length) {
+            if (query[i] == document[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (query[i] < document[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        if (shared == 0 || shared < Math.ceil(minCoverage * query.length)) {
+            return -1;
+        }
+        return score(query.length, document.length, shared);
+    }
+
+    /**
+     * Mean of the coverage of the query and the trigram similarity of both texts.
+     */
+    private static double score(int queryTrigrams, int documentTrigrams, int shared) {
+        double coverage = (double) shared / queryTrigrams;
+        double similarity = (double) shared / (queryTrigrams + documentTrigrams - shared);
+        return (coverage + similarity) / 2;
+    }
+
+    private int[] borrowScratch() {
+        int[] counts;
+        while ((counts = scratch.poll()) != null) {
+            if (counts.length >= ordinalLimit) {
+                return counts;
+            }
+            // Too small since the index grew; let it be collected
+        }
+        return new int[Math.max(ordinalLimit, 1024) + ordinalLimit / 4];
+    }
+
+    private static void sortBySize(int[][] lists, int[] sizes) {
+        // Insertion sort: queries have a few dozen trigrams at most
+        for (int i = 1; i < sizes.length; i++) {
+            int[] list = lists[i];
+            int size = sizes[i];
+            int j = i - 1;
+            while (j >= 0 && sizes[j] > size) {
+                lists[j + 1] = lists[j];
+                sizes[j + 1] = sizes[j];
+                j--;
+            }
+            lists[j + 1] = list;
+            sizes[j + 1] = size;
+        }
+    }
+
+    /**
+     * Receives the documents matching a query.
+     */
+    @FunctionalInterface
+    interface Matches {
+        void accept(int ordinal, double score);
+    }
+
+    /**
+     * A growable, sorted list of ordinals.
+     */
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
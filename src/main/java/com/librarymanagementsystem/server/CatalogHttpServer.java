@@ -0,0 +1,1031 @@
+package com.librarymanagementsystem.server;
+
+import com.librarymanagementsystem.auth.Session;
+import com.librarymanagementsystem.auth.UserAuthenticator;
+import com.librarymanagementsystem.circulation.HoldAllocator;
+import com.librarymanagementsystem.dao.BookChangeSet;
+import com.librarymanagementsystem.dao.BookDAO;
+import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.LoanDAO;
+import com.librarymanagementsystem.dao.LoanResult;
+import com.librarymanagementsystem.dao.UpdateResult;
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.BookAvailability;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.model.CategoryTree;
+import com.librarymanagementsystem.model.Hold;
+import com.librarymanagementsystem.model.Loan;
+import com.librarymanagementsystem.search.FuzzyMatch;
+import com.librarymanagementsystem.search.SearchIndexingBookDAO;
+import com.librarymanagementsystem.util.DatabaseSession;
+import com.librarymanagementsystem.util.Validator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless JSON API over the catalog, built on the JDK's HttpServer.
+ * <p>
+ * Every request runs on its own virtual thread, so a request blocked on the database costs no
+ * platform thread, and all requests share the connection pool behind the DAOs. Responses are
+ * streamed as JSON straight to the socket. Connections are kept alive between requests (HTTP/1.1).
+ * <p>
+ * Endpoints (all under /api except /health):
+ * <pre>
+ * POST   /api/login              {"username","password"} -&gt; {"token","role"}
+ * POST   /api/logout
+ * GET    /api/books              ?title=&amp;author=&amp;categoryId=&amp;minYear=&amp;maxYear= (all optional)
+ *                                 &amp;includeSubcategories=true -&gt; also the books of the category's subcategories
+ * GET    /api/books              ?fuzzy=true&amp;title=&amp;author=&amp;limit= -&gt; closest first, typos allowed
+ * GET    /api/books/{id}
+ * POST   /api/books              {"id","title","author","categoryId","year"}      (ADMIN)
+ * PUT    /api/books/{id}         {"title","author","categoryId","year","version"} (ADMIN; version optional)
+ * DELETE /api/books/{id}                                                          (ADMIN)
+ * GET    /api/book-changes       ?since=&amp;limit= -&gt; {"watermark","hasMore","upserts","deleted"}
+ * GET    /api/categories         ?parentId= (optional; 0 for the top-level categories) -&gt; direct subcategories only
+ * GET    /api/categories/{id}
+ * POST   /api/categories         {"name","parentId"}                              (ADMIN; parentId optional)
+ * PUT    /api/categories/{id}    {"name","parentId","version"}                    (ADMIN; parentId, version optional)
+ * DELETE /api/categories/{id}                                                     (ADMIN; fails while it has subcategories)
+ * GET    /api/availability/{bookId} -&gt; {"bookId","totalCopies","availableCopies"}
+ * GET    /api/copies             ?bookId=
+ * GET    /api/copies/{barcode}
+ * POST   /api/copies             {"bookId","barcode"}                             (ADMIN)
+ * DELETE /api/copies/{barcode}                                                    (ADMIN; fails while on loan)
+ * GET    /api/loans              -&gt; the caller's open loans; ?username= or ?overdue=true (ADMIN)
+ * GET    /api/loans/{id}                                                          (the borrower or ADMIN)
+ * POST   /api/loans              {"barcode"} or {"bookId"} for any copy on the shelf, "username" (ADMIN; default: the caller)
+ * POST   /api/returns            {"barcode"} -&gt; the closed loan
+ * POST   /api/renewals           {"loanId","renewals"}                            (the borrower or ADMIN; renewals optional)
+ * GET    /api/holds              -&gt; the caller's waiting and ready holds; ?username= or ?bookId= for its queue (ADMIN)
+ * GET    /api/holds/{id}                                                          (the user or ADMIN)
+ * POST   /api/holds              {"bookId"}, "username" and "priority" (ADMIN; default: the caller, 0)
+ * DELETE /api/holds/{id}                                                          (the user or ADMIN)
+ * GET    /health
+ * </pre>
+ * The circulation endpoints (availability, copies, loans, returns, renewals) answer 404 when the
+ * server runs without a LoanDAO, and the holds endpoints without a HoldAllocator. A checkout of a
+ * copy that is already on loan, or set aside for another user's hold, answers 409. A waiting hold
+ * has its place in the queue as "position".
+ * Apart from login and health, requests need an {@code Authorization: Bearer <token>} header
+ * with a session token from /api/login. If the database is down or does not answer in time the
+ * request fails with 503 and a {@code Retry-After} header.
+ */
+public class CatalogHttpServer {
+
+    private static final Logger LOG = Logger.get(CatalogHttpServer.class);
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_CHANGES = 1000; // Per /api/book-changes response
+    private static final int DEFAULT_FUZZY_LIMIT = 20;
+    private static final int MAX_FUZZY_LIMIT = 200;
+    private static final int BACKLOG = 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    static {
+        // The JDK server leaves Nagle's algorithm on, which holds small keep-alive responses back
+        // by up to 40 ms waiting for the client's delayed ACK. Must be set before the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final BookDAO bookDAO;
+    private final CategoryDAO categoryDAO;
+    private final UserAuthenticator authenticator;
+    private final LoanDAO loanDAO; // null without circulation
+    private final HoldAllocator holds; // null without holds
+
+    /**
+     * Creates the server; call {@link #start()} to accept requests.
+     *
+     * @param address The address and port to listen on (port 0 picks a free port).
+     * @param bookDAO The BookDAO serving the book endpoints.
+     * @param categoryDAO The CategoryDAO serving the category endpoints.
+     * @param authenticator The UserAuthenticator for logins and permission checks.
+     * @throws IOException if the port cannot be bound.
+     */
+    public CatalogHttpServer(InetSocketAddress address, BookDAO bookDAO, CategoryDAO categoryDAO,
+                             UserAuthenticator authenticator) throws IOException {
+        this(address, bookDAO, categoryDAO, authenticator, null);
+    }
+
+    /**
+     * Creates the server with the circulation endpoints; call {@link #start()} to accept requests.
+     *
+     * @param address The address and port to listen on (port 0 picks a free port).
+     * @param bookDAO The BookDAO serving the book endpoints.
+     * @param categoryDAO The CategoryDAO serving the category endpoints.
+     * @param authenticator The UserAuthenticator for logins and permission checks.
+     * @param loanDAO The LoanDAO serving the copy and loan endpoints, or null to disable them.
+     * @throws IOException if the port cannot be bound.
+     */
+    public CatalogHttpServer(InetSocketAddress address, BookDAO bookDAO, CategoryDAO categoryDAO,
+                             UserAuthenticator authenticator, LoanDAO loanDAO) throws IOException {
+        this(address, bookDAO, categoryDAO, authenticator, loanDAO, null);
+    }
+
+    /**
+     * Creates the server with the circulation and holds endpoints; call {@link #start()} to accept requests.
+     *
+     * @param address The address and port to listen on (port 0 picks a free port).
+     * @param bookDAO The BookDAO serving the book endpoints.
+     * @param categoryDAO The CategoryDAO serving the category endpoints.
+     * @param authenticator The UserAuthenticator for logins and permission checks.
+     * @param loanDAO The LoanDAO serving the copy and loan endpoints, or null to disable them.
+     * @param holds The HoldAllocator serving the holds endpoints, or null to disable them.
+     * @throws IOException if the port cannot be bound.
+     */
+    public CatalogHttpServer(InetSocketAddress address, BookDAO bookDAO, CategoryDAO categoryDAO,
+                             UserAuthenticator authenticator, LoanDAO loanDAO, HoldAllocator holds) throws IOException {
+        this.bookDAO = bookDAO;
+        this.categoryDAO = categoryDAO;
+        this.authenticator = authenticator;
+        this.loanDAO = loanDAO;
+        this.holds = holds;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+
+        server.createContext("/health", exchange -> handle(exchange, this::health));
+        server.createContext("/api/login", exchange -> handle(exchange, this::login));
+        server.createContext("/api/logout", exchange -> handle(exchange, this::logout));
+        server.createContext("/api/books", exchange -> handle(exchange, this::books));
+        server.createContext("/api/categories", exchange -> handle(exchange, this::categories));
+        server.createContext("/api/book-changes", exchange -> handle(exchange, this::bookChanges));
+        server.createContext("/api/availability", exchange -> handle(exchange, this::availability));
+        server.createContext("/api/copies", exchange -> handle(exchange, this::copies));
+        server.createContext("/api/loans", exchange -> handle(exchange, this::loans));
+        server.createContext("/api/returns", exchange -> handle(exchange, this::returns));
+        server.createContext("/api/renewals", exchange -> handle(exchange, this::renewals));
+        server.createContext("/api/holds", exchange -> handle(exchange, this::holds));
+    }
+
+    /**
+     * Starts accepting requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given time for running requests to finish.
+     *
+     * @param delaySeconds The maximum time to wait for running requests.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // ---------------------------------------------------------------- Endpoints
+
+    private void health(HttpExchange exchange, String path) throws IOException {
+        requireMethod(exchange, "GET");
+        sendJson(exchange, 200, json -> json.beginObject().name("status").value("UP").endObject());
+    }
+
+    private void login(HttpExchange exchange, String path) throws IOException {
+        requireMethod(exchange, "POST");
+        Map<String, Object> body = readBody(exchange);
+        String token = authenticator.authenticate(requireString(body, "username"), requireString(body, "password"));
+        if (token == null) {
+            throw new ApiException(401, "Invalid username or password.");
+        }
+        String role = authenticator.getRole(token);
+        sendJson(exchange, 200, json -> json.beginObject().name("token").value(token).name("role").value(role).endObject());
+    }
+
+    private void logout(HttpExchange exchange, String path) throws IOException {
+        requireMethod(exchange, "POST");
+        authenticator.logout(requireSession(exchange).getToken());
+        sendNoContent(exchange);
+    }
+
+    private void books(HttpExchange exchange, String path) throws IOException {
+        requireSession(exchange);
+        String method = exchange.getRequestMethod();
+        if (path.isEmpty()) {
+            switch (method) {
+                case "GET" -> sendBooks(exchange, searchBooks(queryParameters(exchange)));
+                case "POST" -> {
+                    requireAdmin(exchange);
+                    Map<String, Object> body = readBody(exchange);
+                    Book book = toBook(requireString(body, "id"), body);
+                    if (bookDAO.getBookById(book.getId()) != null) {
+                        throw new ApiException(409, "A book with ID " + book.getId() + " already exists.");
+                    }
+                    if (!bookDAO.addBook(book)) {
+                        throw new ApiException(500, "Failed to add book.");
+                    }
+                    exchange.getResponseHeaders().set("Location", "/api/books/" + book.getId());
+                    sendJson(exchange, 201, json -> json.value(book));
+                }
+                default -> throw new ApiException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        String bookId = path;
+        switch (method) {
+            case "GET" -> {
+                Book book = bookDAO.getBookById(bookId);
+                if (book == null) {
+                    throw new ApiException(404, "Book not found: " + bookId);
+                }
+                sendJson(exchange, 200, json -> json.value(book));
+            }
+            case "PUT" -> {
+                requireAdmin(exchange);
+                Map<String, Object> body = readBody(exchange);
+                Book book = toBook(bookId, body);
+                Book stored = bookDAO.getBookById(bookId);
+                if (stored == null) {
+                    throw new ApiException(404, "Book not found: " + bookId);
+                }
+                // Clients that send the version they read get a 409 if it is stale; without one the update overwrites
+                book.setVersion(body.containsKey("version") ? requireInt(body, "version") : stored.getVersion());
+                checkUpdated(bookDAO.updateBook(book), "Book " + bookId);
+                sendJson(exchange, 200, json -> json.value(book));
+            }
+            case "DELETE" -> {
+                requireAdmin(exchange);
+                if (!bookDAO.deleteBook(bookId)) {
+                    throw new ApiException(404, "Book not found: " + bookId);
+                }
+                sendNoContent(exchange);
+            }
+            default -> throw new ApiException(405, "Method not allowed.");
+        }
+    }
+
+    /**
+     * Delta sync for clients that keep a copy of the catalog. Without {@code since} only the current
+     * watermark is returned: take it, load /api/books, then poll with {@code since} set to the last watermark.
+     * {@code reload} is true when the changes since the watermark are no longer kept: load /api/books again,
+     * then continue from the watermark returned with it.
+     */
+    private void bookChanges(HttpExchange exchange, String path) throws IOException {
+        requireSession(exchange);
+        requireMethod(exchange, "GET");
+        Map<String, String> query = queryParameters(exchange);
+        String since = query.get("since");
+        if (since == null || since.isEmpty()) {
+            long watermark = bookDAO.getChangeWatermark();
+            sendJson(exchange, 200, json -> json.beginObject().name("watermark").value(watermark).endObject());
+            return;
+        }
+        long watermark;
+        try {
+            watermark = Long.parseLong(since.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Query parameter 'since' must be a watermark returned earlier.");
+        }
+        int limit = intParameter(query, "limit");
+        BookChangeSet changes = bookDAO.getChangesSince(watermark, limit > 0 ? Math.min(limit, MAX_CHANGES) : MAX_CHANGES);
+        sendJson(exchange, 200, json -> {
+            json.beginObject()
+                    .name("watermark").value(changes.getWatermark())
+                    .name("hasMore").value(changes.hasMore())
+                    .name("reload").value(changes.isReloadRequired())
+                    .name("upserts").beginArray();
+            for (Book book : changes.getUpserts()) {
+                json.value(book);
+            }
+            json.endArray().name("deleted").beginArray();
+            for (String id : changes.getDeletedIds()) {
+                json.value(id);
+            }
+            json.endArray().name("categories").beginArray();
+            for (int id : changes.getChangedCategoryIds()) {
+                json.value(id);
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    private void categories(HttpExchange exchange, String path) throws IOException {
+        requireSession(exchange);
+        String method = exchange.getRequestMethod();
+        if (path.isEmpty()) {
+            switch (method) {
+                case "GET" -> {
+                    Map<String, String> query = queryParameters(exchange);
+                    List<Category> categories = query.containsKey("parentId")
+                            ? categoryDAO.getSubcategories(intParameter(query, "parentId")) : categoryDAO.getAllCategories();
+                    sendJson(exchange, 200, json -> {
+                        json.beginArray();
+                        for (Category category : categories) {
+                            json.value(category);
+                        }
+                        json.endArray();
+                    });
+                }
+                case "POST" -> {
+                    requireAdmin(exchange);
+                    Map<String, Object> body = readBody(exchange);
+                    Category category = new Category(requireCategoryName(body));
+                    if (categoryDAO.getCategoryByName(category.getName()) != null) {
+                        throw new ApiException(409, "Category '" + category.getName() + "' already exists.");
+                    }
+                    if (body.containsKey("parentId")) {
+                        category.setParentId(requireParent(body, 0));
+                    }
+                    if (!categoryDAO.addCategory(category)) {
+                        throw new ApiException(500, "Failed to add category.");
+                    }
+                    exchange.getResponseHeaders().set("Location", "/api/categories/" + category.getId());
+                    sendJson(exchange, 201, json -> json.value(category));
+                }
+                default -> throw new ApiException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        int categoryId;
+        try {
+            categoryId = Integer.parseInt(path);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Category not found: " + path);
+        }
+        switch (method) {
+            case "GET" -> {
+                Category category = categoryDAO.getCategoryById(categoryId);
+                if (category == null) {
+                    throw new ApiException(404, "Category not found: " + categoryId);
+                }
+                sendJson(exchange, 200, json -> json.value(category));
+            }
+            case "PUT" -> {
+                requireAdmin(exchange);
+                Map<String, Object> body = readBody(exchange);
+                Category category = new Category(categoryId, requireCategoryName(body));
+                Category stored = categoryDAO.getCategoryById(categoryId);
+                if (stored == null) {
+                    throw new ApiException(404, "Category not found: " + categoryId);
+                }
+                category.setVersion(body.containsKey("version") ? requireInt(body, "version") : stored.getVersion());
+                category.setParentId(body.containsKey("parentId") ? requireParent(body, categoryId) : stored.getParentId());
+                checkUpdated(categoryDAO.updateCategory(category), "Category " + categoryId);
+                sendJson(exchange, 200, json -> json.value(category));
+            }
+            case "DELETE" -> {
+                requireAdmin(exchange);
+                if (!categoryDAO.getSubcategories(categoryId).isEmpty()) {
+                    throw new ApiException(409, "Category " + categoryId + " has subcategories. Move or delete them first.");
+                }
+                if (!categoryDAO.deleteCategory(categoryId)) {
+                    throw new ApiException(404, "Category not found: " + categoryId);
+                }
+                sendNoContent(exchange);
+            }
+            default -> throw new ApiException(405, "Method not allowed.");
+        }
+    }
+
+    private void availability(HttpExchange exchange, String path) throws IOException {
+        requireSession(exchange);
+        requireMethod(exchange, "GET");
+        LoanDAO loans = requireCirculation();
+        if (path.isEmpty()) {
+            throw new ApiException(404, "Not found.");
+        }
+        BookAvailability availability = loans.getAvailability(path);
+        sendJson(exchange, 200, json -> json.value(availability));
+    }
+
+    private void copies(HttpExchange exchange, String path) throws IOException {
+        requireSession(exchange);
+        LoanDAO loans = requireCirculation();
+        String method = exchange.getRequestMethod();
+        if (path.isEmpty()) {
+            switch (method) {
+                case "GET" -> {
+                    String bookId = queryParameters(exchange).get("bookId");
+                    if (bookId == null || bookId.isEmpty()) {
+                        throw new ApiException(400, "Query parameter 'bookId' is required.");
+                    }
+                    List<BookCopy> copies = loans.getCopies(bookId);
+                    sendJson(exchange, 200, json -> {
+                        json.beginArray();
+                        for (BookCopy copy : copies) {
+                            json.value(copy);
+                        }
+                        json.endArray();
+                    });
+                }
+                case "POST" -> {
+                    requireAdmin(exchange);
+                    Map<String, Object> body = readBody(exchange);
+                    BookCopy copy = new BookCopy(requireString(body, "bookId"), requireBarcode(body));
+                    if (bookDAO.getBookById(copy.getBookId()) == null) {
+                        throw new ApiException(400, "Book not found: " + copy.getBookId());
+                    }
+                    if (loans.getCopy(copy.getBarcode()) != null) {
+                        throw new ApiException(409, "A copy with barcode " + copy.getBarcode() + " already exists.");
+                    }
+                    if (!loans.addCopy(copy)) {
+                        throw new ApiException(500, "Failed to add copy.");
+                    }
+                    exchange.getResponseHeaders().set("Location", "/api/copies/" + copy.getBarcode());
+                    sendJson(exchange, 201, json -> json.value(copy));
+                }
+                default -> throw new ApiException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        String barcode = path;
+        switch (method) {
+            case "GET" -> {
+                BookCopy copy = loans.getCopy(barcode);
+                if (copy == null) {
+                    throw new ApiException(404, "Copy not found: " + barcode);
+                }
+                sendJson(exchange, 200, json -> json.value(copy));
+            }
+            case "DELETE" -> {
+                requireAdmin(exchange);
+                if (!loans.removeCopy(barcode)) {
+                    BookCopy copy = loans.getCopy(barcode);
+                    if (copy == null) {
+                        throw new ApiException(404, "Copy not found: " + barcode);
+                    }
+                    throw new ApiException(409, "Copy " + barcode + " is on loan. Return it first.");
+                }
+                sendNoContent(exchange);
+            }
+            default -> throw new ApiException(405, "Method not allowed.");
+        }
+    }
+
+    private void loans(HttpExchange exchange, String path) throws IOException {
+        Session session = requireSession(exchange);
+        LoanDAO loans = requireCirculation();
+        String method = exchange.getRequestMethod();
+        if (path.isEmpty()) {
+            switch (method) {
+                case "GET" -> {
+                    Map<String, String> query = queryParameters(exchange);
+                    List<Loan> result;
+                    if ("true".equalsIgnoreCase(query.get("overdue"))) {
+                        requireAdmin(exchange, "Only ADMIN users can see the overdue loans.");
+                        result = loans.getOverdueLoans(LocalDate.now());
+                    } else {
+                        String username = query.getOrDefault("username", "");
+                        if (!username.isEmpty() && !username.equals(session.getUsername())) {
+                            requireAdmin(exchange, "Only ADMIN users can see the loans of other users.");
+                        }
+                        result = loans.getOpenLoans(username.isEmpty() ? session.getUsername() : username);
+                    }
+                    sendLoans(exchange, result);
+                }
+                case "POST" -> {
+                    Map<String, Object> body = readBody(exchange);
+                    String username = session.getUsername();
+                    if (body.containsKey("username")) {
+                        username = requireString(body, "username");
+                        if (!username.equals(session.getUsername())) {
+                            // A desk checks out for a patron; a kiosk only for the logged-in user
+                            requireAdmin(exchange, "Only ADMIN users can check out copies for other users.");
+                        }
+                        if (!Validator.isValidUsername(username)) {
+                            throw new ApiException(400, "Invalid username.");
+                        }
+                    }
+                    Loan loan;
+                    if (body.containsKey("barcode")) {
+                        loan = new Loan(null, requireBarcode(body), username);
+                    } else if (body.containsKey("bookId")) {
+                        loan = new Loan(requireString(body, "bookId"), null, username);
+                    } else {
+                        throw new ApiException(400, "Either 'barcode' or 'bookId' is required.");
+                    }
+                    switch (loans.checkout(loan)) {
+                        case DONE -> {
+                            exchange.getResponseHeaders().set("Location", "/api/loans/" + loan.getId());
+                            sendJson(exchange, 201, json -> json.value(loan));
+                        }
+                        case NOT_FOUND -> throw new ApiException(404, loan.getBarcode() != null
+                                ? "Copy not found: " + loan.getBarcode() : "Book not found: " + loan.getBookId());
+                        default -> throw new ApiException(409, loan.getBarcode() != null
+                                ? "Copy " + loan.getBarcode() + " is on loan or set aside for another user."
+                                : "No copy of book " + loan.getBookId() + " is on the shelf.");
+                    }
+                }
+                default -> throw new ApiException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        requireMethod(exchange, "GET");
+        Loan loan = requireOwnLoan(exchange, session, loans, path);
+        sendJson(exchange, 200, json -> json.value(loan));
+    }
+
+    private void returns(HttpExchange exchange, String path) throws IOException {
+        requireSession(exchange);
+        requireMethod(exchange, "POST");
+        LoanDAO loans = requireCirculation();
+        Loan loan = new Loan(null, requireBarcode(readBody(exchange)), null);
+        switch (loans.returnCopy(loan)) {
+            case DONE -> sendJson(exchange, 200, json -> json.value(loan));
+            case NOT_FOUND -> throw new ApiException(404, "Copy not found: " + loan.getBarcode());
+            default -> throw new ApiException(409, "Copy " + loan.getBarcode() + " is not on loan.");
+        }
+    }
+
+    private void renewals(HttpExchange exchange, String path) throws IOException {
+        Session session = requireSession(exchange);
+        requireMethod(exchange, "POST");
+        LoanDAO loans = requireCirculation();
+        Map<String, Object> body = readBody(exchange);
+        Object loanId = body.get("loanId");
+        if (!(loanId instanceof Long)) {
+            throw new ApiException(400, "Missing or non-integer field 'loanId'.");
+        }
+        Loan loan = requireOwnLoan(exchange, session, loans, loanId.toString());
+        // Clients that send the renewal count they read get a 409 if someone renewed in between
+        if (body.containsKey("renewals")) {
+            loan.setRenewals(requireInt(body, "renewals"));
+        }
+        switch (loans.renew(loan)) {
+            case DONE -> sendJson(exchange, 200, json -> json.value(loan));
+            case NOT_FOUND -> throw new ApiException(404, "Loan not found: " + loanId);
+            case NOT_ON_LOAN -> throw new ApiException(409, "Loan " + loanId + " was already returned.");
+            case RENEWAL_LIMIT -> throw new ApiException(409, "Loan " + loanId + " cannot be renewed again.");
+            case HOLDS_WAITING -> throw new ApiException(409, "Loan " + loanId + " cannot be renewed: other users are waiting for the book.");
+            default -> throw new ApiException(409, "Loan " + loanId + " was renewed by someone else. Reload it and try again.");
+        }
+    }
+
+    private void holds(HttpExchange exchange, String path) throws IOException {
+        Session session = requireSession(exchange);
+        HoldAllocator allocator = requireHolds();
+        String method = exchange.getRequestMethod();
+        if (path.isEmpty()) {
+            switch (method) {
+                case "GET" -> {
+                    Map<String, String> query = queryParameters(exchange);
+                    String bookId = query.getOrDefault("bookId", "");
+                    List<Hold> result;
+                    if (!bookId.isEmpty()) {
+                        requireAdmin(exchange, "Only ADMIN users can see the queue of a book.");
+                        result = allocator.getQueue(bookId);
+                    } else {
+                        String username = query.getOrDefault("username", "");
+                        if (!username.isEmpty() && !username.equals(session.getUsername())) {
+                            requireAdmin(exchange, "Only ADMIN users can see the holds of other users.");
+                        }
+                        result = allocator.getHolds(username.isEmpty() ? session.getUsername() : username);
+                    }
+                    sendHolds(exchange, allocator, result);
+                }
+                case "POST" -> {
+                    Map<String, Object> body = readBody(exchange);
+                    String username = session.getUsername();
+                    if (body.containsKey("username")) {
+                        username = requireString(body, "username");
+                        if (!username.equals(session.getUsername())) {
+                            requireAdmin(exchange, "Only ADMIN users can place holds for other users.");
+                        }
+                        if (!Validator.isValidUsername(username)) {
+                            throw new ApiException(400, "Invalid username.");
+                        }
+                    }
+                    int priority = body.containsKey("priority") ? requireInt(body, "priority") : 0;
+                    if (priority != 0) {
+                        requireAdmin(exchange, "Only ADMIN users can place holds with a priority.");
+                    }
+                    Hold hold = new Hold(requireString(body, "bookId"), username, priority);
+                    switch (allocator.placeHold(hold)) {
+                        case DONE -> {
+                            int position = allocator.position(hold.getId());
+                            exchange.getResponseHeaders().set("Location", "/api/holds/" + hold.getId());
+                            sendJson(exchange, 201, json -> json.value(hold, position));
+                        }
+                        case NOT_FOUND -> throw new ApiException(404, "Book not found: " + hold.getBookId());
+                        default -> throw new ApiException(409, "User " + username + " already has a hold on book " + hold.getBookId()
+                                + " or a copy of it on loan.");
+                    }
+                }
+                default -> throw new ApiException(405, "Method not allowed.");
+            }
+            return;
+        }
+
+        Hold hold = requireOwnHold(exchange, session, allocator, path);
+        switch (method) {
+            case "GET" -> {
+                int position = allocator.position(hold.getId());
+                sendJson(exchange, 200, json -> json.value(hold, position));
+            }
+            case "DELETE" -> {
+                switch (allocator.cancelHold(hold)) {
+                    case DONE -> sendNoContent(exchange);
+                    case NOT_FOUND -> throw new ApiException(404, "Hold not found: " + path);
+                    default -> throw new ApiException(409, "Hold " + path + " was already fulfilled, cancelled or expired.");
+                }
+            }
+            default -> throw new ApiException(405, "Method not allowed.");
+        }
+    }
+
+    private HoldAllocator requireHolds() {
+        if (holds == null) {
+            throw new ApiException(404, "Holds are not enabled on this server.");
+        }
+        return holds;
+    }
+
+    /**
+     * Reads a hold that the caller placed, or any hold for an ADMIN.
+     */
+    private Hold requireOwnHold(HttpExchange exchange, Session session, HoldAllocator allocator, String id) {
+        long holdId;
+        try {
+            holdId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Hold not found: " + id);
+        }
+        Hold hold = allocator.getHold(holdId);
+        if (hold == null) {
+            throw new ApiException(404, "Hold not found: " + holdId);
+        }
+        if (!hold.getUsername().equals(session.getUsername())) {
+            requireAdmin(exchange, "Only the user who placed the hold or an ADMIN user can see or cancel it.");
+        }
+        return hold;
+    }
+
+    private LoanDAO requireCirculation() {
+        if (loanDAO == null) {
+            throw new ApiException(404, "Circulation is not enabled on this server.");
+        }
+        return loanDAO;
+    }
+
+    /**
+     * Reads a loan that the caller borrowed, or any loan for an ADMIN.
+     */
+    private Loan requireOwnLoan(HttpExchange exchange, Session session, LoanDAO loans, String id) {
+        long loanId;
+        try {
+            loanId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Loan not found: " + id);
+        }
+        Loan loan = loans.getLoan(loanId);
+        if (loan == null) {
+            throw new ApiException(404, "Loan not found: " + loanId);
+        }
+        if (!loan.getUsername().equals(session.getUsername())) {
+            requireAdmin(exchange, "Only the borrower or an ADMIN user can see or renew this loan.");
+        }
+        return loan;
+    }
+
+    private static String requireBarcode(Map<String, Object> body) {
+        String barcode = requireString(body, "barcode").trim();
+        if (!Validator.isValidBarcode(barcode)) {
+            throw new ApiException(400, "Invalid barcode. It must be non-empty and at most 50 characters.");
+        }
+        return barcode;
+    }
+
+    /**
+     * Picks the most specific DAO call for the given filters, as the Swing client does.
+     */
+    private List<Book> searchBooks(Map<String, String> query) {
+        String title = query.getOrDefault("title", "");
+        String author = query.getOrDefault("author", "");
+        if ("true".equalsIgnoreCase(query.get("fuzzy"))) {
+            return fuzzySearchBooks(title, author, intParameter(query, "limit"));
+        }
+        int categoryId = intParameter(query, "categoryId");
+        boolean includeSubcategories = "true".equalsIgnoreCase(query.get("includeSubcategories"));
+        int minYear = intParameter(query, "minYear");
+        int maxYear = intParameter(query, "maxYear");
+
+        boolean hasTitle = !title.isEmpty();
+        boolean hasOther = !author.isEmpty() || minYear > 0 || maxYear > 0;
+        if (!hasTitle && !hasOther && categoryId <= 0) {
+            return bookDAO.getAllBooks();
+        }
+        if (hasTitle && !hasOther && categoryId <= 0) {
+            return bookDAO.searchBooksByTitle(title);
+        }
+        if (!hasTitle && !hasOther) {
+            return bookDAO.getBooksByCategory(categoryId, includeSubcategories);
+        }
+        return bookDAO.advancedSearch(title, author, categoryId, includeSubcategories, minYear, maxYear);
+    }
+
+    /**
+     * Typo-tolerant search by title and/or author, most similar first.
+     */
+    private List<Book> fuzzySearchBooks(String title, String author, int limit) {
+        if (!(bookDAO instanceof SearchIndexingBookDAO indexingBookDAO) || !indexingBookDAO.hasFuzzySearch()) {
+            throw new ApiException(400, "Fuzzy search is not enabled on this server.");
+        }
+        if (title.isBlank() && author.isBlank()) {
+            throw new ApiException(400, "Fuzzy search needs a title or an author.");
+        }
+        List<Book> books = new ArrayList<>();
+        for (FuzzyMatch match : indexingBookDAO.fuzzySearch(title, author, limit > 0 ? Math.min(limit, MAX_FUZZY_LIMIT) : DEFAULT_FUZZY_LIMIT)) {
+            books.add(match.getBook());
+        }
+        return books;
+    }
+
+    private Book toBook(String id, Map<String, Object> body) {
+        String title = requireString(body, "title");
+        String author = requireString(body, "author");
+        int categoryId = requireInt(body, "categoryId");
+        int year = requireInt(body, "year");
+
+        // Same rules as the book form in BookManagementView
+        if (!Validator.isValidBookId(id)) {
+            throw new ApiException(400, "Invalid Book ID. It must be non-empty and at most 50 characters.");
+        }
+        if (!Validator.isValidTitle(title)) {
+            throw new ApiException(400, "Invalid Title. It must be non-empty and at most 255 characters.");
+        }
+        if (!Validator.isValidAuthor(author)) {
+            throw new ApiException(400, "Invalid Author. It must be non-empty and at most 255 characters.");
+        }
+        if (!Validator.isValidYear(String.valueOf(year))) {
+            throw new ApiException(400, "Invalid Year. Please enter a valid year (e.g., 1000-current year).");
+        }
+        if (categoryDAO.getCategoryById(categoryId) == null) {
+            throw new ApiException(400, "Category not found: " + categoryId);
+        }
+        return new Book(id, title, author, categoryId, year);
+    }
+
+    /**
+     * Reads and checks the parentId of a category: 0 for a top-level category, otherwise an existing
+     * category that is not the category itself or below it.
+     *
+     * @param categoryId The category being changed, or 0 for a new one.
+     */
+    private int requireParent(Map<String, Object> body, int categoryId) {
+        int parentId = Math.max(requireInt(body, "parentId"), 0);
+        if (parentId == 0) {
+            return 0;
+        }
+        CategoryTree tree = CategoryTree.of(categoryDAO.getAllCategories());
+        if (!tree.contains(parentId)) {
+            throw new ApiException(400, "Parent category not found: " + parentId);
+        }
+        if (categoryId > 0 && tree.isInSubtree(parentId, categoryId)) {
+            throw new ApiException(400, "A category cannot be moved below itself or one of its subcategories.");
+        }
+        return parentId;
+    }
+
+    private static String requireCategoryName(Map<String, Object> body) {
+        String name = requireString(body, "name");
+        if (!Validator.isValidCategoryName(name)) {
+            throw new ApiException(400, "Category name cannot be empty.");
+        }
+        return name;
+    }
+
+    // ---------------------------------------------------------------- Request plumbing
+
+    @FunctionalInterface
+    private interface Endpoint {
+        void handle(HttpExchange exchange, String path) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * Error that is reported to the client with the given HTTP status.
+     */
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) {
+        // Each API session gets its own read-your-writes window on the primary database
+        DatabaseSession.set(bearerToken(exchange));
+        try {
+            String context = exchange.getHttpContext().getPath();
+            String rawPath = exchange.getRequestURI().getRawPath();
+            String rest = rawPath.length() > context.length() ? rawPath.substring(context.length()) : "";
+            if (!rest.isEmpty() && !rest.startsWith("/")) {
+                throw new ApiException(404, "Not found.");
+            }
+            rest = rest.startsWith("/") ? rest.substring(1) : rest;
+            if (rest.contains("/")) {
+                throw new ApiException(404, "Not found.");
+            }
+            endpoint.handle(exchange, URLDecoder.decode(rest, StandardCharsets.UTF_8));
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IOException e) {
+            // The client went away; nothing left to answer
+        } catch (DataAccessException e) {
+            // Database down or too slow: tell the client to come back instead of reporting a server bug
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, "Database unavailable, please retry.");
+        } catch (RuntimeException e) {
+            LOG.at(Level.ERROR).with("method", exchange.getRequestMethod()).with("uri", exchange.getRequestURI().toString())
+                    .cause(e).log("Error handling request: {}", e.getMessage());
+            sendError(exchange, 500, "Internal server error.");
+        } finally {
+            DatabaseSession.clear();
+            exchange.close();
+        }
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private Session requireSession(HttpExchange exchange) {
+        Session session = authenticator.getSession(bearerToken(exchange));
+        if (session == null) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            throw new ApiException(401, "Login required.");
+        }
+        return session;
+    }
+
+    private void requireAdmin(HttpExchange exchange) {
+        requireAdmin(exchange, "Only ADMIN users can change the catalog.");
+    }
+
+    private void requireAdmin(HttpExchange exchange, String message) {
+        if (!"ADMIN".equalsIgnoreCase(requireSession(exchange).getRole())) {
+            throw new ApiException(403, message);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new ApiException(405, "Method not allowed.");
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body too large.");
+            }
+            return JsonReader.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Maps an unsuccessful optimistic update to its HTTP status.
+     */
+    private static void checkUpdated(UpdateResult result, String what) {
+        switch (result) {
+            case UPDATED -> {
+            }
+            case CONFLICT -> throw new ApiException(409, what + " was changed by someone else. Reload it and try again.");
+            case NOT_FOUND -> throw new ApiException(404, what + " not found.");
+            case REJECTED -> throw new ApiException(500, "Failed to update " + what + ".");
+        }
+    }
+
+    private static String requireString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String text)) {
+            throw new ApiException(400, "Missing or non-string field '" + name + "'.");
+        }
+        return text;
+    }
+
+    private static int requireInt(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Long number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new ApiException(400, "Missing or non-integer field '" + name + "'.");
+        }
+        return number.intValue();
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, StandardCharsets.UTF_8);
+            String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8) : "";
+            parameters.put(name, value);
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        if (!Validator.isValidInteger(value)) {
+            throw new ApiException(400, "Query parameter '" + name + "' must be an integer.");
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    private static void sendBooks(HttpExchange exchange, List<Book> books) throws IOException {
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (Book book : books) {
+                json.value(book);
+            }
+            json.endArray();
+        });
+    }
+
+    private static void sendLoans(HttpExchange exchange, List<Loan> loans) throws IOException {
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (Loan loan : loans) {
+                json.value(loan);
+            }
+            json.endArray();
+        });
+    }
+
+    private static void sendHolds(HttpExchange exchange, HoldAllocator allocator, List<Hold> holds) throws IOException {
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (Hold hold : holds) {
+                json.value(hold, allocator.position(hold.getId()));
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * Streams a JSON response with chunked transfer encoding, so its size need not be known up front.
+     */
+    private static void sendJson(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, 0);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192)) {
+            body.write(new JsonWriter(writer));
+        }
+    }
+
+    private static void sendNoContent(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            sendJson(exchange, status, json -> json.beginObject().name("error").value(message).endObject());
+        } catch (IOException e) {
+            // Headers already sent or client gone; the exchange is closed by the caller
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.librarymanagementsystem.server;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.BookAvailability;
+import com.librarymanagementsystem.model.BookCopy;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.model.Hold;
+import com.librarymanagementsystem.model.Loan;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming JSON writer. Values are written straight to the underlying Writer as they are
+ * produced, so a large result is never built up as one string in memory.
+ */
+public class JsonWriter {
+
+    private final Writer out;
+    private final boolean[] hasElements = new boolean[32]; // Per nesting level: whether a comma is needed
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * @param out The writer to write to; it is not closed by this class.
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes an object member name; the next call must write its value.
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a book as an object with the fields id, title, author, categoryId, year and version.
+     */
+    public JsonWriter value(Book book) throws IOException {
+        return beginObject()
+                .name("id").value(book.getId())
+                .name("title").value(book.getTitle())
+                .name("author").value(book.getAuthor())
+                .name("categoryId").value(book.getCategory())
+                .name("year").value(book.getYear())
+                .name("version").value(book.getVersion())
+                .endObject();
+    }
+
+    /**
+     * Writes a category as an object with the fields id, name, parentId (0 for a top-level category) and version.
+     */
+    public JsonWriter value(Category category) throws IOException {
+        return beginObject()
+                .name("id").value(category.getId())
+                .name("name").value(category.getName())
+                .name("parentId").value(category.getParentId())
+                .name("version").value(category.getVersion())
+                .endObject();
+    }
+
+    /**
+     * Writes a copy as an object with the fields id, bookId, barcode and onLoan.
+     */
+    public JsonWriter value(BookCopy copy) throws IOException {
+        return beginObject()
+                .name("id").value(copy.getId())
+                .name("bookId").value(copy.getBookId())
+                .name("barcode").value(copy.getBarcode())
+                .name("onLoan").value(copy.isOnLoan())
+                .name("onHold").value(copy.isOnHold())
+                .endObject();
+    }
+
+    /**
+     * Writes availability as an object with the fields bookId, totalCopies and availableCopies.
+     */
+    public JsonWriter value(BookAvailability availability) throws IOException {
+        return beginObject()
+                .name("bookId").value(availability.getBookId())
+                .name("totalCopies").value(availability.getTotalCopies())
+                .name("availableCopies").value(availability.getAvailableCopies())
+                .endObject();
+    }
+
+    /**
+     * Writes a loan as an object with the fields id, barcode, bookId, username, checkoutDate, dueDate,
+     * returnDate (null while open) and renewals; dates as yyyy-MM-dd.
+     */
+    public JsonWriter value(Loan loan) throws IOException {
+        return beginObject()
+                .name("id").value(loan.getId())
+                .name("barcode").value(loan.getBarcode())
+                .name("bookId").value(loan.getBookId())
+                .name("username").value(loan.getUsername())
+                .name("checkoutDate").value(loan.getCheckoutDate() != null ? loan.getCheckoutDate().toString() : null)
+                .name("dueDate").value(loan.getDueDate() != null ? loan.getDueDate().toString() : null)
+                .name("returnDate").value(loan.getReturnDate() != null ? loan.getReturnDate().toString() : null)
+                .name("renewals").value(loan.getRenewals())
+                .endObject();
+    }
+
+    /**
+     * Writes a hold as an object with the fields id, bookId, username, priority, status, placedOn,
+     * expiresOn, barcode (of the copy set aside, or null) and position (in the queue while waiting,
+     * or null); dates as yyyy-MM-dd.
+     *
+     * @param position The place of the hold in its book's queue, or 0 if it is not waiting.
+     */
+    public JsonWriter value(Hold hold, int position) throws IOException {
+        beginObject()
+                .name("id").value(hold.getId())
+                .name("bookId").value(hold.getBookId())
+                .name("username").value(hold.getUsername())
+                .name("priority").value(hold.getPriority())
+                .name("status").value(hold.getStatus() != null ? hold.getStatus().name() : null)
+                .name("placedOn").value(hold.getPlacedOn() != null ? hold.getPlacedOn().toString() : null)
+                .name("expiresOn").value(hold.getExpiresOn() != null ? hold.getExpiresOn().toString() : null)
+                .name("barcode").value(hold.getBarcode())
+                .name("position");
+        return (position > 0 ? value(position) : value((String) null)).endObject();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        out.write(bracket);
+        if (++depth >= hasElements.length) {
+            throw new IllegalStateException("JSON nesting too deep");
+        }
+        hasElements[depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("No open JSON object or array");
+        }
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false; // A member value follows its name directly
+            return;
+        }
+        if (hasElements[depth]) {
+            out.write(',');
+        }
+        hasElements[depth] = true;
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c == '\n') {
+                escape = "\\n";
+            } else if (c == '\r') {
+                escape = "\\r";
+            } else if (c == '\t') {
+                escape = "\\t";
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                escape = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            out.write(value, start, i - start);
+            out.write(escape);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
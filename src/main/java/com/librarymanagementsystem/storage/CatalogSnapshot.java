@@ -0,0 +1,419 @@
+package com.librarymanagementsystem.storage;
+
+import com.librarymanagementsystem.logging.Logger;
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.Category;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.zip.CRC32C;
+
+/**
+ * A copy of the catalog (books and categories) in a binary file on local disk, so that a client can
+ * show the catalog at start-up without reading every book from the database.
+ * <p>
+ * The file is memory-mapped and read in place. Records have a fixed width and refer to their strings
+ * by offset, so book {@code i} is found at a computed position and decoded only when it is asked for:
+ * opening a snapshot checks its header and checksum and parses nothing else. Books are sorted by ID,
+ * so {@link #indexOf(String)} is a binary search.
+ * <p>
+ * Two files are kept and written in turn, each to a temporary file that is then renamed, so the file
+ * a running client has mapped is never overwritten and a torn write leaves the previous snapshot
+ * intact. The valid file with the highest generation is the current one.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic           "LMSC"
+ *   int    format          FORMAT_VERSION; files of other versions are ignored
+ *   long   generation      one more than the snapshot written before
+ *   long   watermark       the change log watermark the books are current at
+ *   int    source          the string naming the database the snapshot was taken from
+ *   int    stringsLength
+ *   int    categoryCount
+ *   int    bookCount
+ *   int    crc             CRC-32C of everything after the header
+ *   byte[] strings         per string: int length (-1 for null), UTF-8 bytes; referred to by offset
+ *   categoryCount x 16     int id, int version, int name, int parentId
+ *   bookCount x 24         int id, int title, int author, int categoryId, int year, int version
+ * </pre>
+ */
+public final class CatalogSnapshot {
+
+    private static final Logger LOG = Logger.get(CatalogSnapshot.class);
+
+    private static final String[] FILES = {"catalog-1.snapshot", "catalog-2.snapshot"};
+    private static final int MAGIC = 0x4C4D5343; // "LMSC"
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_SIZE = 44;
+    private static final int GENERATION = 8;
+    private static final int WATERMARK = 16;
+    private static final int SOURCE = 24;
+    private static final int STRINGS_LENGTH = 28;
+    private static final int CATEGORY_COUNT = 32;
+    private static final int BOOK_COUNT = 36;
+    private static final int CRC = 40;
+
+    private static final int CATEGORY_SIZE = 16;
+    private static final int BOOK_SIZE = 24;
+
+    private final Path file;
+    private final ByteBuffer buffer; // Read with absolute gets only, so it can be shared by threads
+    private final long generation;
+    private final long watermark;
+    private final int categoryCount;
+    private final int bookCount;
+    private final int categoriesBase;
+    private final int booksBase;
+
+    private CatalogSnapshot(Path file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        this.generation = buffer.getLong(GENERATION);
+        this.watermark = buffer.getLong(WATERMARK);
+        this.categoryCount = buffer.getInt(CATEGORY_COUNT);
+        this.bookCount = buffer.getInt(BOOK_COUNT);
+        this.categoriesBase = HEADER_SIZE + buffer.getInt(STRINGS_LENGTH);
+        this.booksBase = categoriesBase + categoryCount * CATEGORY_SIZE;
+    }
+
+    /**
+     * Opens the current snapshot in a directory.
+     *
+     * @param directory The directory of the snapshot files.
+     * @param source The database the caller reads from; a snapshot of another one is not used.
+     * @return The snapshot, or null if there is none, it is damaged, or it was taken from another source.
+     * @throws IOException if the file could not be read.
+     */
+    public static CatalogSnapshot open(Path directory, String source) throws IOException {
+        Path newest = null;
+        long newestGeneration = 0;
+        for (String name : FILES) {
+            Path file = directory.resolve(name);
+            long generation = readGeneration(file);
+            if (generation > newestGeneration) {
+                newest = file;
+                newestGeneration = generation;
+            }
+        }
+        if (newest == null) {
+            return null;
+        }
+
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                LOG.warn("Ignoring catalog snapshot {}: larger than 2 GB", newest);
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after closing
+        }
+        if (!isIntact(mapped)) {
+            LOG.warn("Ignoring damaged catalog snapshot {}", newest);
+            return null;
+        }
+        CatalogSnapshot snapshot = new CatalogSnapshot(newest, mapped);
+        return source.equals(snapshot.readString(mapped.getInt(SOURCE))) ? snapshot : null;
+    }
+
+    /**
+     * Writes a new snapshot, replacing the older of the two files, so a snapshot opened by
+     * {@link #open(Path, String)} stays untouched.
+     *
+     * @param directory The directory of the snapshot files; created if missing.
+     * @param source The database the data was read from.
+     * @param watermark The change log watermark the books are current at.
+     * @param categories The categories.
+     * @param books The books, in any order.
+     * @throws IOException if the snapshot could not be written; the previous one is then still current.
+     */
+    public static void write(Path directory, String source, long watermark, List<Category> categories, List<Book> books) throws IOException {
+        Files.createDirectories(directory);
+        long generation0 = readGeneration(directory.resolve(FILES[0]));
+        long generation1 = readGeneration(directory.resolve(FILES[1]));
+        Path target = directory.resolve(generation0 <= generation1 ? FILES[0] : FILES[1]);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        List<Book> sorted = new ArrayList<>(books);
+        sorted.sort(Comparator.comparing(Book::getId));
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            SectionWriter out = new SectionWriter(channel);
+
+            // Strings first, so the records can be written with their final offsets
+            int sourceRef = out.writeString(source);
+            ByteBuffer categoryRecords = ByteBuffer.allocate(categories.size() * CATEGORY_SIZE);
+            for (Category category : categories) {
+                categoryRecords.putInt(category.getId()).putInt(category.getVersion()).putInt(out.writeString(category.getName()))
+                        .putInt(category.getParentId());
+            }
+            ByteBuffer bookRecords = ByteBuffer.allocate(Math.multiplyExact(sorted.size(), BOOK_SIZE));
+            for (Book book : sorted) {
+                bookRecords.putInt(out.writeString(book.getId()))
+                        .putInt(out.writeString(book.getTitle()))
+                        .putInt(out.writeSharedString(book.getAuthor())) // Authors repeat across books
+                        .putInt(book.getCategory())
+                        .putInt(book.getYear())
+                        .putInt(book.getVersion());
+            }
+            int stringsLength = out.position;
+            out.write(categoryRecords.array());
+            out.write(bookRecords.array());
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(Math.max(generation0, generation1) + 1)
+                    .putLong(watermark)
+                    .putInt(sourceRef)
+                    .putInt(stringsLength)
+                    .putInt(categories.size())
+                    .putInt(sorted.size())
+                    .putInt((int) out.crc.getValue())
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return The change log watermark the books are current at.
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return The generation of this snapshot; each write increments it.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The number of books.
+     */
+    public int size() {
+        return bookCount;
+    }
+
+    /**
+     * Decodes one book.
+     *
+     * @param index The position of the book, in ID order.
+     * @return A new Book.
+     */
+    public Book getBook(int index) {
+        int base = booksBase + index * BOOK_SIZE;
+        return new Book(readString(buffer.getInt(base)), readString(buffer.getInt(base + 4)), readString(buffer.getInt(base + 8)),
+                buffer.getInt(base + 12), buffer.getInt(base + 16), buffer.getInt(base + 20));
+    }
+
+    /**
+     * @return The books, in ID order, as a list that decodes each book when it is read.
+     */
+    public List<Book> getBooks() {
+        return new BookList();
+    }
+
+    /**
+     * Finds a book by ID without decoding the other books.
+     *
+     * @param bookId The book ID.
+     * @return The position of the book, or -1 if it is not in the snapshot.
+     */
+    public int indexOf(String bookId) {
+        int low = 0;
+        int high = bookCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = readString(buffer.getInt(booksBase + middle * BOOK_SIZE)).compareTo(bookId);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The categories, decoded.
+     */
+    public List<Category> getCategories() {
+        List<Category> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            int base = categoriesBase + i * CATEGORY_SIZE;
+            categories.add(new Category(buffer.getInt(base), readString(buffer.getInt(base + 8)), buffer.getInt(base + 12),
+                    buffer.getInt(base + 4)));
+        }
+        return categories;
+    }
+
+    /**
+     * @return The file this snapshot was read from.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    private String readString(int offset) {
+        int length = buffer.getInt(HEADER_SIZE + offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(HEADER_SIZE + offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The generation in the file's header, or 0 if there is no such file or it is not a snapshot of this format.
+     */
+    private static long readGeneration(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                return 0;
+            }
+            return header.getLong(GENERATION);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Checks that the sections fill the file exactly and that the checksum matches.
+     */
+    private static boolean isIntact(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE) {
+            return false;
+        }
+        long expectedSize = HEADER_SIZE + (long) buffer.getInt(STRINGS_LENGTH)
+                + (long) buffer.getInt(CATEGORY_COUNT) * CATEGORY_SIZE + (long) buffer.getInt(BOOK_COUNT) * BOOK_SIZE;
+        if (expectedSize != buffer.capacity()) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        return (int) crc.getValue() == buffer.getInt(CRC);
+    }
+
+    /**
+     * Writes the sections after the header through one buffer, checksumming what it writes.
+     */
+    private static final class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        private final CRC32C crc = new CRC32C();
+        private final Map<String, Integer> shared = new HashMap<>();
+        private long written;
+        private int position; // Offset of the next string in the strings section
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Appends a length-prefixed string.
+         *
+         * @return Its offset in the strings section.
+         */
+        int writeString(String text) throws IOException {
+            int offset = position;
+            if (text == null) {
+                ensureRoom(4);
+                buffer.putInt(-1);
+                position = Math.addExact(position, 4);
+            } else {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                ensureRoom(4);
+                buffer.putInt(bytes.length);
+                write(bytes);
+                position = Math.addExact(position, 4 + bytes.length); // Offsets are ints: at most 2 GB of strings
+            }
+            return offset;
+        }
+
+        /**
+         * Like {@link #writeString(String)}, but writes each distinct value once.
+         */
+        int writeSharedString(String text) throws IOException {
+            if (text == null) {
+                return writeString(null);
+            }
+            Integer offset = shared.get(text);
+            if (offset == null) {
+                offset = writeString(text);
+                shared.put(text, offset);
+            }
+            return offset;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            int done = 0;
+            while (done < bytes.length) {
+                ensureRoom(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - done);
+                buffer.put(bytes, done, chunk);
+                done += chunk;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer, HEADER_SIZE + written);
+            }
+            buffer.clear();
+        }
+
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * The books of the snapshot, decoded on access.
+     */
+    private final class BookList extends AbstractList<Book> implements RandomAccess {
+        @Override
+        public Book get(int index) {
+            if (index < 0 || index >= bookCount) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bookCount);
+            }
+            return getBook(index);
+        }
+
+        @Override
+        public int size() {
+            return bookCount;
+        }
+    }
+}
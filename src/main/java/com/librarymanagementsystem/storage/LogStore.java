@@ -0,0 +1,910 @@
+package com.librarymanagementsystem.storage;
+
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Embedded key-value store backed by an append-only log file.
+ * <p>
+ * Every mutation is appended to {@code catalog.log} as a checksummed record. An in-memory index per keyspace
+ * maps each live key to the offset of its latest record, so reads are one positional file read and start-up
+ * is a single sequential scan of the log. Writers are batched by a committer thread that issues one fsync per
+ * batch (group commit), and a background task compacts the log once most of it is superseded records.
+ * <p>
+ * The delete record of a key is kept as a tombstone until the key is written again, so {@link #changesSince}
+ * can report deletes as well as writes. A second index per keyspace orders the keys by their latest
+ * sequence number, so listing the changes after a sequence number reads only those changes. Once no reader
+ * continues from before a sequence number ({@link #retainChangesAfter}), compaction drops the tombstones up
+ * to it; {@link #getChangeHorizon()} tells readers with an older sequence number that they must reload.
+ * <p>
+ * Record layout (big-endian):
+ * <pre>
+ *   int   length     bytes that follow this field
+ *   int   crc        CRC-32C of everything after this field
+ *   long  sequence   monotonically increasing per mutation
+ *   byte  keyspace
+ *   byte  operation  1 = put, 2 = delete
+ *   short keyLength
+ *   byte[] key       UTF-8
+ *   byte[] value     rest of the record (empty for deletes)
+ * </pre>
+ */
+public class LogStore implements Closeable {
+
+    private static final Logger LOG = Logger.get(LogStore.class);
+
+    /**
+     * Independent key namespaces stored in the same log.
+     */
+    public enum Keyspace {
+        BOOKS(1), CATEGORIES(2), USERS(3);
+
+        private final byte code;
+
+        Keyspace(int code) {
+            this.code = (byte) code;
+        }
+
+        private static Keyspace fromCode(byte code) throws IOException {
+            for (Keyspace keyspace : values()) {
+                if (keyspace.code == code) {
+                    return keyspace;
+                }
+            }
+            throw new IOException("Unknown keyspace code " + code);
+        }
+    }
+
+    private static final String LOG_FILE = "catalog.log";
+    private static final String COMPACT_FILE = "catalog.log.compact";
+    private static final String LOCK_FILE = "store.lock";
+    private static final String HORIZON_FILE = "catalog.horizon"; // Sequence number up to which tombstones were dropped
+
+    private static final int HEADER_SIZE = 20; // length + crc + sequence + keyspace + operation + keyLength
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private static final int MAX_BATCH = 512;
+    private static final long COMPACTION_INTERVAL_SECONDS = 60;
+    private static final long MIN_COMPACTION_GARBAGE = 1L << 20; // Do not bother below 1 MiB of dead records
+
+    private final Path directory;
+    private final Path logPath;
+    private final FileChannel lockChannel;
+    private final FileLock fileLock;
+    private final boolean fsync;
+
+    private volatile FileChannel channel;
+    private volatile long fileSize;
+    private long nextSequence; // Guarded by mutationLock
+    private final AtomicLong garbageBytes = new AtomicLong();
+
+    private final Map<Keyspace, ConcurrentSkipListMap<String, Entry>> indexes = new EnumMap<>(Keyspace.class);
+    private final Map<Keyspace, ConcurrentSkipListMap<String, Entry>> tombstones = new EnumMap<>(Keyspace.class);
+    // Latest sequence number -> key, one per live key or tombstone; changed under mutationLock only
+    private final Map<Keyspace, ConcurrentSkipListMap<Long, String>> changeOrder = new EnumMap<>(Keyspace.class);
+    private volatile long retainAfter;   // Tombstones up to this sequence number are no longer needed
+    private volatile long changeHorizon; // Tombstones up to this sequence number may have been dropped
+
+    // Readers hold the read lock while resolving an offset; compaction takes the write lock to swap files.
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Serializes validation and enqueueing of mutations, so the log order matches the order checks were made in.
+    private final ReentrantLock mutationLock = new ReentrantLock();
+
+    private final BlockingQueue<PendingWrite> commitQueue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private final ScheduledExecutorService compactor;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private LogStore(Path directory, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.logPath = directory.resolve(LOG_FILE);
+        this.fsync = fsync;
+        for (Keyspace keyspace : Keyspace.values()) {
+            indexes.put(keyspace, new ConcurrentSkipListMap<>());
+            tombstones.put(keyspace, new ConcurrentSkipListMap<>());
+            changeOrder.put(keyspace, new ConcurrentSkipListMap<>());
+        }
+
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        fileLock = lockChannel.tryLock();
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IOException("Data directory " + directory + " is already in use by another process");
+        }
+        Files.deleteIfExists(directory.resolve(COMPACT_FILE)); // Left over from an interrupted compaction
+        changeHorizon = readHorizon();
+        retainAfter = changeHorizon;
+
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+        // The newest records may have been tombstones that compaction dropped; their numbers must
+        // not be handed out again, and the last sequence number must not fall below the horizon
+        nextSequence = Math.max(nextSequence, changeHorizon);
+
+        committer = new Thread(this::commitLoop, "log-store-committer");
+        committer.setDaemon(true);
+        committer.start();
+
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfWorthwhile,
+                COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens (or creates) the store in the given directory and rebuilds the index from the log.
+     *
+     * @param directory The data directory. Only one process may have it open at a time.
+     * @return The opened store.
+     * @throws IOException if the directory cannot be used.
+     */
+    public static LogStore open(Path directory) throws IOException {
+        return new LogStore(directory, true);
+    }
+
+    /**
+     * Opens the store without fsync on commit. Writes survive a process crash but not a power loss;
+     * intended for throwaway data such as benchmarks.
+     */
+    public static LogStore openUnsynced(Path directory) throws IOException {
+        return new LogStore(directory, false);
+    }
+
+    // ---------------------------------------------------------------- Reads
+
+    /**
+     * @return The current value stored under the key, or null if there is none.
+     */
+    public byte[] get(Keyspace keyspace, String key) {
+        swapLock.readLock().lock();
+        try {
+            Entry entry = indexes.get(keyspace).get(key);
+            return entry == null ? null : readValue(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + keyspace + " record " + key, e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if a live value is stored under the key.
+     */
+    public boolean contains(Keyspace keyspace, String key) {
+        return indexes.get(keyspace).containsKey(key);
+    }
+
+    /**
+     * Visits every live key and value of a keyspace, in key order.
+     */
+    public void forEach(Keyspace keyspace, BiConsumer<String, byte[]> action) {
+        swapLock.readLock().lock();
+        try {
+            for (Map.Entry<String, Entry> entry : indexes.get(keyspace).entrySet()) {
+                action.accept(entry.getKey(), readValue(entry.getValue()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error scanning " + keyspace, e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The live keys of a keyspace, in key order.
+     */
+    public List<String> keys(Keyspace keyspace) {
+        return new ArrayList<>(indexes.get(keyspace).keySet());
+    }
+
+    /**
+     * @return The sequence number of the latest mutation; changes after it are reported by a later
+     *         {@link #changesSince} call with this number.
+     */
+    public long getLastSequence() {
+        mutationLock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    /**
+     * Lists the keys of a keyspace that were written or deleted after a sequence number, oldest
+     * change first. A key changed several times is listed once, at its latest change, with its
+     * current value. Reads the range of the sequence index after the number; only the changed values
+     * are read from the log.
+     * <p>
+     * Deletes are only complete after {@link #getChangeHorizon()}: a caller with an older sequence
+     * number must reload the keyspace instead.
+     *
+     * @param sequence 0 for every live key and tombstone, otherwise a sequence number returned earlier.
+     * @param limit The maximum number of changes to return.
+     * @return The changes; fewer than {@code limit} means there are no more for now.
+     */
+    public List<Change> changesSince(Keyspace keyspace, long sequence, int limit) {
+        // Only changes up to this point are listed: every one of them is already in the maps, so a
+        // caller that continues from the last listed sequence cannot skip a change made meanwhile
+        long head = getLastSequence();
+        swapLock.readLock().lock();
+        try {
+            List<Change> changes = new ArrayList<>(Math.min(limit, 256));
+            for (Map.Entry<Long, String> change : changeOrder.get(keyspace).subMap(sequence, false, head, true).entrySet()) {
+                if (changes.size() == limit) {
+                    break;
+                }
+                String key = change.getValue();
+                Entry live = indexes.get(keyspace).get(key);
+                if (live != null && live.sequence == change.getKey()) {
+                    changes.add(new Change(key, live.sequence, readValue(live)));
+                    continue;
+                }
+                Entry tombstone = tombstones.get(keyspace).get(key);
+                if (tombstone != null && tombstone.sequence == change.getKey()) {
+                    changes.add(new Change(key, tombstone.sequence, null));
+                }
+                // Otherwise the key changed again after head, and is listed at that change by a later call
+            }
+            return changes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading changes of " + keyspace, e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lets compaction drop the tombstones of keys deleted up to a sequence number, because no reader
+     * of {@link #changesSince} continues from before it any more. Never moves back.
+     *
+     * @param sequence The oldest sequence number a reader still continues from.
+     */
+    public void retainChangesAfter(long sequence) {
+        mutationLock.lock();
+        try {
+            retainAfter = Math.max(retainAfter, Math.min(sequence, nextSequence));
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    /**
+     * @return The sequence number up to which tombstones may have been dropped; {@link #changesSince}
+     *         from an older number can miss deletes. 0 if no tombstone was ever dropped.
+     */
+    public long getChangeHorizon() {
+        return changeHorizon;
+    }
+
+    // ---------------------------------------------------------------- Writes
+
+    /**
+     * Stores a value only if the key is not present yet.
+     *
+     * @return true if the value was stored, false if the key already existed.
+     */
+    public boolean insert(Keyspace keyspace, String key, byte[] value) {
+        return mutate(keyspace, key, value, Mode.INSERT);
+    }
+
+    /**
+     * Replaces the value of an existing key.
+     *
+     * @return true if the value was replaced, false if the key did not exist.
+     */
+    public boolean update(Keyspace keyspace, String key, byte[] value) {
+        return mutate(keyspace, key, value, Mode.UPDATE);
+    }
+
+    /**
+     * Replaces the value of an existing key if its current value passes the check. The check and
+     * the write are atomic with respect to all other writes.
+     *
+     * @param expected Tested with the current value, e.g. to compare a version number in it.
+     * @return true if the value was replaced, false if the key did not exist or the check failed.
+     */
+    public boolean compareAndUpdate(Keyspace keyspace, String key, Predicate<byte[]> expected, byte[] value) {
+        return mutate(keyspace, key, value, Mode.UPDATE, expected);
+    }
+
+    /**
+     * Stores a value whether or not the key exists.
+     */
+    public void put(Keyspace keyspace, String key, byte[] value) {
+        mutate(keyspace, key, value, Mode.UPSERT);
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @return true if the key existed and was removed, false otherwise.
+     */
+    public boolean delete(Keyspace keyspace, String key) {
+        return mutate(keyspace, key, null, Mode.DELETE);
+    }
+
+    private enum Mode { INSERT, UPDATE, UPSERT, DELETE }
+
+    private boolean mutate(Keyspace keyspace, String key, byte[] value, Mode mode) {
+        return mutate(keyspace, key, value, mode, null);
+    }
+
+    private boolean mutate(Keyspace keyspace, String key, byte[] value, Mode mode, Predicate<byte[]> expected) {
+        PendingWrite write;
+        mutationLock.lock();
+        try {
+            ensureUsable();
+            ConcurrentSkipListMap<String, Entry> index = indexes.get(keyspace);
+            Entry current = index.get(key);
+            if (mode == Mode.INSERT && current != null) {
+                return false;
+            }
+            if ((mode == Mode.UPDATE || mode == Mode.DELETE) && current == null) {
+                return false;
+            }
+            if (expected != null && !expected.test(readLockedValue(current))) {
+                return false;
+            }
+
+            boolean delete = mode == Mode.DELETE;
+            long sequence = ++nextSequence;
+            byte[] record = encodeRecord(sequence, keyspace, delete ? OP_DELETE : OP_PUT, key, delete ? new byte[0] : value);
+            Entry pending = new Entry(-1, record.length, sequence, record);
+            // The index is updated right away so later checks and reads see this write;
+            // the committer swaps in the on-disk offset once the record is durable.
+            Entry superseded = current;
+            if (delete) {
+                index.remove(key);
+                tombstones.get(keyspace).put(key, pending);
+            } else {
+                index.put(key, pending);
+                Entry tombstone = tombstones.get(keyspace).remove(key);
+                if (current == null) {
+                    superseded = tombstone; // Written again after a delete: the tombstone is garbage now
+                }
+            }
+            reorder(keyspace, key, superseded, sequence);
+            write = new PendingWrite(keyspace, key, pending, superseded, delete);
+            commitQueue.add(write);
+        } finally {
+            mutationLock.unlock();
+        }
+        await(write.done);
+        return true;
+    }
+
+    /**
+     * Moves a key in the sequence index from its previous change to its latest one.
+     */
+    private void reorder(Keyspace keyspace, String key, Entry previous, long sequence) {
+        ConcurrentSkipListMap<Long, String> order = changeOrder.get(keyspace);
+        order.put(sequence, key);
+        if (previous != null) {
+            order.remove(previous.sequence);
+        }
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Interrupted while waiting for commit", e));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? new UncheckedIOException(io) : new IllegalStateException(cause);
+        }
+    }
+
+    private void ensureUsable() {
+        if (closed) {
+            throw new IllegalStateException("Log store is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Log store failed on an earlier write", failure);
+        }
+    }
+
+    /**
+     * Group commit: takes everything queued since the last fsync, appends it in one write and syncs once.
+     */
+    private void commitLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(commitQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            commitQueue.drainTo(batch, MAX_BATCH - 1);
+            try {
+                commitBatch(batch);
+            } catch (IOException e) {
+                failure = e;
+                for (PendingWrite write : batch) {
+                    write.done.completeExceptionally(e);
+                }
+            }
+            boolean shutdown = batch.get(batch.size() - 1).isShutdown();
+            batch.clear();
+            if (shutdown) {
+                return;
+            }
+        }
+    }
+
+    private void commitBatch(List<PendingWrite> batch) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        List<ByteBuffer> buffers = new ArrayList<>(batch.size());
+        long position = fileSize;
+        long[] offsets = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (write.isBarrier()) {
+                continue;
+            }
+            offsets[i] = position;
+            position += write.entry.length;
+            buffers.add(ByteBuffer.wrap(write.entry.pending));
+        }
+
+        if (!buffers.isEmpty()) {
+            ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+            channel.position(fileSize);
+            while (array[array.length - 1].hasRemaining()) {
+                channel.write(array);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            fileSize = position;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (!write.isBarrier()) {
+                Entry committed = new Entry(offsets[i], write.entry.length, write.entry.sequence, null);
+                Map<String, Entry> map = (write.delete ? tombstones : indexes).get(write.keyspace);
+                map.replace(write.key, write.entry, committed); // Unless overwritten meanwhile
+                if (write.previous != null) {
+                    garbageBytes.addAndGet(write.previous.length);
+                }
+            }
+            write.done.complete(null);
+        }
+    }
+
+    // ---------------------------------------------------------------- Compaction
+
+    private void compactIfWorthwhile() {
+        long garbage = garbageBytes.get();
+        if (garbage >= MIN_COMPACTION_GARBAGE && garbage * 2 >= fileSize) {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                LOG.at(Level.ERROR).with("garbageBytes", garbage).cause(e).log("Log store compaction failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rewrites the log with only the live records and the tombstones still needed, and swaps it in
+     * atomically. Writers wait while the live records are copied; readers are only paused for the
+     * file swap.
+     */
+    public void compact() throws IOException {
+        mutationLock.lock();
+        try {
+            ensureUsable();
+            awaitCommitted(); // Everything queued before us is on disk, and nothing new can be queued
+
+            // Tombstones no reader needs any more are not copied
+            long horizon = retainAfter;
+            Map<Keyspace, Map<String, Entry>> keptTombstones = new EnumMap<>(Keyspace.class);
+            Map<Keyspace, Map<String, Entry>> droppedTombstones = new EnumMap<>(Keyspace.class);
+            for (Keyspace keyspace : Keyspace.values()) {
+                Map<String, Entry> kept = new HashMap<>();
+                Map<String, Entry> dropped = new HashMap<>();
+                tombstones.get(keyspace).forEach((key, tombstone) -> (tombstone.sequence <= horizon ? dropped : kept).put(key, tombstone));
+                keptTombstones.put(keyspace, kept);
+                droppedTombstones.put(keyspace, dropped);
+            }
+            if (horizon > changeHorizon) {
+                // Recorded before the tombstones are gone: a crash in between only makes readers reload needlessly
+                writeHorizon(horizon);
+            }
+
+            Path compactPath = directory.resolve(COMPACT_FILE);
+            Map<Keyspace, Map<String, Entry>> relocated = new EnumMap<>(Keyspace.class);
+            Map<Keyspace, Map<String, Entry>> relocatedTombstones = new EnumMap<>(Keyspace.class);
+            long position = 0;
+            try (FileChannel out = FileChannel.open(compactPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                for (Keyspace keyspace : Keyspace.values()) {
+                    Map<String, Entry> moved = new HashMap<>();
+                    position = copyRecords(indexes.get(keyspace), out, position, moved);
+                    relocated.put(keyspace, moved);
+                    Map<String, Entry> movedTombstones = new HashMap<>();
+                    position = copyRecords(keptTombstones.get(keyspace), out, position, movedTombstones);
+                    relocatedTombstones.put(keyspace, movedTombstones);
+                }
+                out.force(false);
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                Files.move(compactPath, logPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                syncDirectory();
+                channel.close();
+                channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                fileSize = position;
+                for (Keyspace keyspace : Keyspace.values()) {
+                    indexes.get(keyspace).putAll(relocated.get(keyspace));
+                    tombstones.get(keyspace).putAll(relocatedTombstones.get(keyspace));
+                    droppedTombstones.get(keyspace).forEach((key, tombstone) -> {
+                        tombstones.get(keyspace).remove(key);
+                        changeOrder.get(keyspace).remove(tombstone.sequence);
+                    });
+                }
+                changeHorizon = Math.max(changeHorizon, horizon);
+                garbageBytes.set(0);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    /**
+     * Appends the records of the given entries to the output and collects their new locations.
+     *
+     * @return The file position after the copied records.
+     */
+    private long copyRecords(Map<String, Entry> entries, FileChannel out, long position, Map<String, Entry> moved) throws IOException {
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            Entry old = entry.getValue();
+            ByteBuffer record = readRecord(old);
+            while (record.hasRemaining()) {
+                out.write(record);
+            }
+            moved.put(entry.getKey(), new Entry(position, old.length, old.sequence, null));
+            position += old.length;
+        }
+        return position;
+    }
+
+    private long readHorizon() throws IOException {
+        Path path = directory.resolve(HORIZON_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length != Long.BYTES) {
+            throw new IOException("Corrupt change horizon in " + path);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    private void writeHorizon(long horizon) throws IOException {
+        Path temp = directory.resolve(HORIZON_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(horizon).flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        }
+        Files.move(temp, directory.resolve(HORIZON_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    private void awaitCommitted() {
+        PendingWrite barrier = PendingWrite.barrier(false);
+        commitQueue.add(barrier);
+        await(barrier.done);
+    }
+
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform (e.g. Windows); the rename itself is still atomic
+        }
+    }
+
+    /**
+     * @return The size of the log file in bytes, including superseded records.
+     */
+    public long getLogSize() {
+        return fileSize;
+    }
+
+    /**
+     * @return The number of bytes in the log taken up by superseded or deleted records.
+     */
+    public long getGarbageBytes() {
+        return garbageBytes.get();
+    }
+
+    // ---------------------------------------------------------------- Encoding and recovery
+
+    private static byte[] encodeRecord(long sequence, Keyspace keyspace, byte operation, String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Key too long: " + key.length() + " characters");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + keyBytes.length + value.length);
+        buffer.putInt(buffer.capacity() - 4);
+        buffer.putInt(0); // CRC placeholder
+        buffer.putLong(sequence);
+        buffer.put(keyspace.code);
+        buffer.put(operation);
+        buffer.putShort((short) keyBytes.length);
+        buffer.put(keyBytes);
+        buffer.put(value);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 8, buffer.capacity() - 8);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    private ByteBuffer readRecord(Entry entry) throws IOException {
+        if (entry.pending != null) {
+            return ByteBuffer.wrap(entry.pending);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        long position = entry.offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Record at offset " + entry.offset + " is past the end of the log");
+            }
+            position += read;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads a value for a check made under the mutation lock. Takes the read lock like get(),
+     * which keeps the lock order of compaction (mutation lock, then swap lock).
+     */
+    private byte[] readLockedValue(Entry entry) {
+        swapLock.readLock().lock();
+        try {
+            return readValue(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading record for a conditional update", e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private byte[] readValue(Entry entry) throws IOException {
+        ByteBuffer record = readRecord(entry);
+        int keyLength = record.getShort(18) & 0xFFFF;
+        int valueStart = HEADER_SIZE + keyLength;
+        byte[] value = new byte[record.limit() - valueStart];
+        record.get(valueStart, value);
+        return value;
+    }
+
+    /**
+     * Rebuilds the index by scanning the log. A torn record at the tail (from a crash mid-write) is cut off.
+     */
+    private void recover() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        CRC32C crc = new CRC32C();
+        while (position + 4 <= size) {
+            int length = in.readInt();
+            if (length < HEADER_SIZE - 4 || position + 4 + length > size) {
+                break; // Torn or garbage tail
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            int storedCrc = buffer.getInt();
+            crc.reset();
+            crc.update(body, 4, length - 4);
+            if ((int) crc.getValue() != storedCrc) {
+                break;
+            }
+            long sequence = buffer.getLong();
+            Keyspace keyspace = Keyspace.fromCode(buffer.get());
+            byte operation = buffer.get();
+            int keyLength = buffer.getShort() & 0xFFFF;
+            String key = new String(body, buffer.position(), keyLength, StandardCharsets.UTF_8);
+            int recordLength = 4 + length;
+
+            ConcurrentSkipListMap<String, Entry> index = indexes.get(keyspace);
+            Entry record = new Entry(position, recordLength, sequence, null);
+            Entry previous;
+            if (operation == OP_DELETE) {
+                previous = index.remove(key);
+                tombstones.get(keyspace).put(key, record);
+            } else {
+                previous = index.put(key, record);
+                Entry tombstone = tombstones.get(keyspace).remove(key);
+                if (tombstone != null) {
+                    previous = tombstone; // Written again after a delete
+                }
+            }
+            if (previous != null) {
+                garbageBytes.addAndGet(previous.length);
+            }
+            reorder(keyspace, key, previous, sequence);
+            nextSequence = Math.max(nextSequence, sequence);
+            position += recordLength;
+        }
+        if (position < size) {
+            LOG.warn("Log store: discarding {} bytes of incomplete records at the end of {}", size - position, logPath);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        fileSize = position;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        mutationLock.lock();
+        try {
+            closed = true;
+            compactor.shutdownNow();
+            commitQueue.add(PendingWrite.barrier(true));
+        } finally {
+            mutationLock.unlock();
+        }
+        try {
+            committer.join();
+            channel.close();
+            fileLock.release();
+            lockChannel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.at(Level.ERROR).cause(e).log("Error closing log store: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A key written or deleted after a given sequence number; see {@link #changesSince}.
+     */
+    public static final class Change {
+        private final String key;
+        private final long sequence;
+        private final byte[] value;
+
+        Change(String key, long sequence, byte[] value) {
+            this.key = key;
+            this.sequence = sequence;
+            this.value = value;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return The sequence number of the key's latest mutation.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return The current value, or null if the key is deleted.
+         */
+        public byte[] getValue() {
+            return value;
+        }
+
+        public boolean isDeleted() {
+            return value == null;
+        }
+    }
+
+    /**
+     * Location of a live record or tombstone: either committed at an offset in the log, or still pending with its bytes in memory.
+     */
+    private static final class Entry {
+        final long offset;
+        final int length;
+        final long sequence;
+        final byte[] pending;
+
+        Entry(long offset, int length, long sequence, byte[] pending) {
+            this.offset = offset;
+            this.length = length;
+            this.sequence = sequence;
+            this.pending = pending;
+        }
+    }
+
+    /**
+     * A mutation waiting for the committer, or a barrier used to wait for all earlier mutations.
+     */
+    private static final class PendingWrite {
+        final Keyspace keyspace;
+        final String key;
+        final Entry entry;
+        final Entry previous;
+        final boolean delete;
+        final boolean shutdown;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingWrite(Keyspace keyspace, String key, Entry entry, Entry previous, boolean delete) {
+            this(keyspace, key, entry, previous, delete, false);
+        }
+
+        private PendingWrite(Keyspace keyspace, String key, Entry entry, Entry previous, boolean delete, boolean shutdown) {
+            this.keyspace = keyspace;
+            this.key = key;
+            this.entry = entry;
+            this.previous = previous;
+            this.delete = delete;
+            this.shutdown = shutdown;
+        }
+
+        static PendingWrite barrier(boolean shutdown) {
+            return new PendingWrite(null, null, null, null, false, shutdown);
+        }
+
+        boolean isBarrier() {
+            return entry == null;
+        }
+
+        boolean isShutdown() {
+            return shutdown;
+        }
+    }
+}
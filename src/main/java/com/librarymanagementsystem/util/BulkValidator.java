@@ -0,0 +1,207 @@
+package com.librarymanagementsystem.util;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates book records in bulk, with the same rules as {@link Validator}, but on slices of a
+ * CharSequence: no Strings are created, no exceptions are thrown, and the current year is read once
+ * when the validator is created instead of on every check. Every violation of a record is reported,
+ * as a set of flags in one int ({@link #ID_MISSING} and so on).
+ * <p>
+ * A validator is immutable and may be shared between threads; create a new one for each load so
+ * it does not keep the year it was created in.
+ */
+public final class BulkValidator {
+
+    public static final int ID_MISSING = 1;
+    public static final int ID_TOO_LONG = 1 << 1;
+    public static final int TITLE_MISSING = 1 << 2;
+    public static final int TITLE_TOO_LONG = 1 << 3;
+    public static final int AUTHOR_MISSING = 1 << 4;
+    public static final int AUTHOR_TOO_LONG = 1 << 5;
+    public static final int CATEGORY_MISSING = 1 << 6;
+    public static final int YEAR_NOT_A_NUMBER = 1 << 7;
+    public static final int YEAR_OUT_OF_RANGE = 1 << 8;
+
+    // The same limits as Validator
+    private static final int MAX_ID_LENGTH = 50;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MIN_YEAR = 1000;
+
+    private static final long NOT_AN_INTEGER = Long.MIN_VALUE;
+
+    private final int currentYear;
+
+    /**
+     * Creates a validator for the current year.
+     */
+    public BulkValidator() {
+        this(Year.now().getValue());
+    }
+
+    /**
+     * @param currentYear The latest valid year.
+     */
+    public BulkValidator(int currentYear) {
+        this.currentYear = currentYear;
+    }
+
+    /**
+     * Validates every record of a batch and stores each record's violations in it.
+     *
+     * @param batch The records.
+     * @return The number of invalid records.
+     */
+    public int validate(RecordBatch batch) {
+        CharSequence text = batch.getText();
+        int[] bounds = batch.bounds();
+        int invalid = 0;
+        for (int record = 0; record < batch.size(); record++) {
+            int flags = validateRecord(text, bounds, record * RecordBatch.FIELDS * 2);
+            batch.setViolations(record, flags);
+            if (flags != 0) {
+                invalid++;
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Validates batches in parallel, one batch per task, so a large load split into batches of a few
+     * thousand records uses every core.
+     *
+     * @param batches The batches; each one's violations are stored in it.
+     * @return The number of invalid records in all batches.
+     */
+    public long validateAll(List<RecordBatch> batches) {
+        return batches.parallelStream().mapToLong(this::validate).sum();
+    }
+
+    /**
+     * Validates one record.
+     *
+     * @param text The text the record is in.
+     * @param bounds The start and end of each field, in {@link RecordBatch} field order.
+     * @param offset The index in bounds of the record's ID start.
+     * @return The record's violations; 0 if it is valid.
+     */
+    public int validateRecord(CharSequence text, int[] bounds, int offset) {
+        int flags = 0;
+        flags |= checkText(text, bounds[offset], bounds[offset + 1], MAX_ID_LENGTH, ID_MISSING, ID_TOO_LONG);
+        flags |= checkText(text, bounds[offset + 2], bounds[offset + 3], MAX_TEXT_LENGTH, TITLE_MISSING, TITLE_TOO_LONG);
+        flags |= checkText(text, bounds[offset + 4], bounds[offset + 5], MAX_TEXT_LENGTH, AUTHOR_MISSING, AUTHOR_TOO_LONG);
+        if (isBlank(text, bounds[offset + 6], bounds[offset + 7])) {
+            flags |= CATEGORY_MISSING;
+        }
+        flags |= checkYear(text, bounds[offset + 8], bounds[offset + 9]);
+        return flags;
+    }
+
+    /**
+     * @return The year checks of {@link Validator#isValidYear(String)}, as flags.
+     */
+    private int checkYear(CharSequence text, int start, int end) {
+        // Validator.isValidInteger() rejects blank input before parsing it
+        if (isBlank(text, start, end)) {
+            return YEAR_NOT_A_NUMBER;
+        }
+        long year = parseInt(text, start, end);
+        if (year == NOT_AN_INTEGER) {
+            return YEAR_NOT_A_NUMBER;
+        }
+        return year >= MIN_YEAR && year <= currentYear ? 0 : YEAR_OUT_OF_RANGE;
+    }
+
+    private static int checkText(CharSequence text, int start, int end, int maxLength, int missing, int tooLong) {
+        // Validator reports a blank field as missing, whatever its length
+        if (isBlank(text, start, end)) {
+            return missing;
+        }
+        return end - start > maxLength ? tooLong : 0;
+    }
+
+    /**
+     * Like {@link Validator#isNullOrEmpty(String)}: true if the slice is empty or holds only characters
+     * that String.trim() removes (up to U+0020).
+     */
+    public static boolean isBlank(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses an int the way Integer.parseInt() does (an optional sign, then decimal digits of any
+     * script, no spaces), without throwing.
+     *
+     * @return The value, or {@link #NOT_AN_INTEGER} if the slice is not an int.
+     */
+    static long parseInt(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return NOT_AN_INTEGER;
+        }
+        boolean negative = false;
+        int i = start;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return NOT_AN_INTEGER;
+            }
+        }
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0) {
+                return NOT_AN_INTEGER;
+            }
+            value = value * 10 + digit;
+            if (value > limit) {
+                return NOT_AN_INTEGER;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return A message for each violation in the flags, in the words of the book form; allocates, so
+     *         meant for reporting the invalid records only.
+     */
+    public static List<String> describe(int flags) {
+        List<String> messages = new ArrayList<>();
+        if ((flags & ID_MISSING) != 0) {
+            messages.add("Book ID is missing");
+        }
+        if ((flags & ID_TOO_LONG) != 0) {
+            messages.add("Book ID is longer than " + MAX_ID_LENGTH + " characters");
+        }
+        if ((flags & TITLE_MISSING) != 0) {
+            messages.add("Title is missing");
+        }
+        if ((flags & TITLE_TOO_LONG) != 0) {
+            messages.add("Title is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        if ((flags & AUTHOR_MISSING) != 0) {
+            messages.add("Author is missing");
+        }
+        if ((flags & AUTHOR_TOO_LONG) != 0) {
+            messages.add("Author is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        if ((flags & CATEGORY_MISSING) != 0) {
+            messages.add("Category is missing");
+        }
+        if ((flags & YEAR_NOT_A_NUMBER) != 0) {
+            messages.add("Year is not a number");
+        }
+        if ((flags & YEAR_OUT_OF_RANGE) != 0) {
+            messages.add("Year is not between " + MIN_YEAR + " and the current year");
+        }
+        return messages;
+    }
+}
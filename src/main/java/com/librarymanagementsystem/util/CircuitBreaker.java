@@ -0,0 +1,120 @@
+package com.librarymanagementsystem.util;
+
+import com.librarymanagementsystem.logging.Logger;
+
+/**
+ * Fails calls fast while the database is known to be unhealthy, instead of letting every caller
+ * wait for its own timeout.
+ * <p>
+ * CLOSED: calls go through; {@code failureThreshold} consecutive failures open the breaker.
+ * OPEN: calls are rejected at once for {@code openMillis}. HALF_OPEN: after that, one trial call
+ * is let through; its success closes the breaker, its failure opens it again.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = Logger.get(CircuitBreaker.class);
+
+    /**
+     * The state of the breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private long openedAt;      // System.nanoTime() when the breaker last opened
+    private long trialStartedAt; // System.nanoTime() when the current half-open trial was let through
+
+    /**
+     * @param name A name for log messages, e.g. the database it guards.
+     * @param failureThreshold The number of consecutive failures that opens the breaker.
+     * @param openMillis How long calls are rejected before a trial call is let through.
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * Asks whether a call may go through. A caller that gets true must report the outcome with
+     * {@link #recordSuccess()} or {@link #recordFailure()}.
+     *
+     * @return true if the call may go through, false if it should fail fast.
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true; // Fast path, no locking
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                trialStartedAt = now;
+                return true;
+            }
+            if (state == State.HALF_OPEN && now - trialStartedAt >= openNanos) {
+                // The trial never reported back; let another one through
+                trialStartedAt = now;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+    }
+
+    /**
+     * Reports a successful call; closes the breaker if it was open or half-open.
+     */
+    public void recordSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return; // Fast path, no locking
+        }
+        synchronized (this) {
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) {
+                state = State.CLOSED;
+                System.out.println("Database " + name + " is reachable again; circuit breaker closed.");
+            }
+        }
+    }
+
+    /**
+     * Reports a failed call, i.e. one that showed the database is unreachable or not answering.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            LOG.error("Database {} is failing ({} consecutive failures); circuit breaker open, failing fast for {} ms.",
+                    name, consecutiveFailures, openNanos / 1_000_000L);
+        }
+    }
+
+    /**
+     * @return The current state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return How long until a trial call is let through, in milliseconds; 0 unless the breaker is open.
+     */
+    public synchronized long getRetryAfterMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000L);
+    }
+}
@@ -1,20 +1,98 @@
 package com.librarymanagementsystem.util;
 
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.logging.Level;
+import com.librarymanagementsystem.logging.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
 import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Manages database connections for the Library Management System.
  * Handles opening, closing, and executing basic database operations.
+ * <p>
+ * With a pool size, connections come from a shared {@link ConnectionPool} and closing them
+ * returns them to the pool; without one, every call opens a new physical connection.
+ * <p>
+ * With a {@link ReplicaSet}, read-only DAO methods use {@link #getReadConnection()} and go to a
+ * replica, while {@link #getConnection()} always returns the primary. A session that used the
+ * primary keeps reading from the primary for a short window (read-your-writes).
+ * <p>
+ * Every call is bounded in time: connections are opened with the connect and socket timeouts of
+ * {@link DatabaseTimeouts}, and every statement gets its query timeout. A {@link CircuitBreaker}
+ * rejects calls at once while the primary is known to be down. DAOs run their SQL through
+ * {@link #executeRead} (retried with backoff on transient failures) and {@link #executeWrite}
+ * (not retried), which report failures as a {@link DataAccessException}.
+ * <p>
+ * Inside {@link #inTransaction} or {@link #begin}, all of these run on the calling thread's
+ * {@link Transaction} instead, sharing its connection.
+ * <p>
+ * Failures are logged with their context: the operation, the shape of the last SQL statement
+ * prepared on the connection (parameters are placeholders, so no values), the SQL state and the
+ * time the call took.
  */
-public class ConnectionManager {
+public class ConnectionManager implements AutoCloseable {
+    private static final Logger LOG = Logger.get(ConnectionManager.class);
+
     // Database connection details
     private final String DB_URL;
-    private final String DB_USERNAME;
-    private final String DB_PASSWORD;
+    private final Properties connectionProperties;
+    private final DatabaseTimeouts timeouts;
+
+    // Circuit breaker: this many consecutive connection failures or timeouts fail calls fast for a while
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MILLIS = 10_000;
+
+    // Reads: up to 3 attempts, started within 2 s, with 50 ms..1 s jittered backoff
+    private static final int READ_ATTEMPTS = 3;
+    private static final long READ_RETRY_BASE_MILLIS = 50;
+    private static final long READ_RETRY_MAX_MILLIS = 1_000;
+    private static final long READ_RETRY_BUDGET_MILLIS = 2_000;
+
+    private final ConnectionPool pool; // null when connections are not pooled
+    private final ReplicaSet replicas; // null when all reads go to the primary
+    private final CircuitBreaker circuitBreaker;
+    private final RetryPolicy readRetryPolicy;
+
+    // The unit of work open on each thread, if any
+    private final ThreadLocal<Transaction> currentTransaction = new ThreadLocal<>();
+
+    // Session key -> System.nanoTime() until which its reads stay on the primary
+    private final ConcurrentHashMap<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private static final int PIN_PRUNE_THRESHOLD = 10_000;
+
+    /**
+     * A unit of JDBC work run on a connection handed out by this manager.
+     *
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Sets the parameters of a prepared single-row write.
+     */
+    @FunctionalInterface
+    public interface StatementBinder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
 
     /**
      * Constructor for ConnectionManager.
@@ -25,34 +103,491 @@ public class ConnectionManager {
      * @param pass The database password.
      */
     public ConnectionManager(String url, String user, String pass) {
-        this.DB_URL = "jdbc:mysql://localhost:3306/library_db?useSSL=false&serverTimezone=UTC";
-        this.DB_USERNAME = "root";
-        this.DB_PASSWORD = "Kerem123+";
+        this(url, user, pass, 0);
+    }
+
+    /**
+     * Constructor for a ConnectionManager that pools its connections.
+     *
+     * @param url The database URL.
+     * @param user The database username.
+     * @param pass The database password.
+     * @param poolSize The maximum number of connections in use at once, or 0 to open a new connection per call.
+     */
+    public ConnectionManager(String url, String user, String pass, int poolSize) {
+        this(url, user, pass, poolSize, null);
+    }
+
+    /**
+     * Constructor for a ConnectionManager that sends reads to replicas.
+     *
+     * @param url The primary database URL.
+     * @param user The database username.
+     * @param pass The database password.
+     * @param poolSize The maximum number of primary connections in use at once, or 0 to open a new connection per call.
+     * @param replicas The read replicas, or null to read from the primary.
+     */
+    public ConnectionManager(String url, String user, String pass, int poolSize, ReplicaSet replicas) {
+        this(url, user, pass, poolSize, replicas, DatabaseTimeouts.DEFAULTS);
+    }
+
+    /**
+     * Constructor for a ConnectionManager with explicit time limits.
+     *
+     * @param url The primary database URL.
+     * @param user The database username.
+     * @param pass The database password.
+     * @param poolSize The maximum number of primary connections in use at once, or 0 to open a new connection per call.
+     * @param replicas The read replicas, or null to read from the primary.
+     * @param timeouts The connect, socket, query and pool borrow timeouts.
+     */
+    public ConnectionManager(String url, String user, String pass, int poolSize, ReplicaSet replicas, DatabaseTimeouts timeouts) {
+        this.replicas = replicas;
+        this.DB_URL = url;
+        this.timeouts = timeouts;
+        this.connectionProperties = timeouts.connectionProperties(url, user, pass);
+        this.pool = poolSize > 0 ? new ConnectionPool(url, connectionProperties, poolSize, timeouts.getBorrowTimeoutMillis()) : null;
+        this.circuitBreaker = new CircuitBreaker(url, BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MILLIS);
+        this.readRetryPolicy = new RetryPolicy(READ_ATTEMPTS, READ_RETRY_BASE_MILLIS, READ_RETRY_MAX_MILLIS, READ_RETRY_BUDGET_MILLIS);
 
         // Optional: Load the JDBC driver once when the manager is initialized
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found. Make sure it's included in your project dependencies.");
-            e.printStackTrace();
+            LOG.at(Level.ERROR).cause(e).log("MySQL JDBC Driver not found. Make sure it's included in your project dependencies.");
         }
     }
 
     /**
-     * Establishes and returns a new database connection.
+     * Establishes and returns a connection to the primary database, borrowed from the pool if there is one.
+     * Use it for writes: the calling session reads from the primary for a short time afterwards.
      *
-     * @return A valid database Connection object, or null if connection fails.
+     * @return A valid database Connection object.
+     * @throws DataAccessException if no connection could be opened, or the circuit breaker is open.
      */
     public Connection getConnection() {
-        Connection conn = null;
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            return transaction.borrowConnection();
+        }
+        if (replicas != null) {
+            pinToPrimary(DatabaseSession.current());
+        }
         try {
-            conn = DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
+            return openPrimaryConnection();
+        } catch (SQLException e) {
+            throw failure("Failed to establish database connection", e);
+        }
+    }
+
+    /**
+     * Returns a connection for read-only queries: a replica if one is healthy and the calling
+     * session has not written recently, otherwise the primary.
+     *
+     * @return A valid database Connection object.
+     * @throws DataAccessException if no connection could be opened, or the circuit breaker is open.
+     */
+    public Connection getReadConnection() {
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            return transaction.borrowConnection();
+        }
+        Connection conn = openReplicaConnection();
+        if (conn != null) {
+            return conn;
+        }
+        try {
+            return openPrimaryConnection();
+        } catch (SQLException e) {
+            throw failure("Failed to establish database connection", e);
+        }
+    }
+
+    /**
+     * Runs an idempotent read. Transient failures (lost connections, deadlocks, quick timeouts)
+     * are retried with jittered backoff within a small time budget; each attempt gets a fresh
+     * connection, so a failed replica is not used twice.
+     *
+     * @param description What the read does, for the error message (e.g. "Error retrieving all books").
+     * @param work The JDBC work; it must not close the connection.
+     * @param <T> The result type.
+     * @return The result of the work.
+     * @throws DataAccessException if the read failed after its retries, or the circuit breaker is open.
+     */
+    public <T> T executeRead(String description, SqlWork<T> work) {
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            return transaction.execute(description, work); // Never retried: the transaction's earlier work would be lost
+        }
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            Connection conn = openReplicaConnection();
+            boolean onPrimary = conn == null;
+            try {
+                if (onPrimary) {
+                    conn = openPrimaryConnection();
+                }
+                T result = work.run(conn);
+                if (onPrimary) {
+                    circuitBreaker.recordSuccess();
+                }
+                return result;
+            } catch (SQLException e) {
+                if (onPrimary && conn != null && isConnectionFailure(e)) {
+                    circuitBreaker.recordFailure(); // Failures to connect are recorded by openPrimaryConnection
+                }
+                if (!readRetryPolicy.retryAfter(attempt, start, e)) {
+                    throw failure(description, e, conn, start);
+                }
+                LOG.at(Level.DEBUG).with("operation", description).with("sql", lastStatement(conn))
+                        .with("attempt", attempt).with("elapsedMs", elapsedMillis(start))
+                        .log("Retrying read after: {}", e.getMessage());
+            } finally {
+                closeConnection(conn);
+            }
+        }
+    }
+
+    /**
+     * Runs a write on the primary. Writes are not retried, since a write whose answer was lost
+     * may already have been applied.
+     *
+     * @param description What the write does, for the error message (e.g. "Error adding book").
+     * @param work The JDBC work; it must not close the connection.
+     * @return The result of the work, or false if the database rejected the change because it
+     *         violates a constraint (duplicate key, missing foreign key, ...).
+     * @throws DataAccessException if the database could not be reached or did not answer in time.
+     */
+    public boolean executeWrite(String description, SqlWork<Boolean> work) {
+        return executeWrite(description, work, Boolean.FALSE);
+    }
+
+    /**
+     * Runs a write on the primary, like {@link #executeWrite(String, SqlWork)}, for work that
+     * reports more than success or failure.
+     *
+     * @param description What the write does, for the error message.
+     * @param work The JDBC work; it must not close the connection.
+     * @param rejected The result to return if the database rejected the change because it violates a constraint.
+     * @param <T> The result type.
+     * @return The result of the work, or {@code rejected}.
+     * @throws DataAccessException if the database could not be reached or did not answer in time.
+     */
+    public <T> T executeWrite(String description, SqlWork<T> work, T rejected) {
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            return transaction.executeWrite(description, work, rejected);
+        }
+        long start = System.nanoTime();
+        Connection conn = getConnection();
+        try {
+            T result = work.run(conn);
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (SQLException e) {
+            if (isConstraintViolation(e)) {
+                // The database answered: the data is wrong, not the database
+                circuitBreaker.recordSuccess();
+                rejected(description, e, conn, start);
+                return rejected;
+            }
+            if (isConnectionFailure(e)) {
+                circuitBreaker.recordFailure();
+            }
+            throw failure(description, e, conn, start);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Runs a single-row write given as SQL and parameters. In a transaction with batched writes
+     * it is queued and sent with the other queued writes; otherwise it runs at once like
+     * {@link #executeWrite}.
+     *
+     * @param description What the write does, for the error message.
+     * @param sql The INSERT, UPDATE or DELETE statement.
+     * @param binder Sets the statement's parameters.
+     * @return true if a row was changed (or the write was queued), false if none was or a constraint was violated.
+     * @throws DataAccessException if the database could not be reached or did not answer in time.
+     */
+    public boolean update(String description, String sql, StatementBinder binder) {
+        Transaction transaction = currentTransaction.get();
+        if (transaction != null && transaction.queue(sql, binder)) {
+            return true;
+        }
+        return executeWrite(description, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                binder.bind(pstmt);
+                return pstmt.executeUpdate() > 0;
+            }
+        });
+    }
+
+    /**
+     * Starts a unit of work on the calling thread. Until it is closed, every DAO call on this
+     * thread that goes through this manager uses its connection.
+     *
+     * @param isolation The JDBC isolation level, e.g. {@link Connection#TRANSACTION_READ_COMMITTED}.
+     * @param batchWrites true to queue single-row writes and send them together.
+     * @return The transaction; commit it, and close it in a finally block or try-with-resources.
+     * @throws DataAccessException if no connection could be opened.
+     * @throws IllegalStateException if the thread already has a transaction.
+     */
+    public Transaction begin(int isolation, boolean batchWrites) {
+        if (currentTransaction.get() != null) {
+            throw new IllegalStateException("This thread already has an open transaction");
+        }
+        long start = System.nanoTime();
+        Connection conn = getConnection();
+        try {
+            Transaction transaction = new Transaction(this, conn, isolation, batchWrites);
+            currentTransaction.set(transaction);
+            return transaction;
+        } catch (SQLException e) {
+            closeConnection(conn);
+            throw failure("Error starting transaction", e, null, start);
+        }
+    }
+
+    /**
+     * Runs work as one unit of work: commits if it returns, rolls back if it throws. If the thread
+     * already has a transaction, the work joins it and the outer scope commits.
+     *
+     * @param isolation The JDBC isolation level.
+     * @param batchWrites true to queue single-row writes and send them together at commit.
+     * @param work The DAO calls to run.
+     * @param <T> The result type.
+     * @return The result of the work.
+     * @throws DataAccessException if the database failed; the transaction is then rolled back.
+     */
+    public <T> T inTransaction(int isolation, boolean batchWrites, Supplier<T> work) {
+        if (currentTransaction.get() != null) {
+            return work.get();
+        }
+        try (Transaction transaction = begin(isolation, batchWrites)) {
+            T result = work.get();
+            transaction.commit();
+            return result;
+        }
+    }
+
+    /**
+     * @return The calling thread's open transaction, or null if it has none.
+     */
+    public Transaction currentTransaction() {
+        return currentTransaction.get();
+    }
+
+    /**
+     * Called by a transaction when it is closed.
+     */
+    void endTransaction(Transaction transaction) {
+        if (currentTransaction.get() == transaction) {
+            currentTransaction.remove();
+        }
+    }
+
+    private void pinToPrimary(String sessionKey) {
+        long now = System.nanoTime();
+        if (pinnedUntil.size() > PIN_PRUNE_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until - now < 0);
+        }
+        pinnedUntil.put(sessionKey, now + replicas.getReadYourWritesMillis() * 1_000_000L);
+    }
+
+    private boolean isPinnedToPrimary(String sessionKey) {
+        Long until = pinnedUntil.get(sessionKey);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() < 0) {
+            pinnedUntil.remove(sessionKey, until);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return A replica connection, or null if there are no replicas, none is healthy, or the session is pinned to the primary.
+     */
+    private Connection openReplicaConnection() {
+        if (replicas == null || isPinnedToPrimary(DatabaseSession.current())) {
+            return null;
+        }
+        Connection conn = replicas.getConnection();
+        return conn != null ? withQueryTimeout(conn) : null;
+    }
+
+    private Connection openPrimaryConnection() throws SQLException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new DataAccessException("Database unavailable; not trying again for another "
+                    + circuitBreaker.getRetryAfterMillis() + " ms.");
+        }
+        try {
+            Connection conn = pool != null ? pool.getConnection() : DriverManager.getConnection(DB_URL, connectionProperties);
             // System.out.println("Database connection established successfully."); // For debugging
+            return withQueryTimeout(conn);
         } catch (SQLException e) {
-            System.err.println("Failed to establish database connection: " + e.getMessage());
-            e.printStackTrace();
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps a connection so that every statement it creates gets the query timeout.
+     */
+    private Connection withQueryTimeout(Connection conn) {
+        int seconds = timeouts.getQueryTimeoutSeconds();
+        if (seconds <= 0) {
+            return conn;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new TimeoutHandler(conn, seconds));
+    }
+
+    /**
+     * Sets the query timeout on the statements of a connection, and remembers the SQL of the last
+     * one prepared for the failure log.
+     */
+    private static final class TimeoutHandler implements InvocationHandler {
+        private final Connection conn;
+        private final int seconds;
+        private String lastSql; // Used by the thread that has the connection
+
+        TimeoutHandler(Connection conn, int seconds) {
+            this.conn = conn;
+            this.seconds = seconds;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "prepareStatement":
+                case "prepareCall":
+                    lastSql = (String) args[0];
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(conn, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement statement) {
+                statement.setQueryTimeout(seconds);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @return The SQL of the last statement prepared on the connection, or null if it is not known
+     *         (no connection, or query timeouts are off so the connection is not wrapped).
+     */
+    static String lastStatement(Connection conn) {
+        if (conn != null && Proxy.isProxyClass(conn.getClass())
+                && Proxy.getInvocationHandler(conn) instanceof TimeoutHandler handler) {
+            return handler.lastSql;
+        }
+        return null;
+    }
+
+    /**
+     * Failures that say the database is unreachable or not answering, as opposed to a bad statement.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        if (e instanceof SQLTimeoutException || e instanceof SQLTransientConnectionException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("HYT"));
+    }
+
+    /**
+     * Duplicate keys, missing foreign keys and other constraint violations (SQL state class 23).
+     */
+    static boolean isConstraintViolation(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLIntegrityConstraintViolationException || (state != null && state.startsWith("23"));
+    }
+
+    static DataAccessException failure(String description, SQLException e) {
+        return failure(description, e, null, 0);
+    }
+
+    /**
+     * Logs a failed call with its context and wraps the exception for the caller.
+     *
+     * @param conn The connection the call used, for the SQL; may be null.
+     * @param start System.nanoTime() when the call started, or 0 if not measured.
+     */
+    static DataAccessException failure(String description, SQLException e, Connection conn, long start) {
+        LOG.at(Level.ERROR).with("operation", description).with("sql", lastStatement(conn))
+                .with("sqlState", e.getSQLState()).with("errorCode", e.getErrorCode())
+                .with("elapsedMs", start != 0 ? elapsedMillis(start) : null)
+                .log("{}: {}", description, e.getMessage());
+        return new DataAccessException(description + ": " + e.getMessage(), e);
+    }
+
+    /**
+     * Logs a write the database rejected because it violates a constraint.
+     */
+    static void rejected(String description, SQLException e, Connection conn, long start) {
+        LOG.at(Level.WARN).with("operation", description).with("sql", lastStatement(conn))
+                .with("sqlState", e.getSQLState()).with("elapsedMs", elapsedMillis(start))
+                .log("{}: {}", description, e.getMessage());
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * @return The circuit breaker guarding the primary database.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return The time limits of this manager's connections and statements.
+     */
+    public DatabaseTimeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return The connection pool, or null if connections are not pooled.
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return The read replicas, or null if all reads go to the primary.
+     */
+    public ReplicaSet getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Closes the pooled connections, including those of the replicas.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
+        if (replicas != null) {
+            replicas.close();
         }
-        return conn;
     }
 
     /**
@@ -66,8 +601,7 @@ public class ConnectionManager {
                 conn.close();
                 // System.out.println("Database connection closed."); // For debugging
             } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-                e.printStackTrace();
+                LOG.warn("Error closing database connection: {}", e.getMessage());
             }
         }
     }
@@ -83,8 +617,7 @@ public class ConnectionManager {
                 stmt.close();
                 // System.out.println("Statement closed."); // For debugging
             } catch (SQLException e) {
-                System.err.println("Error closing Statement: " + e.getMessage());
-                e.printStackTrace();
+                LOG.warn("Error closing Statement: {}", e.getMessage());
             }
         }
     }
@@ -100,8 +633,7 @@ public class ConnectionManager {
                 rs.close();
                 // System.out.println("ResultSet closed."); // For debugging
             } catch (SQLException e) {
-                System.err.println("Error closing ResultSet: " + e.getMessage());
-                e.printStackTrace();
+                LOG.warn("Error closing ResultSet: {}", e.getMessage());
             }
         }
     }
@@ -125,8 +657,8 @@ public class ConnectionManager {
                 rowsAffected = stmt.executeUpdate(sql);
             }
         } catch (SQLException e) {
-            System.err.println("SQL update error: " + e.getMessage());
-            e.printStackTrace();
+            LOG.at(Level.ERROR).with("sql", sql).with("sqlState", e.getSQLState()).cause(e)
+                    .log("SQL update error: {}", e.getMessage());
         } finally {
             closeStatement(stmt);
             closeConnection(conn);
@@ -153,8 +685,8 @@ public class ConnectionManager {
                 rs = stmt.executeQuery(sql);
             }
         } catch (SQLException e) {
-            System.err.println("SQL query error: " + e.getMessage());
-            e.printStackTrace();
+            LOG.at(Level.ERROR).with("sql", sql).with("sqlState", e.getSQLState()).cause(e)
+                    .log("SQL query error: {}", e.getMessage());
         } finally {
             // Note: Connection and Statement are NOT closed here because ResultSet might still be in use.
             // They should be closed by the calling DAO method.
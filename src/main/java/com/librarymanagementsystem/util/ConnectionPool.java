@@ -0,0 +1,303 @@
+package com.librarymanagementsystem.util;
+
+import com.librarymanagementsystem.logging.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of JDBC connections shared by all threads.
+ * <p>
+ * {@link #getConnection()} hands out a wrapper around a physical connection; closing the wrapper
+ * returns the physical connection to the pool instead of closing it, so DAO code that opens and
+ * closes a connection per call keeps working unchanged. At most {@code maxSize} connections are
+ * in use at once; further callers wait up to the borrow timeout.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOG = Logger.get(ConnectionPool.class);
+
+    // Idle connections older than this are validated with a round trip before reuse
+    private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger openCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Creates an empty pool; connections are opened on demand.
+     *
+     * @param url The database URL.
+     * @param username The database username.
+     * @param password The database password.
+     * @param maxSize The maximum number of connections in use at the same time.
+     * @param borrowTimeoutMillis How long getConnection waits for a free connection.
+     */
+    public ConnectionPool(String url, String username, String password, int maxSize, long borrowTimeoutMillis) {
+        this(url, DatabaseTimeouts.DEFAULTS.connectionProperties(url, username, password), maxSize, borrowTimeoutMillis);
+    }
+
+    /**
+     * Creates an empty pool whose connections are opened with the given driver properties
+     * (credentials, connect and socket timeouts).
+     *
+     * @param url The database URL.
+     * @param connectionProperties The properties passed to DriverManager.getConnection.
+     * @param maxSize The maximum number of connections in use at the same time.
+     * @param borrowTimeoutMillis How long getConnection waits for a free connection.
+     */
+    public ConnectionPool(String url, Properties connectionProperties, int maxSize, long borrowTimeoutMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrows a connection. Close it to return it to the pool.
+     *
+     * @return A connection that is valid at the time of the call.
+     * @throws SQLException if the pool is closed, no connection became free in time, or a new one could not be opened.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed", "08003");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection (pool size "
+                        + maxSize + ")", "08001");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", "08001", e);
+        }
+
+        try {
+            PooledEntry entry;
+            // Most recently returned first: its socket and server-side state are the warmest
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return wrap(entry);
+                }
+                discard(entry);
+            }
+            Connection physical = DriverManager.getConnection(url, connectionProperties);
+            openCount.incrementAndGet();
+            return wrap(new PooledEntry(physical));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens physical connections ahead of demand, in parallel, so that the first callers do not
+     * pay for the connection handshake. Never opens more than the pool size.
+     *
+     * @param count The number of open connections wanted.
+     * @return The number of connections opened by this call.
+     */
+    public int warmUp(int count) {
+        int wanted = Math.min(count, maxSize) - openCount.get();
+        if (wanted <= 0 || closed) {
+            return 0;
+        }
+        AtomicInteger opened = new AtomicInteger();
+        Thread[] openers = new Thread[wanted];
+        for (int i = 0; i < wanted; i++) {
+            openers[i] = Thread.ofVirtual().name("pool-warmup-" + i).start(() -> {
+                try {
+                    Connection physical = DriverManager.getConnection(url, connectionProperties);
+                    openCount.incrementAndGet();
+                    idle.offerLast(new PooledEntry(physical));
+                    opened.incrementAndGet();
+                } catch (SQLException e) {
+                    LOG.warn("Error opening a connection during pool warm-up: {}", e.getMessage());
+                }
+            });
+        }
+        for (Thread opener : openers) {
+            try {
+                opener.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return opened.get();
+    }
+
+    /**
+     * @return The number of physical connections currently open, in use or idle.
+     */
+    public int getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * @return The number of connections currently borrowed.
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * @return The number of open connections waiting in the pool.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return The maximum number of connections in use at the same time.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Closes all idle connections. Connections still in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            if (System.nanoTime() - entry.idleSince > VALIDATE_AFTER_IDLE_NANOS) {
+                return entry.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            return !entry.physical.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnectionHandler(entry));
+    }
+
+    private void release(PooledEntry entry, boolean broken) {
+        try {
+            if (closed || broken || entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            // Undo per-borrower state, so the next borrower gets a connection in its default state
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (entry.physical.isReadOnly()) {
+                entry.physical.setReadOnly(false);
+            }
+            entry.idleSince = System.nanoTime();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        openCount.decrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            LOG.warn("Error closing pooled database connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * SQL states of class 08 mean the connection itself failed and must not be reused.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    private static final class PooledEntry {
+        final Connection physical;
+        volatile long idleSince = System.nanoTime();
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * Forwards every call to the physical connection, except close(), which returns it to the pool.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned;
+        private boolean broken;
+
+        PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + (returned ? "(returned)" : "") + "[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool", "08003");
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isConnectionFailure(sqlException)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.librarymanagementsystem.util;
+
+/**
+ * Identifies the client session on whose behalf the current thread talks to the database.
+ * <p>
+ * ConnectionManager uses it for read-your-writes: after a session writes, its reads go to the
+ * primary for a short window, so it sees its own changes even if replicas lag behind. Threads
+ * that never set a session share the default one, which suits the desktop client where the
+ * whole process is one user; it names that user's session once logged in ({@link #setDefault}),
+ * so the audit log can tell who made a change.
+ */
+public final class DatabaseSession {
+
+    /** Session key used by threads that have not set one. */
+    public static final String DEFAULT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static volatile String processDefault = DEFAULT;
+
+    private DatabaseSession() {
+        // No instantiation needed
+    }
+
+    /**
+     * Binds the current thread to a session until {@link #clear()} is called.
+     *
+     * @param sessionKey A key identifying the client session, e.g. its login token; null means the default session.
+     */
+    public static void set(String sessionKey) {
+        if (sessionKey == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(sessionKey);
+        }
+    }
+
+    /**
+     * Sets the session of every thread that has not set one, e.g. after the desktop user logged in.
+     *
+     * @param sessionKey A key identifying the client session; null to go back to {@link #DEFAULT}.
+     */
+    public static void setDefault(String sessionKey) {
+        processDefault = sessionKey != null ? sessionKey : DEFAULT;
+    }
+
+    /**
+     * Unbinds the current thread from its session.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return The session key of the current thread, or the process-wide default.
+     */
+    public static String current() {
+        String key = CURRENT.get();
+        return key != null ? key : processDefault;
+    }
+}
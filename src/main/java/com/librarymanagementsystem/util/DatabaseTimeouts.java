@@ -0,0 +1,99 @@
+package com.librarymanagementsystem.util;
+
+import java.util.Properties;
+
+/**
+ * Time limits for talking to the database, so that a stalled server costs a caller a bounded
+ * amount of time instead of the driver's defaults (which can be minutes).
+ * <ul>
+ *     <li>connect timeout: opening a new physical connection (TCP connect and handshake);</li>
+ *     <li>socket timeout: waiting for any single network read, as a last line of defence;</li>
+ *     <li>query timeout: running one statement, enforced by the driver with a server-side cancel;</li>
+ *     <li>borrow timeout: waiting for a free connection in a pool.</li>
+ * </ul>
+ * The socket timeout should be longer than the query timeout, otherwise a slow query breaks its
+ * connection instead of being cancelled.
+ */
+public final class DatabaseTimeouts {
+
+    /**
+     * 5 s connect, 30 s socket, 15 s per statement, 5 s to borrow a pooled connection.
+     */
+    public static final DatabaseTimeouts DEFAULTS = new DatabaseTimeouts(5_000, 30_000, 15, 5_000);
+
+    private final int connectTimeoutMillis;
+    private final int socketTimeoutMillis;
+    private final int queryTimeoutSeconds;
+    private final long borrowTimeoutMillis;
+
+    /**
+     * @param connectTimeoutMillis Limit for opening a connection, in milliseconds (0 = driver default).
+     * @param socketTimeoutMillis Limit for a single network read, in milliseconds (0 = driver default).
+     * @param queryTimeoutSeconds Limit for one statement, in seconds (0 = no limit).
+     * @param borrowTimeoutMillis How long to wait for a free pooled connection, in milliseconds.
+     */
+    public DatabaseTimeouts(int connectTimeoutMillis, int socketTimeoutMillis, int queryTimeoutSeconds, long borrowTimeoutMillis) {
+        if (connectTimeoutMillis < 0 || socketTimeoutMillis < 0 || queryTimeoutSeconds < 0 || borrowTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeouts must not be negative");
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    /**
+     * Builds the properties for DriverManager.getConnection. The connect and socket timeouts are
+     * MySQL Connector/J properties; other drivers (e.g. H2 in the benchmarks) only get the
+     * credentials, because they reject unknown properties.
+     *
+     * @param url The JDBC URL the properties are for.
+     * @param username The database username.
+     * @param password The database password.
+     * @return The connection properties.
+     */
+    public Properties connectionProperties(String url, String username, String password) {
+        Properties info = new Properties();
+        if (username != null) {
+            info.setProperty("user", username);
+        }
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+        if (url != null && url.startsWith("jdbc:mysql:")) {
+            if (connectTimeoutMillis > 0) {
+                info.setProperty("connectTimeout", String.valueOf(connectTimeoutMillis));
+            }
+            if (socketTimeoutMillis > 0) {
+                info.setProperty("socketTimeout", String.valueOf(socketTimeoutMillis));
+            }
+        }
+        return info;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseTimeouts{" +
+                "connect=" + connectTimeoutMillis + "ms" +
+                ", socket=" + socketTimeoutMillis + "ms" +
+                ", query=" + queryTimeoutSeconds + "s" +
+                ", borrow=" + borrowTimeoutMillis + "ms" +
+                '}';
+    }
+}
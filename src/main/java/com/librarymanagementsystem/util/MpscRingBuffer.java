@@ -0,0 +1,110 @@
+package com.librarymanagementsystem.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue for many producers and one consumer, for handing records to a
+ * background writer (the audit log, the log appender) without making the callers wait for it.
+ * <p>
+ * Each slot has a sequence number that says whose turn it is: a producer claims the next position
+ * with one compare-and-set on the tail, fills the slot and publishes it by advancing the slot's
+ * sequence; the consumer takes slots in order and hands them back by advancing the sequence by the
+ * capacity. Producers never wait for each other while the buffer has room, and a full buffer is
+ * reported instead of blocking.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences; // By slot: equal to the position when free, position + 1 when filled
+    private final AtomicLong tail = new AtomicLong(); // Next position to claim
+    private volatile long head;                     // Next position to take; written by the consumer only
+
+    /**
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element. Safe to call from any number of threads.
+     *
+     * @return false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(slot, element);
+                    sequences.lazySet(slot, position + 1); // Publishes the element to the consumer
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false; // The slot still holds an element from one lap ago
+            }
+            // Otherwise another producer claimed the position; try the next one
+        }
+    }
+
+    /**
+     * Moves up to max elements, oldest first, to a list. Must only be called by the consumer thread.
+     *
+     * @return The number of elements moved.
+     */
+    public int drainTo(List<? super E> elements, int max) {
+        long position = head;
+        int moved = 0;
+        while (moved < max) {
+            int slot = (int) position & mask;
+            if (sequences.get(slot) != position + 1) {
+                break; // Empty, or claimed but not filled yet
+            }
+            elements.add(slots.get(slot));
+            slots.lazySet(slot, null);
+            sequences.lazySet(slot, position + mask + 1); // Free for the producer one lap ahead
+            position++;
+            moved++;
+        }
+        head = position;
+        return moved;
+    }
+
+    /**
+     * @return The number of elements claimed but not yet taken; approximate while producers are active.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * @return The number of elements ever added; the buffer positions below it are claimed.
+     */
+    public long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * @return The number of slots.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
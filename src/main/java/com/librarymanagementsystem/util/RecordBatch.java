@@ -0,0 +1,145 @@
+package com.librarymanagementsystem.util;
+
+import java.util.Arrays;
+
+/**
+ * A batch of book records for bulk validation: the text they were read from and, for each record,
+ * where its fields start and end in it, so fields are checked in place without being copied into
+ * Strings. {@link BulkValidator} stores the violations it finds in each record here.
+ * <p>
+ * The fields of a record are, in order: book ID, title, author, category name and year
+ * ({@link #ID} to {@link #YEAR}). A missing field is an empty range.
+ */
+public final class RecordBatch {
+
+    public static final int ID = 0;
+    public static final int TITLE = 1;
+    public static final int AUTHOR = 2;
+    public static final int CATEGORY = 3;
+    public static final int YEAR = 4;
+    public static final int FIELDS = 5;
+
+    private final CharSequence text;
+    private final int[] bounds;     // Start and end of each field, FIELDS pairs per record
+    private final int records;
+    private final int[] violations; // BulkValidator flags per record; 0 if valid or not checked yet
+
+    /**
+     * @param text The text the records were read from.
+     * @param bounds The start (inclusive) and end (exclusive) of each field in the text, {@link #FIELDS}
+     *               pairs per record, in field order.
+     * @param records The number of records.
+     */
+    public RecordBatch(CharSequence text, int[] bounds, int records) {
+        if (bounds.length < records * FIELDS * 2) {
+            throw new IllegalArgumentException("bounds holds fewer than " + records + " records");
+        }
+        this.text = text;
+        this.bounds = bounds;
+        this.records = records;
+        this.violations = new int[records];
+    }
+
+    /**
+     * Splits text with one record per line (LF or CRLF) and fields separated by a character, such as
+     * a tab. Fields are not unquoted. Fields missing at the end of a line are empty and extra ones
+     * are ignored. Blank lines are records with every field missing.
+     *
+     * @param text The text.
+     * @param separator The field separator.
+     * @return The batch, not validated yet.
+     */
+    public static RecordBatch parseDelimited(CharSequence text, char separator) {
+        int[] bounds = new int[64 * FIELDS * 2];
+        int records = 0;
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (bounds.length < (records + 1) * FIELDS * 2) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            int at = records * FIELDS * 2;
+            int fieldStart = lineStart;
+            for (int field = 0; field < FIELDS; field++) {
+                int fieldEnd = fieldStart;
+                while (fieldEnd < lineEnd && text.charAt(fieldEnd) != separator) {
+                    fieldEnd++;
+                }
+                bounds[at++] = fieldStart;
+                bounds[at++] = fieldEnd;
+                fieldStart = Math.min(fieldEnd + 1, lineEnd); // Past the end: the remaining fields are empty
+            }
+            records++;
+            lineStart = next;
+        }
+        return new RecordBatch(text, bounds, records);
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * @return The number of records.
+     */
+    public int size() {
+        return records;
+    }
+
+    /**
+     * @return Where a field of a record starts in the text.
+     */
+    public int fieldStart(int record, int field) {
+        return bounds[(record * FIELDS + field) * 2];
+    }
+
+    /**
+     * @return Where a field of a record ends in the text (exclusive).
+     */
+    public int fieldEnd(int record, int field) {
+        return bounds[(record * FIELDS + field) * 2 + 1];
+    }
+
+    /**
+     * @return The field as a String, e.g. for an error message.
+     */
+    public String field(int record, int field) {
+        return text.subSequence(fieldStart(record, field), fieldEnd(record, field)).toString();
+    }
+
+    /**
+     * @return The {@link BulkValidator} flags of a record; 0 if it is valid.
+     */
+    public int getViolations(int record) {
+        return violations[record];
+    }
+
+    /**
+     * @return The number of records with at least one violation.
+     */
+    public int invalidCount() {
+        int invalid = 0;
+        for (int flags : violations) {
+            if (flags != 0) {
+                invalid++;
+            }
+        }
+        return invalid;
+    }
+
+    int[] bounds() {
+        return bounds;
+    }
+
+    void setViolations(int record, int flags) {
+        violations[record] = flags;
+    }
+}
@@ -0,0 +1,212 @@
+package com.librarymanagementsystem.util;
+
+import com.librarymanagementsystem.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read replicas of the primary database, each with its own connection pool.
+ * <p>
+ * Reads are spread over the healthy replicas round-robin or to the replica with the fewest
+ * connections in use. A replica that fails to hand out a connection is taken out of rotation
+ * at once; a background check probes every replica periodically and puts it back when it
+ * answers again.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    private static final Logger LOG = Logger.get(ReplicaSet.class);
+
+    /**
+     * How reads are spread over the healthy replicas.
+     */
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_LOADED;
+
+        /**
+         * @param name "round-robin" or "least-loaded" (case-insensitive, '_' or '-').
+         * @return The matching strategy.
+         */
+        public static Balancing fromName(String name) {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final long readYourWritesMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * Creates the replica pools and starts the health check.
+     *
+     * @param urls The JDBC URLs of the replicas.
+     * @param username The database username (the same on every replica).
+     * @param password The database password.
+     * @param poolSize The maximum number of connections in use per replica.
+     * @param balancing How reads are spread over the replicas.
+     * @param readYourWritesMillis How long a session's reads stay on the primary after it writes.
+     * @param healthCheckIntervalMillis How often every replica is probed.
+     */
+    public ReplicaSet(List<String> urls, String username, String password, int poolSize, Balancing balancing,
+                      long readYourWritesMillis, long healthCheckIntervalMillis) {
+        this(urls, username, password, poolSize, balancing, readYourWritesMillis, healthCheckIntervalMillis, DatabaseTimeouts.DEFAULTS);
+    }
+
+    /**
+     * Creates the replica pools with the given time limits and starts the health check.
+     *
+     * @param urls The JDBC URLs of the replicas.
+     * @param username The database username (the same on every replica).
+     * @param password The database password.
+     * @param poolSize The maximum number of connections in use per replica.
+     * @param balancing How reads are spread over the replicas.
+     * @param readYourWritesMillis How long a session's reads stay on the primary after it writes.
+     * @param healthCheckIntervalMillis How often every replica is probed.
+     * @param timeouts The connect, socket and borrow timeouts of the replica connections.
+     */
+    public ReplicaSet(List<String> urls, String username, String password, int poolSize, Balancing balancing,
+                      long readYourWritesMillis, long healthCheckIntervalMillis, DatabaseTimeouts timeouts) {
+        List<Replica> list = new ArrayList<>();
+        for (String url : urls) {
+            list.add(new Replica(url, new ConnectionPool(url, timeouts.connectionProperties(url, username, password),
+                    Math.max(1, poolSize), timeouts.getBorrowTimeoutMillis())));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.balancing = balancing;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from a healthy replica.
+     *
+     * @return A replica connection, or null if no replica is available.
+     */
+    public Connection getConnection() {
+        int size = replicas.size();
+        for (int attempt = 0; attempt < size; attempt++) {
+            Replica replica = choose();
+            if (replica == null) {
+                return null;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException e) {
+                // Take it out of rotation until the health check sees it answer again
+                replica.markDown(e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return How long a session's reads stay on the primary after it writes, in milliseconds.
+     */
+    public long getReadYourWritesMillis() {
+        return readYourWritesMillis;
+    }
+
+    /**
+     * @return The number of replicas currently in rotation.
+     */
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Probes every replica with a validation query and updates its health.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.pool.getConnection()) {
+                if (conn.isValid(HEALTH_CHECK_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown("validation failed");
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the health check and closes the replica pools.
+     */
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private Replica choose() {
+        if (balancing == Balancing.LEAST_LOADED) {
+            Replica best = null;
+            for (Replica replica : replicas) {
+                if (replica.healthy && (best == null || replica.pool.getActiveCount() < best.pool.getActiveCount())) {
+                    best = replica;
+                }
+            }
+            return best;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+        final String url;
+        final ConnectionPool pool;
+        volatile boolean healthy = true;
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                healthy = false;
+                LOG.warn("Read replica {} is unavailable, reading from the other databases: {}", url, reason);
+            }
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                System.out.println("Read replica " + url + " is available again.");
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.librarymanagementsystem.util;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retries with jittered exponential backoff, for idempotent reads only.
+ * <p>
+ * A call is tried at most {@code maxAttempts} times, and a retry is only started while the time
+ * spent so far plus the backoff stays within {@code budgetMillis}. A slow failure (e.g. a query
+ * timeout) therefore is not retried, while a quick one (a dropped connection, a deadlock) is.
+ * The backoff is "full jitter": a random delay between 0 and {@code baseDelayMillis * 2^(n-1)},
+ * capped at {@code maxDelayMillis}, so that many clients do not retry in lockstep.
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long budgetMillis;
+
+    /**
+     * @param maxAttempts The maximum number of attempts, including the first one.
+     * @param baseDelayMillis The upper bound of the first backoff.
+     * @param maxDelayMillis The upper bound of any backoff.
+     * @param budgetMillis The total time after which no further attempt is started.
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, long budgetMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is required");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Decides whether a failed attempt is retried, and if so waits for the backoff.
+     *
+     * @param attempt The number of the attempt that failed, starting at 1.
+     * @param startNanos System.nanoTime() when the first attempt started.
+     * @param e The failure of the attempt.
+     * @return true if the caller should try again now.
+     */
+    public boolean retryAfter(int attempt, long startNanos, SQLException e) {
+        if (attempt >= maxAttempts || !isTransient(e)) {
+            return false;
+        }
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+        if (elapsedMillis + delay > budgetMillis) {
+            return false;
+        }
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return The maximum number of attempts, including the first one.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Failures that may succeed when the same statement is simply run again: lost or refused
+     * connections (SQL state class 08), timeouts, deadlocks and serialization failures (40001).
+     * Syntax errors, constraint violations and the like are not.
+     *
+     * @param e The failure.
+     * @return true if retrying can help.
+     */
+    public static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.equals("40001") || state.startsWith("HYT"));
+    }
+}
@@ -0,0 +1,301 @@
+package com.librarymanagementsystem.util;
+
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.logging.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A unit of work on the primary database: every DAO call made on the owning thread while it is
+ * open shares one connection, and the changes are committed once, or rolled back.
+ * <p>
+ * Obtain one from {@link ConnectionManager#begin(int, boolean)} and use try-with-resources;
+ * closing a transaction that was not committed rolls it back:
+ * <pre>
+ * try (Transaction tx = connectionManager.begin(Connection.TRANSACTION_SERIALIZABLE, false)) {
+ *     ... DAO calls ...
+ *     tx.commit();
+ * }
+ * </pre>
+ * With batched writes, single-row updates ({@link ConnectionManager#update}) are queued instead
+ * of executed and sent together with JDBC batches when the transaction commits, before the next
+ * read, or on {@link #flush()}. Such a write reports true when it is queued; a failure surfaces
+ * when the batch is flushed and makes the whole transaction roll back.
+ * <p>
+ * A DAO can also collect writes about the transaction's changes, such as the change log, in a
+ * {@link FlushStep}: they are sent at every flush after the queued writes, whether or not writes
+ * are batched.
+ */
+public final class Transaction implements AutoCloseable {
+    private static final Logger LOG = Logger.get(Transaction.class);
+
+    private final ConnectionManager manager;
+    private final Connection connection;
+    private final int previousIsolation;
+    private final boolean batchWrites;
+    private final List<PendingWrite> pending = new ArrayList<>();
+    private final Map<Class<?>, FlushStep> flushSteps = new LinkedHashMap<>();
+
+    private boolean rollbackOnly;
+    private boolean finished;
+
+    /**
+     * Writes a DAO collects during a transaction and sends at once when it flushes.
+     */
+    public interface FlushStep {
+
+        /**
+         * Sends what was collected since the previous flush, if anything.
+         */
+        void flush(Connection connection) throws SQLException;
+    }
+
+    Transaction(ConnectionManager manager, Connection connection, int isolation, boolean batchWrites) throws SQLException {
+        this.manager = manager;
+        this.connection = connection;
+        this.batchWrites = batchWrites;
+        this.previousIsolation = connection.getTransactionIsolation();
+        if (isolation != previousIsolation) {
+            connection.setTransactionIsolation(isolation);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Returns the transaction's step of a type, adding the one {@code create} makes if it has none,
+     * so that all DAOs in the transaction collect into the same step.
+     *
+     * @param type The type of the step.
+     * @param create Makes the step.
+     * @param <T> The type of the step.
+     * @return The step.
+     */
+    public <T extends FlushStep> T flushStep(Class<T> type, Supplier<T> create) {
+        checkOpen();
+        return type.cast(flushSteps.computeIfAbsent(type, key -> create.get()));
+    }
+
+    /**
+     * Sends the queued writes to the database, one JDBC batch per run of identical statements,
+     * then the writes of the {@link FlushStep}s.
+     *
+     * @throws DataAccessException if a write failed; the transaction is then marked for rollback.
+     */
+    public void flush() {
+        if (pending.isEmpty() && flushSteps.isEmpty()) {
+            return;
+        }
+        List<PendingWrite> writes = new ArrayList<>(pending);
+        pending.clear();
+        long start = System.nanoTime();
+        try {
+            int i = 0;
+            while (i < writes.size()) {
+                String sql = writes.get(i).sql;
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    // Consecutive writes with the same SQL share one statement and one round trip
+                    for (; i < writes.size() && writes.get(i).sql.equals(sql); i++) {
+                        writes.get(i).binder.bind(pstmt);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+            for (FlushStep step : flushSteps.values()) {
+                step.flush(connection);
+            }
+        } catch (SQLException e) {
+            rollbackOnly = true;
+            throw ConnectionManager.failure("Error writing batched changes", e, connection, start);
+        }
+    }
+
+    /**
+     * Flushes the queued writes and commits.
+     *
+     * @throws DataAccessException if the transaction was marked for rollback or the commit failed;
+     *         the transaction is rolled back in either case.
+     */
+    public void commit() {
+        checkOpen();
+        if (rollbackOnly) {
+            rollback();
+            throw new DataAccessException("Transaction rolled back because one of its statements failed.");
+        }
+        long start = System.nanoTime();
+        try {
+            flush();
+            connection.commit();
+            finished = true;
+        } catch (SQLException e) {
+            rollback();
+            throw ConnectionManager.failure("Error committing transaction", e, null, start);
+        } catch (DataAccessException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Discards the queued writes and rolls back everything done in this transaction.
+     */
+    public void rollback() {
+        if (finished) {
+            return;
+        }
+        pending.clear();
+        flushSteps.clear();
+        finished = true;
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOG.warn("Error rolling back transaction: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Marks the transaction so that it can only roll back.
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    /**
+     * @return true if the transaction can only roll back.
+     */
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    /**
+     * Rolls back unless committed, restores the connection's settings and releases it.
+     */
+    @Override
+    public void close() {
+        try {
+            rollback();
+            connection.setAutoCommit(true);
+            if (connection.getTransactionIsolation() != previousIsolation) {
+                connection.setTransactionIsolation(previousIsolation);
+            }
+        } catch (SQLException e) {
+            LOG.warn("Error resetting transaction connection: {}", e.getMessage());
+        } finally {
+            manager.endTransaction(this);
+            manager.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Runs DAO work on the transaction's connection, after sending queued writes so the work
+     * sees them.
+     */
+    <T> T execute(String description, ConnectionManager.SqlWork<T> work) {
+        checkOpen();
+        flush();
+        long start = System.nanoTime();
+        try {
+            return work.run(connection);
+        } catch (SQLException e) {
+            rollbackOnly = true;
+            throw ConnectionManager.failure(description, e, connection, start);
+        }
+    }
+
+    /**
+     * Runs a write; a constraint violation is reported as {@code rejected} and leaves the transaction usable,
+     * as the caller may decide to go on without that change. The work runs after a savepoint, and a
+     * rejected write is rolled back to it: the statements the work ran before the violation are
+     * undone too, so the rejected write leaves no trace when the transaction commits.
+     */
+    <T> T executeWrite(String description, ConnectionManager.SqlWork<T> work, T rejected) {
+        checkOpen();
+        flush();
+        long start = System.nanoTime();
+        Savepoint savepoint = null;
+        try {
+            savepoint = connection.setSavepoint();
+            T result = work.run(connection);
+            connection.releaseSavepoint(savepoint);
+            return result;
+        } catch (SQLException e) {
+            if (savepoint != null && ConnectionManager.isConstraintViolation(e)) {
+                try {
+                    connection.rollback(savepoint);
+                } catch (SQLException rollbackFailure) {
+                    rollbackOnly = true;
+                    throw ConnectionManager.failure(description, rollbackFailure, connection, start);
+                }
+                ConnectionManager.rejected(description, e, connection, start);
+                return rejected;
+            }
+            rollbackOnly = true;
+            throw ConnectionManager.failure(description, e, connection, start);
+        }
+    }
+
+    /**
+     * @return true if the write was queued for the next flush instead of being executed.
+     */
+    boolean queue(String sql, ConnectionManager.StatementBinder binder) {
+        checkOpen();
+        if (!batchWrites) {
+            return false;
+        }
+        pending.add(new PendingWrite(sql, binder));
+        return true;
+    }
+
+    /**
+     * @return The transaction's connection behind a wrapper whose close() does nothing, for
+     *         callers that open and close connections themselves.
+     */
+    Connection borrowConnection() {
+        checkOpen();
+        flush();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null; // Released when the transaction ends
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void checkOpen() {
+        if (finished) {
+            throw new IllegalStateException("Transaction has already been committed or rolled back");
+        }
+    }
+
+    private static final class PendingWrite {
+        final String sql;
+        final ConnectionManager.StatementBinder binder;
+
+        PendingWrite(String sql, ConnectionManager.StatementBinder binder) {
+            this.sql = sql;
+            this.binder = binder;
+        }
+    }
+}
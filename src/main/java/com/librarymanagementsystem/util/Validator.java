@@ -112,4 +112,26 @@ public class Validator {
     public static boolean isValidCategoryName(String categoryName) {
         return !isNullOrEmpty(categoryName);
     }
+
+    /**
+     * Checks if the barcode of a book copy is valid.
+     * (Stored in a column of 50 chars max, like the book ID)
+     *
+     * @param barcode The barcode string.
+     * @return true if the barcode is valid, false otherwise.
+     */
+    public static boolean isValidBarcode(String barcode) {
+        return !isNullOrEmpty(barcode) && barcode.length() <= 50;
+    }
+
+    /**
+     * Checks if a username is valid.
+     * (Stored in a column of 50 chars max)
+     *
+     * @param username The username string.
+     * @return true if the username is valid, false otherwise.
+     */
+    public static boolean isValidUsername(String username) {
+        return !isNullOrEmpty(username) && username.length() <= 50;
+    }
 }
\ No newline at end of file
@@ -2,17 +2,25 @@ package com.librarymanagementsystem.view;
 
 import com.librarymanagementsystem.dao.BookDAO;
 import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.TransactionRunner;
+import com.librarymanagementsystem.dao.UpdateResult;
 import com.librarymanagementsystem.auth.UserAuthenticator; // To get user role for permissions
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import com.librarymanagementsystem.model.Book;
 import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.model.CategoryTree;
+import com.librarymanagementsystem.search.FuzzyMatch;
+import com.librarymanagementsystem.search.SearchIndexingBookDAO;
 import com.librarymanagementsystem.util.Validator;
 
 /**
@@ -22,13 +30,25 @@ import com.librarymanagementsystem.util.Validator;
  */
 public class BookManagementView extends JFrame {
 
+    // Most similar books listed when a search finds nothing
+    private static final int SIMILAR_BOOKS_LIMIT = 50;
+    // Suggestions listed under the title and author search fields while typing
+    private static final int SUGGESTIONS_LIMIT = 10;
+    // Likely duplicates listed when a book being added resembles books already in the catalog
+    private static final int DUPLICATES_LIMIT = 5;
+    // Parent category choice for a top-level category
+    private static final String NO_PARENT = "(None)";
+
     private final BookDAO bookDAO;
     private final CategoryDAO categoryDAO;
+    private final TransactionRunner transactions; // Groups DAO calls that must happen atomically
     private final UserAuthenticator authenticator;
+    private final String sessionToken; // Session of the logged-in user
+    private final List<Category> preloadedCategories; // Loaded during startup, or null
 
     // UI Components for Book Management
     private JTable bookTable;
-    private DefaultTableModel tableModel;
+    private BookTableModel tableModel;
     private JTextField bookIdField, bookTitleField, bookAuthorField, bookYearField;
     private JComboBox<String> bookCategoryComboBox;
     private JButton addButton, updateButton, deleteButton, clearButton;
@@ -37,25 +57,53 @@ public class BookManagementView extends JFrame {
     // UI Components for Search
     private JTextField searchTitleField, searchAuthorField, searchMinYearField, searchMaxYearField;
     private JComboBox<String> searchCategoryComboBox;
+    private JCheckBox searchSubcategoriesCheckBox;
     private JButton searchButton, advancedSearchButton, clearSearchButton;
 
     // UI Components for Category Management (Admin only)
     private JTextField categoryNameField;
+    private JComboBox<String> parentCategoryComboBox;
     private JButton addCategoryButton, updateCategoryButton, deleteCategoryButton;
     private JList<String> categoryList;
     private DefaultListModel<String> categoryListModel;
 
+    // What is being edited, as it was read; its version tells whether someone else changed it meanwhile
+    private Book editedBook;
+    private Category editedCategory;
+    private List<Category> listedCategories = new ArrayList<>(); // In the order of categoryList
+    private CategoryTree categoryTree = CategoryTree.of(List.of()); // The hierarchy of the listed categories
+
     /**
      * Constructs a new BookManagementView.
      *
      * @param bookDAO The BookDAO implementation for book database operations.
      * @param categoryDAO The CategoryDAO implementation for category database operations.
      * @param authenticator The UserAuthenticator instance to check user roles.
+     * @param sessionToken The session token of the logged-in user.
+     */
+    public BookManagementView(BookDAO bookDAO, CategoryDAO categoryDAO, UserAuthenticator authenticator, String sessionToken) {
+        this(bookDAO, categoryDAO, TransactionRunner.DIRECT, authenticator, sessionToken, null);
+    }
+
+    /**
+     * Constructs a new BookManagementView that fills its category lists from categories loaded
+     * during startup, saving a database round trip when the window opens.
+     *
+     * @param bookDAO The BookDAO implementation for book database operations.
+     * @param categoryDAO The CategoryDAO implementation for category database operations.
+     * @param transactions The TransactionRunner of the same storage as the DAOs.
+     * @param authenticator The UserAuthenticator instance to check user roles.
+     * @param sessionToken The session token of the logged-in user.
+     * @param preloadedCategories The categories loaded at startup, or null to load them now.
      */
-    public BookManagementView(BookDAO bookDAO, CategoryDAO categoryDAO, UserAuthenticator authenticator) {
+    public BookManagementView(BookDAO bookDAO, CategoryDAO categoryDAO, TransactionRunner transactions, UserAuthenticator authenticator,
+                              String sessionToken, List<Category> preloadedCategories) {
         this.bookDAO = bookDAO;
         this.categoryDAO = categoryDAO;
+        this.transactions = transactions;
         this.authenticator = authenticator;
+        this.sessionToken = sessionToken;
+        this.preloadedCategories = preloadedCategories;
         initializeUI();
     }
 
@@ -63,7 +111,8 @@ public class BookManagementView extends JFrame {
      * Initializes and lays out the UI components for the main book management window.
      */
     private void initializeUI() {
-        setTitle("Library Management System - " + (authenticator.getCurrentUserRole() != null ? authenticator.getCurrentUserRole() : "Guest"));
+        String role = authenticator.getRole(sessionToken);
+        setTitle("Library Management System - " + (role != null ? role : "Guest"));
         setSize(1530, 900); // Adjust size as needed
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null); // Center the window
@@ -117,13 +166,7 @@ public class BookManagementView extends JFrame {
         mainPanel.add(bookFormPanel, BorderLayout.WEST); // Place form on the left
 
         // --- Center Panel: Book List Table ---
-        String[] columnNames = {"ID", "Title", "Author", "Category ID", "Year"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make cells non-editable
-            }
-        };
+        tableModel = new BookTableModel();
         bookTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(bookTable);
         mainPanel.add(scrollPane, BorderLayout.CENTER); // Place table in the center
@@ -150,6 +193,11 @@ public class BookManagementView extends JFrame {
         searchGbc.gridx = 0; searchGbc.gridy = row; searchPanel.add(new JLabel("Category:"), searchGbc);
         searchGbc.gridx = 1; searchCategoryComboBox = new JComboBox<>(); searchPanel.add(searchCategoryComboBox, searchGbc);
 
+        row++;
+        searchGbc.gridx = 1; searchGbc.gridy = row;
+        searchSubcategoriesCheckBox = new JCheckBox("Include subcategories", true);
+        searchPanel.add(searchSubcategoriesCheckBox, searchGbc);
+
         row++;
         searchGbc.gridx = 0; searchGbc.gridy = row; searchPanel.add(new JLabel("Min Year:"), searchGbc);
         searchGbc.gridx = 1; searchMinYearField = new JTextField(15); searchPanel.add(searchMinYearField, searchGbc);
@@ -182,6 +230,10 @@ public class BookManagementView extends JFrame {
         catGbc.gridx = 0; catGbc.gridy = row; categoryPanel.add(new JLabel("Category Name:"), catGbc);
         catGbc.gridx = 1; categoryNameField = new JTextField(15); categoryPanel.add(categoryNameField, catGbc);
 
+        row++;
+        catGbc.gridx = 0; catGbc.gridy = row; categoryPanel.add(new JLabel("Parent Category:"), catGbc);
+        catGbc.gridx = 1; parentCategoryComboBox = new JComboBox<>(); categoryPanel.add(parentCategoryComboBox, catGbc);
+
         JPanel catButtonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
         addCategoryButton = new JButton("Add Category");
         updateCategoryButton = new JButton("Update Category");
@@ -207,8 +259,10 @@ public class BookManagementView extends JFrame {
         add(mainPanel); // Add the main panel to the frame
 
         // Initialize data
-        populateCategoryComboBoxes();
-        populateBookTable(bookDAO.getAllBooks()); // Initial load of all books
+        runAction(() -> {
+            populateCategoryComboBoxes(preloadedCategories != null ? preloadedCategories : categoryDAO.getAllCategories());
+            populateBookTable(bookDAO.getAllBooks()); // Initial load of all books
+        });
 
         // Add Listeners
         addBookListeners();
@@ -224,18 +278,45 @@ public class BookManagementView extends JFrame {
      * Populates the category combo boxes with categories from the database.
      */
     private void populateCategoryComboBoxes() {
+        populateCategoryComboBoxes(categoryDAO.getAllCategories());
+    }
+
+    /**
+     * Populates the category combo boxes with the given categories, each followed by its
+     * subcategories; the category list indents subcategories below their parent.
+     * @param categories The categories to list.
+     */
+    private void populateCategoryComboBoxes(List<Category> categories) {
         bookCategoryComboBox.removeAllItems();
         searchCategoryComboBox.removeAllItems();
+        parentCategoryComboBox.removeAllItems();
         categoryListModel.clear();
+        categoryTree = CategoryTree.of(categories);
+        listedCategories = categoryTree.inTreeOrder();
+        editedCategory = null;
 
         searchCategoryComboBox.addItem("All Categories"); // Option to search all categories
+        parentCategoryComboBox.addItem(NO_PARENT);
 
-        List<Category> categories = categoryDAO.getAllCategories();
-        for (Category category : categories) {
+        for (Category category : listedCategories) {
             bookCategoryComboBox.addItem(category.getName());
             searchCategoryComboBox.addItem(category.getName());
-            categoryListModel.addElement(category.getName() + " (ID: " + category.getId() + ")");
+            parentCategoryComboBox.addItem(category.getName());
+            categoryListModel.addElement("    ".repeat(categoryTree.getDepth(category.getId())) + category.getName()
+                    + " (ID: " + category.getId() + ")");
+        }
+    }
+
+    /**
+     * @return The ID of the category chosen as parent in the category form, 0 for none, or -1 if it no longer exists.
+     */
+    private int selectedParentId() {
+        String parentName = (String) parentCategoryComboBox.getSelectedItem();
+        if (parentName == null || parentName.equals(NO_PARENT)) {
+            return 0;
         }
+        Category parent = categoryDAO.getCategoryByName(parentName);
+        return parent != null ? parent.getId() : -1;
     }
 
     /**
@@ -243,10 +324,21 @@ public class BookManagementView extends JFrame {
      * @param books The list of books to display.
      */
     private void populateBookTable(List<Book> books) {
-        tableModel.setRowCount(0); // Clear existing data
-        for (Book book : books) {
-            Object[] rowData = {book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(), book.getYear()};
-            tableModel.addRow(rowData);
+        tableModel.setBooks(books);
+    }
+
+    /**
+     * Runs a UI action and shows a dialog if the database could not be reached, instead of
+     * letting the failure escape to the event dispatch thread.
+     *
+     * @param action The action, typically a button handler.
+     */
+    private void runAction(Runnable action) {
+        try {
+            action.run();
+        } catch (DataAccessException e) {
+            JOptionPane.showMessageDialog(this, "The database is not available right now. Please try again in a moment.\n\n"
+                    + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -254,34 +346,39 @@ public class BookManagementView extends JFrame {
      * Adds action listeners for book management buttons.
      */
     private void addBookListeners() {
-        addButton.addActionListener(e -> addBook());
-        updateButton.addActionListener(e -> updateBook());
-        deleteButton.addActionListener(e -> deleteBook());
+        addButton.addActionListener(e -> runAction(this::addBook));
+        updateButton.addActionListener(e -> runAction(this::updateBook));
+        deleteButton.addActionListener(e -> runAction(this::deleteBook));
         clearButton.addActionListener(e -> clearBookForm());
     }
 
     /**
-     * Adds action listeners for search buttons.
+     * Adds action listeners for search buttons, and suggestions to the title and author search fields.
      */
     private void addSearchListeners() {
-        searchButton.addActionListener(e -> searchBooksByTitle());
-        advancedSearchButton.addActionListener(e -> advancedSearchBooks());
-        clearSearchButton.addActionListener(e -> clearSearchForm());
+        searchButton.addActionListener(e -> runAction(this::searchBooksByTitle));
+        advancedSearchButton.addActionListener(e -> runAction(this::advancedSearchBooks));
+        clearSearchButton.addActionListener(e -> runAction(this::clearSearchForm));
+        if (bookDAO instanceof SearchIndexingBookDAO indexingBookDAO && indexingBookDAO.hasSuggestions()) {
+            // Answered from memory on each keystroke, never from the database
+            SuggestionPopup.attach(searchTitleField, typed -> indexingBookDAO.suggestTitles(typed, SUGGESTIONS_LIMIT));
+            SuggestionPopup.attach(searchAuthorField, typed -> indexingBookDAO.suggestAuthors(typed, SUGGESTIONS_LIMIT));
+        }
     }
 
     /**
      * Adds action listeners for category management buttons.
      */
     private void addCategoryListeners() {
-        addCategoryButton.addActionListener(e -> addCategory());
-        updateCategoryButton.addActionListener(e -> updateCategory());
-        deleteCategoryButton.addActionListener(e -> deleteCategory());
+        addCategoryButton.addActionListener(e -> runAction(this::addCategory));
+        updateCategoryButton.addActionListener(e -> runAction(this::updateCategory));
+        deleteCategoryButton.addActionListener(e -> runAction(this::deleteCategory));
         categoryList.addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && categoryList.getSelectedValue() != null) {
-                String selectedItem = categoryList.getSelectedValue();
-                // Extract category name from "Name (ID: X)" format
-                String categoryName = selectedItem.substring(0, selectedItem.lastIndexOf(" (ID:"));
-                categoryNameField.setText(categoryName);
+                editedCategory = listedCategories.get(categoryList.getSelectedIndex());
+                categoryNameField.setText(editedCategory.getName());
+                Category parent = categoryTree.get(editedCategory.getParentId());
+                parentCategoryComboBox.setSelectedItem(parent != null ? parent.getName() : NO_PARENT);
             }
         });
     }
@@ -292,21 +389,28 @@ public class BookManagementView extends JFrame {
     private void addTableSelectionListener() {
         bookTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && bookTable.getSelectedRow() != -1) {
-                int selectedRow = bookTable.getSelectedRow();
-                bookIdField.setText(tableModel.getValueAt(selectedRow, 0).toString());
-                bookTitleField.setText(tableModel.getValueAt(selectedRow, 1).toString());
-                bookAuthorField.setText(tableModel.getValueAt(selectedRow, 2).toString());
-                // Set the correct category in the combobox
-                int categoryId = (int) tableModel.getValueAt(selectedRow, 3);
-                Category selectedCategory = categoryDAO.getCategoryById(categoryId);
-                if (selectedCategory != null) {
-                    bookCategoryComboBox.setSelectedItem(selectedCategory.getName());
-                }
-                bookYearField.setText(tableModel.getValueAt(selectedRow, 4).toString());
+                runAction(() -> showBookInForm(tableModel.getBookAt(bookTable.getSelectedRow())));
             }
         });
     }
 
+    /**
+     * Fills the book form with a book and remembers it as the base of the next update.
+     * @param book The book to edit.
+     */
+    private void showBookInForm(Book book) {
+        editedBook = book;
+        bookIdField.setText(book.getId());
+        bookTitleField.setText(book.getTitle());
+        bookAuthorField.setText(book.getAuthor());
+        // Set the correct category in the combobox
+        Category selectedCategory = categoryDAO.getCategoryById(book.getCategory());
+        if (selectedCategory != null) {
+            bookCategoryComboBox.setSelectedItem(selectedCategory.getName());
+        }
+        bookYearField.setText(String.valueOf(book.getYear()));
+    }
+
     /**
      * Method to add a new book.
      */
@@ -353,6 +457,10 @@ public class BookManagementView extends JFrame {
 
         Book newBook = new Book(id, title, author, categoryId, year);
 
+        if (!confirmNotDuplicate(newBook)) {
+            return;
+        }
+
         if (bookDAO.addBook(newBook)) {
             JOptionPane.showMessageDialog(this, "Book added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             populateBookTable(bookDAO.getAllBooks()); // Refresh table
@@ -362,6 +470,33 @@ public class BookManagementView extends JFrame {
         }
     }
 
+    /**
+     * Warns if a book about to be added looks like one already in the catalog (a title and author
+     * entered again with small differences), using the in-memory duplicate index.
+     *
+     * @param newBook The book about to be added.
+     * @return true if the book should be added: no likely duplicate was found, or the user chose to add it anyway.
+     */
+    private boolean confirmNotDuplicate(Book newBook) {
+        if (!(bookDAO instanceof SearchIndexingBookDAO searchIndex) || !searchIndex.hasDuplicateCheck()) {
+            return true;
+        }
+        List<FuzzyMatch> duplicates = searchIndex.findPossibleDuplicates(newBook, DUPLICATES_LIMIT);
+        if (duplicates.isEmpty()) {
+            return true;
+        }
+        StringBuilder message = new StringBuilder("This book may already be in the catalog:\n");
+        for (FuzzyMatch match : duplicates) {
+            Book existing = match.getBook();
+            message.append(String.format("\n%s - %s by %s (%d%% similar)", existing.getId(), existing.getTitle(),
+                    existing.getAuthor(), Math.round(match.getScore() * 100)));
+        }
+        message.append("\n\nAdd it anyway?");
+        int confirm = JOptionPane.showConfirmDialog(this, message.toString(), "Possible Duplicate", JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE);
+        return confirm == JOptionPane.YES_OPTION;
+    }
+
     /**
      * Method to update an existing book.
      */
@@ -403,15 +538,99 @@ public class BookManagementView extends JFrame {
             return;
         }
 
-        Book updatedBook = new Book(id, title, author, categoryId, year);
-
-        if (bookDAO.updateBook(updatedBook)) {
-            JOptionPane.showMessageDialog(this, "Book updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            populateBookTable(bookDAO.getAllBooks()); // Refresh table
-            clearBookForm();
-        } else {
+        // The edit is based on the selected book, or on the stored one if the ID was typed in
+        Book base = editedBook != null && editedBook.getId().equals(id) ? editedBook : bookDAO.getBookById(id);
+        if (base == null) {
             JOptionPane.showMessageDialog(this, "Failed to update book. Make sure the ID exists.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        saveBook(base, new Book(id, title, author, categoryId, year, base.getVersion()));
+    }
+
+    /**
+     * Stores an edited book. If someone else changed the book since it was read, offers to merge
+     * both edits or to reload the stored book.
+     *
+     * @param base The book as it was read, before this user's edit.
+     * @param edited The edited book, carrying the version of base.
+     */
+    private void saveBook(Book base, Book edited) {
+        UpdateResult result = bookDAO.updateBook(edited);
+        switch (result) {
+            case UPDATED -> {
+                JOptionPane.showMessageDialog(this, "Book updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                populateBookTable(bookDAO.getAllBooks()); // Refresh table
+                clearBookForm();
+            }
+            case CONFLICT -> resolveBookConflict(base, edited);
+            case NOT_FOUND -> {
+                JOptionPane.showMessageDialog(this, "The book has been deleted by someone else.", "Error", JOptionPane.ERROR_MESSAGE);
+                populateBookTable(bookDAO.getAllBooks());
+                clearBookForm();
+            }
+            case REJECTED -> JOptionPane.showMessageDialog(this, "Failed to update book.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Handles an update that lost against someone else's. Merging takes every field from the side
+     * that changed it (three-way merge against the book as it was read); fields both changed
+     * differently keep this user's value.
+     */
+    private void resolveBookConflict(Book base, Book edited) {
+        Book stored = bookDAO.getBookById(edited.getId());
+        if (stored == null) {
+            saveBook(base, edited); // Deleted meanwhile; reported as NOT_FOUND
+            return;
         }
+        Book merged = new Book(edited.getId(),
+                merge(base.getTitle(), edited.getTitle(), stored.getTitle()),
+                merge(base.getAuthor(), edited.getAuthor(), stored.getAuthor()),
+                merge(base.getCategory(), edited.getCategory(), stored.getCategory()),
+                merge(base.getYear(), edited.getYear(), stored.getYear()),
+                stored.getVersion());
+        List<String> clashes = new ArrayList<>();
+        if (clashes(base.getTitle(), edited.getTitle(), stored.getTitle())) {
+            clashes.add("Title");
+        }
+        if (clashes(base.getAuthor(), edited.getAuthor(), stored.getAuthor())) {
+            clashes.add("Author");
+        }
+        if (clashes(base.getCategory(), edited.getCategory(), stored.getCategory())) {
+            clashes.add("Category");
+        }
+        if (clashes(base.getYear(), edited.getYear(), stored.getYear())) {
+            clashes.add("Year");
+        }
+
+        String message = "This book was changed by someone else while you were editing it.\n\n"
+                + (clashes.isEmpty()
+                    ? "Your changes and theirs can be merged."
+                    : "You both changed: " + String.join(", ", clashes) + ". Merging keeps your values for these.")
+                + "\n\nMerge: save both changes.\nReload: discard your changes and show the current book.";
+        Object[] options = {"Merge", "Reload", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this, message, "Edit Conflict", JOptionPane.YES_NO_CANCEL_OPTION,
+                JOptionPane.WARNING_MESSAGE, null, options, options[0]);
+        if (choice == 0) {
+            saveBook(stored, merged);
+        } else if (choice == 1) {
+            populateBookTable(bookDAO.getAllBooks());
+            showBookInForm(stored);
+        }
+    }
+
+    /**
+     * @return The value of whichever side changed it; this user's value if both did.
+     */
+    private static <T> T merge(T base, T mine, T theirs) {
+        return Objects.equals(mine, base) ? theirs : mine;
+    }
+
+    /**
+     * @return true if both sides changed the value, to different values.
+     */
+    private static <T> boolean clashes(T base, T mine, T theirs) {
+        return !Objects.equals(mine, base) && !Objects.equals(theirs, base) && !Objects.equals(mine, theirs);
     }
 
     /**
@@ -446,6 +665,7 @@ public class BookManagementView extends JFrame {
         bookYearField.setText("");
         bookCategoryComboBox.setSelectedIndex(0); // Select first item or default
         bookTable.clearSelection(); // Clear table selection
+        editedBook = null;
     }
 
     /**
@@ -459,7 +679,7 @@ public class BookManagementView extends JFrame {
         }
         List<Book> searchResults = bookDAO.searchBooksByTitle(title);
         populateBookTable(searchResults);
-        if (searchResults.isEmpty()) {
+        if (searchResults.isEmpty() && !showSimilarBooks(title, "", 0, false, 0, 0)) {
             JOptionPane.showMessageDialog(this, "No books found with that title.", "Search Result", JOptionPane.INFORMATION_MESSAGE);
         }
     }
@@ -503,13 +723,50 @@ public class BookManagementView extends JFrame {
             return;
         }
 
-        List<Book> searchResults = bookDAO.advancedSearch(title, author, categoryId, minYear, maxYear);
+        boolean includeSubcategories = searchSubcategoriesCheckBox.isSelected();
+        List<Book> searchResults = bookDAO.advancedSearch(title, author, categoryId, includeSubcategories, minYear, maxYear);
         populateBookTable(searchResults);
-        if (searchResults.isEmpty()) {
+        if (searchResults.isEmpty() && !showSimilarBooks(title, author, categoryId, includeSubcategories, minYear, maxYear)) {
             JOptionPane.showMessageDialog(this, "No books found matching the advanced search criteria.", "Search Result", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
+    /**
+     * After a search without results, lists the books whose title or author is close to what was
+     * entered (misspellings, missing accents), closest first. Needs the fuzzy search index.
+     *
+     * @param title The title searched for, or empty.
+     * @param author The author searched for, or empty.
+     * @param categoryId The category filter (0 if not used).
+     * @param includeSubcategories true if the category filter includes the category's subcategories.
+     * @param minYear The minimum year filter (0 if not used).
+     * @param maxYear The maximum year filter (0 if not used).
+     * @return true if similar books were found and listed.
+     */
+    private boolean showSimilarBooks(String title, String author, int categoryId, boolean includeSubcategories, int minYear, int maxYear) {
+        if (!(bookDAO instanceof SearchIndexingBookDAO indexingBookDAO) || !indexingBookDAO.hasFuzzySearch()) {
+            return false;
+        }
+        List<Book> similarBooks = new ArrayList<>();
+        for (FuzzyMatch match : indexingBookDAO.fuzzySearch(title, author, SIMILAR_BOOKS_LIMIT)) {
+            Book book = match.getBook();
+            // The fuzzy index only looks at title and author; the other filters still apply
+            if ((categoryId <= 0 || book.getCategory() == categoryId
+                    || (includeSubcategories && categoryTree.isInSubtree(book.getCategory(), categoryId)))
+                    && (minYear <= 0 || book.getYear() >= minYear)
+                    && (maxYear <= 0 || book.getYear() <= maxYear)) {
+                similarBooks.add(book);
+            }
+        }
+        if (similarBooks.isEmpty()) {
+            return false;
+        }
+        populateBookTable(similarBooks);
+        JOptionPane.showMessageDialog(this, "No exact matches. Showing " + similarBooks.size()
+                + " book(s) with a similar title or author, closest first.", "Search Result", JOptionPane.INFORMATION_MESSAGE);
+        return true;
+    }
+
     /**
      * Clears the search form fields and reloads all books.
      */
@@ -519,6 +776,7 @@ public class BookManagementView extends JFrame {
         searchMinYearField.setText("");
         searchMaxYearField.setText("");
         searchCategoryComboBox.setSelectedIndex(0); // Select "All Categories"
+        searchSubcategoriesCheckBox.setSelected(true);
         populateBookTable(bookDAO.getAllBooks()); // Reload all books
     }
 
@@ -538,7 +796,15 @@ public class BookManagementView extends JFrame {
             return;
         }
 
+        int parentId = selectedParentId();
+        if (parentId < 0) {
+            JOptionPane.showMessageDialog(this, "The selected parent category no longer exists.", "Input Error", JOptionPane.WARNING_MESSAGE);
+            populateCategoryComboBoxes();
+            return;
+        }
+
         Category newCategory = new Category(categoryName);
+        newCategory.setParentId(parentId);
         if (categoryDAO.addCategory(newCategory)) {
             JOptionPane.showMessageDialog(this, "Category added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             populateCategoryComboBoxes(); // Refresh category lists
@@ -583,13 +849,62 @@ public class BookManagementView extends JFrame {
         }
 
 
-        Category updatedCategory = new Category(categoryId, newCategoryName);
-        if (categoryDAO.updateCategory(updatedCategory)) {
+        int parentId = selectedParentId();
+        if (parentId < 0) {
+            JOptionPane.showMessageDialog(this, "The selected parent category no longer exists.", "Input Error", JOptionPane.WARNING_MESSAGE);
+            populateCategoryComboBoxes();
+            return;
+        }
+        if (parentId > 0 && categoryTree.isInSubtree(parentId, categoryId)) {
+            JOptionPane.showMessageDialog(this, "A category cannot be moved below itself or one of its subcategories.", "Input Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Category base = editedCategory != null && editedCategory.getId() == categoryId ? editedCategory : categoryDAO.getCategoryById(categoryId);
+        if (base == null) {
+            JOptionPane.showMessageDialog(this, "Failed to update category.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        saveCategory(new Category(categoryId, newCategoryName, parentId, base.getVersion()));
+    }
+
+    /**
+     * Stores a renamed category. If someone else renamed it since it was read, offers to
+     * overwrite their name or to reload it.
+     *
+     * @param edited The renamed category, carrying the version it was read with.
+     */
+    private void saveCategory(Category edited) {
+        UpdateResult result = categoryDAO.updateCategory(edited);
+        if (result.isUpdated()) {
             JOptionPane.showMessageDialog(this, "Category updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             populateCategoryComboBoxes(); // Refresh category lists
             categoryNameField.setText("");
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update category.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        Category stored = result == UpdateResult.CONFLICT ? categoryDAO.getCategoryById(edited.getId()) : null;
+        if (stored == null) {
+            JOptionPane.showMessageDialog(this, result == UpdateResult.REJECTED ? "Failed to update category."
+                    : "The category has been deleted by someone else.", "Error", JOptionPane.ERROR_MESSAGE);
+            populateCategoryComboBoxes();
+            return;
+        }
+
+        Object[] options = {"Overwrite", "Reload", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this, "This category was renamed to '" + stored.getName()
+                        + "' by someone else while you were editing it.\n\nOverwrite: save your name '" + edited.getName()
+                        + "' instead.\nReload: discard your change and show the current name.",
+                "Edit Conflict", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[0]);
+        if (choice == 0) {
+            edited.setVersion(stored.getVersion());
+            saveCategory(edited);
+        } else if (choice == 1) {
+            populateCategoryComboBoxes();
+            for (int i = 0; i < listedCategories.size(); i++) {
+                if (listedCategories.get(i).getId() == stored.getId()) {
+                    categoryList.setSelectedIndex(i); // Fills the name field and the edit base
+                }
+            }
         }
     }
 
@@ -614,6 +929,11 @@ public class BookManagementView extends JFrame {
             return;
         }
 
+        if (!categoryDAO.getSubcategories(categoryId).isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Cannot delete category: It has subcategories. Please move or delete them first.", "Deletion Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
         // Check if any books are associated with this category
         List<Book> booksInCategory = bookDAO.getBooksByCategory(categoryId);
         if (!booksInCategory.isEmpty()) {
@@ -623,7 +943,14 @@ public class BookManagementView extends JFrame {
 
         int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete this category?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            if (categoryDAO.deleteCategory(categoryId)) {
+            // Check again and delete in one serializable transaction, so no book can be added to the
+            // category in between (the delete would cascade to it); null means books were added meanwhile
+            int id = categoryId;
+            Boolean deleted = transactions.inTransaction(Connection.TRANSACTION_SERIALIZABLE, false,
+                    () -> bookDAO.getBooksByCategory(id).isEmpty() ? categoryDAO.deleteCategory(id) : null);
+            if (deleted == null) {
+                JOptionPane.showMessageDialog(this, "Cannot delete category: Books are associated with it. Please reassign or delete books first.", "Deletion Error", JOptionPane.WARNING_MESSAGE);
+            } else if (deleted) {
                 JOptionPane.showMessageDialog(this, "Category deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 populateCategoryComboBoxes(); // Refresh category lists
                 categoryNameField.setText("");
@@ -639,8 +966,7 @@ public class BookManagementView extends JFrame {
      * Regular users (or guests) can only search and view books.
      */
     private void applyRolePermissions() {
-        String role = authenticator.getCurrentUserRole();
-        boolean isAdmin = "ADMIN".equalsIgnoreCase(role);
+        boolean isAdmin = authenticator.hasRole(sessionToken, "ADMIN");
 
         // Book Management Buttons (Add, Update, Delete)
         addButton.setVisible(isAdmin);
@@ -660,6 +986,7 @@ public class BookManagementView extends JFrame {
         updateCategoryButton.setVisible(isAdmin);
         deleteCategoryButton.setVisible(isAdmin);
         categoryNameField.setEditable(isAdmin);
+        parentCategoryComboBox.setEnabled(isAdmin);
         categoryList.setEnabled(isAdmin); // Enable/disable selection for interaction
 
         // Adjust border title
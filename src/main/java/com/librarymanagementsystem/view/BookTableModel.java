@@ -0,0 +1,54 @@
+package com.librarymanagementsystem.view;
+
+import com.librarymanagementsystem.model.Book;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table model backing the book list in BookManagementView.
+ * Kept separate from the frame so it can be filled without a visible window
+ * (for example in headless benchmarks).
+ */
+public class BookTableModel extends DefaultTableModel {
+
+    private static final String[] COLUMN_NAMES = {"ID", "Title", "Author", "Category ID", "Year"};
+
+    private final List<Book> books = new ArrayList<>(); // The displayed books, row by row
+
+    /**
+     * Constructs an empty BookTableModel with the standard book columns.
+     */
+    public BookTableModel() {
+        super(COLUMN_NAMES, 0);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make cells non-editable
+    }
+
+    /**
+     * Replaces the table contents with the given list of books.
+     *
+     * @param books The list of books to display.
+     */
+    public void setBooks(List<Book> books) {
+        this.books.clear();
+        setRowCount(0); // Clear existing data
+        for (Book book : books) {
+            Object[] rowData = {book.getId(), book.getTitle(), book.getAuthor(), book.getCategory(), book.getYear()};
+            addRow(rowData);
+        }
+        this.books.addAll(books);
+    }
+
+    /**
+     * @param row The row index.
+     * @return The book shown in the row, as it was read (including its version).
+     */
+    public Book getBookAt(int row) {
+        return books.get(row);
+    }
+}
@@ -3,11 +3,16 @@ package com.librarymanagementsystem.view;
 import com.librarymanagementsystem.auth.UserAuthenticator;
 import com.librarymanagementsystem.dao.BookDAO;
 import com.librarymanagementsystem.dao.CategoryDAO;
+import com.librarymanagementsystem.dao.DataAccessException;
+import com.librarymanagementsystem.dao.TransactionRunner;
+import com.librarymanagementsystem.model.Category;
+import com.librarymanagementsystem.util.DatabaseSession;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.List;
 
 /**
  * The LoginView class represents the graphical user interface for user login.
@@ -18,12 +23,15 @@ public class LoginView extends JFrame {
     private final UserAuthenticator authenticator;
     private final BookDAO bookDAO;
     private final CategoryDAO categoryDAO;
+    private final TransactionRunner transactions;
 
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JButton loginButton;
     private JLabel messageLabel;
 
+    private List<Category> preloadedCategories; // Handed to BookManagementView after login, if loaded at startup
+
     /**
      * Constructs a new LoginView.
      *
@@ -33,9 +41,22 @@ public class LoginView extends JFrame {
      *
      */
     public LoginView(UserAuthenticator authenticator, BookDAO bookDAO, CategoryDAO categoryDAO) {
+        this(authenticator, bookDAO, categoryDAO, TransactionRunner.DIRECT);
+    }
+
+    /**
+     * Constructs a new LoginView whose BookManagementView runs multi-step changes in transactions.
+     *
+     * @param authenticator The UserAuthenticator instance to handle user authentication.
+     * @param bookDAO The BookDAO instance to pass to BookManagementView upon successful login.
+     * @param categoryDAO The CategoryDAO instance to pass to BookManagementView upon successful login.
+     * @param transactions The TransactionRunner of the same storage as the DAOs.
+     */
+    public LoginView(UserAuthenticator authenticator, BookDAO bookDAO, CategoryDAO categoryDAO, TransactionRunner transactions) {
         this.authenticator = authenticator;
         this.bookDAO = bookDAO;
         this.categoryDAO = categoryDAO;
+        this.transactions = transactions;
         initializeUI();
     }
 
@@ -105,16 +126,52 @@ public class LoginView extends JFrame {
         });
     }
 
+    /**
+     * Disables login while the application is still starting (connecting to the database,
+     * creating the default users). The fields stay editable, so the user can already type.
+     *
+     * @param message The status to show, e.g. "Connecting to the database...".
+     */
+    public void setStarting(String message) {
+        loginButton.setEnabled(false);
+        messageLabel.setForeground(Color.GRAY);
+        messageLabel.setText(message);
+    }
+
+    /**
+     * Enables login once startup has finished.
+     *
+     * @param categories The categories loaded during startup, or null if they were not loaded.
+     */
+    public void setReady(List<Category> categories) {
+        this.preloadedCategories = categories;
+        loginButton.setEnabled(true);
+        messageLabel.setForeground(Color.RED);
+        messageLabel.setText("");
+    }
+
     /**
      * Attempts to authenticate the user using the provided credentials.
      * Displays success or error messages to the user.
      * If successful, it closes the login window and opens the BookManagementView.
      */
     private void attemptLogin() {
+        if (!loginButton.isEnabled()) {
+            return; // Still starting; Enter in a field must not bypass the disabled button
+        }
         String username = usernameField.getText();
         String password = new String(passwordField.getPassword());
 
-        if (authenticator.authenticate(username, password)) {
+        String sessionToken;
+        try {
+            sessionToken = authenticator.authenticate(username, password);
+        } catch (DataAccessException e) {
+            messageLabel.setForeground(Color.RED);
+            messageLabel.setText("Database not available. Please try again.");
+            return;
+        }
+        if (sessionToken != null) {
+            DatabaseSession.setDefault(sessionToken); // Every thread of the client now works for this user
             messageLabel.setForeground(new Color(0, 128, 0));
             messageLabel.setText("Login successful!");
             JOptionPane.showMessageDialog(this, "Login successful!", "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -123,8 +180,8 @@ public class LoginView extends JFrame {
 
             // Open BookManagementView upon successful login
             SwingUtilities.invokeLater(() -> {
-                // Pass all necessary DAOs and authenticator to BookManagementView
-                BookManagementView bookManagementView = new BookManagementView(bookDAO, categoryDAO, authenticator);
+                // Pass all necessary DAOs, the authenticator and the new session to BookManagementView
+                BookManagementView bookManagementView = new BookManagementView(bookDAO, categoryDAO, transactions, authenticator, sessionToken, preloadedCategories);
                 bookManagementView.setVisible(true);
             });
 
@@ -0,0 +1,150 @@
+package com.librarymanagementsystem.view;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A drop-down list of suggestions under a text field, refreshed as the user types.
+ * Up and Down select a suggestion, Enter or a click puts it in the field, Escape closes the list.
+ * <p>
+ * Suggestions are asked for on the event dispatch thread on every change, so the source must
+ * answer from memory.
+ */
+public class SuggestionPopup {
+
+    private static final int VISIBLE_ROWS = 8;
+
+    private final JTextField field;
+    private final Function<String, List<String>> source;
+    private final JPopupMenu popup = new JPopupMenu();
+    private final DefaultListModel<String> listModel = new DefaultListModel<>();
+    private final JList<String> list = new JList<>(listModel);
+    private boolean accepting; // The field is being set to a chosen suggestion
+
+    private SuggestionPopup(JTextField field, Function<String, List<String>> source) {
+        this.field = field;
+        this.source = source;
+    }
+
+    /**
+     * Shows suggestions under a text field as the user types.
+     *
+     * @param field The text field.
+     * @param source Returns the suggestions for the text typed so far.
+     */
+    public static void attach(JTextField field, Function<String, List<String>> source) {
+        new SuggestionPopup(field, source).install();
+    }
+
+    private void install() {
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setVisibleRowCount(VISIBLE_ROWS);
+        list.setFocusable(false);
+        popup.setFocusable(false); // Typing stays in the field
+        popup.add(new JScrollPane(list));
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes only
+            }
+        });
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> select(list.getSelectedIndex() + 1);
+                    case KeyEvent.VK_UP -> select(list.getSelectedIndex() - 1);
+                    case KeyEvent.VK_ENTER -> {
+                        if (list.getSelectedValue() != null) {
+                            accept(list.getSelectedValue());
+                        } else {
+                            popup.setVisible(false);
+                        }
+                    }
+                    case KeyEvent.VK_ESCAPE -> popup.setVisible(false);
+                    default -> {
+                        return;
+                    }
+                }
+                e.consume();
+            }
+        });
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    accept(listModel.get(index));
+                }
+            }
+        });
+    }
+
+    private void textChanged() {
+        if (accepting) {
+            return;
+        }
+        // After the document has settled; the field's text is not final while it notifies
+        SwingUtilities.invokeLater(() -> {
+            String typed = field.getText();
+            List<String> suggestions = source.apply(typed);
+            if (suggestions.isEmpty() || !field.isShowing() || !field.hasFocus()
+                    || (suggestions.size() == 1 && suggestions.get(0).equalsIgnoreCase(typed.strip()))) {
+                popup.setVisible(false);
+                return;
+            }
+            listModel.clear();
+            listModel.addAll(suggestions);
+            list.setVisibleRowCount(Math.min(suggestions.size(), VISIBLE_ROWS));
+            popup.setPopupSize(Math.max(field.getWidth(), list.getPreferredScrollableViewportSize().width + 8),
+                    list.getPreferredScrollableViewportSize().height + 8);
+            popup.show(field, 0, field.getHeight()); // Also resizes a visible list to the new suggestions
+        });
+    }
+
+    private void select(int index) {
+        if (index >= 0 && index < listModel.size()) {
+            list.setSelectedIndex(index);
+            list.ensureIndexIsVisible(index);
+        }
+    }
+
+    private void accept(String suggestion) {
+        accepting = true;
+        try {
+            field.setText(suggestion);
+        } finally {
+            accepting = false;
+        }
+        popup.setVisible(false);
+    }
+}
@@ -0,0 +1,267 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.model.Category;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The behavior every BookDAO and CategoryDAO pair must have, whatever the storage. Each subclass
+ * opens an empty catalog in {@link #openCatalog()}, and the same cases run against it, so the
+ * storage backends cannot drift apart.
+ */
+abstract class CatalogDAOContractTest {
+
+    protected BookDAO bookDAO;
+    protected CategoryDAO categoryDAO;
+
+    private int fiction;
+    private int science;
+
+    /**
+     * Opens an empty catalog and sets {@link #bookDAO} and {@link #categoryDAO}.
+     */
+    protected abstract void openCatalog() throws Exception;
+
+    /**
+     * Closes what {@link #openCatalog()} opened.
+     */
+    protected abstract void closeCatalog() throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        openCatalog();
+        fiction = addCategory("Fiction", 0);
+        science = addCategory("Science", 0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeCatalog();
+    }
+
+    @Test
+    void addedBookIsReadBack() {
+        assertTrue(bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965)));
+
+        Book book = bookDAO.getBookById("B1");
+        assertNotNull(book);
+        assertEquals("Dune", book.getTitle());
+        assertEquals("Frank Herbert", book.getAuthor());
+        assertEquals(fiction, book.getCategory());
+        assertEquals(1965, book.getYear());
+        assertEquals(0, book.getVersion());
+        assertNull(bookDAO.getBookById("B2"));
+    }
+
+    @Test
+    void duplicateBookIdIsRejected() {
+        assertTrue(bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965)));
+        assertFalse(bookDAO.addBook(new Book("B1", "Emma", "Jane Austen", fiction, 1815)));
+        assertEquals("Dune", bookDAO.getBookById("B1").getTitle());
+    }
+
+    @Test
+    void updateWithStaleVersionConflicts() {
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965));
+        Book first = bookDAO.getBookById("B1");
+        Book second = bookDAO.getBookById("B1");
+
+        first.setTitle("Dune Messiah");
+        assertEquals(UpdateResult.UPDATED, bookDAO.updateBook(first));
+        assertEquals(1, first.getVersion());
+
+        second.setTitle("Children of Dune");
+        assertEquals(UpdateResult.CONFLICT, bookDAO.updateBook(second));
+        Book stored = bookDAO.getBookById("B1");
+        assertEquals("Dune Messiah", stored.getTitle());
+        assertEquals(1, stored.getVersion());
+
+        assertEquals(UpdateResult.NOT_FOUND, bookDAO.updateBook(new Book("B9", "Missing", "Nobody", fiction, 2000)));
+    }
+
+    @Test
+    void deletedBookIsGone() {
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965));
+
+        assertTrue(bookDAO.deleteBook("B1"));
+        assertNull(bookDAO.getBookById("B1"));
+        assertFalse(bookDAO.deleteBook("B1"));
+        assertTrue(bookDAO.getAllBooks().isEmpty());
+    }
+
+    @Test
+    void deletingCategoryDeletesItsBooks() {
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965));
+        bookDAO.addBook(new Book("B2", "Emma", "Jane Austen", fiction, 1815));
+        bookDAO.addBook(new Book("B3", "Cosmos", "Carl Sagan", science, 1980));
+
+        assertTrue(categoryDAO.deleteCategory(fiction));
+        assertNull(categoryDAO.getCategoryById(fiction));
+        assertNull(bookDAO.getBookById("B1"));
+        assertNull(bookDAO.getBookById("B2"));
+        assertEquals(Set.of("B3"), ids(bookDAO.getAllBooks()));
+    }
+
+    @Test
+    void categoryWithSubcategoriesIsNotDeleted() {
+        int sciFi = addCategory("Science Fiction", fiction);
+
+        assertFalse(categoryDAO.deleteCategory(fiction));
+        assertNotNull(categoryDAO.getCategoryById(fiction));
+        assertEquals(List.of(sciFi), categoryDAO.getSubcategories(fiction).stream().map(Category::getId).toList());
+    }
+
+    @Test
+    void categoryCannotMoveBelowItsOwnSubtree() {
+        int sciFi = addCategory("Science Fiction", fiction);
+        Category parent = categoryDAO.getCategoryById(fiction);
+
+        parent.setParentId(sciFi);
+        assertEquals(UpdateResult.REJECTED, categoryDAO.updateCategory(parent));
+        assertEquals(0, categoryDAO.getCategoryById(fiction).getParentId());
+    }
+
+    @Test
+    void categoryUpdateWithStaleVersionConflicts() {
+        Category first = categoryDAO.getCategoryById(fiction);
+        Category second = categoryDAO.getCategoryById(fiction);
+
+        first.setName("Novels");
+        assertEquals(UpdateResult.UPDATED, categoryDAO.updateCategory(first));
+        second.setName("Stories");
+        assertEquals(UpdateResult.CONFLICT, categoryDAO.updateCategory(second));
+        assertEquals("Novels", categoryDAO.getCategoryById(fiction).getName());
+    }
+
+    @Test
+    void duplicateCategoryNameIsRejected() {
+        assertFalse(categoryDAO.addCategory(new Category("Fiction")));
+        assertFalse(categoryDAO.addCategory(new Category("fiction")));
+
+        Category renamed = categoryDAO.getCategoryById(science);
+        renamed.setName("FICTION");
+        assertEquals(UpdateResult.REJECTED, categoryDAO.updateCategory(renamed));
+        assertEquals("Science", categoryDAO.getCategoryById(science).getName());
+        assertEquals(2, categoryDAO.getAllCategories().size());
+    }
+
+    @Test
+    void categoryNameRoundTripsAnyText() {
+        String name = "Ünïcödé \u0000 📚";
+        int id = addCategory(name, fiction);
+
+        Category category = categoryDAO.getCategoryById(id);
+        assertEquals(name, category.getName());
+        assertEquals(fiction, category.getParentId());
+        assertEquals(id, categoryDAO.getCategoryByName(name).getId());
+    }
+
+    @Test
+    void searchesMatchTitleAuthorCategoryAndYears() {
+        int sciFi = addCategory("Science Fiction", fiction);
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", sciFi, 1965));
+        bookDAO.addBook(new Book("B2", "Dune Messiah", "Frank Herbert", sciFi, 1969));
+        bookDAO.addBook(new Book("B3", "Emma", "Jane Austen", fiction, 1815));
+        bookDAO.addBook(new Book("B4", "Cosmos", "Carl Sagan", science, 1980));
+
+        assertEquals(Set.of("B1", "B2"), ids(bookDAO.searchBooksByTitle("dune")));
+        assertEquals(Set.of("B2"), ids(bookDAO.advancedSearch(null, "herbert", 0, 1966, 0)));
+        assertEquals(Set.of("B2", "B4"), ids(bookDAO.advancedSearch("", "", 0, 1966, 1990)));
+        assertEquals(Set.of("B3"), ids(bookDAO.getBooksByCategory(fiction)));
+        assertEquals(Set.of("B1", "B2", "B3"), ids(bookDAO.getBooksByCategory(fiction, true)));
+        assertEquals(Set.of("B1", "B2", "B3"), ids(bookDAO.advancedSearch(null, null, fiction, true, 0, 0)));
+        assertTrue(bookDAO.searchBooksByTitle("Foundation").isEmpty());
+    }
+
+    @Test
+    void changeFeedReturnsLatestStateSinceWatermark() {
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965));
+        bookDAO.addBook(new Book("B2", "Emma", "Jane Austen", fiction, 1815));
+        long watermark = bookDAO.getChangeWatermark();
+        assertTrue(bookDAO.getChangesSince(watermark, 100).isEmpty());
+
+        Book dune = bookDAO.getBookById("B1");
+        dune.setYear(1966);
+        bookDAO.updateBook(dune);
+        dune.setTitle("Dune (Revised)");
+        bookDAO.updateBook(dune);
+        bookDAO.deleteBook("B2");
+        bookDAO.addBook(new Book("B3", "Cosmos", "Carl Sagan", science, 1980));
+
+        BookChangeSet changes = bookDAO.getChangesSince(watermark, 100);
+        assertEquals(Set.of("B1", "B3"), ids(changes.getUpserts()));
+        assertEquals(List.of("B2"), changes.getDeletedIds());
+        Book changed = changes.getUpserts().stream().filter(book -> book.getId().equals("B1")).findFirst().orElseThrow();
+        assertEquals("Dune (Revised)", changed.getTitle());
+        assertEquals(1966, changed.getYear());
+        assertEquals(2, changed.getVersion());
+        assertFalse(changes.hasMore());
+        assertTrue(changes.getWatermark() > watermark);
+        assertEquals(changes.getWatermark(), bookDAO.getChangeWatermark());
+        assertTrue(bookDAO.getChangesSince(changes.getWatermark(), 100).isEmpty());
+    }
+
+    @Test
+    void changeFeedIsPagedByLimit() {
+        long watermark = bookDAO.getChangeWatermark();
+        for (int i = 0; i < 5; i++) {
+            bookDAO.addBook(new Book("B" + i, "Title " + i, "Author", fiction, 2000));
+        }
+
+        BookChangeSet first = bookDAO.getChangesSince(watermark, 3);
+        assertTrue(first.hasMore());
+        BookChangeSet rest = bookDAO.getChangesSince(first.getWatermark(), 3);
+        assertFalse(rest.hasMore());
+        assertEquals(Set.of("B0", "B1", "B2", "B3", "B4"),
+                Set.copyOf(Stream.concat(first.getUpserts().stream(), rest.getUpserts().stream())
+                        .map(Book::getId).toList()));
+    }
+
+    @Test
+    void changeFeedReportsBooksOfDeletedCategory() {
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965));
+        long watermark = bookDAO.getChangeWatermark();
+
+        categoryDAO.deleteCategory(fiction);
+
+        assertEquals(List.of("B1"), bookDAO.getChangesSince(watermark, 100).getDeletedIds());
+    }
+
+    @Test
+    void changeFeedContinuesFromReleasedWatermark() {
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", fiction, 1965));
+        bookDAO.deleteBook("B1");
+        long watermark = bookDAO.getChangeWatermark();
+
+        bookDAO.releaseChanges(watermark);
+        bookDAO.addBook(new Book("B2", "Emma", "Jane Austen", fiction, 1815));
+
+        BookChangeSet changes = bookDAO.getChangesSince(watermark, 100);
+        assertFalse(changes.isReloadRequired());
+        assertEquals(Set.of("B2"), ids(changes.getUpserts()));
+        assertTrue(changes.getDeletedIds().isEmpty());
+    }
+
+    private int addCategory(String name, int parentId) {
+        Category category = new Category(0, name, parentId, 0);
+        assertTrue(categoryDAO.addCategory(category));
+        return category.getId();
+    }
+
+    private static Set<String> ids(List<Book> books) {
+        return books.stream().map(Book::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,35 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.storage.LogStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Runs the DAO contract against LogStructuredBookDAO and LogStructuredCategoryDAO on a LogStore
+ * in a temporary directory.
+ */
+class LogStructuredDAOContractTest extends CatalogDAOContractTest {
+
+    private Path directory;
+    private LogStore store;
+
+    @Override
+    protected void openCatalog() throws Exception {
+        directory = Files.createTempDirectory("log-store-contract");
+        store = LogStore.openUnsynced(directory);
+        LogStructuredBookDAO logBookDAO = new LogStructuredBookDAO(store);
+        bookDAO = logBookDAO;
+        categoryDAO = new LogStructuredCategoryDAO(store, logBookDAO);
+    }
+
+    @Override
+    protected void closeCatalog() throws Exception {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.librarymanagementsystem.dao;
+
+import com.librarymanagementsystem.model.Book;
+import com.librarymanagementsystem.util.ConnectionManager;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the DAO contract against MySQLBookDAO and MySQLCategoryDAO on an embedded H2 database in
+ * MySQL mode, with the application's schema. IGNORECASE gives text the case-insensitive
+ * comparisons of MySQL's default collation.
+ */
+class MySQLDAOContractTest extends CatalogDAOContractTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private Connection keepAlive; // Holds the in-memory database open until the test ends
+    private ConnectionManager connectionManager;
+
+    @Override
+    protected void openCatalog() throws Exception {
+        String url = "jdbc:h2:mem:contract" + DATABASES.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;NON_KEYWORDS=YEAR,VALUE;DB_CLOSE_DELAY=-1";
+        keepAlive = DriverManager.getConnection(url, "sa", "");
+        MySQLSchema.create(keepAlive);
+        connectionManager = new ConnectionManager(url, "sa", "");
+        bookDAO = new MySQLBookDAO(connectionManager);
+        categoryDAO = new MySQLCategoryDAO(connectionManager);
+    }
+
+    @Override
+    protected void closeCatalog() throws Exception {
+        connectionManager.close();
+        try (var stmt = keepAlive.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    @Test
+    void watermarkBehindPrunedChangesRequiresReload() throws Exception {
+        int category = categoryDAO.getAllCategories().get(0).getId();
+        long start = bookDAO.getChangeWatermark();
+        bookDAO.addBook(new Book("B1", "Dune", "Frank Herbert", category, 1965));
+        bookDAO.addBook(new Book("B2", "Emma", "Jane Austen", category, 1815));
+        long released = bookDAO.getChangeWatermark();
+        bookDAO.addBook(new Book("B3", "Cosmos", "Carl Sagan", category, 1980));
+        try (PreparedStatement pstmt = keepAlive.prepareStatement("UPDATE catalog_changes SET changed_at = ?")) {
+            pstmt.setTimestamp(1, Timestamp.from(Instant.now().minus(MySQLChangeLog.RETENTION).minusSeconds(60)));
+            pstmt.executeUpdate();
+        }
+
+        bookDAO.releaseChanges(released);
+
+        for (long behind : new long[] {0, start, released - 1}) {
+            BookChangeSet changes = bookDAO.getChangesSince(behind, 100);
+            assertTrue(changes.isReloadRequired(), "watermark " + behind);
+            assertEquals(bookDAO.getChangeWatermark(), changes.getWatermark());
+        }
+        BookChangeSet changes = bookDAO.getChangesSince(released, 100);
+        assertFalse(changes.isReloadRequired());
+        assertEquals(List.of("B3"), changes.getUpserts().stream().map(Book::getId).toList());
+        assertFalse(bookDAO.getChangesSince(changes.getWatermark(), 100).isReloadRequired());
+    }
+}
@@ -0,0 +1,138 @@
+package com.librarymanagementsystem.storage;
+
+import com.librarymanagementsystem.storage.LogStore.Keyspace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the change listing of {@link LogStore} and how compaction keeps it: tombstones stay until
+ * no reader needs them, and the horizon they were dropped up to survives a restart.
+ */
+class LogStoreTest {
+
+    private Path directory;
+    private LogStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("log-store");
+        store = LogStore.openUnsynced(directory);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void changesAreListedOncePerKeyInSequenceOrder() {
+        store.put(Keyspace.BOOKS, "a", bytes("1"));
+        store.put(Keyspace.BOOKS, "b", bytes("1"));
+        long watermark = store.getLastSequence();
+        store.put(Keyspace.BOOKS, "a", bytes("2"));
+        store.put(Keyspace.CATEGORIES, "c", bytes("1"));
+        store.delete(Keyspace.BOOKS, "b");
+        store.put(Keyspace.BOOKS, "d", bytes("1"));
+        store.put(Keyspace.BOOKS, "a", bytes("3"));
+
+        List<LogStore.Change> changes = store.changesSince(Keyspace.BOOKS, watermark, 10);
+        assertEquals(List.of("b", "d", "a"), changes.stream().map(LogStore.Change::getKey).toList());
+        assertTrue(changes.get(0).isDeleted());
+        assertArrayEquals(bytes("3"), changes.get(2).getValue());
+        assertEquals(store.getLastSequence(), changes.get(2).getSequence());
+
+        List<LogStore.Change> first = store.changesSince(Keyspace.BOOKS, watermark, 2);
+        assertEquals(List.of("b", "d"), first.stream().map(LogStore.Change::getKey).toList());
+        assertEquals(List.of("a"), store.changesSince(Keyspace.BOOKS, first.get(1).getSequence(), 2)
+                .stream().map(LogStore.Change::getKey).toList());
+        assertTrue(store.changesSince(Keyspace.BOOKS, store.getLastSequence(), 10).isEmpty());
+    }
+
+    @Test
+    void compactionKeepsTombstonesUntilNoReaderNeedsThem() throws IOException {
+        store.put(Keyspace.BOOKS, "a", bytes("1"));
+        store.put(Keyspace.BOOKS, "b", bytes("1"));
+        store.delete(Keyspace.BOOKS, "a");
+        long reader = store.getLastSequence();
+        store.delete(Keyspace.BOOKS, "b");
+
+        store.compact();
+        assertEquals(0, store.getChangeHorizon());
+        assertEquals(List.of("a", "b"), store.changesSince(Keyspace.BOOKS, 0, 10)
+                .stream().map(LogStore.Change::getKey).toList());
+
+        store.retainChangesAfter(reader);
+        store.compact();
+        assertEquals(reader, store.getChangeHorizon());
+        List<LogStore.Change> changes = store.changesSince(Keyspace.BOOKS, reader, 10);
+        assertEquals(List.of("b"), changes.stream().map(LogStore.Change::getKey).toList());
+        assertTrue(changes.get(0).isDeleted());
+
+        // A key written again after its tombstone was dropped is an ordinary change
+        store.put(Keyspace.BOOKS, "a", bytes("2"));
+        assertEquals(List.of("b", "a"), store.changesSince(Keyspace.BOOKS, reader, 10)
+                .stream().map(LogStore.Change::getKey).toList());
+    }
+
+    @Test
+    void changeHorizonAndOrderSurviveRestart() throws IOException {
+        store.put(Keyspace.BOOKS, "a", bytes("1"));
+        store.delete(Keyspace.BOOKS, "a");
+        store.put(Keyspace.BOOKS, "b", bytes("1"));
+        long horizon = store.getLastSequence();
+        store.retainChangesAfter(horizon);
+        store.compact();
+        store.put(Keyspace.BOOKS, "b", bytes("2"));
+        store.put(Keyspace.BOOKS, "c", bytes("1"));
+        store.close();
+
+        store = LogStore.openUnsynced(directory);
+        assertEquals(horizon, store.getChangeHorizon());
+        assertNull(store.get(Keyspace.BOOKS, "a"));
+        assertEquals(List.of("b", "c"), store.changesSince(Keyspace.BOOKS, horizon, 10)
+                .stream().map(LogStore.Change::getKey).toList());
+    }
+
+    @Test
+    void sequenceDoesNotGoBackAfterTrailingTombstonesAreCompactedAway() throws IOException {
+        store.put(Keyspace.BOOKS, "a", bytes("1"));
+        store.put(Keyspace.BOOKS, "b", bytes("1"));
+        store.delete(Keyspace.BOOKS, "b");
+        long horizon = store.getLastSequence();
+        store.retainChangesAfter(horizon);
+        store.compact();
+        store.close();
+
+        store = LogStore.openUnsynced(directory);
+        assertEquals(horizon, store.getChangeHorizon());
+        assertEquals(horizon, store.getLastSequence());
+        assertTrue(store.changesSince(Keyspace.BOOKS, horizon, 10).isEmpty());
+
+        // New writes get numbers after the ones handed out before the restart
+        store.put(Keyspace.BOOKS, "c", bytes("1"));
+        List<LogStore.Change> changes = store.changesSince(Keyspace.BOOKS, horizon, 10);
+        assertEquals(List.of("c"), changes.stream().map(LogStore.Change::getKey).toList());
+        assertEquals(horizon + 1, changes.get(0).getSequence());
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,179 @@
+package com.librarymanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that {@link BulkValidator} decides every field the way {@link Validator} does, on records
+ * generated from a fixed seed: ISBNs, barcodes, usernames, e-mail addresses and years, mixed with
+ * blank text, Unicode text and texts just inside and outside the length limits. A failure names
+ * the record, so it can be reproduced from the seed.
+ */
+class BulkValidatorTest {
+
+    private static final long SEED = 20_240_611L;
+    private static final int RECORDS = 20_000;
+
+    private static final String[] EDGE_CASES = {
+            "", " ", "   ", "\t", "\n", "\r\n", "\u0000", "\u001F", " \u0000 ",
+            "\u00A0", "\u2003", "\u3000", "\uFEFF", // Spaces String.trim() keeps
+            "Ünïcödé", "日本語の本", "📚", "📚📚📚", "\uD83D", "é",
+    };
+
+    // Integers with non-ASCII digits and signs, both of which Integer.parseInt() accepts
+    private static final String[] YEAR_EDGE_CASES = {
+            "0", "-0", "+0", "-", "+", "+-1", "--1", "999", "1000", "0001000", "+1000", "-1000",
+            "2147483647", "2147483648", "-2147483648", "-2147483649", "99999999999999999999",
+            "١٩٨٤", "१९८४", "１９８４", "1984 ", " 1984", "19 84", "1984.0", "1e3", "0x7C0",
+    };
+
+    private final int currentYear = Year.now().getValue();
+    private final BulkValidator validator = new BulkValidator(currentYear);
+
+    @Test
+    void bulkValidatorAgreesWithValidator() {
+        Random random = new Random(SEED);
+        List<Function<Random, String>> generators = List.of(
+                BulkValidatorTest::isbn,
+                BulkValidatorTest::barcode,
+                BulkValidatorTest::username,
+                BulkValidatorTest::email,
+                this::year,
+                BulkValidatorTest::edgeCase,
+                BulkValidatorTest::boundaryLength);
+
+        StringBuilder text = new StringBuilder();
+        int[] bounds = new int[RECORDS * RecordBatch.FIELDS * 2];
+        for (int i = 0; i < bounds.length; i += 2) {
+            // Fields are placed by their bounds, so any character may be in them, separators included
+            bounds[i] = text.length();
+            text.append(generators.get(random.nextInt(generators.size())).apply(random));
+            bounds[i + 1] = text.length();
+            text.append('\t');
+        }
+        RecordBatch batch = new RecordBatch(text, bounds, RECORDS);
+        validator.validate(batch);
+
+        for (int record = 0; record < RECORDS; record++) {
+            int flags = batch.getViolations(record);
+            assertEquals(flags, validator.validateRecord(text, bounds, record * RecordBatch.FIELDS * 2));
+            String id = batch.field(record, RecordBatch.ID);
+            String title = batch.field(record, RecordBatch.TITLE);
+            String author = batch.field(record, RecordBatch.AUTHOR);
+            String category = batch.field(record, RecordBatch.CATEGORY);
+            String year = batch.field(record, RecordBatch.YEAR);
+            String at = "record " + record + " of seed " + SEED + ": " + BulkValidator.describe(flags);
+
+            assertEquals(Validator.isNullOrEmpty(id), has(flags, BulkValidator.ID_MISSING), at);
+            assertEquals(Validator.isValidBookId(id), !has(flags, BulkValidator.ID_MISSING | BulkValidator.ID_TOO_LONG), at);
+            // Barcodes and usernames have the rule of the book ID
+            assertEquals(Validator.isValidBarcode(id), Validator.isValidBookId(id), at);
+            assertEquals(Validator.isValidUsername(id), Validator.isValidBookId(id), at);
+            assertEquals(Validator.isNullOrEmpty(title), has(flags, BulkValidator.TITLE_MISSING), at);
+            assertEquals(Validator.isValidTitle(title), !has(flags, BulkValidator.TITLE_MISSING | BulkValidator.TITLE_TOO_LONG), at);
+            assertEquals(Validator.isNullOrEmpty(author), has(flags, BulkValidator.AUTHOR_MISSING), at);
+            assertEquals(Validator.isValidAuthor(author), !has(flags, BulkValidator.AUTHOR_MISSING | BulkValidator.AUTHOR_TOO_LONG), at);
+            assertEquals(Validator.isValidCategoryName(category), !has(flags, BulkValidator.CATEGORY_MISSING), at);
+            assertEquals(Validator.isValidInteger(year), !has(flags, BulkValidator.YEAR_NOT_A_NUMBER), at);
+            assertEquals(Validator.isValidYear(year), !has(flags, BulkValidator.YEAR_NOT_A_NUMBER | BulkValidator.YEAR_OUT_OF_RANGE), at);
+        }
+    }
+
+    @Test
+    void parallelValidationMatchesSequential() {
+        Random random = new Random(SEED);
+        List<RecordBatch> batches = new ArrayList<>();
+        List<RecordBatch> copies = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int record = 0; record < 500; record++) {
+                text.append(isbn(random)).append('\t').append(edgeCase(random)).append('\t')
+                        .append(email(random)).append('\t').append(username(random)).append('\t')
+                        .append(year(random)).append('\n');
+            }
+            batches.add(RecordBatch.parseDelimited(text, '\t'));
+            copies.add(RecordBatch.parseDelimited(text, '\t'));
+        }
+
+        long invalid = validator.validateAll(batches);
+
+        long expected = 0;
+        for (int i = 0; i < copies.size(); i++) {
+            expected += validator.validate(copies.get(i));
+            for (int record = 0; record < copies.get(i).size(); record++) {
+                assertEquals(copies.get(i).getViolations(record), batches.get(i).getViolations(record));
+            }
+        }
+        assertEquals(expected, invalid);
+    }
+
+    private static boolean has(int flags, int violations) {
+        return (flags & violations) != 0;
+    }
+
+    private static String isbn(Random random) {
+        StringBuilder isbn = new StringBuilder(random.nextBoolean() ? "978" : "979");
+        boolean hyphens = random.nextBoolean();
+        for (int i = 0; i < 10; i++) {
+            if (hyphens && (i == 1 || i == 4 || i == 9)) {
+                isbn.append('-');
+            }
+            isbn.append((char) ('0' + random.nextInt(10)));
+        }
+        return random.nextInt(10) == 0 ? "ISBN " + isbn : isbn.toString();
+    }
+
+    private static String barcode(Random random) {
+        return "C" + String.format("%0" + (1 + random.nextInt(60)) + "d", random.nextInt(Integer.MAX_VALUE));
+    }
+
+    private static String username(Random random) {
+        String[] alphabets = {"abcdefghijklmnopqrstuvwxyz0123456789_.", "çğıöşüÇĞİÖŞÜ", "ßæøåÆØÅ", "αβγδεζ"};
+        String alphabet = alphabets[random.nextInt(alphabets.length)];
+        return randomText(random, alphabet, 1 + random.nextInt(60));
+    }
+
+    private static String email(Random random) {
+        return username(random) + "@" + randomText(random, "abcdefghijklmnopqrstuvwxyz", 1 + random.nextInt(12))
+                + (random.nextBoolean() ? ".com" : ".edu.tr");
+    }
+
+    private String year(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> YEAR_EDGE_CASES[random.nextInt(YEAR_EDGE_CASES.length)];
+            case 1 -> Integer.toString(currentYear - 1 + random.nextInt(3));
+            case 2 -> Integer.toString(random.nextInt());
+            default -> Integer.toString(900 + random.nextInt(currentYear - 800));
+        };
+    }
+
+    private static String edgeCase(Random random) {
+        return EDGE_CASES[random.nextInt(EDGE_CASES.length)];
+    }
+
+    /**
+     * @return Text one character shorter than, as long as or one character longer than a limit of
+     *         {@link Validator}, sometimes with blanks around it.
+     */
+    private static String boundaryLength(Random random) {
+        int limit = random.nextBoolean() ? 50 : 255;
+        int length = limit - 1 + random.nextInt(3);
+        String text = randomText(random, "xyzÜ日 \t", length);
+        return random.nextInt(4) == 0 ? " " + text.substring(1) : text;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
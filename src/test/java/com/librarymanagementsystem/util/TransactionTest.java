@@ -0,0 +1,77 @@
+package com.librarymanagementsystem.util;
+
+import com.librarymanagementsystem.dao.JdbcExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a write rejected by a constraint inside a {@link Transaction} is undone as a whole,
+ * while the rest of the transaction commits, on an embedded H2 database in MySQL mode.
+ */
+class TransactionTest {
+
+    private static final String URL = "jdbc:h2:mem:transaction;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private Connection keepAlive; // Holds the in-memory database open until the test ends
+    private ConnectionManager connectionManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        keepAlive = DriverManager.getConnection(URL, "sa", "");
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("CREATE TABLE counters (id INT PRIMARY KEY, amount INT NOT NULL)");
+            stmt.execute("CREATE TABLE entries (id INT PRIMARY KEY)");
+            stmt.execute("INSERT INTO counters (id, amount) VALUES (1, 10)");
+            stmt.execute("INSERT INTO entries (id) VALUES (1)");
+        }
+        connectionManager = new ConnectionManager(URL, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connectionManager.close();
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    @Test
+    void rejectedWriteLeavesNoTrace() throws SQLException {
+        boolean[] results = connectionManager.inTransaction(Connection.TRANSACTION_READ_COMMITTED, false, () -> {
+            boolean first = connectionManager.executeWrite("Adding entry 2", conn -> addEntry(conn, 2));
+            // Decrements the counter, then violates the primary key: both must be undone
+            boolean second = connectionManager.executeWrite("Adding entry 1", conn -> addEntry(conn, 1));
+            return new boolean[] {first, second};
+        });
+
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertEquals(9, queryInt("SELECT amount FROM counters WHERE id = 1"));
+        assertEquals(2, queryInt("SELECT COUNT(*) FROM entries"));
+    }
+
+    private static boolean addEntry(Connection conn, int id) throws SQLException {
+        JdbcExecutor.execute(conn, "UPDATE counters SET amount = amount - 1 WHERE id = 1");
+        JdbcExecutor.execute(conn, "INSERT INTO entries (id) VALUES (?)", id);
+        return true;
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Statement stmt = keepAlive.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}